@@ -49,6 +49,20 @@ public interface ControlLoad extends Load {
      */
     long[] recent(int duration, TimeUnit unit);
 
+    /**
+     * Obtains the most recent metric values of the specified time duration,
+     * reduced to at most the given number of points, each the average of
+     * consecutive values.
+     *
+     * @param duration time duration
+     * @param unit     time unit
+     * @param points   maximum number of points
+     * @return a collection of the most recent metric values
+     */
+    default long[] recent(int duration, TimeUnit unit, int points) {
+        return recent(duration, unit);
+    }
+
     /**
      * Obtains all metrics.
      *
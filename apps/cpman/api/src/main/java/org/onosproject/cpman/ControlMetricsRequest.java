@@ -33,6 +33,7 @@ public class ControlMetricsRequest {
     private String resourceName;
     private int duration;
     private TimeUnit unit;
+    private int points;
 
     /**
      * Instantiates a new control metric request of the control metric type and
@@ -63,6 +64,23 @@ public class ControlMetricsRequest {
         this.unit = unit;
     }
 
+    /**
+     * Instantiates a new control metric request of the control metric type and
+     * device identifier with the given projected time range, whose recent
+     * values are reduced to the given number of points.
+     *
+     * @param type     control metric type
+     * @param duration projected time duration
+     * @param unit     projected time unit
+     * @param points   maximum number of recent values
+     * @param deviceId device identifier
+     */
+    public ControlMetricsRequest(ControlMetricType type, int duration, TimeUnit unit,
+                                 int points, Optional<DeviceId> deviceId) {
+        this(type, duration, unit, deviceId);
+        this.points = points;
+    }
+
     /**
      * Instantiates a new control metric request of the control metric type and
      * resource name.
@@ -92,6 +110,23 @@ public class ControlMetricsRequest {
         this.unit = unit;
     }
 
+    /**
+     * Instantiates a new control metric request of the control metric type and
+     * resource name with the given projected time range, whose recent values
+     * are reduced to the given number of points.
+     *
+     * @param type         control metric type
+     * @param duration     projected time duration
+     * @param unit         projected time unit
+     * @param points       maximum number of recent values
+     * @param resourceName resource name
+     */
+    public ControlMetricsRequest(ControlMetricType type, int duration, TimeUnit unit,
+                                 int points, String resourceName) {
+        this(type, duration, unit, resourceName);
+        this.points = points;
+    }
+
     /**
      * Obtains control metric type.
      *
@@ -137,9 +172,18 @@ public class ControlMetricsRequest {
         return unit;
     }
 
+    /**
+     * Obtains the maximum number of recent values.
+     *
+     * @return maximum number of recent values; 0 if they are not reduced
+     */
+    public int getPoints() {
+        return points;
+    }
+
     @Override
     public int hashCode() {
-        return Objects.hash(type, deviceId, resourceName, duration, unit.toString());
+        return Objects.hash(type, deviceId, resourceName, duration, unit.toString(), points);
     }
 
     @Override
@@ -153,7 +197,8 @@ public class ControlMetricsRequest {
                     Objects.equals(this.deviceId, other.deviceId) &&
                     Objects.equals(this.resourceName, other.resourceName) &&
                     Objects.equals(this.duration, other.duration) &&
-                    Objects.equals(this.unit, other.unit);
+                    Objects.equals(this.unit, other.unit) &&
+                    this.points == other.points;
         }
         return false;
     }
@@ -165,7 +210,8 @@ public class ControlMetricsRequest {
                 .add("type", type)
                 .add("resourceName", resourceName)
                 .add("duration", duration)
-                .add("timeUnit", unit);
+                .add("timeUnit", unit)
+                .add("points", points);
         if (deviceId != null) {
             helper.add("deviceId", deviceId.get());
         }
@@ -158,6 +158,50 @@ public interface ControlPlaneMonitorService {
                 TIMEOUT_MILLIS, TimeUnit.MILLISECONDS, null);
     }
 
+    /**
+     * Obtains snapshot of control plane load of a specific device with the
+     * projected range, whose recent values are reduced to at most the given
+     * number of points.
+     *
+     * @param nodeId   node identifier
+     * @param type     control metric type
+     * @param duration projected duration
+     * @param unit     projected time unit
+     * @param points   maximum number of recent values
+     * @param deviceId device identifier
+     * @return completable future object of control load snapshot
+     */
+    default CompletableFuture<ControlLoadSnapshot> getLoad(NodeId nodeId,
+                                                           ControlMetricType type,
+                                                           int duration, TimeUnit unit,
+                                                           int points,
+                                                           Optional<DeviceId> deviceId) {
+        return getLoad(nodeId, type, duration, unit, deviceId);
+    }
+
+    /**
+     * Synchronous version of getLoad.
+     * Obtains snapshot of control plane load of a specific device with the
+     * projected range, whose recent values are reduced to at most the given
+     * number of points.
+     *
+     * @param nodeId   node identifier
+     * @param type     control metric type
+     * @param duration projected duration
+     * @param unit     projected time unit
+     * @param points   maximum number of recent values
+     * @param deviceId device identifier
+     * @return control load snapshot
+     */
+    default ControlLoadSnapshot getLoadSync(NodeId nodeId,
+                                            ControlMetricType type,
+                                            int duration, TimeUnit unit,
+                                            int points,
+                                            Optional<DeviceId> deviceId) {
+        return Tools.futureGetOrElse(getLoad(nodeId, type, duration, unit, points, deviceId),
+                TIMEOUT_MILLIS, TimeUnit.MILLISECONDS, null);
+    }
+
     /**
      * Obtains snapshot of control plane load of a specific resource with the
      * projected range.
@@ -194,6 +238,50 @@ public interface ControlPlaneMonitorService {
                 TIMEOUT_MILLIS, TimeUnit.MILLISECONDS, null);
     }
 
+    /**
+     * Obtains snapshot of control plane load of a specific resource with the
+     * projected range, whose recent values are reduced to at most the given
+     * number of points.
+     *
+     * @param nodeId       node identifier
+     * @param type         control metric type
+     * @param duration     projected duration
+     * @param unit         projected time unit
+     * @param points       maximum number of recent values
+     * @param resourceName resource name
+     * @return completable future object of control load snapshot
+     */
+    default CompletableFuture<ControlLoadSnapshot> getLoad(NodeId nodeId,
+                                                           ControlMetricType type,
+                                                           int duration, TimeUnit unit,
+                                                           int points,
+                                                           String resourceName) {
+        return getLoad(nodeId, type, duration, unit, resourceName);
+    }
+
+    /**
+     * Synchronous version of getLoad.
+     * Obtains snapshot of control plane load of a specific resource with the
+     * projected range, whose recent values are reduced to at most the given
+     * number of points.
+     *
+     * @param nodeId       node identifier
+     * @param type         control metric type
+     * @param duration     projected duration
+     * @param unit         projected time unit
+     * @param points       maximum number of recent values
+     * @param resourceName resource name
+     * @return control load snapshot
+     */
+    default ControlLoadSnapshot getLoadSync(NodeId nodeId,
+                                            ControlMetricType type,
+                                            int duration, TimeUnit unit,
+                                            int points,
+                                            String resourceName) {
+        return Tools.futureGetOrElse(getLoad(nodeId, type, duration, unit, points, resourceName),
+                TIMEOUT_MILLIS, TimeUnit.MILLISECONDS, null);
+    }
+
     /**
      * Obtains a list of names of available resources.
      *
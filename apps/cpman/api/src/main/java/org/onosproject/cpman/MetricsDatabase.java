@@ -123,6 +123,19 @@ public interface MetricsDatabase {
      */
     double[] metrics(String metricType, long startTime, long endTime);
 
+    /**
+     * Returns a collection of metric values of a given metric type for
+     * a given period, downsampled to at most the given number of points,
+     * each averaging the values of consecutive steps.
+     *
+     * @param metricType    metric type
+     * @param startTime     start time
+     * @param endTime       end time
+     * @param points        maximum number of points
+     * @return a collection of metric value
+     */
+    double[] metrics(String metricType, long startTime, long endTime, int points);
+
     /**
      * Returns the latest metric update time.
      *
@@ -131,6 +144,12 @@ public interface MetricsDatabase {
      */
     long lastUpdate(String metricType);
 
+    /**
+     * Closes this database, releasing the storage it holds. Updates made
+     * afterwards are ignored, and queries are rejected.
+     */
+    void close();
+
     /**
      * A builder of MetricsDatabase.
      */
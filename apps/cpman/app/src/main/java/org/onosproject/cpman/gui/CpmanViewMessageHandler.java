@@ -139,7 +139,8 @@ public class CpmanViewMessageHandler extends UiMessageHandler {
             Map<ControlMetricType, Long[]> data = Maps.newHashMap();
             for (ControlMetricType cmt : CONTROL_MESSAGE_METRICS) {
                 ControlLoadSnapshot cls = cpms.getLoadSync(cs.getLocalNode().id(),
-                        cmt, NUM_OF_DATA_POINTS, TimeUnit.MINUTES, Optional.of(deviceId));
+                        cmt, NUM_OF_DATA_POINTS, TimeUnit.MINUTES, NUM_OF_DATA_POINTS,
+                        Optional.of(deviceId));
 
                 // TODO: in some cases, the number of returned data set is
                 // less than what we expected (expected -1)
@@ -38,6 +38,9 @@ import org.onosproject.cpman.ControlResource;
 import org.onosproject.cpman.ControlResourceRequest;
 import org.onosproject.cpman.MetricsDatabase;
 import org.onosproject.net.DeviceId;
+import org.onosproject.net.device.DeviceEvent;
+import org.onosproject.net.device.DeviceListener;
+import org.onosproject.net.device.DeviceService;
 import org.onosproject.store.cluster.messaging.ClusterCommunicationService;
 import org.onosproject.store.cluster.messaging.MessageSubject;
 import org.onosproject.store.serializers.KryoNamespaces;
@@ -80,6 +83,17 @@ public class ControlPlaneMonitor implements ControlPlaneMonitorService {
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected ClusterCommunicationService communicationService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected DeviceService deviceService;
+
+    private final DeviceListener deviceListener = new InternalDeviceListener();
+
+    // Control message metrics of the devices which reported during the
+    // current collection period, recorded together once all have reported
+    private final Map<MetricsDatabase, Map<String, Double>> pendingControlMessages =
+            Maps.newHashMap();
+    private long pendingSince;
+
     private static final String DEFAULT_RESOURCE = "default";
 
     private static final Set RESOURCE_TYPE_SET =
@@ -137,13 +151,27 @@ public class ControlPlaneMonitor implements ControlPlaneMonitorService {
         communicationService.<ControlResourceRequest, Set<String>>addSubscriber(CONTROL_RESOURCE,
                 SERIALIZER::decode, this::handleResourceRequest, SERIALIZER::encode);
 
+        deviceService.addListener(deviceListener);
+
         log.info("Started");
     }
 
     @Deactivate
     public void deactivate() {
+        deviceService.removeListener(deviceListener);
+
+        synchronized (pendingControlMessages) {
+            pendingControlMessages.clear();
+        }
+        cpuMetrics.close();
+        memoryMetrics.close();
+        controlMessageMap.values().forEach(MetricsDatabase::close);
+        controlMessageMap.clear();
+        diskMetricsMap.values().forEach(MetricsDatabase::close);
+        diskMetricsMap.clear();
+        networkMetricsMap.values().forEach(MetricsDatabase::close);
+        networkMetricsMap.clear();
 
-        // TODO: need to handle the mdb close.
         cpuBuf.clear();
         memoryBuf.clear();
         diskBuf.clear();
@@ -284,6 +312,22 @@ public class ControlPlaneMonitor implements ControlPlaneMonitorService {
         }
     }
 
+    @Override
+    public CompletableFuture<ControlLoadSnapshot> getLoad(NodeId nodeId,
+                                                          ControlMetricType type,
+                                                          int duration, TimeUnit unit,
+                                                          int points,
+                                                          Optional<DeviceId> deviceId) {
+        if (clusterService.getLocalNode().id().equals(nodeId)) {
+            return CompletableFuture.completedFuture(
+                    snapshot(getLocalLoad(type, deviceId), duration, unit, points));
+        } else {
+            return communicationService.sendAndReceive(
+                    new ControlMetricsRequest(type, duration, unit, points, deviceId),
+                    CONTROL_STATS, SERIALIZER::encode, SERIALIZER::decode, nodeId);
+        }
+    }
+
     @Override
     public CompletableFuture<ControlLoadSnapshot> getLoad(NodeId nodeId,
                                                           ControlMetricType type,
@@ -297,6 +341,22 @@ public class ControlPlaneMonitor implements ControlPlaneMonitorService {
         }
     }
 
+    @Override
+    public CompletableFuture<ControlLoadSnapshot> getLoad(NodeId nodeId,
+                                                          ControlMetricType type,
+                                                          int duration, TimeUnit unit,
+                                                          int points,
+                                                          String resourceName) {
+        if (clusterService.getLocalNode().id().equals(nodeId)) {
+            return CompletableFuture.completedFuture(
+                    snapshot(getLocalLoad(type, resourceName), duration, unit, points));
+        } else {
+            return communicationService.sendAndReceive(
+                    new ControlMetricsRequest(type, duration, unit, points, resourceName),
+                    CONTROL_STATS, SERIALIZER::encode, SERIALIZER::decode, nodeId);
+        }
+    }
+
     @Override
     public CompletableFuture<Set<String>> availableResources(NodeId nodeId,
                                                              Type resourceType) {
@@ -360,17 +420,58 @@ public class ControlPlaneMonitor implements ControlPlaneMonitorService {
 
     /**
      * Updates control message metrics with given metric map and device identifier.
+     * The metrics are held until every device has reported for the current
+     * collection period, or a device reports again, and are then recorded
+     * together.
      *
      * @param metricMap a metric map which is comprised of metric type and value
      * @param deviceId  device identifier
      */
     private void updateControlMessages(Map<ControlMetricType, Double> metricMap,
                                        DeviceId deviceId) {
-        if (!controlMessageMap.containsKey(deviceId)) {
-            controlMessageMap.put(deviceId, genMDbBuilder(deviceId.toString(),
-                    Type.CONTROL_MESSAGE, CONTROL_MESSAGE_METRICS));
+        MetricsDatabase mdb = controlMessageMap.computeIfAbsent(deviceId,
+                id -> genMDbBuilder(id.toString(), Type.CONTROL_MESSAGE, CONTROL_MESSAGE_METRICS));
+        synchronized (pendingControlMessages) {
+            if (pendingControlMessages.containsKey(mdb)) {
+                flushControlMessages();
+            }
+            if (pendingControlMessages.isEmpty()) {
+                pendingSince = System.currentTimeMillis() / 1000L;
+            }
+            pendingControlMessages.put(mdb, convertMap(metricMap));
+            if (pendingControlMessages.size() >= availableDeviceIdSet.size()) {
+                flushControlMessages();
+            }
+        }
+    }
+
+    /**
+     * Records the pending control message metrics.
+     */
+    private void flushControlMessages() {
+        synchronized (pendingControlMessages) {
+            if (!pendingControlMessages.isEmpty()) {
+                DefaultMetricsDatabase.updateAll(pendingControlMessages, pendingSince);
+                pendingControlMessages.clear();
+            }
+        }
+    }
+
+    /**
+     * Drops the control message metrics of a device which went away.
+     *
+     * @param deviceId device identifier
+     */
+    private void removeDevice(DeviceId deviceId) {
+        availableDeviceIdSet.remove(deviceId);
+        ctrlMsgBuf.remove(deviceId);
+        MetricsDatabase mdb = controlMessageMap.remove(deviceId);
+        if (mdb != null) {
+            synchronized (pendingControlMessages) {
+                pendingControlMessages.remove(mdb);
+            }
+            mdb.close();
         }
-        controlMessageMap.get(deviceId).updateMetrics(convertMap(metricMap));
     }
 
     /**
@@ -406,14 +507,14 @@ public class ControlPlaneMonitor implements ControlPlaneMonitorService {
             load = getLocalLoad(request.getType(), request.getDeviceId());
         }
 
-        long average;
-        if (request.getUnit() != null) {
-            average = load.average(request.getDuration(), request.getUnit());
+        ControlLoadSnapshot resp;
+        if (request.getUnit() == null) {
+            resp = snapshot(load);
+        } else if (request.getPoints() > 0) {
+            resp = snapshot(load, request.getDuration(), request.getUnit(), request.getPoints());
         } else {
-            average = load.average();
+            resp = snapshot(load, request.getDuration(), request.getUnit());
         }
-        ControlLoadSnapshot resp =
-                new ControlLoadSnapshot(load.latest(), average, load.time());
         return CompletableFuture.completedFuture(resp);
     }
 
@@ -526,6 +627,25 @@ public class ControlPlaneMonitor implements ControlPlaneMonitorService {
         return null;
     }
 
+    /**
+     * Returns a snapshot of control load with given projected time range,
+     * whose recent values are reduced to the given number of points.
+     *
+     * @param cl       control load
+     * @param duration projected time duration
+     * @param unit     projected time unit
+     * @param points   maximum number of recent values
+     * @return a snapshot of control load
+     */
+    private ControlLoadSnapshot snapshot(ControlLoad cl, int duration, TimeUnit unit,
+                                         int points) {
+        if (cl != null) {
+            return new ControlLoadSnapshot(cl.latest(), cl.average(duration, unit),
+                    cl.time(), cl.recent(duration, unit, points));
+        }
+        return null;
+    }
+
     /**
      * Returns local control load.
      *
@@ -536,6 +656,9 @@ public class ControlPlaneMonitor implements ControlPlaneMonitorService {
     private ControlLoad getLocalLoad(ControlMetricType type,
                                      Optional<DeviceId> deviceId) {
         if (deviceId.isPresent()) {
+            // metrics still held are read as well
+            flushControlMessages();
+
             // returns control message stats
             if (CONTROL_MESSAGE_METRICS.contains(type) &&
                     availableDeviceIdSet.contains(deviceId.get())) {
@@ -598,4 +721,17 @@ public class ControlPlaneMonitor implements ControlPlaneMonitorService {
         }
         return resources;
     }
+
+    private class InternalDeviceListener implements DeviceListener {
+
+        @Override
+        public boolean isRelevant(DeviceEvent event) {
+            return event.type() == DeviceEvent.Type.DEVICE_REMOVED;
+        }
+
+        @Override
+        public void event(DeviceEvent event) {
+            removeDevice(event.subject().id());
+        }
+    }
 }
@@ -78,6 +78,13 @@ public class DefaultControlLoad implements ControlLoad {
         return doubleToLong(mdb.recentMetrics(type.toString(), duration, unit));
     }
 
+    @Override
+    public long[] recent(int duration, TimeUnit unit, int points) {
+        long endTime = mdb.lastUpdate(type.toString());
+        long startTime = endTime - TimeUnit.SECONDS.convert(duration, unit);
+        return doubleToLong(mdb.metrics(type.toString(), startTime, endTime, points));
+    }
+
     @Override
     public long[] all() {
         return doubleToLong(mdb.metrics(type.toString()));
@@ -15,60 +15,91 @@
  */
 package org.onosproject.cpman.impl;
 
-import org.apache.commons.lang3.ArrayUtils;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
 import org.onosproject.cpman.MetricsDatabase;
-import org.rrd4j.ConsolFun;
-import org.rrd4j.DsType;
-import org.rrd4j.core.ArcDef;
-import org.rrd4j.core.DsDef;
-import org.rrd4j.core.FetchRequest;
-import org.rrd4j.core.RrdBackendFactory;
-import org.rrd4j.core.RrdDb;
-import org.rrd4j.core.RrdDef;
-import org.rrd4j.core.Sample;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
-import java.io.IOException;
-import java.util.ArrayList;
+
 import java.util.Arrays;
-import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.IntStream;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
 
 /**
  * An implementation of control plane metrics back-end database.
+ * <p>
+ * Databases of the same metric family share a single off-heap
+ * {@link MetricsBlock}, each holding a row of it for its resource; this keeps
+ * the footprint of per-device metrics flat instead of growing a round robin
+ * database, with its own buffers, per device. Closing a database releases
+ * its row; a block no longer holding any row is dropped along with its
+ * buffers.
+ * </p>
  */
 public final class DefaultMetricsDatabase implements MetricsDatabase {
-    private static final Logger log = LoggerFactory.getLogger(DefaultMetricsDatabase.class);
 
-    private String metricName;
-    private String resourceName;
-    private RrdDb rrdDb;
-    private Sample sample;
+    private static final Map<List<String>, MetricsBlock> BLOCKS = Maps.newConcurrentMap();
+
+    private final String metricName;
+    private final String resourceName;
+    private final List<String> blockKey;
+    private final MetricsBlock block;
+    private final int row;
+    private final AtomicBoolean closed = new AtomicBoolean();
     private static final long SECONDS_OF_DAY = 60L * 60L * 24L;
     private static final long SECONDS_OF_MINUTE = 60L;
-    private static final ConsolFun CONSOL_FUNCTION = ConsolFun.LAST;
     private static final String NON_EXIST_METRIC = "Non-existing metric type.";
     private static final String INSUFFICIENT_DURATION = "Given duration less than one minute.";
     private static final String EXCEEDED_DURATION = "Given duration exceeds a day time.";
+    private static final String CLOSED = "Metrics database is closed.";
 
     /**
      * Constructs a metrics database using the given metric name and
-     * round robin database.
+     * row of a metrics block.
      *
-     * @param metricName  metric name
-     * @param rrdDb       round robin database
+     * @param metricName   metric name
+     * @param resourceName resource name
+     * @param blockKey     key of the metrics block
+     * @param block        metrics block of the metric family
+     * @param row          row of the resource in the block
      */
-    private DefaultMetricsDatabase(String metricName, String resourceName, RrdDb rrdDb) {
+    private DefaultMetricsDatabase(String metricName, String resourceName,
+                                   List<String> blockKey, MetricsBlock block, int row) {
         this.metricName = metricName;
         this.resourceName = resourceName;
-        this.rrdDb = rrdDb;
+        this.blockKey = blockKey;
+        this.block = block;
+        this.row = row;
+    }
+
+    /**
+     * Updates the metrics of several databases at once, such as those of all
+     * the devices reporting during a collection period. Databases of the same
+     * metric family are updated together; closed databases are skipped.
+     *
+     * @param metrics metric values, keyed by metric type, for each database
+     * @param time    update time in seconds
+     */
+    public static void updateAll(Map<MetricsDatabase, Map<String, Double>> metrics,
+                                 long time) {
+        Map<MetricsBlock, Map<Integer, double[]>> samples = Maps.newHashMap();
+        metrics.forEach((mdb, values) -> {
+            checkArgument(mdb instanceof DefaultMetricsDatabase,
+                    "Unsupported metrics database");
+            DefaultMetricsDatabase db = (DefaultMetricsDatabase) mdb;
+            if (db.closed.get()) {
+                return;
+            }
+            samples.computeIfAbsent(db.block, b -> Maps.newHashMap())
+                    .put(db.row, db.sample(values));
+        });
+        samples.forEach((block, rows) -> block.update(time, rows));
     }
 
     @Override
@@ -88,14 +119,12 @@ public final class DefaultMetricsDatabase implements MetricsDatabase {
 
     @Override
     public void updateMetric(String metricType, double value, long time) {
-        try {
-            checkArgument(rrdDb.containsDs(metricType), NON_EXIST_METRIC);
-            sample = rrdDb.createSample(time);
-            sample.setValue(metricType, value);
-            sample.update();
-        } catch (IOException e) {
-            log.error("Failed to update metric value due to {}", e);
+        if (closed.get()) {
+            return;
         }
+        double[] sample = emptySample();
+        sample[typeIndex(metricType)] = value;
+        block.update(row, time, sample);
     }
 
     @Override
@@ -105,173 +134,119 @@ public final class DefaultMetricsDatabase implements MetricsDatabase {
 
     @Override
     public void updateMetrics(Map<String, Double> metrics, long time) {
-        try {
-            sample = rrdDb.createSample(time);
-            metrics.forEach((k, v) -> {
-                try {
-                    checkArgument(rrdDb.containsDs(k), NON_EXIST_METRIC);
-                    sample.setValue(k, v);
-                } catch (IOException e) {
-                    log.error("Failed to update metric value due to {}", e);
-                }
-            });
-            sample.update();
-        } catch (IOException e) {
-            log.error("Failed to update metric values due to {}", e);
+        if (closed.get()) {
+            return;
         }
+        block.update(row, time, sample(metrics));
     }
 
     @Override
     public double recentMetric(String metricType) {
-        try {
-            checkArgument(rrdDb.containsDs(metricType), NON_EXIST_METRIC);
-            return rrdDb.getDatasource(metricType).getLastValue();
-        } catch (IOException e) {
-            log.error("Failed to obtain metric value due to {}", e);
-            return 0D;
-        }
+        checkState(!closed.get(), CLOSED);
+        return block.latest(row, typeIndex(metricType));
     }
 
     @Override
     public double[] recentMetrics(String metricType, int duration, TimeUnit unit) {
-        try {
-            checkArgument(rrdDb.containsDs(metricType), NON_EXIST_METRIC);
-            long endTime = rrdDb.getLastUpdateTime();
-            long startTime = endTime - TimeUnit.SECONDS.convert(duration, unit);
-            if (checkTimeRange(startTime, endTime)) {
-                FetchRequest fr = rrdDb.createFetchRequest(CONSOL_FUNCTION, startTime, endTime);
-                return arrangeDataPoints(fr.fetchData().getValues(metricType));
-            } else {
-                log.warn("Data projection is out-of-range");
-                return new double[0];
-            }
-        } catch (IOException e) {
-            log.error("Failed to obtain metric values due to {}", e);
-            return new double[0];
-        }
+        checkState(!closed.get(), CLOSED);
+        int type = typeIndex(metricType);
+        long endTime = block.lastUpdate(row);
+        long startTime = endTime - TimeUnit.SECONDS.convert(duration, unit);
+        checkTimeRange(startTime, endTime);
+        return block.fetch(row, type, startTime, endTime);
     }
 
     @Override
     public double minMetric(String metricType) {
-        try {
-            checkArgument(rrdDb.containsDs(metricType), NON_EXIST_METRIC);
-            long endTime = rrdDb.getLastUpdateTime() - 1;
-            long startTime = endTime - SECONDS_OF_DAY + 1;
-            return minMetric(metricType, startTime, endTime);
-        } catch (IOException e) {
-            log.error("Failed to obtain metric value due to {}", e);
-            return 0D;
-        }
+        long endTime = block.lastUpdate(row);
+        long startTime = endTime - SECONDS_OF_DAY;
+        return Arrays.stream(metrics(metricType, startTime, endTime))
+                .filter(v -> !Double.isNaN(v)).min().orElse(Double.NaN);
     }
 
     @Override
     public double maxMetric(String metricType) {
-        try {
-            checkArgument(rrdDb.containsDs(metricType), NON_EXIST_METRIC);
-            long endTime = rrdDb.getLastUpdateTime();
-            long startTime = endTime - SECONDS_OF_DAY;
-            return maxMetric(metricType, startTime, endTime);
-        } catch (IOException e) {
-            log.error("Failed to obtain metric value due to {}", e);
-            return 0D;
-        }
+        long endTime = block.lastUpdate(row);
+        long startTime = endTime - SECONDS_OF_DAY;
+        return Arrays.stream(metrics(metricType, startTime, endTime))
+                .filter(v -> !Double.isNaN(v)).max().orElse(Double.NaN);
     }
 
     @Override
     public double[] metrics(String metricType) {
-        try {
-            checkArgument(rrdDb.containsDs(metricType), NON_EXIST_METRIC);
-            long endTime = rrdDb.getLastUpdateTime();
-            long startTime = endTime - SECONDS_OF_DAY;
-            return metrics(metricType, startTime, endTime);
-        } catch (IOException e) {
-            log.error("Failed to obtain metric values due to {}", e);
-            return new double[0];
-        }
+        long endTime = block.lastUpdate(row);
+        long startTime = endTime - SECONDS_OF_DAY;
+        return metrics(metricType, startTime, endTime);
     }
 
     @Override
     public double[] metrics(String metricType, long startTime, long endTime) {
-        try {
-            checkArgument(rrdDb.containsDs(metricType), NON_EXIST_METRIC);
-            if (checkTimeRange(startTime, endTime)) {
-                FetchRequest fr = rrdDb.createFetchRequest(CONSOL_FUNCTION, startTime, endTime);
-                return arrangeDataPoints(fr.fetchData().getValues(metricType));
-            } else {
-                log.warn("Data projection is out-of-range");
-                return new double[0];
-            }
-        } catch (IOException e) {
-            log.error("Failed to obtain metric values due to {}", e);
-            return new double[0];
-        }
+        checkState(!closed.get(), CLOSED);
+        int type = typeIndex(metricType);
+        checkTimeRange(startTime, endTime);
+        return block.fetch(row, type, startTime, endTime);
+    }
+
+    @Override
+    public double[] metrics(String metricType, long startTime, long endTime, int points) {
+        return MetricsBlock.downsample(metrics(metricType, startTime, endTime), points);
     }
 
     @Override
     public long lastUpdate(String metricType) {
-        try {
-            checkArgument(rrdDb.containsDs(metricType), NON_EXIST_METRIC);
-            return rrdDb.getLastUpdateTime();
-        } catch (IOException e) {
-            log.error("Failed to obtain last update time due to {}", e);
-            return 0L;
+        checkState(!closed.get(), CLOSED);
+        typeIndex(metricType);
+        return block.lastUpdate(row);
+    }
+
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            BLOCKS.computeIfPresent(blockKey, (k, b) -> b.release(resourceName) ? null : b);
         }
     }
 
     // try to check whether projected time range is within a day
-    private boolean checkTimeRange(long startTime, long endTime) {
+    private void checkTimeRange(long startTime, long endTime) {
         // check whether the given startTime and endTime larger than 1 minute
         checkArgument(endTime - startTime >= SECONDS_OF_MINUTE, INSUFFICIENT_DURATION);
 
         // check whether the given start time and endTime smaller than 1 day
         checkArgument(endTime - startTime <= SECONDS_OF_DAY, EXCEEDED_DURATION);
-        return true;
     }
 
-    // try to remove first and last data points
-    private double[] arrangeDataPoints(double[] data) {
-        return Arrays.copyOfRange(data, 1, data.length - 1);
+    // obtains the index of the given metric type in the block
+    private int typeIndex(String metricType) {
+        int type = block.typeIndex(metricType);
+        checkArgument(type >= 0, NON_EXIST_METRIC);
+        return type;
     }
 
-    // obtains maximum metric value among projected range
-    private double maxMetric(String metricType, long startTime, long endTime) {
-        double[] all = metrics(metricType, startTime, endTime);
-        List list = Arrays.asList(ArrayUtils.toObject(all));
-        return (double) Collections.max(list);
+    private double[] emptySample() {
+        double[] sample = new double[block.typeCount()];
+        Arrays.fill(sample, Double.NaN);
+        return sample;
     }
 
-    // obtains minimum metric value among projected range
-    private double minMetric(String metricType, long startTime, long endTime) {
-        double[] all = metrics(metricType, startTime, endTime);
-        List list = Arrays.asList(ArrayUtils.toObject(all));
-        return (double) Collections.min(list);
+    // converts a metric map into a sample indexed by metric type
+    private double[] sample(Map<String, Double> metrics) {
+        double[] sample = emptySample();
+        metrics.forEach((k, v) -> sample[typeIndex(k)] = v);
+        return sample;
     }
 
     public static final class Builder implements MetricsDatabase.Builder {
-        private static final int RESOLUTION_IN_SECOND = 60;
-        private static final String STORING_METHOD = "MEMORY";
-        private static final DsType SOURCE_TYPE = DsType.GAUGE;
-        private static final String DB_PATH = "CPMAN";
-        private static final ConsolFun CONSOL_FUNCTION = ConsolFun.LAST;
-        private static final double MIN_VALUE = 0;
-        private static final double MAX_VALUE = Double.NaN;
-        private static final double XFF_VALUE = 0.2;
-        private static final int STEP_VALUE = 1;
-        private static final int ROW_VALUE = 60 * 24;
         private static final String METRIC_NAME_MSG = "Must specify a metric name.";
         private static final String RESOURCE_NAME_MSG = "Must specify a resource name.";
         private static final String METRIC_TYPE_MSG = "Must supply at least a metric type.";
-        private static final String SPLITTER = "_";
 
-        private RrdDb rrdDb;
-        private RrdDef rrdDef;
-        private List<DsDef> dsDefs;
+        private final Set<String> metricTypes;
         private String metricName;
         private String resourceName;
 
         public Builder() {
-            // initialize data source definition list
-            dsDefs = new ArrayList<>();
+            // initialize metric type list
+            metricTypes = new LinkedHashSet<>();
         }
 
         @Override
@@ -288,7 +263,7 @@ public final class DefaultMetricsDatabase implements MetricsDatabase {
 
         @Override
         public Builder addMetricType(String metricType) {
-            dsDefs.add(defineSchema(metricType));
+            metricTypes.add(metricType);
             return this;
         }
 
@@ -296,36 +271,19 @@ public final class DefaultMetricsDatabase implements MetricsDatabase {
         public MetricsDatabase build() {
             checkNotNull(metricName, METRIC_NAME_MSG);
             checkNotNull(resourceName, RESOURCE_NAME_MSG);
-            checkArgument(!dsDefs.isEmpty(), METRIC_TYPE_MSG);
-
-            // define the resolution of monitored metrics
-            rrdDef = new RrdDef(DB_PATH + SPLITTER + metricName +
-                     SPLITTER + resourceName, RESOLUTION_IN_SECOND);
-
-            try {
-                DsDef[] dsDefArray = new DsDef[dsDefs.size()];
-                IntStream.range(0, dsDefs.size()).forEach(i -> dsDefArray[i] = dsDefs.get(i));
-
-                rrdDef.addDatasource(dsDefArray);
-                rrdDef.setStep(RESOLUTION_IN_SECOND);
-
-                // raw archive, no aggregation is required
-                ArcDef rawArchive = new ArcDef(CONSOL_FUNCTION, XFF_VALUE,
-                        STEP_VALUE, ROW_VALUE);
-                rrdDef.addArchive(rawArchive);
-
-                // always store the metric data in memory...
-                rrdDb = new RrdDb(rrdDef, RrdBackendFactory.getFactory(STORING_METHOD));
-            } catch (IOException e) {
-                log.warn("Failed to create a new round-robin database due to {}", e);
-            }
-
-            return new DefaultMetricsDatabase(metricName, resourceName, rrdDb);
-        }
+            checkArgument(!metricTypes.isEmpty(), METRIC_TYPE_MSG);
+
+            // all resources of a metric family share the block of the family
+            List<String> key = ImmutableList.<String>builder()
+                    .add(metricName).addAll(metricTypes).build();
+            int[] row = new int[1];
+            MetricsBlock block = BLOCKS.compute(key, (k, b) -> {
+                MetricsBlock family = b != null ? b : new MetricsBlock(ImmutableList.copyOf(metricTypes));
+                row[0] = family.register(resourceName, System.currentTimeMillis() / 1000L);
+                return family;
+            });
 
-        private DsDef defineSchema(String metricType) {
-            return new DsDef(metricType, SOURCE_TYPE, RESOLUTION_IN_SECOND,
-                    MIN_VALUE, MAX_VALUE);
+            return new DefaultMetricsDatabase(metricName, resourceName, key, block, row[0]);
         }
     }
 }
@@ -0,0 +1,346 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.cpman.impl;
+
+import com.google.common.collect.ImmutableMap;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Time-series store of a metric family, shared by all the resources which
+ * report the metrics of that family.
+ * <p>
+ * Each resource owns a row of the block, holding one ring of a day worth of
+ * one-minute steps per metric type. Values are kept off-heap in a single
+ * direct buffer, laid out column by column within each row, so that the
+ * values of a metric type of a resource are contiguous. Each step of a row
+ * is stamped with the minute it holds, which tells apart values still
+ * current from those left over from an earlier lap of the ring. Rows
+ * released by their resources are reused by those registering next.
+ * </p>
+ */
+final class MetricsBlock {
+
+    /**
+     * Length of a step, in seconds.
+     */
+    static final int STEP = 60;
+
+    /**
+     * Number of steps held, a day worth.
+     */
+    static final int STEPS = 60 * 24;
+
+    private static final int INITIAL_ROWS = 4;
+    private static final int EMPTY = Integer.MIN_VALUE;
+
+    private final Map<String, Integer> types;
+    private final Map<String, Integer> rows = new HashMap<>();
+    private final Deque<Integer> freeRows = new ArrayDeque<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Values, indexed by row, type and step
+    private DoubleBuffer values;
+    // Minute held by each step, indexed by row and step
+    private IntBuffer stamps;
+    // Time of the latest update of each row, in seconds
+    private long[] lastUpdates;
+    // Number of registrations holding each row
+    private int[] holders;
+    private int rowCount;
+
+    /**
+     * Creates a block holding the given metric types.
+     *
+     * @param metricTypes metric types
+     */
+    MetricsBlock(List<String> metricTypes) {
+        ImmutableMap.Builder<String, Integer> builder = ImmutableMap.builder();
+        for (int i = 0; i < metricTypes.size(); i++) {
+            builder.put(metricTypes.get(i), i);
+        }
+        this.types = builder.build();
+        allocate(INITIAL_ROWS);
+    }
+
+    /**
+     * Returns the index of the given metric type.
+     *
+     * @param metricType metric type
+     * @return type index, or -1 if the block does not hold the metric type
+     */
+    int typeIndex(String metricType) {
+        Integer index = types.get(metricType);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Returns the number of metric types held.
+     *
+     * @return number of metric types
+     */
+    int typeCount() {
+        return types.size();
+    }
+
+    /**
+     * Returns the row of the given resource, claiming a cleared one for it
+     * if it has none; a row already held keeps its series.
+     *
+     * @param resourceName resource name
+     * @param time         start time of the series, in seconds
+     * @return row index
+     */
+    int register(String resourceName, long time) {
+        lock.writeLock().lock();
+        try {
+            Integer row = rows.get(resourceName);
+            if (row == null) {
+                row = freeRows.poll();
+                if (row == null) {
+                    if (rowCount == lastUpdates.length) {
+                        allocate(rowCount * 2);
+                    }
+                    row = rowCount++;
+                }
+                rows.put(resourceName, row);
+                clear(row, time);
+            }
+            holders[row]++;
+            return row;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Releases a registration of the given resource; its row is freed once
+     * every registration is released.
+     *
+     * @param resourceName resource name
+     * @return true if no resource holds a row of the block anymore
+     */
+    boolean release(String resourceName) {
+        lock.writeLock().lock();
+        try {
+            Integer row = rows.get(resourceName);
+            if (row != null && --holders[row] == 0) {
+                rows.remove(resourceName);
+                freeRows.push(row);
+            }
+            return rows.isEmpty();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Records the values of a row at the given time. Types whose value is
+     * NaN are left unset for that step.
+     *
+     * @param row    row index
+     * @param time   time in seconds
+     * @param sample values indexed by type
+     */
+    void update(int row, long time, double[] sample) {
+        lock.writeLock().lock();
+        try {
+            write(row, time, sample);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Records the values of several rows at the same time, such as those of
+     * all the devices reporting during a collection period, at the cost of a
+     * single lock acquisition.
+     *
+     * @param time    time in seconds
+     * @param samples values indexed by type, for each row index
+     */
+    void update(long time, Map<Integer, double[]> samples) {
+        lock.writeLock().lock();
+        try {
+            samples.forEach((row, sample) -> write(row, time, sample));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the time of the latest update of a row.
+     *
+     * @param row row index
+     * @return time in seconds
+     */
+    long lastUpdate(int row) {
+        lock.readLock().lock();
+        try {
+            return lastUpdates[row];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the value of a metric type at the latest update of a row.
+     *
+     * @param row  row index
+     * @param type type index
+     * @return value, NaN if none was recorded
+     */
+    double latest(int row, int type) {
+        lock.readLock().lock();
+        try {
+            return read(row, type, Math.floorDiv(lastUpdates[row], STEP));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the values of a metric type of a row over the steps which end
+     * within the given range, start excluded, end included. Steps with no
+     * value recorded are NaN.
+     *
+     * @param row       row index
+     * @param type      type index
+     * @param startTime start of the range, in seconds
+     * @param endTime   end of the range, in seconds
+     * @return values, oldest first
+     */
+    double[] fetch(int row, int type, long startTime, long endTime) {
+        long first = Math.floorDiv(startTime, STEP) + 1;
+        long last = Math.floorDiv(endTime, STEP);
+        checkArgument(last - first < STEPS, "Range exceeds the steps held");
+
+        double[] data = new double[(int) Math.max(0, last - first + 1)];
+        lock.readLock().lock();
+        try {
+            for (int i = 0; i < data.length; i++) {
+                data[i] = read(row, type, first + i);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return data;
+    }
+
+    /**
+     * Reduces values to the given number of points, each the average of
+     * the values of consecutive steps, NaN values being left out.
+     *
+     * @param data   values
+     * @param points number of points
+     * @return downsampled values, or the values themselves if there are
+     * no more of them than points
+     */
+    static double[] downsample(double[] data, int points) {
+        checkArgument(points > 0, "Number of points must be positive");
+        if (data.length <= points) {
+            return data;
+        }
+        double[] sampled = new double[points];
+        for (int p = 0; p < points; p++) {
+            int from = (int) ((long) p * data.length / points);
+            int to = (int) ((long) (p + 1) * data.length / points);
+            sampled[p] = Arrays.stream(data, from, to)
+                    .filter(v -> !Double.isNaN(v)).average().orElse(Double.NaN);
+        }
+        return sampled;
+    }
+
+    // Stores a sample, unless the step now holds a later minute
+    private void write(int row, long time, double[] sample) {
+        checkArgument(sample.length == types.size(), "Sample size mismatch");
+        int minute = (int) Math.floorDiv(time, STEP);
+        int step = stampIndex(row, minute);
+        int stamp = stamps.get(step);
+        if (stamp != EMPTY && stamp > minute) {
+            return;
+        }
+        if (stamp != minute) {
+            // The step is reused; values of its previous lap go
+            for (int type = 0; type < types.size(); type++) {
+                values.put(valueIndex(row, type, minute), Double.NaN);
+            }
+            stamps.put(step, minute);
+        }
+        for (int type = 0; type < sample.length; type++) {
+            if (!Double.isNaN(sample[type])) {
+                values.put(valueIndex(row, type, minute), sample[type]);
+            }
+        }
+        lastUpdates[row] = Math.max(lastUpdates[row], time);
+    }
+
+    private double read(int row, int type, long minute) {
+        if (stamps.get(stampIndex(row, minute)) != minute) {
+            return Double.NaN;
+        }
+        return values.get(valueIndex(row, type, minute));
+    }
+
+    private void clear(int row, long time) {
+        for (int step = 0; step < STEPS; step++) {
+            stamps.put(row * STEPS + step, EMPTY);
+        }
+        lastUpdates[row] = time;
+    }
+
+    private int stampIndex(int row, long minute) {
+        return row * STEPS + (int) Math.floorMod(minute, STEPS);
+    }
+
+    private int valueIndex(int row, int type, long minute) {
+        return (row * types.size() + type) * STEPS + (int) Math.floorMod(minute, STEPS);
+    }
+
+    // Grows the buffers to hold the given number of rows
+    private void allocate(int capacity) {
+        long cells = (long) capacity * types.size() * STEPS;
+        checkState(cells * Double.BYTES <= Integer.MAX_VALUE, "Too many resources");
+
+        DoubleBuffer newValues = ByteBuffer.allocateDirect((int) cells * Double.BYTES).asDoubleBuffer();
+        IntBuffer newStamps = ByteBuffer.allocateDirect(capacity * STEPS * Integer.BYTES).asIntBuffer();
+        if (values != null) {
+            values.rewind();
+            stamps.rewind();
+            newValues.put(values);
+            newStamps.put(stamps);
+            newValues.rewind();
+            newStamps.rewind();
+        }
+        values = newValues;
+        stamps = newStamps;
+        lastUpdates = lastUpdates == null ? new long[capacity] : Arrays.copyOf(lastUpdates, capacity);
+        holders = holders == null ? new int[capacity] : Arrays.copyOf(holders, capacity);
+    }
+}
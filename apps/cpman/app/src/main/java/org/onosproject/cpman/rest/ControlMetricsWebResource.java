@@ -26,14 +26,17 @@ import org.onosproject.cpman.ControlPlaneMonitorService;
 import org.onosproject.net.DeviceId;
 import org.onosproject.rest.AbstractWebResource;
 
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import static org.onosproject.cpman.ControlResource.CONTROL_MESSAGE_METRICS;
 import static org.onosproject.cpman.ControlResource.CPU_METRICS;
@@ -59,13 +62,18 @@ public class ControlMetricsWebResource extends AbstractWebResource {
     /**
      * Returns control message metrics of all devices.
      *
+     * @param duration projected duration in minutes; 0 for the latest values
+     * @param points   maximum number of recent values; 0 for all values in
+     *                 the duration
      * @return array of all control message metrics
      * @onos.rsModel ControlMessageMetrics
      */
     @GET
     @Path("messages")
     @Produces(MediaType.APPLICATION_JSON)
-    public Response controlMessageMetrics() {
+    public Response controlMessageMetrics(
+            @QueryParam("duration") @DefaultValue("0") int duration,
+            @QueryParam("points") @DefaultValue("0") int points) {
 
         ArrayNode deviceNodes = root.putArray("devices");
         monitorService.availableResourcesSync(localNodeId, CONTROL_MESSAGE).forEach(name -> {
@@ -73,7 +81,7 @@ public class ControlMetricsWebResource extends AbstractWebResource {
             ObjectNode valueNode = mapper().createObjectNode();
 
             metricsStats(monitorService, localNodeId, CONTROL_MESSAGE_METRICS,
-                    DeviceId.deviceId(name), valueNode);
+                    DeviceId.deviceId(name), duration, points, valueNode);
             deviceNode.put("name", name);
             deviceNode.set("value", valueNode);
 
@@ -87,16 +95,22 @@ public class ControlMetricsWebResource extends AbstractWebResource {
      * Returns control message metrics of a given device.
      *
      * @param deviceId device identification
+     * @param duration projected duration in minutes; 0 for the latest values
+     * @param points   maximum number of recent values; 0 for all values in
+     *                 the duration
      * @return control message metrics of a given device
      * @onos.rsModel ControlMessageMetric
      */
     @GET
     @Produces(MediaType.APPLICATION_JSON)
     @Path("messages/{deviceId}")
-    public Response controlMessageMetrics(@PathParam("deviceId") String deviceId) {
+    public Response controlMessageMetrics(
+            @PathParam("deviceId") String deviceId,
+            @QueryParam("duration") @DefaultValue("0") int duration,
+            @QueryParam("points") @DefaultValue("0") int points) {
 
         metricsStats(monitorService, localNodeId, CONTROL_MESSAGE_METRICS,
-                DeviceId.deviceId(deviceId), root);
+                DeviceId.deviceId(deviceId), duration, points, root);
 
         return ok(root).build();
     }
@@ -104,50 +118,66 @@ public class ControlMetricsWebResource extends AbstractWebResource {
     /**
      * Returns cpu metrics.
      *
+     * @param duration projected duration in minutes; 0 for the latest values
+     * @param points   maximum number of recent values; 0 for all values in
+     *                 the duration
      * @return cpu metrics
      * @onos.rsModel CpuMetrics
      */
     @GET
     @Path("cpu_metrics")
     @Produces(MediaType.APPLICATION_JSON)
-    public Response cpuMetrics() {
+    public Response cpuMetrics(
+            @QueryParam("duration") @DefaultValue("0") int duration,
+            @QueryParam("points") @DefaultValue("0") int points) {
 
-        metricsStats(monitorService, localNodeId, CPU_METRICS, root);
+        metricsStats(monitorService, localNodeId, CPU_METRICS, duration, points, root);
         return ok(root).build();
     }
 
     /**
      * Returns memory metrics.
      *
+     * @param duration projected duration in minutes; 0 for the latest values
+     * @param points   maximum number of recent values; 0 for all values in
+     *                 the duration
      * @return memory metrics
      * @onos.rsModel MemoryMetrics
      */
     @GET
     @Path("memory_metrics")
     @Produces(MediaType.APPLICATION_JSON)
-    public Response memoryMetrics() {
+    public Response memoryMetrics(
+            @QueryParam("duration") @DefaultValue("0") int duration,
+            @QueryParam("points") @DefaultValue("0") int points) {
 
-        metricsStats(monitorService, localNodeId, MEMORY_METRICS, root);
+        metricsStats(monitorService, localNodeId, MEMORY_METRICS, duration, points, root);
         return ok(root).build();
     }
 
     /**
      * Returns disk metrics of all resources.
      *
+     * @param duration projected duration in minutes; 0 for the latest values
+     * @param points   maximum number of recent values; 0 for all values in
+     *                 the duration
      * @return disk metrics of all resources
      * @onos.rsModel DiskMetrics
      */
     @GET
     @Path("disk_metrics")
     @Produces(MediaType.APPLICATION_JSON)
-    public Response diskMetrics() {
+    public Response diskMetrics(
+            @QueryParam("duration") @DefaultValue("0") int duration,
+            @QueryParam("points") @DefaultValue("0") int points) {
 
         ArrayNode diskNodes = root.putArray("disks");
         monitorService.availableResourcesSync(localNodeId, DISK).forEach(name -> {
             ObjectNode diskNode = mapper().createObjectNode();
             ObjectNode valueNode = mapper().createObjectNode();
 
-            metricsStats(monitorService, localNodeId, DISK_METRICS, name, valueNode);
+            metricsStats(monitorService, localNodeId, DISK_METRICS, name,
+                    duration, points, valueNode);
             diskNode.put("name", name);
             diskNode.set("value", valueNode);
 
@@ -160,20 +190,26 @@ public class ControlMetricsWebResource extends AbstractWebResource {
     /**
      * Returns network metrics of all resources.
      *
+     * @param duration projected duration in minutes; 0 for the latest values
+     * @param points   maximum number of recent values; 0 for all values in
+     *                 the duration
      * @return network metrics of all resources
      * @onos.rsModel NetworkMetrics
      */
     @GET
     @Path("network_metrics")
     @Produces(MediaType.APPLICATION_JSON)
-    public Response networkMetrics() {
+    public Response networkMetrics(
+            @QueryParam("duration") @DefaultValue("0") int duration,
+            @QueryParam("points") @DefaultValue("0") int points) {
 
         ArrayNode networkNodes = root.putArray("networks");
         monitorService.availableResourcesSync(localNodeId, NETWORK).forEach(name -> {
             ObjectNode networkNode = mapper().createObjectNode();
             ObjectNode valueNode = mapper().createObjectNode();
 
-            metricsStats(monitorService, localNodeId, NETWORK_METRICS, name, valueNode);
+            metricsStats(monitorService, localNodeId, NETWORK_METRICS, name,
+                    duration, points, valueNode);
             networkNode.put("name", name);
             networkNode.set("value", valueNode);
 
@@ -186,32 +222,37 @@ public class ControlMetricsWebResource extends AbstractWebResource {
     /**
      * Returns a collection of control message stats.
      *
-     * @param service control plane monitoring service
-     * @param nodeId  node identification
-     * @param typeSet a set of control message types
-     * @param did     device identification
-     * @param node    object node
+     * @param service  control plane monitoring service
+     * @param nodeId   node identification
+     * @param typeSet  a set of control message types
+     * @param did      device identification
+     * @param duration projected duration in minutes
+     * @param points   maximum number of recent values
+     * @param node     object node
      * @return a collection of control message stats
      */
     private ArrayNode metricsStats(ControlPlaneMonitorService service,
                                    NodeId nodeId, Set<ControlMetricType> typeSet,
-                                   DeviceId did, ObjectNode node) {
-        return metricsStats(service, nodeId, typeSet, null, did, node);
+                                   DeviceId did, int duration, int points,
+                                   ObjectNode node) {
+        return metricsStats(service, nodeId, typeSet, null, did, duration, points, node);
     }
 
     /**
      * Returns a collection of system metric stats.
      *
-     * @param service control plane monitoring service
-     * @param nodeId  node identification
-     * @param typeSet a set of system metric types
-     * @param node    object node
+     * @param service  control plane monitoring service
+     * @param nodeId   node identification
+     * @param typeSet  a set of system metric types
+     * @param duration projected duration in minutes
+     * @param points   maximum number of recent values
+     * @param node     object node
      * @return a collection of system metric stats
      */
     private ArrayNode metricsStats(ControlPlaneMonitorService service,
                                    NodeId nodeId, Set<ControlMetricType> typeSet,
-                                   ObjectNode node) {
-        return metricsStats(service, nodeId, typeSet, null, null, node);
+                                   int duration, int points, ObjectNode node) {
+        return metricsStats(service, nodeId, typeSet, null, null, duration, points, node);
     }
 
     /**
@@ -221,43 +262,62 @@ public class ControlMetricsWebResource extends AbstractWebResource {
      * @param nodeId       node identification
      * @param typeSet      a set of control message types
      * @param resourceName device identification
+     * @param duration     projected duration in minutes
+     * @param points       maximum number of recent values
      * @param node         object node
      * @return a collection of system metric stats
      */
     private ArrayNode metricsStats(ControlPlaneMonitorService service,
                                    NodeId nodeId, Set<ControlMetricType> typeSet,
-                                   String resourceName, ObjectNode node) {
-        return metricsStats(service, nodeId, typeSet, resourceName, null, node);
+                                   String resourceName, int duration, int points,
+                                   ObjectNode node) {
+        return metricsStats(service, nodeId, typeSet, resourceName, null,
+                duration, points, node);
     }
 
     /**
      * Returns a collection of control loads of the given control metric types.
      *
-     * @param service control plane monitoring service
-     * @param nodeId  node identification
-     * @param typeSet a group of control metric types
-     * @param name    resource name
-     * @param did     device identification
+     * @param service  control plane monitoring service
+     * @param nodeId   node identification
+     * @param typeSet  a group of control metric types
+     * @param name     resource name
+     * @param did      device identification
+     * @param duration projected duration in minutes
+     * @param points   maximum number of recent values
      * @return a collection of control loads
      */
     private ArrayNode metricsStats(ControlPlaneMonitorService service,
                                    NodeId nodeId, Set<ControlMetricType> typeSet,
-                                   String name, DeviceId did, ObjectNode node) {
+                                   String name, DeviceId did, int duration, int points,
+                                   ObjectNode node) {
         ArrayNode metricsNode = node.putArray("metrics");
 
-        if (name == null && did == null) {
-            typeSet.forEach(type -> {
-                ControlLoadSnapshot cls = service.getLoadSync(nodeId, type, Optional.empty());
-                processRest(cls, type, metricsNode);
-            });
-        } else if (name == null) {
+        if (name == null) {
+            Optional<DeviceId> deviceId = Optional.ofNullable(did);
             typeSet.forEach(type -> {
-                ControlLoadSnapshot cls = service.getLoadSync(nodeId, type, Optional.of(did));
+                ControlLoadSnapshot cls;
+                if (duration <= 0) {
+                    cls = service.getLoadSync(nodeId, type, deviceId);
+                } else if (points <= 0) {
+                    cls = service.getLoadSync(nodeId, type, duration, TimeUnit.MINUTES, deviceId);
+                } else {
+                    cls = service.getLoadSync(nodeId, type, duration, TimeUnit.MINUTES,
+                            points, deviceId);
+                }
                 processRest(cls, type, metricsNode);
             });
         } else if (did == null) {
             typeSet.forEach(type -> {
-                ControlLoadSnapshot cls = service.getLoadSync(nodeId, type, name);
+                ControlLoadSnapshot cls;
+                if (duration <= 0) {
+                    cls = service.getLoadSync(nodeId, type, name);
+                } else if (points <= 0) {
+                    cls = service.getLoadSync(nodeId, type, duration, TimeUnit.MINUTES, name);
+                } else {
+                    cls = service.getLoadSync(nodeId, type, duration, TimeUnit.MINUTES,
+                            points, name);
+                }
                 processRest(cls, type, metricsNode);
             });
         }
@@ -16,6 +16,7 @@
 package org.onosproject.cpman.impl;
 
 import com.google.common.collect.ImmutableSet;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.onlab.packet.IpAddress;
@@ -25,20 +26,27 @@ import org.onosproject.cluster.NodeId;
 import org.onosproject.cpman.ControlMetric;
 import org.onosproject.cpman.ControlMetricType;
 import org.onosproject.cpman.MetricValue;
+import org.onosproject.net.Device;
 import org.onosproject.net.DeviceId;
+import org.onosproject.net.device.DeviceEvent;
+import org.onosproject.net.device.DeviceListener;
+import org.onosproject.net.device.DeviceServiceAdapter;
 import org.onosproject.store.cluster.messaging.ClusterCommunicationService;
 import org.onosproject.store.cluster.messaging.ClusterCommunicationServiceAdapter;
 
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import static org.easymock.EasyMock.anyObject;
 import static org.easymock.EasyMock.createMock;
 import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.replay;
 import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
+import static org.onosproject.net.NetTestTools.device;
 import static org.onosproject.cpman.ControlResource.CONTROL_MESSAGE_METRICS;
 import static org.onosproject.cpman.ControlResource.CPU_METRICS;
 import static org.onosproject.cpman.ControlResource.DISK_METRICS;
@@ -57,6 +65,7 @@ public class ControlPlaneMonitorTest {
     private ControllerNode mockControllerNode;
     private ClusterCommunicationService mockCommunicationService;
     private NodeId nodeId;
+    private DeviceListener deviceListener;
 
     /**
      * Sets up the services required by control plane monitor.
@@ -72,6 +81,12 @@ public class ControlPlaneMonitorTest {
         mockControllerNode = new MockControllerNode(nodeId);
         mockClusterService = createMock(ClusterService.class);
         monitor.clusterService = mockClusterService;
+        monitor.deviceService = new DeviceServiceAdapter() {
+            @Override
+            public void addListener(DeviceListener listener) {
+                deviceListener = listener;
+            }
+        };
 
         expect(mockClusterService.getNode(anyObject()))
                 .andReturn(mockControllerNode).anyTimes();
@@ -82,6 +97,14 @@ public class ControlPlaneMonitorTest {
         monitor.activate();
     }
 
+    /**
+     * Releases the metrics of the control plane monitor.
+     */
+    @After
+    public void tearDown() {
+        monitor.deactivate();
+    }
+
     /**
      * Mock class for a controller node.
      */
@@ -243,4 +266,55 @@ public class ControlPlaneMonitorTest {
         assertThat(monitor.availableResourcesSync(nodeId, Type.DISK), is(diskSet));
         assertThat(monitor.availableResourcesSync(nodeId, Type.NETWORK), is(networkSet));
     }
+
+    /**
+     * Tests that the recent control messages of a device are reduced to the
+     * requested number of points.
+     */
+    @Test
+    public void testDownsampledControlMessage() throws Exception {
+        MetricValue mv = new MetricValue.Builder().load(10).add();
+        DeviceId did = DeviceId.deviceId("of:0000000000000001");
+        CONTROL_MESSAGE_METRICS.forEach(cmt -> testUpdateMetricWithId(cmt, mv, did));
+
+        ControlMetricType cmt = CONTROL_MESSAGE_METRICS.iterator().next();
+        long[] recent = monitor.getLoad(nodeId, cmt, 20, TimeUnit.MINUTES, 5,
+                                        Optional.of(did)).get().recent();
+        assertThat(recent.length, is(5));
+        assertThat(recent[4], is(mv.getLoad()));
+    }
+
+    /**
+     * Tests that the recent metrics of a resource are reduced to the
+     * requested number of points.
+     */
+    @Test
+    public void testDownsampledResource() throws Exception {
+        MetricValue mv = new MetricValue.Builder().load(50).add();
+        DISK_METRICS.forEach(cmt -> testUpdateMetricWithResource(cmt, mv, "disk1"));
+
+        ControlMetricType cmt = DISK_METRICS.iterator().next();
+        long[] recent = monitor.getLoad(nodeId, cmt, 20, TimeUnit.MINUTES, 5,
+                                        "disk1").get().recent();
+        assertThat(recent.length, is(5));
+        assertThat(recent[4], is(mv.getLoad()));
+    }
+
+    /**
+     * Tests that the control messages of a removed device are dropped.
+     */
+    @Test
+    public void testDeviceRemoved() throws Exception {
+        MetricValue mv = new MetricValue.Builder().load(10).add();
+        Device device = device("1");
+        CONTROL_MESSAGE_METRICS.forEach(cmt -> testUpdateMetricWithId(cmt, mv, device.id()));
+        assertThat(monitor.availableResourcesSync(nodeId, Type.CONTROL_MESSAGE),
+                   is(ImmutableSet.of(device.id().toString())));
+
+        deviceListener.event(new DeviceEvent(DeviceEvent.Type.DEVICE_REMOVED, device));
+
+        assertThat(monitor.availableResourcesSync(nodeId, Type.CONTROL_MESSAGE).isEmpty(), is(true));
+        assertNull(monitor.getLoad(nodeId, CONTROL_MESSAGE_METRICS.iterator().next(),
+                                   Optional.of(device.id())).get());
+    }
 }
@@ -17,15 +17,17 @@ package org.onosproject.cpman.impl;
 
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
+import org.junit.After;
 import org.junit.Before;
-import org.junit.Ignore;
 import org.junit.Test;
 import org.onosproject.cpman.ControlMetricType;
 import org.onosproject.cpman.ControlResource;
 import org.onosproject.cpman.MetricsDatabase;
 import org.onosproject.net.DeviceId;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
@@ -46,6 +48,7 @@ public class MetricsDatabaseTest {
     private static final String MEMORY_FREE_PERC = "freePerc";
     private static final String MEMORY_USED_PERC = "usedPerc";
     private Map<DeviceId, MetricsDatabase> devMetricsMap;
+    private final List<MetricsDatabase> databases = new ArrayList<>();
 
     /**
      * Initializes metrics database instance.
@@ -57,6 +60,15 @@ public class MetricsDatabaseTest {
                 .withResourceName(DEFAULT_RES)
                 .addMetricType(CPU_LOAD)
                 .build();
+        databases.add(mdb);
+    }
+
+    /**
+     * Releases the databases of the test.
+     */
+    @After
+    public void tearDown() {
+        databases.forEach(MetricsDatabase::close);
     }
 
     /**
@@ -80,7 +92,6 @@ public class MetricsDatabaseTest {
      * Tests the metric range fetch function.
      */
     @Test
-    @Ignore("FIXME: in some cases it returns incorrect range result, known as RRD4J bug")
     public void testMetricRangeFetch() {
         // full range fetch
         assertThat(mdb.metrics(CPU_LOAD).length, is(60 * 24));
@@ -156,6 +167,7 @@ public class MetricsDatabaseTest {
                 devMetricsMap.put(dev, genMDbBuilder(type, ControlResource.CONTROL_MESSAGE_METRICS)
                         .withResourceName(dev.toString())
                         .build());
+                databases.add(devMetricsMap.get(dev));
             }
         });
 
@@ -180,6 +192,116 @@ public class MetricsDatabaseTest {
         );
     }
 
+    /**
+     * Tests downsampled range queries.
+     */
+    @Test
+    public void testDownsampledFetch() {
+        long endTime = mdb.lastUpdate(CPU_LOAD);
+        long startTime = endTime - 60 * 10;
+        for (int i = 0; i < 10; i++) {
+            mdb.updateMetric(CPU_LOAD, i, endTime - 60 * i);
+        }
+
+        // ten steps averaged two by two, oldest first
+        assertThat(mdb.metrics(CPU_LOAD, startTime, endTime, 5),
+                is(new double[]{8.5, 6.5, 4.5, 2.5, 0.5}));
+        assertThat(mdb.metrics(CPU_LOAD, startTime, endTime, 20).length, is(10));
+    }
+
+    /**
+     * Tests that values of an earlier day are not reported once the ring
+     * has wrapped around.
+     */
+    @Test
+    public void testRingWrapAround() {
+        long time = mdb.lastUpdate(CPU_LOAD);
+        mdb.updateMetric(CPU_LOAD, 10, time);
+        mdb.updateMetric(CPU_LOAD, 20, time + 60 * 60 * 24 + 60);
+
+        double[] day = mdb.metrics(CPU_LOAD);
+        assertThat(day.length, is(60 * 24));
+        assertThat(day[day.length - 1], is(20D));
+        assertThat(Double.isNaN(day[day.length - 2]), is(true));
+        assertThat(mdb.minMetric(CPU_LOAD), is(20D));
+    }
+
+    /**
+     * Tests bulk update of the metrics of several devices.
+     */
+    @Test
+    public void testBulkUpdate() {
+        Map<MetricsDatabase, Map<String, Double>> metrics = new HashMap<>();
+        for (int i = 0; i < 10; i++) {
+            MetricsDatabase db = genMDbBuilder(ControlResource.Type.CONTROL_MESSAGE,
+                    ControlResource.CONTROL_MESSAGE_METRICS)
+                    .withResourceName("of:" + i)
+                    .build();
+            databases.add(db);
+            Map<String, Double> values = new HashMap<>();
+            for (ControlMetricType type : ControlResource.CONTROL_MESSAGE_METRICS) {
+                values.put(type.toString(), (double) i);
+            }
+            metrics.put(db, values);
+        }
+
+        long time = System.currentTimeMillis() / 1000L;
+        DefaultMetricsDatabase.updateAll(metrics, time);
+
+        metrics.forEach((db, values) -> {
+            assertThat(db.lastUpdate(ControlMetricType.INBOUND_PACKET.toString()), is(time));
+            values.forEach((type, value) -> assertThat(db.recentMetric(type), is(value)));
+        });
+    }
+
+    /**
+     * Tests that registering a resource again keeps its series.
+     */
+    @Test
+    public void testRegisterAgain() {
+        mdb.updateMetric(CPU_LOAD, 10D);
+        MetricsDatabase again = cpuDatabase(DEFAULT_RES);
+        assertThat(again.recentMetric(CPU_LOAD), is(10D));
+
+        // the series stays until both databases are closed
+        again.close();
+        assertThat(mdb.recentMetric(CPU_LOAD), is(10D));
+    }
+
+    /**
+     * Tests that a closed database releases its row.
+     */
+    @Test
+    public void testClose() {
+        MetricsDatabase other = cpuDatabase("other");
+        other.updateMetric(CPU_LOAD, 10D);
+        other.close();
+        other.updateMetric(CPU_LOAD, 20D);
+
+        MetricsDatabase reopened = cpuDatabase("other");
+        assertThat(Double.isNaN(reopened.recentMetric(CPU_LOAD)), is(true));
+    }
+
+    /**
+     * Tests that a closed database rejects queries.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testQueryClosed() {
+        MetricsDatabase other = cpuDatabase("other");
+        other.close();
+        other.recentMetric(CPU_LOAD);
+    }
+
+    private MetricsDatabase cpuDatabase(String resourceName) {
+        MetricsDatabase db = new DefaultMetricsDatabase.Builder()
+                .withMetricName(CPU_METRIC)
+                .withResourceName(resourceName)
+                .addMetricType(CPU_LOAD)
+                .build();
+        databases.add(db);
+        return db;
+    }
+
     private MetricsDatabase.Builder genMDbBuilder(ControlResource.Type resourceType,
                                           Set<ControlMetricType> metricTypes) {
         MetricsDatabase.Builder builder = new DefaultMetricsDatabase.Builder();
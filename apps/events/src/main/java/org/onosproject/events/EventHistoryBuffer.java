@@ -0,0 +1,305 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.events;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.onosproject.event.Event;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Fixed-capacity ring buffer of the most recent events, in the order they
+ * were recorded. Recording an event takes constant time and no locks; once
+ * full, each event overwrites the oldest one.
+ * <p>
+ * Events are indexed by class and by subject: each record links to the
+ * previous record of the same class and of the same subject, so that the
+ * events of a class or subject are found without scanning the whole buffer.
+ * Events are assumed to be recorded mostly in the order of their time, which
+ * allows the start of a time range to be found by binary search.
+ * </p>
+ */
+final class EventHistoryBuffer {
+
+    private static final long NONE = -1;
+
+    // Longest time a reader waits for a record being written before
+    // skipping it
+    private static final long MAX_READ_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final int capacity;
+    private final Function<Event<?, ?>, Object> subjectKey;
+    private final AtomicReferenceArray<Record> slots;
+
+    // Sequence number of the next event to be recorded
+    private final AtomicLong sequence = new AtomicLong();
+    // Latest event time recorded so far
+    private final AtomicLong watermark = new AtomicLong(Long.MIN_VALUE);
+
+    // Sequence number of the most recent event of each class and subject
+    private final Map<Class<?>, Long> byClass = new ConcurrentHashMap<>();
+    private final Map<Object, Long> bySubject = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a buffer holding up to the given number of events.
+     *
+     * @param capacity   maximum number of events
+     * @param subjectKey function giving the key under which an event is
+     *                   indexed by subject; returning null if it is not
+     */
+    EventHistoryBuffer(int capacity, Function<Event<?, ?>, Object> subjectKey) {
+        checkArgument(capacity > 0, "Capacity must be positive");
+        this.capacity = capacity;
+        this.subjectKey = subjectKey;
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * Returns the maximum number of events held.
+     *
+     * @return capacity
+     */
+    int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of events held.
+     *
+     * @return number of events
+     */
+    int size() {
+        return (int) Math.min(sequence.get(), capacity);
+    }
+
+    /**
+     * Records an event, overwriting the oldest one if the buffer is full.
+     *
+     * @param event event to record
+     */
+    void add(Event<?, ?> event) {
+        // Anything which may fail is done before taking a sequence number,
+        // so that every slot taken gets filled
+        Object key = subjectKey.apply(event);
+        long time = event.time();
+
+        long seq = sequence.getAndIncrement();
+        Long prevOfClass = byClass.put(event.getClass(), seq);
+        Long prevOfSubject = key != null ? bySubject.put(key, seq) : null;
+        long mark = watermark.accumulateAndGet(time, Math::max);
+        Record record = new Record(seq, event, mark,
+                                   prevOfClass != null ? prevOfClass : NONE,
+                                   prevOfSubject != null ? prevOfSubject : NONE);
+
+        // Never overwrite a newer record, should a writer a whole lap ahead
+        // have got there first
+        int index = index(seq);
+        Record current = slots.get(index);
+        while ((current == null || current.seq < seq) &&
+                !slots.compareAndSet(index, current, record)) {
+            current = slots.get(index);
+        }
+    }
+
+    /**
+     * Returns the events held, oldest first.
+     *
+     * @return list of events
+     */
+    List<Event<?, ?>> events() {
+        long end = sequence.get();
+        List<Event<?, ?>> events = new ArrayList<>(size());
+        for (long seq = start(end); seq < end; seq++) {
+            Record record = read(seq);
+            if (record != null) {
+                events.add(record.event);
+            }
+        }
+        return events;
+    }
+
+    /**
+     * Returns the events held which are instances of the given class, oldest
+     * first.
+     *
+     * @param type event class
+     * @return list of events
+     */
+    List<Event<?, ?>> eventsOfClass(Class<?> type) {
+        List<Record> records = new ArrayList<>();
+        long start = start(sequence.get());
+        byClass.forEach((eventClass, latest) -> {
+            if (type.isAssignableFrom(eventClass)) {
+                collect(records, latest, start, r -> r.prevOfClass);
+            }
+        });
+        return sorted(records);
+    }
+
+    /**
+     * Returns the events held whose subject key matches the given predicate,
+     * oldest first.
+     *
+     * @param keyFilter predicate on subject keys
+     * @return list of events
+     */
+    List<Event<?, ?>> eventsOfSubject(Predicate<Object> keyFilter) {
+        List<Record> records = new ArrayList<>();
+        long start = start(sequence.get());
+        bySubject.forEach((key, latest) -> {
+            if (keyFilter.test(key)) {
+                collect(records, latest, start, r -> r.prevOfSubject);
+            }
+        });
+        return sorted(records);
+    }
+
+    /**
+     * Returns the events held whose time lies within the given range, oldest
+     * first.
+     *
+     * @param from start of the range, inclusive, in millis since epoch
+     * @param to   end of the range, inclusive, in millis since epoch
+     * @return list of events
+     */
+    List<Event<?, ?>> eventsBetween(long from, long to) {
+        long end = sequence.get();
+
+        // Find the first record at or past the start of the range; all
+        // records before it hold earlier events. A missing record may be
+        // either, so the search keeps it
+        long low = start(end);
+        long high = end;
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            Record record = read(mid);
+            if (record != null && record.watermark < from) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        List<Event<?, ?>> events = new ArrayList<>();
+        for (long seq = low; seq < end; seq++) {
+            Record record = read(seq);
+            if (record != null && record.event.time() >= from && record.event.time() <= to) {
+                events.add(record.event);
+            }
+        }
+        return events;
+    }
+
+    /**
+     * Drops the index entries of classes and subjects of which no event is
+     * held anymore.
+     */
+    void prune() {
+        long start = start(sequence.get());
+        byClass.forEach((key, latest) -> {
+            if (latest < start) {
+                byClass.remove(key, latest);
+            }
+        });
+        bySubject.forEach((key, latest) -> {
+            if (latest < start) {
+                bySubject.remove(key, latest);
+            }
+        });
+    }
+
+    // Sequence number of the oldest event held, given that of the next one
+    private long start(long end) {
+        return Math.max(0, end - capacity);
+    }
+
+    private int index(long seq) {
+        return (int) (seq % capacity);
+    }
+
+    // Returns the record of the given sequence number, or null if it has
+    // been overwritten already or its writer is taking too long to write it
+    private Record read(long seq) {
+        int index = index(seq);
+        long deadline = 0;
+        while (true) {
+            Record record = slots.get(index);
+            if (record != null && record.seq == seq) {
+                return record;
+            } else if (record != null && record.seq > seq) {
+                return null;
+            }
+            // The record is being written; it should be shortly
+            if (deadline == 0) {
+                deadline = System.nanoTime() + MAX_READ_WAIT_NANOS;
+            } else if (System.nanoTime() - deadline > 0) {
+                return null;
+            }
+            Thread.yield();
+        }
+    }
+
+    // Collects the records of a chain, from the latest back to the start;
+    // a record missing from the chain ends it
+    private void collect(List<Record> records, long latest, long start,
+                         Function<Record, Long> previous) {
+        long seq = latest;
+        while (seq != NONE && seq >= start) {
+            Record record = read(seq);
+            if (record == null) {
+                break;
+            }
+            records.add(record);
+            seq = previous.apply(record);
+        }
+    }
+
+    private List<Event<?, ?>> sorted(List<Record> records) {
+        records.sort(Comparator.comparingLong(r -> r.seq));
+        List<Event<?, ?>> events = new ArrayList<>(records.size());
+        records.forEach(r -> events.add(r.event));
+        return events;
+    }
+
+    // Recorded event with its links to the previous records of its class
+    // and subject
+    private static final class Record {
+        private final long seq;
+        private final Event<?, ?> event;
+        private final long watermark;
+        private final long prevOfClass;
+        private final long prevOfSubject;
+
+        private Record(long seq, Event<?, ?> event, long watermark,
+                       long prevOfClass, long prevOfSubject) {
+            this.seq = seq;
+            this.event = event;
+            this.watermark = watermark;
+            this.prevOfClass = prevOfClass;
+            this.prevOfSubject = prevOfSubject;
+        }
+    }
+}
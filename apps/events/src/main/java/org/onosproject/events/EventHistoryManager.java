@@ -19,32 +19,48 @@ import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
 import static org.onlab.util.Tools.groupedThreads;
 import static org.onlab.util.Tools.minPriority;
 
+import java.util.ArrayDeque;
 import java.util.Deque;
-import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.Dictionary;
+import java.util.List;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
 
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Modified;
 import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.util.Tools;
 import org.onlab.util.UnmodifiableDeque;
+import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.cluster.ClusterService;
+import org.onosproject.cluster.ControllerNode;
 import org.onosproject.core.ApplicationId;
 import org.onosproject.core.CoreService;
 import org.onosproject.event.Event;
 import org.onosproject.event.ListenerTracker;
 import org.onosproject.mastership.MastershipService;
+import org.onosproject.net.Element;
+import org.onosproject.net.Link;
+import org.onosproject.net.LinkKey;
 import org.onosproject.net.device.DeviceEvent;
 import org.onosproject.net.device.DeviceListener;
 import org.onosproject.net.device.DeviceService;
 import org.onosproject.net.edge.EdgePortService;
 import org.onosproject.net.host.HostService;
 import org.onosproject.net.link.LinkService;
+import org.onosproject.net.topology.Topology;
 import org.onosproject.net.topology.TopologyService;
+import org.osgi.service.component.ComponentContext;
+
+import com.google.common.collect.ImmutableList;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -82,6 +98,9 @@ public class EventHistoryManager
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected EdgePortService edgeService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected ComponentConfigService cfgService;
+
     @Property(name = "excludeStatsEvent", boolValue = true,
               label = "Exclude stats related events")
     private boolean excludeStatsEvent = true;
@@ -94,9 +113,13 @@ public class EventHistoryManager
 
     private ListenerTracker listeners;
 
-    // Using Deque so that it'll be possible to iterate from both ends
-    // (Tail-end is the most recent event)
-    private final Deque<Event<?, ?>> history = new ConcurrentLinkedDeque<>();
+    // Fixed-capacity ring buffer; the oldest events are overwritten
+    private volatile EventHistoryBuffer history =
+            new EventHistoryBuffer(sizeLimit, EventHistoryManager::subjectKey);
+
+    // Shared by the listeners recording events, exclusive when the buffer
+    // is replaced so that no event recorded meanwhile is lost
+    private final ReadWriteLock historyLock = new ReentrantReadWriteLock();
 
     private ScheduledExecutorService pruner;
 
@@ -105,10 +128,13 @@ public class EventHistoryManager
 
 
     @Activate
-    protected void activate() {
+    protected void activate(ComponentContext context) {
         appId = coreService.registerApplication("org.onosproject.events");
         log.debug("Registered as {}", appId);
 
+        cfgService.registerProperties(getClass());
+        modified(context);
+
         pruner = newSingleThreadScheduledExecutor(
                   minPriority(groupedThreads("onos/events", "history-pruner", log)));
 
@@ -129,37 +155,116 @@ public class EventHistoryManager
 
     @Deactivate
     protected void deactivate() {
+        cfgService.unregisterProperties(getClass(), false);
         listeners.removeListeners();
 
         pruner.shutdownNow();
-        history.clear();
+        clear();
 
         log.info("Stopped");
     }
 
+    @Modified
+    protected void modified(ComponentContext context) {
+        if (context == null) {
+            return;
+        }
+        Dictionary<?, ?> properties = context.getProperties();
+        excludeStatsEvent = Tools.isPropertyEnabled(properties, "excludeStatsEvent",
+                                                    excludeStatsEvent);
+
+        int newSizeLimit = Tools.getIntegerProperty(properties, "sizeLimit", sizeLimit);
+        if (newSizeLimit <= 0) {
+            log.warn("Ignoring invalid sizeLimit {}", newSizeLimit);
+        } else if (newSizeLimit != sizeLimit) {
+            // Carry over the most recent events
+            EventHistoryBuffer resized =
+                    new EventHistoryBuffer(newSizeLimit, EventHistoryManager::subjectKey);
+            historyLock.writeLock().lock();
+            try {
+                List<Event<?, ?>> events = history.events();
+                events.subList(Math.max(0, events.size() - newSizeLimit), events.size())
+                        .forEach(resized::add);
+                history = resized;
+                sizeLimit = newSizeLimit;
+            } finally {
+                historyLock.writeLock().unlock();
+            }
+        }
+        log.info("Settings: excludeStatsEvent={}, sizeLimit={}",
+                 excludeStatsEvent, sizeLimit);
+    }
+
     @Override
     public Deque<Event<?, ?>> history() {
-        return UnmodifiableDeque.unmodifiableDeque(history);
+        return UnmodifiableDeque.unmodifiableDeque(new ArrayDeque<>(history.events()));
+    }
+
+    @Override
+    public List<Event<?, ?>> historyByType(Class<? extends Event> type) {
+        return history.eventsOfClass(type);
+    }
+
+    @Override
+    public List<Event<?, ?>> historyBySubject(Object subject) {
+        if (subject == null) {
+            // No event is indexed without a subject
+            return ImmutableList.of();
+        }
+        Predicate<Object> filter;
+        if (subject instanceof String) {
+            filter = key -> key.toString().equals(subject);
+        } else {
+            Object key = subjectKey(subject);
+            filter = key::equals;
+        }
+        return history.eventsOfSubject(filter);
+    }
+
+    @Override
+    public List<Event<?, ?>> historyByTime(long from, long to) {
+        return history.eventsBetween(from, to);
     }
 
     @Override
     public void clear() {
-        history.clear();
+        historyLock.writeLock().lock();
+        try {
+            history = new EventHistoryBuffer(sizeLimit, EventHistoryManager::subjectKey);
+        } finally {
+            historyLock.writeLock().unlock();
+        }
     }
 
-    // This method assumes only 1 call is in flight at the same time.
+    // Drops index entries of subjects no longer in the history.
     private void pruneEventHistoryTask() {
-        int size = history.size();
-        int overflows = size - sizeLimit;
-        if (overflows > 0) {
-            for (int i = 0; i < overflows; ++i) {
-                history.poll();
-            }
-        }
+        history.prune();
     }
 
     private void addEvent(Event<?, ?> event) {
-        history.offer(event);
+        historyLock.readLock().lock();
+        try {
+            history.add(event);
+        } finally {
+            historyLock.readLock().unlock();
+        }
+    }
+
+    // Key under which events are indexed by subject; topologies are not
+    // indexed as each one is the subject of a single event
+    private static Object subjectKey(Event<?, ?> event) {
+        return event.subject() instanceof Topology ? null : subjectKey(event.subject());
+    }
+
+    private static Object subjectKey(Object subject) {
+        if (subject instanceof Element) {
+            return ((Element) subject).id();
+        } else if (subject instanceof Link) {
+            return LinkKey.linkKey((Link) subject);
+        } else if (subject instanceof ControllerNode) {
+            return ((ControllerNode) subject).id();
+        }
+        return subject;
     }
 
     class InternalDeviceListener
@@ -16,6 +16,7 @@
 package org.onosproject.events;
 
 import java.util.Deque;
+import java.util.List;
 
 import org.onosproject.event.Event;
 
@@ -28,12 +29,39 @@ import com.google.common.annotations.Beta;
 public interface EventHistoryService {
 
     /**
-     * Returns unmodifiable view of ONOS events history.
+     * Returns unmodifiable snapshot of ONOS events history.
      *
      * @return ONOS events (First element is the oldest event stored)
      */
     Deque<Event<?, ?>> history();
 
+    /**
+     * Returns the stored events which are instances of the given class.
+     *
+     * @param type event class, such as DeviceEvent
+     * @return ONOS events of the class, oldest first
+     */
+    List<Event<?, ?>> historyByType(Class<? extends Event> type);
+
+    /**
+     * Returns the stored events about the given subject. Network elements
+     * and controller nodes are identified by their id, links by their link
+     * key; any of these may also be given by its string form.
+     *
+     * @param subject subject identifier
+     * @return ONOS events about the subject, oldest first
+     */
+    List<Event<?, ?>> historyBySubject(Object subject);
+
+    /**
+     * Returns the stored events whose time lies within the given range.
+     *
+     * @param from start of the range, inclusive, in millis since epoch
+     * @param to   end of the range, inclusive, in millis since epoch
+     * @return ONOS events within the range, oldest first
+     */
+    List<Event<?, ?>> historyByTime(long from, long to);
+
     /**
      * Clears all stored history.
      */
@@ -17,7 +17,9 @@ package org.onosproject.events;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 import java.util.stream.Collector;
 import java.util.stream.Stream;
@@ -88,6 +90,17 @@ public class EventsCommand
             required = false)
     private boolean cluster = false;
 
+    @Option(name = "--subject", aliases = "-s",
+            description = "Include only events about the given subject, "
+                    + "such as a device, host or node id",
+            required = false)
+    private String subject = null;
+
+    @Option(name = "--last",
+            description = "Include only events of the given number of recent seconds",
+            required = false)
+    private long lastSeconds = -1;
+
     @Option(name = "--max-events", aliases = "-n",
             description = "Maximum number of events to print",
             required = false,
@@ -98,32 +111,52 @@ public class EventsCommand
     protected void execute() {
         EventHistoryService eventHistoryService = get(EventHistoryService.class);
 
-        Stream<Event<?, ?>> events = eventHistoryService.history().stream();
-
         boolean dumpAll = all || !(mastership || device || link || topology || host);
 
+        List<Class<? extends Event>> types = new ArrayList<>();
         if (!dumpAll) {
-            Predicate<Event<?, ?>> filter = (defaultIs) -> false;
-
             if (mastership) {
-                filter = filter.or(evt -> evt instanceof MastershipEvent);
+                types.add(MastershipEvent.class);
             }
             if (device) {
-                filter = filter.or(evt -> evt instanceof DeviceEvent);
+                types.add(DeviceEvent.class);
             }
             if (link) {
-                filter = filter.or(evt -> evt instanceof LinkEvent);
+                types.add(LinkEvent.class);
             }
             if (topology) {
-                filter = filter.or(evt -> evt instanceof TopologyEvent);
+                types.add(TopologyEvent.class);
             }
             if (host) {
-                filter = filter.or(evt -> evt instanceof HostEvent);
+                types.add(HostEvent.class);
             }
             if (cluster) {
-                filter = filter.or(evt -> evt instanceof ClusterEvent);
+                types.add(ClusterEvent.class);
             }
+        }
 
+        // Narrow the events down using the most selective index at hand
+        long since = lastSeconds > 0 ?
+                System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(lastSeconds) : -1;
+        Stream<Event<?, ?>> events;
+        if (subject != null) {
+            events = eventHistoryService.historyBySubject(subject).stream();
+        } else if (since >= 0) {
+            events = eventHistoryService.historyByTime(since, Long.MAX_VALUE).stream();
+        } else if (types.size() == 1) {
+            events = eventHistoryService.historyByType(types.get(0)).stream();
+        } else {
+            events = eventHistoryService.history().stream();
+        }
+
+        if (since >= 0) {
+            events = events.filter(evt -> evt.time() >= since);
+        }
+        if (!dumpAll) {
+            Predicate<Event<?, ?>> filter = (defaultIs) -> false;
+            for (Class<? extends Event> type : types) {
+                filter = filter.or(type::isInstance);
+            }
             events = events.filter(filter);
         }
 
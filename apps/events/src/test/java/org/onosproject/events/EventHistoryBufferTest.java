@@ -0,0 +1,160 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.events;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.onosproject.event.AbstractEvent;
+import org.onosproject.event.Event;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Unit tests for {@link EventHistoryBuffer}.
+ */
+public class EventHistoryBufferTest {
+
+    private EventHistoryBuffer buffer;
+
+    @Before
+    public void setUp() {
+        buffer = new EventHistoryBuffer(4, Event::subject);
+    }
+
+    @Test
+    public void overwriteOldest() {
+        for (int i = 0; i < 6; i++) {
+            buffer.add(new FooEvent("s" + i, i));
+        }
+        assertEquals(4, buffer.size());
+        assertEquals(ImmutableList.of(2L, 3L, 4L, 5L), times(buffer.events()));
+    }
+
+    @Test
+    public void byClass() {
+        buffer.add(new FooEvent("a", 1));
+        buffer.add(new BarEvent("a", 2));
+        buffer.add(new FooEvent("b", 3));
+        buffer.add(new BarEvent("b", 4));
+        buffer.add(new FooEvent("c", 5));
+
+        // The first event has been overwritten
+        assertEquals(ImmutableList.of(3L, 5L), times(buffer.eventsOfClass(FooEvent.class)));
+        assertEquals(ImmutableList.of(2L, 4L), times(buffer.eventsOfClass(BarEvent.class)));
+        assertEquals(ImmutableList.of(2L, 3L, 4L, 5L), times(buffer.eventsOfClass(Event.class)));
+    }
+
+    @Test
+    public void bySubject() {
+        buffer.add(new FooEvent("a", 1));
+        buffer.add(new BarEvent("b", 2));
+        buffer.add(new BarEvent("a", 3));
+        buffer.add(new FooEvent("c", 4));
+
+        assertEquals(ImmutableList.of(1L, 3L), times(buffer.eventsOfSubject("a"::equals)));
+        assertEquals(ImmutableList.of(2L), times(buffer.eventsOfSubject("b"::equals)));
+        assertTrue(buffer.eventsOfSubject("d"::equals).isEmpty());
+    }
+
+    @Test
+    public void byTime() {
+        buffer = new EventHistoryBuffer(100, Event::subject);
+        for (int i = 0; i < 100; i++) {
+            buffer.add(new FooEvent("s", i * 10));
+        }
+        assertEquals(ImmutableList.of(500L, 510L, 520L), times(buffer.eventsBetween(495, 520)));
+        assertEquals(ImmutableList.of(980L, 990L), times(buffer.eventsBetween(980, Long.MAX_VALUE)));
+        assertTrue(buffer.eventsBetween(1000, 2000).isEmpty());
+    }
+
+    @Test
+    public void pruneIndexes() {
+        buffer.add(new FooEvent("a", 1));
+        buffer.add(new BarEvent("b", 2));
+        for (int i = 0; i < 4; i++) {
+            buffer.add(new FooEvent("c", 3 + i));
+        }
+        buffer.prune();
+
+        assertTrue(buffer.eventsOfSubject("a"::equals).isEmpty());
+        assertTrue(buffer.eventsOfClass(BarEvent.class).isEmpty());
+        assertEquals(4, buffer.eventsOfSubject("c"::equals).size());
+    }
+
+    @Test
+    public void skipStalledWriter() throws Exception {
+        StallingKey stalling = new StallingKey();
+        buffer = new EventHistoryBuffer(4, e -> "stall".equals(e.subject()) ? stalling : e.subject());
+        buffer.add(new FooEvent("a", 1));
+        Thread writer = new Thread(() -> buffer.add(new FooEvent("stall", 2)));
+        writer.start();
+        assertTrue(stalling.entered.await(5, TimeUnit.SECONDS));
+        buffer.add(new FooEvent("b", 3));
+
+        // The event being written is skipped rather than waited for
+        assertEquals(ImmutableList.of(1L, 3L), times(buffer.events()));
+        assertEquals(ImmutableList.of(1L, 3L), times(buffer.eventsBetween(0, 10)));
+
+        stalling.release.countDown();
+        writer.join(5000);
+        assertEquals(ImmutableList.of(1L, 2L, 3L), times(buffer.events()));
+    }
+
+    private static List<Long> times(List<Event<?, ?>> events) {
+        return events.stream().map(Event::time).collect(Collectors.toList());
+    }
+
+    // Subject key holding up the writer indexing it until released
+    private static final class StallingKey {
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public int hashCode() {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return 0;
+        }
+    }
+
+    private enum Type {
+        FOO, BAR
+    }
+
+    private static final class FooEvent extends AbstractEvent<Type, String> {
+        private FooEvent(String subject, long time) {
+            super(Type.FOO, subject, time);
+        }
+    }
+
+    private static final class BarEvent extends AbstractEvent<Type, String> {
+        private BarEvent(String subject, long time) {
+            super(Type.BAR, subject, time);
+        }
+    }
+}
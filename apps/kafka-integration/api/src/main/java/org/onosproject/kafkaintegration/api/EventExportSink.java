@@ -0,0 +1,43 @@
+/**
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.kafkaintegration.api;
+
+import java.util.concurrent.Future;
+
+import org.onosproject.kafkaintegration.api.dto.OnosEvent.Type;
+
+/**
+ * Destination of the records produced by the event export pipeline.
+ */
+public interface EventExportSink {
+
+    /**
+     * Exports a record holding one or more serialized events of a type.
+     * The record may be sent asynchronously; the returned future completes
+     * once it has been accepted by the destination.
+     *
+     * @param eventType the ONOS event type
+     * @param record    serialized events
+     * @return future completed once the record has been accepted
+     */
+    Future<?> export(Type eventType, byte[] record);
+
+    /**
+     * Releases the resources held by the sink.
+     */
+    default void close() {
+    }
+}
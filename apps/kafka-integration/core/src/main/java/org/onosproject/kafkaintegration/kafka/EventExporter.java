@@ -0,0 +1,370 @@
+/**
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.kafkaintegration.kafka;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
+import org.onosproject.event.Event;
+import org.onosproject.kafkaintegration.api.EventConversionService;
+import org.onosproject.kafkaintegration.api.EventExportSink;
+import org.onosproject.kafkaintegration.api.dto.OnosEvent;
+import org.onosproject.kafkaintegration.api.dto.OnosEvent.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
+import com.google.protobuf.GeneratedMessageV3;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static org.onlab.util.Tools.groupedThreads;
+
+/**
+ * Buffered stage exporting ONOS events to a sink.
+ * <p>
+ * Events are queued in a bounded buffer by the listeners, so that a slow
+ * sink never holds up event dispatching beyond what the overflow policy
+ * allows. A single thread drains the buffer, converts the events to
+ * protobuf and hands them to the sink several records at a time, waiting
+ * for the sink to accept a whole round of records rather than each of them.
+ * With a batch size above one, each record holds that many events of a
+ * type, each message prefixed with its length as by
+ * {@link GeneratedMessageV3#writeDelimitedTo}; otherwise each record holds
+ * a single message, as it always has.
+ * </p>
+ */
+public class EventExporter {
+
+    /**
+     * Policy applied to an event when the buffer is full.
+     */
+    public enum OverflowPolicy {
+        /**
+         * Drops the event.
+         */
+        DROP_NEWEST,
+
+        /**
+         * Drops the oldest event in the buffer to make room for the event.
+         */
+        DROP_OLDEST,
+
+        /**
+         * Holds up the listener until there is room for the event, or the
+         * block timeout elapses and the event is dropped.
+         */
+        BLOCK
+    }
+
+    private static final int MAX_RECORDS_PER_ROUND = 64;
+    private static final long POLL_TIMEOUT_MS = 500;
+    private static final long STOP_TIMEOUT_MS = 5000;
+
+    private static final String COMPONENT = "KafkaIntegration";
+    private static final String FEATURE = "Export";
+    private static final String EXPORTED = "exported";
+    private static final String DROPPED = "dropped";
+    private static final String FAILED = "failed";
+    private static final String QUEUED = "queued";
+    private static final String LAG = "lagMillis";
+    private static final String ROUND = "round";
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final EventConversionService conversionService;
+    private final EventExportSink sink;
+    private final BlockingQueue<Entry> buffer;
+    private final int batchSize;
+    private final OverflowPolicy policy;
+    private final long blockTimeoutMillis;
+
+    private final MetricsService metricsService;
+    private MetricsComponent metricsComponent;
+    private MetricsFeature metricsFeature;
+    private Meter exportedMeter;
+    private Meter droppedMeter;
+    private Meter failedMeter;
+    private Timer roundTimer;
+
+    private ExecutorService executor;
+    private volatile boolean running;
+    // Oldest entry of the round being exported, if any
+    private volatile Entry inFlight;
+
+    /**
+     * Creates an exporter.
+     *
+     * @param conversionService  service converting events to protobuf
+     * @param sink               sink receiving the records
+     * @param capacity           maximum number of events buffered
+     * @param batchSize          number of events per record
+     * @param policy             policy applied when the buffer is full
+     * @param blockTimeoutMillis longest time a listener is held up by the
+     *                           {@link OverflowPolicy#BLOCK} policy
+     * @param metricsService     metrics service; null for no metrics
+     */
+    public EventExporter(EventConversionService conversionService,
+                         EventExportSink sink, int capacity, int batchSize,
+                         OverflowPolicy policy, long blockTimeoutMillis,
+                         MetricsService metricsService) {
+        checkArgument(capacity > 0, "Capacity must be positive");
+        checkArgument(batchSize > 0, "Batch size must be positive");
+        this.conversionService = conversionService;
+        this.sink = sink;
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.policy = policy;
+        this.blockTimeoutMillis = blockTimeoutMillis;
+        this.metricsService = metricsService;
+    }
+
+    /**
+     * Starts exporting the buffered events.
+     */
+    public void start() {
+        if (metricsService != null) {
+            metricsComponent = metricsService.registerComponent(COMPONENT);
+            metricsFeature = metricsComponent.registerFeature(FEATURE);
+            exportedMeter = metricsService.createMeter(metricsComponent, metricsFeature, EXPORTED);
+            droppedMeter = metricsService.createMeter(metricsComponent, metricsFeature, DROPPED);
+            failedMeter = metricsService.createMeter(metricsComponent, metricsFeature, FAILED);
+            roundTimer = metricsService.createLatencyTimer(metricsComponent, metricsFeature, ROUND);
+            metricsService.registerMetric(metricsComponent, metricsFeature, QUEUED,
+                                          (Gauge<Integer>) buffer::size);
+            metricsService.registerMetric(metricsComponent, metricsFeature, LAG,
+                                          (Gauge<Long>) this::lagMillis);
+        }
+        running = true;
+        executor = newSingleThreadExecutor(groupedThreads("onos/kafka", "exporter", log));
+        executor.execute(this::export);
+    }
+
+    /**
+     * Stops exporting; events still buffered are discarded. The round being
+     * exported is abandoned, and the sink closed once it has been.
+     */
+    public void stop() {
+        running = false;
+        if (executor != null) {
+            executor.shutdownNow();
+            try {
+                if (!executor.awaitTermination(STOP_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    log.warn("Export still in progress; closing the sink regardless");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            executor = null;
+        }
+        if (!buffer.isEmpty()) {
+            log.info("Discarding {} events not yet exported", buffer.size());
+            buffer.clear();
+        }
+        if (metricsService != null) {
+            for (String name : new String[]{EXPORTED, DROPPED, FAILED, ROUND, QUEUED, LAG}) {
+                metricsService.removeMetric(metricsComponent, metricsFeature, name);
+            }
+        }
+        sink.close();
+    }
+
+    /**
+     * Queues an event for export, applying the overflow policy if the
+     * buffer is full.
+     *
+     * @param event ONOS event
+     * @return true if the event was queued, false if it was dropped
+     */
+    public boolean submit(Event<?, ?> event) {
+        Entry entry = new Entry(event);
+        boolean queued = buffer.offer(entry);
+        if (!queued) {
+            switch (policy) {
+                case DROP_OLDEST:
+                    while (!queued) {
+                        if (buffer.poll() != null) {
+                            dropped(1);
+                        }
+                        queued = buffer.offer(entry);
+                    }
+                    break;
+                case BLOCK:
+                    try {
+                        queued = buffer.offer(entry, blockTimeoutMillis, TimeUnit.MILLISECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    break;
+                case DROP_NEWEST:
+                default:
+                    break;
+            }
+        }
+        if (!queued) {
+            dropped(1);
+        }
+        return queued;
+    }
+
+    /**
+     * Returns the number of events waiting to be exported.
+     *
+     * @return number of buffered events
+     */
+    public int queued() {
+        return buffer.size();
+    }
+
+    /**
+     * Returns how long the oldest event not yet accepted by the sink has
+     * been waiting, whether it is still buffered or being exported.
+     *
+     * @return lag in milliseconds
+     */
+    public long lagMillis() {
+        Entry oldest = inFlight;
+        if (oldest == null) {
+            oldest = buffer.peek();
+        }
+        return oldest == null ? 0 :
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - oldest.queuedAt);
+    }
+
+    // Drains the buffer until stopped
+    private void export() {
+        List<Entry> entries = new ArrayList<>();
+        while (running) {
+            try {
+                Entry first = buffer.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                inFlight = first;
+                entries.add(first);
+                buffer.drainTo(entries, batchSize * MAX_RECORDS_PER_ROUND - 1);
+                exportRound(entries);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Unable to export events", e);
+            } finally {
+                inFlight = null;
+                entries.clear();
+            }
+        }
+    }
+
+    // Exports the given events and waits for the sink to accept them
+    private void exportRound(List<Entry> entries) throws InterruptedException {
+        final Timer.Context context = roundTimer != null ? roundTimer.time() : null;
+
+        Map<Type, List<GeneratedMessageV3>> messages = new EnumMap<>(Type.class);
+        for (Entry entry : entries) {
+            OnosEvent onosEvent = conversionService.convertEvent(entry.event);
+            if (onosEvent.subject() != null) {
+                messages.computeIfAbsent(onosEvent.type(), t -> new ArrayList<>())
+                        .add(onosEvent.subject());
+            }
+        }
+
+        List<Future<?>> futures = new ArrayList<>();
+        List<Integer> sizes = new ArrayList<>();
+        messages.forEach((type, list) -> {
+            for (int i = 0; i < list.size(); i += batchSize) {
+                List<GeneratedMessageV3> batch = list.subList(i, Math.min(i + batchSize, list.size()));
+                try {
+                    futures.add(sink.export(type, serialize(batch)));
+                    sizes.add(batch.size());
+                } catch (RuntimeException e) {
+                    log.warn("Unable to export {} events", type, e);
+                    failed(batch.size());
+                }
+            }
+        });
+
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                futures.get(i).get();
+                if (exportedMeter != null) {
+                    exportedMeter.mark(sizes.get(i));
+                }
+            } catch (ExecutionException e) {
+                log.warn("Unable to export events", e.getCause());
+                failed(sizes.get(i));
+            }
+        }
+
+        if (context != null) {
+            context.stop();
+        }
+    }
+
+    // Serializes a batch of messages into a record
+    private byte[] serialize(List<GeneratedMessageV3> batch) {
+        if (batchSize == 1) {
+            return batch.get(0).toByteArray();
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            for (GeneratedMessageV3 message : batch) {
+                message.writeDelimitedTo(out);
+            }
+        } catch (IOException e) {
+            // Not thrown by in-memory streams
+            throw new IllegalStateException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private void dropped(int count) {
+        if (droppedMeter != null) {
+            droppedMeter.mark(count);
+        }
+    }
+
+    private void failed(int count) {
+        if (failedMeter != null) {
+            failedMeter.mark(count);
+        }
+    }
+
+    // Buffered event along with the time it was queued
+    private static final class Entry {
+        private final Event<?, ?> event;
+        private final long queuedAt = System.nanoTime();
+
+        private Entry(Event<?, ?> event) {
+            this.event = event;
+        }
+    }
+}
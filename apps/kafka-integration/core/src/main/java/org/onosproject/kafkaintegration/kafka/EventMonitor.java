@@ -19,27 +19,38 @@ package org.onosproject.kafkaintegration.kafka;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Modified;
+import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
-import org.apache.kafka.clients.producer.ProducerRecord;
+import org.onlab.metrics.MetricsService;
+import org.onosproject.cfg.ComponentConfigService;
+import org.onosproject.event.Event;
 import org.onosproject.kafkaintegration.api.EventConversionService;
+import org.onosproject.kafkaintegration.api.EventExportSink;
 import org.onosproject.kafkaintegration.api.EventSubscriptionService;
 import org.onosproject.kafkaintegration.api.KafkaProducerService;
 import org.onosproject.kafkaintegration.api.KafkaConfigService;
-import org.onosproject.kafkaintegration.api.dto.OnosEvent;
+import org.onosproject.kafkaintegration.kafka.EventExporter.OverflowPolicy;
 import org.onosproject.net.device.DeviceEvent;
 import org.onosproject.net.device.DeviceListener;
 import org.onosproject.net.device.DeviceService;
 import org.onosproject.net.link.LinkEvent;
 import org.onosproject.net.link.LinkListener;
 import org.onosproject.net.link.LinkService;
+import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.concurrent.ExecutionException;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Dictionary;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 
-import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static com.google.common.base.Strings.isNullOrEmpty;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static org.onlab.util.Tools.get;
 import static org.onlab.util.Tools.groupedThreads;
 import static org.onosproject.kafkaintegration.api.dto.OnosEvent.Type.DEVICE;
 import static org.onosproject.kafkaintegration.api.dto.OnosEvent.Type.LINK;
@@ -70,61 +81,193 @@ public class EventMonitor {
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected KafkaConfigService kafkaConfigService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected ComponentConfigService componentConfigService;
+
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
+
+    private static final int EXPORT_BUFFER_SIZE = 4096;
+    private static final int EXPORT_BATCH_SIZE = 1;
+    private static final String EXPORT_OVERFLOW_POLICY = "DROP_OLDEST";
+    private static final int EXPORT_BLOCK_TIMEOUT_MS = 100;
+    private static final String EXPORT_FILE = "";
+
+    @Property(name = "exportBufferSize", intValue = EXPORT_BUFFER_SIZE,
+            label = "Maximum number of events waiting to be exported")
+    protected int exportBufferSize = EXPORT_BUFFER_SIZE;
+
+    @Property(name = "exportBatchSize", intValue = EXPORT_BATCH_SIZE,
+            label = "Number of events per record; above one, records hold "
+                    + "length-delimited protobuf messages")
+    protected int exportBatchSize = EXPORT_BATCH_SIZE;
+
+    @Property(name = "exportOverflowPolicy", value = EXPORT_OVERFLOW_POLICY,
+            label = "Policy applied to events when the export buffer is full: "
+                    + "DROP_NEWEST, DROP_OLDEST or BLOCK")
+    protected String exportOverflowPolicy = EXPORT_OVERFLOW_POLICY;
+
+    @Property(name = "exportBlockTimeoutMs", intValue = EXPORT_BLOCK_TIMEOUT_MS,
+            label = "Longest time an event listener is held up by the BLOCK policy")
+    protected int exportBlockTimeoutMs = EXPORT_BLOCK_TIMEOUT_MS;
+
+    @Property(name = "exportFile", value = EXPORT_FILE,
+            label = "File to export events to instead of Kafka, for testing; "
+                    + "empty to export to Kafka")
+    protected String exportFile = EXPORT_FILE;
+
     private final DeviceListener deviceListener = new InternalDeviceListener();
     private final LinkListener linkListener = new InternalLinkListener();
 
-    protected ExecutorService eventExecutor;
+    // Notifies the listeners off the event dispatching thread, as looking up
+    // the subscribers and handing events to the exporter may take a while
+    private ExecutorService eventHandler;
+
+    protected volatile EventExporter exporter;
 
     @Activate
-    protected void activate() {
+    protected void activate(ComponentContext context) {
+        componentConfigService.registerProperties(getClass());
+        readConfiguration(context);
+
+        kafkaProducer.start(kafkaConfigService.getConfigParams());
+        startExporter();
+
+        eventHandler = newSingleThreadExecutor(groupedThreads("onos/kafka", "event-monitor", log));
 
-        eventExecutor = newSingleThreadScheduledExecutor(groupedThreads("onos/onosEvents", "events-%d", log));
         deviceService.addListener(deviceListener);
         linkService.addListener(linkListener);
 
-        kafkaProducer.start(kafkaConfigService.getConfigParams());
-
         log.info("Started");
     }
 
     @Deactivate
     protected void deactivate() {
+        componentConfigService.unregisterProperties(getClass(), false);
         deviceService.removeListener(deviceListener);
         linkService.removeListener(linkListener);
+        eventHandler.shutdown();
 
-        eventExecutor.shutdownNow();
-        eventExecutor = null;
+        stopExporter();
 
         kafkaProducer.stop();
 
         log.info("Stopped");
     }
 
+    @Modified
+    protected void modified(ComponentContext context) {
+        if (readConfiguration(context)) {
+            stopExporter();
+            startExporter();
+            log.info("Event export reconfigured - bufferSize {}, batchSize {}, "
+                    + "overflowPolicy {}, blockTimeoutMs {}, file {}",
+                     exportBufferSize, exportBatchSize, exportOverflowPolicy,
+                     exportBlockTimeoutMs, exportFile);
+        }
+    }
+
+    // Reads the export configuration; returns true if it has changed
+    private boolean readConfiguration(ComponentContext context) {
+        if (context == null) {
+            return false;
+        }
+        Dictionary<?, ?> properties = context.getProperties();
+
+        int newBufferSize;
+        int newBatchSize;
+        String newPolicy;
+        int newBlockTimeout;
+        String newFile;
+        try {
+            String s = get(properties, "exportBufferSize");
+            newBufferSize = isNullOrEmpty(s) ? exportBufferSize : Integer.parseInt(s.trim());
+
+            s = get(properties, "exportBatchSize");
+            newBatchSize = isNullOrEmpty(s) ? exportBatchSize : Integer.parseInt(s.trim());
+
+            s = get(properties, "exportOverflowPolicy");
+            newPolicy = isNullOrEmpty(s) ? exportOverflowPolicy
+                                         : OverflowPolicy.valueOf(s.trim()).name();
+
+            s = get(properties, "exportBlockTimeoutMs");
+            newBlockTimeout = isNullOrEmpty(s) ? exportBlockTimeoutMs : Integer.parseInt(s.trim());
+
+            s = get(properties, "exportFile");
+            newFile = s == null ? exportFile : s.trim();
+        } catch (IllegalArgumentException | ClassCastException e) {
+            log.warn("Invalid event export configuration", e);
+            return false;
+        }
+
+        if (newBufferSize <= 0 || newBatchSize <= 0 || newBlockTimeout < 0) {
+            log.warn("Invalid event export configuration - bufferSize {}, "
+                    + "batchSize {}, blockTimeoutMs {}",
+                     newBufferSize, newBatchSize, newBlockTimeout);
+            return false;
+        }
+
+        boolean modified = newBufferSize != exportBufferSize
+                || newBatchSize != exportBatchSize
+                || !newPolicy.equals(exportOverflowPolicy)
+                || newBlockTimeout != exportBlockTimeoutMs
+                || !newFile.equals(exportFile);
+
+        exportBufferSize = newBufferSize;
+        exportBatchSize = newBatchSize;
+        exportOverflowPolicy = newPolicy;
+        exportBlockTimeoutMs = newBlockTimeout;
+        exportFile = newFile;
+        return modified;
+    }
+
+    private void startExporter() {
+        EventExportSink sink = new KafkaExportSink(kafkaProducer);
+        if (!exportFile.isEmpty()) {
+            try {
+                sink = new FileExportSink(Paths.get(exportFile));
+            } catch (IOException e) {
+                log.error("Unable to open export file {}; exporting to Kafka", exportFile, e);
+            }
+        }
+        exporter = new EventExporter(eventConversionService, sink,
+                                     exportBufferSize, exportBatchSize,
+                                     OverflowPolicy.valueOf(exportOverflowPolicy),
+                                     exportBlockTimeoutMs, metricsService);
+        exporter.start();
+    }
+
+    private void stopExporter() {
+        EventExporter current = exporter;
+        exporter = null;
+        if (current != null) {
+            current.stop();
+        }
+    }
+
+    private void export(Event<?, ?> event) {
+        EventExporter current = exporter;
+        if (current != null) {
+            current.submit(event);
+        }
+    }
+
     private class InternalDeviceListener implements DeviceListener {
 
         @Override
         public void event(DeviceEvent event) {
 
             if (!eventSubscriptionService.getEventSubscribers(DEVICE).isEmpty()) {
-                OnosEvent onosEvent = eventConversionService.convertEvent(event);
-                eventExecutor.execute(() -> {
-                    try {
-                        kafkaProducer.send(new ProducerRecord<>(DEVICE.toString(),
-                                                               onosEvent.subject().toByteArray())).get();
-
-                        log.debug("Event Type - {}, Subject {} sent successfully.",
-                                  DEVICE, onosEvent.subject());
-
-                    } catch (InterruptedException e1) {
-                        Thread.currentThread().interrupt();
-                    } catch (ExecutionException e2) {
-                        log.error("Exception thrown {}", e2);
-                    }
-                });
+                export(event);
             } else {
                 log.debug("No device listeners");
             }
         }
+
+        @Override
+        public Executor executor() {
+            return eventHandler;
+        }
     }
 
     private class InternalLinkListener implements LinkListener {
@@ -133,24 +276,15 @@ public class EventMonitor {
         public void event(LinkEvent event) {
 
             if (!eventSubscriptionService.getEventSubscribers(LINK).isEmpty()) {
-                OnosEvent onosEvent = eventConversionService.convertEvent(event);
-                eventExecutor.execute(() -> {
-                    try {
-                        kafkaProducer.send(new ProducerRecord<>(LINK.toString(),
-                                onosEvent.subject().toByteArray())).get();
-
-                        log.debug("Event Type - {}, Subject {} sent successfully.",
-                              LINK, onosEvent.subject());
-
-                    } catch (InterruptedException e1) {
-                        Thread.currentThread().interrupt();
-                    } catch (ExecutionException e2) {
-                        log.error("Exception thrown {}", e2);
-                    }
-                });
+                export(event);
             } else {
                 log.debug("No link listeners");
             }
         }
+
+        @Override
+        public Executor executor() {
+            return eventHandler;
+        }
     }
 }
@@ -0,0 +1,79 @@
+/**
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.kafkaintegration.kafka;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+import org.onosproject.kafkaintegration.api.EventExportSink;
+import org.onosproject.kafkaintegration.api.dto.OnosEvent.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sink which appends records to a local file, standing in for a Kafka
+ * cluster when testing the export pipeline. Each record is written as its
+ * event type, in modified UTF-8, followed by its length and its bytes.
+ */
+public class FileExportSink implements EventExportSink {
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final DataOutputStream out;
+
+    /**
+     * Creates a sink appending to the given file, which is created if
+     * it does not exist.
+     *
+     * @param file the file to append to
+     * @throws IOException if the file cannot be opened
+     */
+    public FileExportSink(Path file) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(file, StandardOpenOption.CREATE,
+                                      StandardOpenOption.APPEND)));
+    }
+
+    @Override
+    public synchronized Future<?> export(Type eventType, byte[] record) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        try {
+            out.writeUTF(eventType.toString());
+            out.writeInt(record.length);
+            out.write(record);
+            out.flush();
+            result.complete(null);
+        } catch (IOException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            out.close();
+        } catch (IOException e) {
+            log.warn("Unable to close export file", e);
+        }
+    }
+}
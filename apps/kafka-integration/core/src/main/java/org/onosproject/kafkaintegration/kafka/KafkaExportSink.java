@@ -0,0 +1,45 @@
+/**
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.kafkaintegration.kafka;
+
+import java.util.concurrent.Future;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.onosproject.kafkaintegration.api.EventExportSink;
+import org.onosproject.kafkaintegration.api.KafkaProducerService;
+import org.onosproject.kafkaintegration.api.dto.OnosEvent.Type;
+
+/**
+ * Sink which publishes records to the Kafka topic of their event type.
+ */
+public class KafkaExportSink implements EventExportSink {
+
+    private final KafkaProducerService producer;
+
+    /**
+     * Creates a sink publishing through the given producer.
+     *
+     * @param producer the Kafka producer
+     */
+    public KafkaExportSink(KafkaProducerService producer) {
+        this.producer = producer;
+    }
+
+    @Override
+    public Future<?> export(Type eventType, byte[] record) {
+        return producer.send(new ProducerRecord<>(eventType.toString(), record));
+    }
+}
@@ -0,0 +1,255 @@
+/**
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.kafkaintegration.kafka;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+import org.onosproject.event.AbstractEvent;
+import org.onosproject.grpc.net.Device.DeviceCore;
+import org.onosproject.kafkaintegration.api.EventConversionService;
+import org.onosproject.kafkaintegration.api.EventExportSink;
+import org.onosproject.kafkaintegration.api.dto.OnosEvent;
+import org.onosproject.kafkaintegration.api.dto.OnosEvent.Type;
+import org.onosproject.kafkaintegration.kafka.EventExporter.OverflowPolicy;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link EventExporter}.
+ */
+public class EventExporterTest {
+
+    private final EventConversionService conversion = event ->
+            new OnosEvent(Type.DEVICE, DeviceCore.newBuilder()
+                    .setDeviceId((String) event.subject()).build());
+
+    private final RecordingSink sink = new RecordingSink();
+    private EventExporter exporter;
+
+    @After
+    public void tearDown() {
+        if (exporter != null) {
+            exporter.stop();
+        }
+    }
+
+    @Test
+    public void batches() throws Exception {
+        exporter = new EventExporter(conversion, sink, 10, 3,
+                                     OverflowPolicy.DROP_NEWEST, 0, null);
+        for (int i = 0; i < 7; i++) {
+            assertTrue(exporter.submit(new TestEvent("of:" + i)));
+        }
+        exporter.start();
+        List<String> ids = received(3);
+
+        assertEquals(7, ids.size());
+        assertEquals("of:0", ids.get(0));
+        assertEquals("of:6", ids.get(6));
+    }
+
+    @Test
+    public void singleMessageRecords() throws Exception {
+        exporter = new EventExporter(conversion, sink, 10, 1,
+                                     OverflowPolicy.DROP_NEWEST, 0, null);
+        exporter.submit(new TestEvent("of:1"));
+        exporter.start();
+        waitFor(1);
+
+        assertEquals("of:1", DeviceCore.parseFrom(sink.records.get(0)).getDeviceId());
+    }
+
+    @Test
+    public void dropNewest() throws Exception {
+        exporter = new EventExporter(conversion, sink, 2, 1,
+                                     OverflowPolicy.DROP_NEWEST, 0, null);
+        assertTrue(exporter.submit(new TestEvent("of:1")));
+        assertTrue(exporter.submit(new TestEvent("of:2")));
+        assertFalse(exporter.submit(new TestEvent("of:3")));
+        assertEquals(2, exporter.queued());
+    }
+
+    @Test
+    public void dropOldest() throws Exception {
+        exporter = new EventExporter(conversion, sink, 2, 2,
+                                     OverflowPolicy.DROP_OLDEST, 0, null);
+        for (int i = 1; i <= 3; i++) {
+            assertTrue(exporter.submit(new TestEvent("of:" + i)));
+        }
+        exporter.start();
+
+        List<String> ids = received(1);
+        assertEquals(2, ids.size());
+        assertEquals("of:2", ids.get(0));
+        assertEquals("of:3", ids.get(1));
+    }
+
+    @Test
+    public void blockTimesOut() {
+        exporter = new EventExporter(conversion, sink, 1, 1,
+                                     OverflowPolicy.BLOCK, 10, null);
+        assertTrue(exporter.submit(new TestEvent("of:1")));
+        assertFalse(exporter.submit(new TestEvent("of:2")));
+        assertEquals(1, exporter.queued());
+    }
+
+    @Test
+    public void fileSink() throws IOException {
+        File file = File.createTempFile("export", ".bin");
+        file.deleteOnExit();
+        byte[] record = {1, 2, 3};
+
+        FileExportSink fileSink = new FileExportSink(file.toPath());
+        fileSink.export(Type.LINK, record);
+        fileSink.close();
+
+        try (DataInputStream in = new DataInputStream(
+                new ByteArrayInputStream(Files.readAllBytes(file.toPath())))) {
+            assertEquals("LINK", in.readUTF());
+            byte[] read = new byte[in.readInt()];
+            in.readFully(read);
+            assertArrayEquals(record, read);
+        }
+    }
+
+    @Test
+    public void lagOfRoundInFlight() throws Exception {
+        BlockingSink blocking = new BlockingSink();
+        exporter = new EventExporter(conversion, blocking, 10, 1,
+                                     OverflowPolicy.DROP_NEWEST, 0, null);
+        exporter.submit(new TestEvent("of:1"));
+        exporter.start();
+        assertTrue(blocking.exporting.await(5, TimeUnit.SECONDS));
+        Thread.sleep(50);
+
+        // The event has left the buffer but is not accepted yet
+        assertEquals(0, exporter.queued());
+        assertTrue(exporter.lagMillis() >= 50);
+
+        blocking.accepted.complete(null);
+        for (int i = 0; i < 100 && exporter.lagMillis() > 0; i++) {
+            Thread.sleep(20);
+        }
+        assertEquals(0, exporter.lagMillis());
+    }
+
+    @Test
+    public void sinkClosedAfterExport() throws Exception {
+        BlockingSink blocking = new BlockingSink();
+        exporter = new EventExporter(conversion, blocking, 10, 1,
+                                     OverflowPolicy.DROP_NEWEST, 0, null);
+        exporter.submit(new TestEvent("of:1"));
+        exporter.start();
+        assertTrue(blocking.exporting.await(5, TimeUnit.SECONDS));
+
+        exporter.stop();
+        exporter = null;
+        assertTrue(blocking.closed);
+        assertFalse(blocking.closedWhileExporting);
+    }
+
+    // Waits for the given number of records, and returns the device ids
+    // of the events they hold
+    private List<String> received(int count) throws Exception {
+        waitFor(count);
+        List<String> ids = new ArrayList<>();
+        for (byte[] record : sink.records) {
+            ByteArrayInputStream in = new ByteArrayInputStream(record);
+            DeviceCore message;
+            while ((message = DeviceCore.parseDelimitedFrom(in)) != null) {
+                ids.add(message.getDeviceId());
+            }
+        }
+        return ids;
+    }
+
+    private void waitFor(int count) throws InterruptedException {
+        for (int i = 0; i < 100 && sink.records.size() < count; i++) {
+            Thread.sleep(20);
+        }
+        assertEquals(count, sink.records.size());
+    }
+
+    // Sink keeping the records it receives
+    private static final class RecordingSink implements EventExportSink {
+        private final List<byte[]> records = new CopyOnWriteArrayList<>();
+
+        @Override
+        public Future<?> export(Type eventType, byte[] record) {
+            records.add(record);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    // Sink holding up the export of its first record until the exporter
+    // is done waiting for it, either accepted or abandoned
+    private static final class BlockingSink implements EventExportSink {
+        private final CountDownLatch exporting = new CountDownLatch(1);
+        private final CompletableFuture<Void> accepted = new CompletableFuture<Void>() {
+            @Override
+            public Void get() throws InterruptedException, ExecutionException {
+                try {
+                    return super.get();
+                } finally {
+                    waiting = false;
+                }
+            }
+        };
+        private volatile boolean waiting;
+        private volatile boolean closed;
+        private volatile boolean closedWhileExporting;
+
+        @Override
+        public Future<?> export(Type eventType, byte[] record) {
+            waiting = true;
+            exporting.countDown();
+            return accepted;
+        }
+
+        @Override
+        public void close() {
+            closedWhileExporting = waiting;
+            closed = true;
+        }
+    }
+
+    private static final class TestEvent extends AbstractEvent<TestEvent.Kind, String> {
+        private enum Kind {
+            UPDATED
+        }
+
+        private TestEvent(String subject) {
+            super(Kind.UPDATED, subject);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.kafkaintegration.kafka;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.ImmutableList;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.onlab.packet.ChassisId;
+import org.onosproject.cfg.ComponentConfigAdapter;
+import org.onosproject.event.ListenerRegistry;
+import org.onosproject.kafkaintegration.api.EventSubscriptionService;
+import org.onosproject.kafkaintegration.api.KafkaProducerService;
+import org.onosproject.kafkaintegration.api.dto.EventSubscriber;
+import org.onosproject.kafkaintegration.api.dto.KafkaServerConfig;
+import org.onosproject.kafkaintegration.api.dto.OnosEvent.Type;
+import org.onosproject.kafkaintegration.api.dto.RegistrationResponse;
+import org.onosproject.net.DefaultDevice;
+import org.onosproject.net.Device;
+import org.onosproject.net.device.DeviceEvent;
+import org.onosproject.net.device.DeviceListener;
+import org.onosproject.net.device.DeviceServiceAdapter;
+import org.onosproject.net.link.LinkServiceAdapter;
+import org.onosproject.net.provider.ProviderId;
+
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.onosproject.net.DeviceId.deviceId;
+
+/**
+ * Unit tests for {@link EventMonitor}.
+ */
+public class EventMonitorTest {
+
+    private final TestDeviceService deviceService = new TestDeviceService();
+    private final TestSubscriptionService subscriptionService = new TestSubscriptionService();
+    private EventMonitor monitor;
+
+    @Before
+    public void setUp() {
+        monitor = new EventMonitor();
+        monitor.eventSubscriptionService = subscriptionService;
+        monitor.eventConversionService = event -> null;
+        monitor.kafkaProducer = new TestProducer();
+        monitor.deviceService = deviceService;
+        monitor.linkService = new LinkServiceAdapter();
+        monitor.kafkaConfigService = () -> null;
+        monitor.componentConfigService = new ComponentConfigAdapter();
+        monitor.activate(null);
+    }
+
+    @After
+    public void tearDown() {
+        monitor.deactivate();
+    }
+
+    /**
+     * Tests that the listeners are notified off the dispatching thread.
+     */
+    @Test
+    public void notifiedOffDispatchThread() throws Exception {
+        assertTrue(deviceService.registry.isDecoupled(deviceService.listener));
+
+        Device device = new DefaultDevice(ProviderId.NONE, deviceId("of:1"), Device.Type.SWITCH,
+                                          "m", "h", "s", "n", new ChassisId(0L));
+        deviceService.registry.process(new DeviceEvent(DeviceEvent.Type.DEVICE_ADDED, device));
+
+        assertTrue(subscriptionService.looked.await(5, TimeUnit.SECONDS));
+        assertNotEquals(Thread.currentThread(), subscriptionService.thread);
+    }
+
+    private static class TestDeviceService extends DeviceServiceAdapter {
+        private final ListenerRegistry<DeviceEvent, DeviceListener> registry =
+                new ListenerRegistry<>();
+        private DeviceListener listener;
+
+        @Override
+        public void addListener(DeviceListener listener) {
+            this.listener = listener;
+            registry.addListener(listener);
+        }
+
+        @Override
+        public void removeListener(DeviceListener listener) {
+            registry.removeListener(listener);
+        }
+    }
+
+    private static class TestSubscriptionService implements EventSubscriptionService {
+        private final CountDownLatch looked = new CountDownLatch(1);
+        private volatile Thread thread;
+
+        @Override
+        public RegistrationResponse registerListener(String appName) {
+            return null;
+        }
+
+        @Override
+        public void unregisterListener(String appName) {
+        }
+
+        @Override
+        public void subscribe(EventSubscriber subscriber) {
+        }
+
+        @Override
+        public void unsubscribe(EventSubscriber subscriber) {
+        }
+
+        @Override
+        public List<EventSubscriber> getEventSubscribers(Type type) {
+            thread = Thread.currentThread();
+            looked.countDown();
+            return ImmutableList.of();
+        }
+    }
+
+    private static class TestProducer implements KafkaProducerService {
+        @Override
+        public void start(KafkaServerConfig config) {
+        }
+
+        @Override
+        public void stop() {
+        }
+
+        @Override
+        public void restart(KafkaServerConfig config) {
+        }
+
+        @Override
+        public Future<RecordMetadata> send(ProducerRecord<String, byte[]> record) {
+            return null;
+        }
+    }
+}
@@ -15,9 +15,9 @@
  */
 package org.onosproject.segmentrouting;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
-import com.google.common.collect.Sets;
 import org.onlab.packet.Ip4Address;
 import org.onlab.packet.Ip4Prefix;
 import org.onlab.packet.IpPrefix;
@@ -30,17 +30,27 @@ import org.onosproject.segmentrouting.config.DeviceConfiguration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import static java.util.concurrent.Executors.newFixedThreadPool;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static org.onlab.util.Tools.groupedThreads;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -51,17 +61,27 @@ import static com.google.common.base.Preconditions.checkNotNull;
 public class DefaultRoutingHandler {
     private static final int MAX_RETRY_ATTEMPTS = 25;
     private static final String ECMPSPG_MISSING = "ECMP shortest path graph not found";
+    private static final int POPULATION_THREADS =
+            Math.min(8, Runtime.getRuntime().availableProcessors());
     private static Logger log = LoggerFactory.getLogger(DefaultRoutingHandler.class);
 
     private SegmentRoutingManager srManager;
     private RoutingRulePopulator rulePopulator;
-    private HashMap<DeviceId, EcmpShortestPathGraph> currentEcmpSpgMap;
-    private HashMap<DeviceId, EcmpShortestPathGraph> updatedEcmpSpgMap;
+    private Map<DeviceId, EcmpShortestPathGraph> currentEcmpSpgMap;
+    // Routing matrix of the topology for which rules were last populated
+    private volatile EcmpRoutingMatrix routingMatrix;
     private DeviceConfiguration config;
     private final Lock statusLock = new ReentrantLock();
     private volatile Status populationStatus;
+    private final Map<DeviceId, Status> devicePopulationStatus = new ConcurrentHashMap<>();
+    private final AtomicBoolean abortRequested = new AtomicBoolean();
     private ScheduledExecutorService executorService
         = newScheduledThreadPool(1, groupedThreads("RoutingHandler", "retry-%d", log));
+    // Bounded pool on which per-destination graph computation and rule
+    // population run in parallel.
+    private ExecutorService populationExecutor
+        = newFixedThreadPool(POPULATION_THREADS,
+                             groupedThreads("RoutingHandler", "populate-%d", log));
 
     /**
      * Represents the default routing population status.
@@ -91,7 +111,38 @@ public class DefaultRoutingHandler {
         this.rulePopulator = checkNotNull(srManager.routingRulePopulator);
         this.config = checkNotNull(srManager.deviceConfiguration);
         this.populationStatus = Status.IDLE;
-        this.currentEcmpSpgMap = Maps.newHashMap();
+        this.currentEcmpSpgMap = Maps.newConcurrentMap();
+    }
+
+    /**
+     * Returns the rule population status of each locally mastered device
+     * visited by the most recent population process.
+     *
+     * @return map of device identifiers to population status
+     */
+    public Map<DeviceId, Status> getDevicePopulationStatus() {
+        return ImmutableMap.copyOf(devicePopulationStatus);
+    }
+
+    /**
+     * Requests the population process in progress, if any, to be aborted.
+     * Devices whose rules are being populated at the time are completed; the
+     * remaining devices are skipped and marked as aborted.
+     */
+    public void abortPopulation() {
+        if (populationStatus == Status.STARTED) {
+            log.info("Aborting routing rule population");
+            abortRequested.set(true);
+        }
+    }
+
+    /**
+     * Shuts down the executors used by this routing handler.
+     */
+    public void shutdown() {
+        abortRequested.set(true);
+        populationExecutor.shutdownNow();
+        executorService.shutdownNow();
     }
 
     /**
@@ -105,29 +156,43 @@ public class DefaultRoutingHandler {
         statusLock.lock();
         try {
             populationStatus = Status.STARTED;
+            abortRequested.set(false);
+            devicePopulationStatus.clear();
             rulePopulator.resetCounter();
             log.info("Starting to populate segment-routing rules");
             log.debug("populateAllRoutingRules: populationStatus is STARTED");
 
+            routingMatrix = null;
+            EcmpRoutingMatrix matrix = buildRoutingMatrix(null);
+            List<DeviceId> devices = new ArrayList<>();
             for (Device sw : srManager.deviceService.getDevices()) {
                 if (!srManager.mastershipService.isLocalMaster(sw.id())) {
                     log.debug("populateAllRoutingRules: skipping device {}...we are not master",
                               sw.id());
                     continue;
                 }
+                devices.add(sw.id());
+            }
 
-                EcmpShortestPathGraph ecmpSpg = new EcmpShortestPathGraph(sw.id(), srManager);
-                if (!populateEcmpRoutingRules(sw.id(), ecmpSpg, ImmutableSet.of())) {
-                    log.debug("populateAllRoutingRules: populationStatus is ABORTED");
-                    populationStatus = Status.ABORTED;
-                    log.debug("Abort routing rule population");
+            // Graphs and rules towards each destination are independent of
+            // one another, so they are computed and pushed in parallel.
+            boolean success = populateInParallel(devices, deviceId -> {
+                EcmpShortestPathGraph ecmpSpg = new EcmpShortestPathGraph(deviceId, srManager);
+                if (!populateEcmpRoutingRules(deviceId, ecmpSpg, ImmutableSet.of())) {
                     return false;
                 }
-                currentEcmpSpgMap.put(sw.id(), ecmpSpg);
-
+                currentEcmpSpgMap.put(deviceId, ecmpSpg);
                 // TODO: Set adjacency routing rule for all switches
+                return true;
+            });
+            if (!success) {
+                log.debug("populateAllRoutingRules: populationStatus is ABORTED");
+                populationStatus = Status.ABORTED;
+                log.debug("Abort routing rule population");
+                return false;
             }
 
+            routingMatrix = matrix;
             log.debug("populateAllRoutingRules: populationStatus is SUCCEEDED");
             populationStatus = Status.SUCCEEDED;
             log.info("Completed routing rule population. Total # of rules pushed : {}",
@@ -156,51 +221,48 @@ public class DefaultRoutingHandler {
                 return true;
             }
 
-            // Take the snapshots of the links
-            updatedEcmpSpgMap = new HashMap<>();
-            for (Device sw : srManager.deviceService.getDevices()) {
-                if (!srManager.mastershipService.isLocalMaster(sw.id())) {
-                    continue;
-                }
-                EcmpShortestPathGraph ecmpSpgUpdated =
-                        new EcmpShortestPathGraph(sw.id(), srManager);
-                updatedEcmpSpgMap.put(sw.id(), ecmpSpgUpdated);
+            // Without the matrix of the previous population, there is
+            // nothing to compare with and full re-routing is required.
+            EcmpRoutingMatrix previous = routingMatrix;
+            if (previous == null) {
+                return populateAllRoutingRules();
             }
 
             log.info("Starts rule population from link change");
-
-            Set<ArrayList<DeviceId>> routeChanges;
             log.trace("populateRoutingRulesForLinkStatusChange: "
                     + "populationStatus is STARTED");
             populationStatus = Status.STARTED;
-            // optimized re-routing
-            if (linkFail == null) {
-                // Compare all routes of existing ECMP SPG with the new ones
-                routeChanges = computeRouteChange();
-            } else {
-                // Compare existing ECMP SPG only with the link removed
-                routeChanges = computeDamagedRoutes(linkFail);
-            }
-
-            // null routeChanges indicates that full re-routing is required
-            if (routeChanges == null) {
-                return populateAllRoutingRules();
+            abortRequested.set(false);
+            devicePopulationStatus.clear();
+
+            // Take the snapshots of the links; only the destinations affected
+            // by the link change are recomputed.
+            EcmpRoutingMatrix matrix = buildRoutingMatrix(previous);
+            Map<DeviceId, Set<DeviceId>> routeChanges = computeRouteChange(matrix, previous);
+            if (linkFail != null) {
+                log.debug("Link {} -> {} failed; {} destinations impacted",
+                          linkFail.src().deviceId(), linkFail.dst().deviceId(),
+                          routeChanges.size());
             }
 
             if (routeChanges.isEmpty()) {
+                routingMatrix = matrix;
                 log.info("No route changes for the link status change");
                 log.debug("populateRoutingRulesForLinkStatusChange: populationStatus is SUCCEEDED");
                 populationStatus = Status.SUCCEEDED;
                 return true;
             }
 
-            if (repopulateRoutingRulesForRoutes(routeChanges)) {
+            if (repopulateRoutingRulesForRoutes(routeChanges, matrix)) {
+                routingMatrix = matrix;
                 log.debug("populateRoutingRulesForLinkStatusChange: populationStatus is SUCCEEDED");
                 populationStatus = Status.SUCCEEDED;
                 log.info("Complete to repopulate the rules. # of rules populated : {}",
                         rulePopulator.getCounter());
                 return true;
             } else {
+                // Leave the previous matrix in place so that the next event
+                // sees the routes which failed to be repopulated as changed.
                 log.debug("populateRoutingRulesForLinkStatusChange: populationStatus is ABORTED");
                 populationStatus = Status.ABORTED;
                 log.warn("Failed to repopulate the rules.");
@@ -211,245 +273,147 @@ public class DefaultRoutingHandler {
         }
     }
 
-    private boolean repopulateRoutingRulesForRoutes(Set<ArrayList<DeviceId>> routes) {
+    /**
+     * Builds the routing matrix of the current topology.
+     *
+     * @param previous matrix to derive the new one from; null to build anew
+     * @return routing matrix
+     */
+    private EcmpRoutingMatrix buildRoutingMatrix(EcmpRoutingMatrix previous) {
+        List<DeviceId> deviceIds = new ArrayList<>();
+        srManager.deviceService.getDevices().forEach(d -> deviceIds.add(d.id()));
+        Iterable<Link> links = srManager.linkService.getLinks();
+        EcmpRoutingMatrix matrix = previous == null ?
+                EcmpRoutingMatrix.build(deviceIds, links) :
+                previous.update(deviceIds, links);
+        if (previous == null) {
+            log.info("ECMP routing matrix of {} devices uses about {} KB",
+                     matrix.deviceCount(), matrix.memoryFootprint() / 1024);
+        }
+        return matrix;
+    }
+
+    private boolean repopulateRoutingRulesForRoutes(Map<DeviceId, Set<DeviceId>> routes,
+                                                    EcmpRoutingMatrix matrix) {
         rulePopulator.resetCounter();
-        HashMap<DeviceId, ArrayList<ArrayList<DeviceId>>> routesBydevice =
-                new HashMap<>();
-        for (ArrayList<DeviceId> link: routes) {
-            // When only the source device is defined, reinstall routes to all other devices
-            if (link.size() == 1) {
-                log.trace("repopulateRoutingRulesForRoutes: running ECMP graph for device {}", link.get(0));
-                EcmpShortestPathGraph ecmpSpg = new EcmpShortestPathGraph(link.get(0), srManager);
-                if (populateEcmpRoutingRules(link.get(0), ecmpSpg, ImmutableSet.of())) {
-                    log.debug("Populating flow rules from all to dest:{} is successful",
-                              link.get(0));
-                    currentEcmpSpgMap.put(link.get(0), ecmpSpg);
-                } else {
-                    log.warn("Failed to populate the flow rules from all to dest:{}", link.get(0));
+        return populateInParallel(routes.keySet(), dst -> {
+            for (DeviceId targetSw : routes.get(dst)) {
+                if (abortRequested.get()) {
                     return false;
                 }
-            } else {
-                ArrayList<ArrayList<DeviceId>> deviceRoutes =
-                        routesBydevice.get(link.get(1));
-                if (deviceRoutes == null) {
-                    deviceRoutes = new ArrayList<>();
-                    routesBydevice.put(link.get(1), deviceRoutes);
-                }
-                deviceRoutes.add(link);
-            }
-        }
-
-        for (DeviceId impactedDevice : routesBydevice.keySet()) {
-            ArrayList<ArrayList<DeviceId>> deviceRoutes =
-                    routesBydevice.get(impactedDevice);
-            for (ArrayList<DeviceId> link: deviceRoutes) {
                 log.debug("repopulate RoutingRules For Routes {} -> {}",
-                          link.get(0), link.get(1));
-                DeviceId src = link.get(0);
-                DeviceId dst = link.get(1);
-                EcmpShortestPathGraph ecmpSpg = updatedEcmpSpgMap.get(dst);
-                HashMap<Integer, HashMap<DeviceId, ArrayList<ArrayList<DeviceId>>>> switchVia =
-                        ecmpSpg.getAllLearnedSwitchesAndVia();
-                for (Integer itrIdx : switchVia.keySet()) {
-                    HashMap<DeviceId, ArrayList<ArrayList<DeviceId>>> swViaMap =
-                            switchVia.get(itrIdx);
-                    for (DeviceId targetSw : swViaMap.keySet()) {
-                        if (!targetSw.equals(src)) {
-                            continue;
-                        }
-                        Set<DeviceId> nextHops = new HashSet<>();
-                        for (ArrayList<DeviceId> via : swViaMap.get(targetSw)) {
-                            if (via.isEmpty()) {
-                                nextHops.add(dst);
-                            } else {
-                                nextHops.add(via.get(0));
-                            }
-                        }
-                        if (!populateEcmpRoutingRulePartial(targetSw, dst,
-                                nextHops, ImmutableSet.of())) {
-                            return false;
-                        }
-                        log.debug("Populating flow rules from {} to {} is successful",
-                                  targetSw, dst);
-                    }
+                          targetSw, dst);
+                Set<DeviceId> nextHops = new HashSet<>(matrix.nextHops(targetSw, dst));
+                if (!populateEcmpRoutingRulePartial(targetSw, dst,
+                        nextHops, ImmutableSet.of())) {
+                    return false;
                 }
-                //currentEcmpSpgMap.put(dst, ecmpSpg);
+                log.debug("Populating flow rules from {} to {} is successful",
+                          targetSw, dst);
             }
-            //Only if all the flows for all impacted routes to a
-            //specific target are pushed successfully, update the
-            //ECMP graph for that target. (Or else the next event
-            //would not see any changes in the ECMP graphs)
-            currentEcmpSpgMap.put(impactedDevice,
-                                  updatedEcmpSpgMap.get(impactedDevice));
-        }
-        return true;
+            // Refresh the graph used for populating subnets towards the
+            // destination, now that its routes have been repopulated.
+            currentEcmpSpgMap.put(dst, new EcmpShortestPathGraph(dst, srManager));
+            return true;
+        });
     }
 
     /**
-     * Computes set of affected ECMP routes due to failed link. Assumes
-     * previous ecmp shortest-path graph exists for a switch in order to compute
-     * affected routes. If such a graph does not exist, the method returns null.
+     * Runs the specified population task for each of the given destination
+     * devices on the population executor, tracking the progress of each
+     * device. Once a task fails or an abort is requested, the tasks which
+     * have not yet started are skipped.
      *
-     * @param linkFail the failed link
-     * @return the set of affected routes which may be empty if no routes were
-     *         affected, or null if no previous ecmp spg was found for comparison
+     * @param devices destination devices
+     * @param task population task; returns false on failure
+     * @return true if the task succeeded for all devices
      */
-    private Set<ArrayList<DeviceId>> computeDamagedRoutes(Link linkFail) {
-
-        Set<ArrayList<DeviceId>> routes = new HashSet<>();
-
-        for (Device sw : srManager.deviceService.getDevices()) {
-            log.debug("Computing the impacted routes for device {} due to link fail",
-                      sw.id());
-            if (!srManager.mastershipService.isLocalMaster(sw.id())) {
-                log.debug("No mastership for {} .. skipping route optimization",
-                          sw.id());
-                continue;
-            }
-            EcmpShortestPathGraph ecmpSpg = currentEcmpSpgMap.get(sw.id());
-            if (ecmpSpg == null) {
-                log.warn("No existing ECMP graph for switch {}. Aborting optimized"
-                        + " rerouting and opting for full-reroute", sw.id());
-                return null;
+    private boolean populateInParallel(Collection<DeviceId> devices,
+                                       Predicate<DeviceId> task) {
+        devices.forEach(deviceId -> devicePopulationStatus.put(deviceId, Status.IDLE));
+        boolean success = runInParallel(devices, deviceId -> {
+            if (abortRequested.get()) {
+                devicePopulationStatus.put(deviceId, Status.ABORTED);
+                return false;
             }
-            HashMap<Integer, HashMap<DeviceId, ArrayList<ArrayList<DeviceId>>>> switchVia =
-                    ecmpSpg.getAllLearnedSwitchesAndVia();
-            for (Integer itrIdx : switchVia.keySet()) {
-                log.trace("Iterindex# {}", itrIdx);
-                HashMap<DeviceId, ArrayList<ArrayList<DeviceId>>> swViaMap =
-                        switchVia.get(itrIdx);
-                for (DeviceId targetSw : swViaMap.keySet()) {
-                    DeviceId destSw = sw.id();
-                    if (log.isTraceEnabled()) {
-                        log.trace("TargetSwitch {} --> RootSwitch {}", targetSw, destSw);
-                        for (ArrayList<DeviceId> via : swViaMap.get(targetSw)) {
-                            log.trace(" Via:");
-                            via.forEach(e -> { log.trace("  {}", e); });
-                        }
-                    }
-                    Set<ArrayList<DeviceId>> subLinks =
-                            computeLinks(targetSw, destSw, swViaMap);
-                    for (ArrayList<DeviceId> alink: subLinks) {
-                        if ((alink.get(0).equals(linkFail.src().deviceId()) &&
-                                alink.get(1).equals(linkFail.dst().deviceId()))
-                                ||
-                             (alink.get(0).equals(linkFail.dst().deviceId()) &&
-                                     alink.get(1).equals(linkFail.src().deviceId()))) {
-                            log.debug("Impacted route:{}->{}", targetSw, destSw);
-                            ArrayList<DeviceId> aRoute = new ArrayList<>();
-                            aRoute.add(targetSw);
-                            aRoute.add(destSw);
-                            routes.add(aRoute);
-                            break;
-                        }
-                    }
-                }
+            devicePopulationStatus.put(deviceId, Status.STARTED);
+            boolean populated = task.test(deviceId);
+            devicePopulationStatus.put(deviceId, populated ? Status.SUCCEEDED : Status.ABORTED);
+            if (!populated) {
+                abortRequested.set(true);
             }
-
-        }
-
-        return routes;
+            return populated;
+        });
+        // Leave population outside of this process unaffected by the abort.
+        abortRequested.set(false);
+        return success;
     }
 
-    private Set<ArrayList<DeviceId>> computeRouteChange() {
-
-        Set<ArrayList<DeviceId>> routes = new HashSet<>();
-
-        for (Device sw : srManager.deviceService.getDevices()) {
-            log.debug("Computing the impacted routes for device {}", sw.id());
-            if (!srManager.mastershipService.isLocalMaster(sw.id())) {
-                log.debug("No mastership for {} ... skipping route optimization",
-                          sw.id());
-                continue;
-            }
-            if (log.isTraceEnabled()) {
-                log.trace("link of {} - ", sw.id());
-                for (Link link: srManager.linkService.getDeviceLinks(sw.id())) {
-                    log.trace("{} -> {} ", link.src().deviceId(), link.dst().deviceId());
-                }
-            }
-            EcmpShortestPathGraph ecmpSpg = currentEcmpSpgMap.get(sw.id());
-            if (ecmpSpg == null) {
-                log.debug("No existing ECMP graph for device {}", sw.id());
-                ArrayList<DeviceId> route = new ArrayList<>();
-                route.add(sw.id());
-                routes.add(route);
-                continue;
-            }
-            EcmpShortestPathGraph newEcmpSpg = updatedEcmpSpgMap.get(sw.id());
-            //currentEcmpSpgMap.put(sw.id(), newEcmpSpg);
-            HashMap<Integer, HashMap<DeviceId, ArrayList<ArrayList<DeviceId>>>> switchVia =
-                    ecmpSpg.getAllLearnedSwitchesAndVia();
-            HashMap<Integer, HashMap<DeviceId, ArrayList<ArrayList<DeviceId>>>> switchViaUpdated =
-                    newEcmpSpg.getAllLearnedSwitchesAndVia();
-
-            for (Integer itrIdx : switchViaUpdated.keySet()) {
-                HashMap<DeviceId, ArrayList<ArrayList<DeviceId>>> swViaMapUpdated =
-                        switchViaUpdated.get(itrIdx);
-                for (DeviceId srcSw : swViaMapUpdated.keySet()) {
-                    ArrayList<ArrayList<DeviceId>> viaUpdated = swViaMapUpdated.get(srcSw);
-                    ArrayList<ArrayList<DeviceId>> via = getVia(switchVia, srcSw);
-                    if ((via == null) || !viaUpdated.equals(via)) {
-                        log.debug("Impacted route:{} -> {}", srcSw, sw.id());
-                        ArrayList<DeviceId> route = new ArrayList<>();
-                        route.add(srcSw);
-                        route.add(sw.id());
-                        routes.add(route);
-                    }
-                }
-            }
+    /**
+     * Runs the specified task for each of the given devices on the population
+     * executor and waits for all of them to complete.
+     *
+     * @param devices devices
+     * @param task task to run; returns false on failure
+     * @return true if the task succeeded for all devices
+     */
+    private boolean runInParallel(Collection<DeviceId> devices,
+                                  Predicate<DeviceId> task) {
+        List<Future<Boolean>> futures = new ArrayList<>(devices.size());
+        for (DeviceId deviceId : devices) {
+            futures.add(populationExecutor.submit(() -> task.test(deviceId)));
         }
 
-        if (log.isTraceEnabled()) {
-            for (ArrayList<DeviceId> link: routes) {
-                log.trace("Route changes - ");
-                if (link.size() == 1) {
-                    log.trace(" : all -> {}", link.get(0));
-                } else {
-                    log.trace(" : {} -> {}", link.get(0), link.get(1));
-                }
+        boolean success = true;
+        for (Future<Boolean> future : futures) {
+            try {
+                success &= future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                abortRequested.set(true);
+                success = false;
+            } catch (ExecutionException e) {
+                log.warn("Routing rule population task failed", e.getCause());
+                abortRequested.set(true);
+                success = false;
             }
         }
-        return routes;
+        return success;
     }
 
-    private ArrayList<ArrayList<DeviceId>> getVia(HashMap<Integer, HashMap<DeviceId,
-            ArrayList<ArrayList<DeviceId>>>> switchVia, DeviceId srcSw) {
-        for (Integer itrIdx : switchVia.keySet()) {
-            HashMap<DeviceId, ArrayList<ArrayList<DeviceId>>> swViaMap =
-                    switchVia.get(itrIdx);
-            if (swViaMap.get(srcSw) == null) {
-                continue;
-            } else {
-                return swViaMap.get(srcSw);
+    /**
+     * Computes the routes towards locally mastered destinations whose ECMP
+     * next-hops differ between the two routing matrices.
+     *
+     * @param matrix routing matrix of the current topology
+     * @param previous routing matrix of the last populated topology
+     * @return map of destinations to the sources whose routes changed
+     */
+    private Map<DeviceId, Set<DeviceId>> computeRouteChange(EcmpRoutingMatrix matrix,
+                                                           EcmpRoutingMatrix previous) {
+        Map<DeviceId, Set<DeviceId>> routes = new HashMap<>();
+        matrix.changedRoutes(previous).forEach((dst, sources) -> {
+            if (!srManager.mastershipService.isLocalMaster(dst)) {
+                log.debug("No mastership for {} ... skipping route optimization", dst);
+                return;
             }
-        }
-
-        return null;
+            log.debug("Impacted routes: {} -> {}", sources, dst);
+            routes.put(dst, sources);
+        });
+        return routes;
     }
 
-    private Set<ArrayList<DeviceId>> computeLinks(DeviceId src,
-                                                  DeviceId dst,
-                       HashMap<DeviceId, ArrayList<ArrayList<DeviceId>>> viaMap) {
-        Set<ArrayList<DeviceId>> subLinks = Sets.newHashSet();
-        for (ArrayList<DeviceId> via : viaMap.get(src)) {
-            DeviceId linkSrc = src;
-            DeviceId linkDst = dst;
-            for (DeviceId viaDevice: via) {
-                ArrayList<DeviceId> link = new ArrayList<>();
-                linkDst = viaDevice;
-                link.add(linkSrc);
-                link.add(linkDst);
-                subLinks.add(link);
-                linkSrc = viaDevice;
+    private Set<DeviceId> nextHops(DeviceId destSw,
+                                   ArrayList<ArrayList<DeviceId>> vias) {
+        Set<DeviceId> nextHops = new HashSet<>();
+        for (ArrayList<DeviceId> via : vias) {
+            if (via.isEmpty()) {
+                nextHops.add(destSw);
+            } else {
+                nextHops.add(via.get(0));
             }
-            ArrayList<DeviceId> link = new ArrayList<>();
-            link.add(linkSrc);
-            link.add(dst);
-            subLinks.add(link);
         }
-
-        return subLinks;
+        return nextHops;
     }
 
     /**
@@ -470,15 +434,12 @@ public class DefaultRoutingHandler {
             HashMap<DeviceId, ArrayList<ArrayList<DeviceId>>> swViaMap = switchVia
                     .get(itrIdx);
             for (DeviceId targetSw : swViaMap.keySet()) {
-                Set<DeviceId> nextHops = new HashSet<>();
-                log.debug("** Iter: {} root: {} target: {}", itrIdx, destSw, targetSw);
-                for (ArrayList<DeviceId> via : swViaMap.get(targetSw)) {
-                    if (via.isEmpty()) {
-                        nextHops.add(destSw);
-                    } else {
-                        nextHops.add(via.get(0));
-                    }
+                if (abortRequested.get()) {
+                    log.debug("Population towards {} aborted", destSw);
+                    return false;
                 }
+                log.debug("** Iter: {} root: {} target: {}", itrIdx, destSw, targetSw);
+                Set<DeviceId> nextHops = nextHops(destSw, swViaMap.get(targetSw));
                 if (!populateEcmpRoutingRulePartial(targetSw, destSw, nextHops, subnets)) {
                     return false;
                 }
@@ -659,9 +620,6 @@ public class DefaultRoutingHandler {
 
     protected void purgeEcmpGraph(DeviceId deviceId) {
         currentEcmpSpgMap.remove(deviceId);
-        if (updatedEcmpSpgMap != null) {
-            updatedEcmpSpgMap.remove(deviceId);
-        }
         this.populateRoutingRulesForLinkStatusChange(null);
     }
 
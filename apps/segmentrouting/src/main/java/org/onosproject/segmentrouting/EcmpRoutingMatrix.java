@@ -0,0 +1,321 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.segmentrouting;
+
+import com.google.common.collect.ImmutableSet;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.Link;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * All-pairs ECMP shortest path distances of the fabric, held in a compact,
+ * integer-indexed matrix. The ECMP next-hops of any source towards any
+ * destination are derived from the distances and the adjacency of the source.
+ * <p>
+ * Matrices are immutable. A matrix reflecting a topology change is derived
+ * from its predecessor by recomputing only the rows of the destinations
+ * whose shortest paths may be affected by the links that were added or
+ * removed; the remaining rows are shared between the two matrices.
+ * </p>
+ */
+public final class EcmpRoutingMatrix {
+
+    private static final short UNREACHABLE = Short.MAX_VALUE;
+
+    private final DeviceId[] devices;
+    private final Map<DeviceId, Integer> index;
+    // Sorted, distinct neighbor indexes of each device
+    private final int[][] egress;
+    private final int[][] ingress;
+    // Distance of each source to each destination, indexed [dst][src]
+    private final short[][] distances;
+
+    private EcmpRoutingMatrix(DeviceId[] devices, Map<DeviceId, Integer> index,
+                              int[][] egress, int[][] ingress,
+                              short[][] distances) {
+        this.devices = devices;
+        this.index = index;
+        this.egress = egress;
+        this.ingress = ingress;
+        this.distances = distances;
+    }
+
+    /**
+     * Builds the routing matrix of the given topology snapshot.
+     *
+     * @param deviceIds fabric devices
+     * @param links     fabric links; links of unknown devices are ignored
+     * @return routing matrix
+     */
+    public static EcmpRoutingMatrix build(Iterable<DeviceId> deviceIds,
+                                          Iterable<Link> links) {
+        List<DeviceId> list = new ArrayList<>();
+        deviceIds.forEach(list::add);
+        DeviceId[] devices = list.toArray(new DeviceId[list.size()]);
+        Map<DeviceId, Integer> index = new HashMap<>();
+        for (int i = 0; i < devices.length; i++) {
+            index.put(devices[i], i);
+        }
+
+        int[][] egress = adjacency(devices.length, index, links, true);
+        int[][] ingress = adjacency(devices.length, index, links, false);
+        short[][] distances = new short[devices.length][];
+        for (int dst = 0; dst < devices.length; dst++) {
+            distances[dst] = distancesTo(dst, ingress);
+        }
+        return new EcmpRoutingMatrix(devices, index, egress, ingress, distances);
+    }
+
+    /**
+     * Derives the routing matrix of a new topology snapshot from this one.
+     * If the set of devices is unchanged, only the destinations affected by
+     * added or removed links are recomputed; otherwise the matrix is built
+     * anew.
+     *
+     * @param deviceIds fabric devices
+     * @param links     fabric links; links of unknown devices are ignored
+     * @return routing matrix of the new snapshot
+     */
+    public EcmpRoutingMatrix update(Iterable<DeviceId> deviceIds,
+                                    Iterable<Link> links) {
+        Set<DeviceId> ids = new HashSet<>();
+        deviceIds.forEach(ids::add);
+        if (!ids.equals(index.keySet())) {
+            return build(ids, links);
+        }
+
+        int n = devices.length;
+        int[][] newEgress = adjacency(n, index, links, true);
+        int[][] newIngress = adjacency(n, index, links, false);
+        short[][] newDistances = new short[n][];
+        for (int dst = 0; dst < n; dst++) {
+            newDistances[dst] = affected(dst, newEgress) ?
+                    distancesTo(dst, newIngress) : distances[dst];
+        }
+        return new EcmpRoutingMatrix(devices, index, newEgress, newIngress,
+                                     newDistances);
+    }
+
+    /**
+     * Returns the number of devices covered by the matrix.
+     *
+     * @return number of devices
+     */
+    public int deviceCount() {
+        return devices.length;
+    }
+
+    /**
+     * Returns the number of hops from the source to the destination.
+     *
+     * @param src source device
+     * @param dst destination device
+     * @return number of hops; -1 if the destination is unreachable or either
+     *         device is unknown
+     */
+    public int distance(DeviceId src, DeviceId dst) {
+        Integer s = index.get(src);
+        Integer d = index.get(dst);
+        if (s == null || d == null || distances[d][s] == UNREACHABLE) {
+            return -1;
+        }
+        return distances[d][s];
+    }
+
+    /**
+     * Returns the ECMP next-hops of the source towards the destination.
+     *
+     * @param src source device
+     * @param dst destination device
+     * @return set of next-hop devices; empty if the destination is
+     *         unreachable or is the source itself
+     */
+    public Set<DeviceId> nextHops(DeviceId src, DeviceId dst) {
+        Integer s = index.get(src);
+        Integer d = index.get(dst);
+        if (s == null || d == null) {
+            return ImmutableSet.of();
+        }
+        ImmutableSet.Builder<DeviceId> builder = ImmutableSet.builder();
+        for (int hop : nextHops(s, d)) {
+            builder.add(devices[hop]);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns the routes whose ECMP next-hops differ from those in the given
+     * matrix, grouped by destination. Routes of sources which can no longer
+     * reach their destination are not included.
+     *
+     * @param previous matrix to compare with; null to include all routes
+     * @return map of destinations to the sources whose next-hops changed
+     */
+    public Map<DeviceId, Set<DeviceId>> changedRoutes(EcmpRoutingMatrix previous) {
+        Map<DeviceId, Set<DeviceId>> changes = new HashMap<>();
+        boolean sameIndex = previous != null && previous.index == index;
+        for (int dst = 0; dst < devices.length; dst++) {
+            // Shared rows have seen no change of any shortest path.
+            if (sameIndex && previous.distances[dst] == distances[dst]) {
+                continue;
+            }
+            Set<DeviceId> sources = new HashSet<>();
+            for (int src = 0; src < devices.length; src++) {
+                if (src == dst || distances[dst][src] == UNREACHABLE) {
+                    continue;
+                }
+                if (sameIndex) {
+                    if (!Arrays.equals(nextHops(src, dst), previous.nextHops(src, dst))) {
+                        sources.add(devices[src]);
+                    }
+                } else if (previous == null ||
+                        !nextHops(devices[src], devices[dst])
+                                .equals(previous.nextHops(devices[src], devices[dst]))) {
+                    sources.add(devices[src]);
+                }
+            }
+            if (!sources.isEmpty()) {
+                changes.put(devices[dst], sources);
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Returns an estimate of the heap memory used by the matrix, counting
+     * shared rows in full.
+     *
+     * @return estimated size in bytes
+     */
+    public long memoryFootprint() {
+        final long arrayHeader = 16;
+        final long reference = 4;
+        long n = devices.length;
+        long bytes = arrayHeader + n * reference;
+        // Distance rows
+        bytes += arrayHeader + n * reference + n * (arrayHeader + n * Short.BYTES);
+        // Adjacency arrays
+        for (int i = 0; i < n; i++) {
+            bytes += 2 * arrayHeader + (egress[i].length + ingress[i].length) * Integer.BYTES;
+        }
+        bytes += 2 * (arrayHeader + n * reference);
+        // Device index, at roughly 48 bytes per hash map entry
+        bytes += n * 48;
+        return bytes;
+    }
+
+    // Returns the next-hops of the source towards the destination.
+    private int[] nextHops(int src, int dst) {
+        short[] row = distances[dst];
+        if (row[src] == UNREACHABLE || src == dst) {
+            return new int[0];
+        }
+        int[] hops = new int[egress[src].length];
+        int count = 0;
+        for (int neighbor : egress[src]) {
+            if (row[neighbor] == row[src] - 1) {
+                hops[count++] = neighbor;
+            }
+        }
+        return Arrays.copyOf(hops, count);
+    }
+
+    // Indicates whether the shortest paths towards the destination may be
+    // affected by moving from the current adjacency to the given one. A link
+    // from u to v matters only if it lies, or would lie, on a shortest path,
+    // that is if v is no farther from the destination than u is, less a hop.
+    private boolean affected(int dst, int[][] newEgress) {
+        short[] row = distances[dst];
+        for (int u = 0; u < egress.length; u++) {
+            int[] oldHops = egress[u];
+            int[] newHops = newEgress[u];
+            if (Arrays.equals(oldHops, newHops)) {
+                continue;
+            }
+            for (int v : oldHops) {
+                if (Arrays.binarySearch(newHops, v) < 0 &&
+                        row[v] != UNREACHABLE && row[v] + 1 == row[u]) {
+                    return true;
+                }
+            }
+            for (int v : newHops) {
+                if (Arrays.binarySearch(oldHops, v) < 0 &&
+                        row[v] != UNREACHABLE && row[v] + 1 <= row[u]) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Computes the distance of every device to the destination by running a
+    // BFS from the destination against the direction of the links.
+    private static short[] distancesTo(int dst, int[][] ingress) {
+        short[] row = new short[ingress.length];
+        Arrays.fill(row, UNREACHABLE);
+        int[] queue = new int[ingress.length];
+        int head = 0;
+        int tail = 0;
+        row[dst] = 0;
+        queue[tail++] = dst;
+        while (head < tail) {
+            int v = queue[head++];
+            for (int u : ingress[v]) {
+                if (row[u] == UNREACHABLE) {
+                    row[u] = (short) (row[v] + 1);
+                    queue[tail++] = u;
+                }
+            }
+        }
+        return row;
+    }
+
+    // Builds sorted, distinct neighbor index arrays from the given links.
+    private static int[][] adjacency(int n, Map<DeviceId, Integer> index,
+                                     Iterable<Link> links, boolean egress) {
+        List<Set<Integer>> neighbors = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            neighbors.add(new HashSet<>());
+        }
+        for (Link link : links) {
+            Integer src = index.get(link.src().deviceId());
+            Integer dst = index.get(link.dst().deviceId());
+            if (src == null || dst == null || src.equals(dst)) {
+                continue;
+            }
+            if (egress) {
+                neighbors.get(src).add(dst);
+            } else {
+                neighbors.get(dst).add(src);
+            }
+        }
+
+        int[][] adjacency = new int[n][];
+        for (int i = 0; i < n; i++) {
+            adjacency[i] = neighbors.get(i).stream().mapToInt(Integer::intValue)
+                    .sorted().toArray();
+        }
+        return adjacency;
+    }
+
+}
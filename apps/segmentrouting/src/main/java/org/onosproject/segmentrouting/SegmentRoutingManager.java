@@ -396,6 +396,9 @@ public class SegmentRoutingManager implements SegmentRoutingService {
         processor = null;
         linkListener = null;
         deviceListener = null;
+        if (defaultRoutingHandler != null) {
+            defaultRoutingHandler.shutdown();
+        }
         groupHandlerMap.clear();
 
         nsNextObjStore.destroy();
@@ -916,6 +919,9 @@ public class SegmentRoutingManager implements SegmentRoutingService {
             icmpHandler = new IcmpHandler(segmentRoutingManager);
             ipHandler = new IpHandler(segmentRoutingManager);
             routingRulePopulator = new RoutingRulePopulator(segmentRoutingManager);
+            if (defaultRoutingHandler != null) {
+                defaultRoutingHandler.shutdown();
+            }
             defaultRoutingHandler = new DefaultRoutingHandler(segmentRoutingManager);
 
             tunnelHandler = new TunnelHandler(linkService, deviceConfiguration,
@@ -373,9 +373,17 @@ public class DefaultGroupHandler {
                       .filter((nsStoreEntry) ->
                       (nsStoreEntry.getKey().deviceId().equals(deviceId)))
                       .collect(Collectors.toList()));
-            createGroupsFromNeighborsets(Collections.singleton(ns), meta);
-            nextId = nsNextObjStore.
-                    get(new NeighborSetNextObjectiveStoreKey(deviceId, ns));
+            // Rules towards different destinations may be populated in
+            // parallel; make sure only one of them creates the groups.
+            synchronized (this) {
+                nextId = nsNextObjStore.
+                        get(new NeighborSetNextObjectiveStoreKey(deviceId, ns));
+                if (nextId == null) {
+                    createGroupsFromNeighborsets(Collections.singleton(ns), meta);
+                    nextId = nsNextObjStore.
+                            get(new NeighborSetNextObjectiveStoreKey(deviceId, ns));
+                }
+            }
             if (nextId == null) {
                 log.warn("getNextObjectiveId: unable to create next objective");
                 return -1;
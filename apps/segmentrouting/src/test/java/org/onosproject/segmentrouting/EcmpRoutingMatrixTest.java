@@ -0,0 +1,171 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.segmentrouting;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.junit.Test;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.Link;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.onosproject.net.NetTestTools.did;
+import static org.onosproject.net.NetTestTools.link;
+
+/**
+ * Tests for class {@link EcmpRoutingMatrix}.
+ */
+public class EcmpRoutingMatrixTest {
+    private static final DeviceId SPINE1 = did("spine1");
+    private static final DeviceId SPINE2 = did("spine2");
+    private static final DeviceId LEAF1 = did("leaf1");
+    private static final DeviceId LEAF2 = did("leaf2");
+    private static final List<DeviceId> DEVICES =
+            ImmutableList.of(SPINE1, SPINE2, LEAF1, LEAF2);
+
+    // Adds links in both directions between the two devices.
+    private static void connect(List<Link> links, String a, int ap, String b, int bp) {
+        links.add(link(a, ap, b, bp));
+        links.add(link(b, bp, a, ap));
+    }
+
+    private static List<Link> fabric() {
+        List<Link> links = new ArrayList<>();
+        connect(links, "leaf1", 1, "spine1", 1);
+        connect(links, "leaf1", 2, "spine2", 1);
+        connect(links, "leaf2", 1, "spine1", 2);
+        connect(links, "leaf2", 2, "spine2", 2);
+        return links;
+    }
+
+    /**
+     * Tests distances and ECMP next-hops of a leaf-spine fabric.
+     */
+    @Test
+    public void testNextHops() {
+        EcmpRoutingMatrix matrix = EcmpRoutingMatrix.build(DEVICES, fabric());
+
+        assertEquals(2, matrix.distance(LEAF1, LEAF2));
+        assertEquals(1, matrix.distance(LEAF1, SPINE1));
+        assertEquals(0, matrix.distance(LEAF1, LEAF1));
+        assertEquals(ImmutableSet.of(SPINE1, SPINE2), matrix.nextHops(LEAF1, LEAF2));
+        assertEquals(ImmutableSet.of(SPINE1), matrix.nextHops(LEAF1, SPINE1));
+        assertEquals(ImmutableSet.of(LEAF1, LEAF2), matrix.nextHops(SPINE1, SPINE2));
+        assertTrue(matrix.nextHops(LEAF1, LEAF1).isEmpty());
+        assertEquals(-1, matrix.distance(LEAF1, did("unknown")));
+    }
+
+    /**
+     * Tests that a link failure is reflected only in the affected routes.
+     */
+    @Test
+    public void testLinkFailure() {
+        List<Link> links = fabric();
+        EcmpRoutingMatrix matrix = EcmpRoutingMatrix.build(DEVICES, links);
+
+        links.remove(link("leaf2", 1, "spine1", 2));
+        links.remove(link("spine1", 2, "leaf2", 1));
+        EcmpRoutingMatrix updated = matrix.update(DEVICES, links);
+
+        assertEquals(ImmutableSet.of(SPINE2), updated.nextHops(LEAF1, LEAF2));
+        assertEquals(3, updated.distance(SPINE1, LEAF2));
+        assertEquals(ImmutableSet.of(LEAF1), updated.nextHops(SPINE1, LEAF2));
+
+        Map<DeviceId, Set<DeviceId>> changes = updated.changedRoutes(matrix);
+        assertEquals(ImmutableSet.of(LEAF1, SPINE1), changes.get(LEAF2));
+        assertEquals(ImmutableSet.of(LEAF2), changes.get(LEAF1));
+        // Routes of spine2 to the leaves are unaffected.
+        assertTrue(!changes.get(LEAF2).contains(SPINE2));
+
+        // Restoring the link restores the original routes.
+        EcmpRoutingMatrix restored = updated.update(DEVICES, fabric());
+        assertEquals(ImmutableSet.of(SPINE1, SPINE2), restored.nextHops(LEAF1, LEAF2));
+        assertEquals(changes.keySet(), restored.changedRoutes(updated).keySet());
+    }
+
+    /**
+     * Tests that links which do not change the adjacency leave routes intact.
+     */
+    @Test
+    public void testParallelLink() {
+        List<Link> links = fabric();
+        EcmpRoutingMatrix matrix = EcmpRoutingMatrix.build(DEVICES, links);
+
+        connect(links, "leaf1", 3, "spine1", 3);
+        EcmpRoutingMatrix updated = matrix.update(DEVICES, links);
+        assertTrue(updated.changedRoutes(matrix).isEmpty());
+    }
+
+    /**
+     * Tests that added devices are routed to from all sources.
+     */
+    @Test
+    public void testDeviceAdded() {
+        EcmpRoutingMatrix matrix = EcmpRoutingMatrix.build(DEVICES, fabric());
+
+        DeviceId leaf3 = did("leaf3");
+        List<DeviceId> devices = new ArrayList<>(DEVICES);
+        devices.add(leaf3);
+        List<Link> links = fabric();
+        connect(links, "leaf3", 1, "spine1", 3);
+        EcmpRoutingMatrix updated = matrix.update(devices, links);
+
+        assertEquals(ImmutableSet.of(SPINE1), updated.nextHops(LEAF1, leaf3));
+        assertEquals(ImmutableSet.of(SPINE1, SPINE2, LEAF1, LEAF2),
+                     updated.changedRoutes(matrix).get(leaf3));
+    }
+
+    /**
+     * Tests the size of the matrix of a 500 switch leaf-spine fabric.
+     */
+    @Test
+    public void testLargeFabric() {
+        int spines = 20;
+        int leaves = 480;
+        List<DeviceId> devices = new ArrayList<>();
+        List<Link> links = new ArrayList<>();
+        for (int s = 0; s < spines; s++) {
+            devices.add(did("spine" + s));
+        }
+        for (int l = 0; l < leaves; l++) {
+            devices.add(did("leaf" + l));
+            for (int s = 0; s < spines; s++) {
+                connect(links, "leaf" + l, s + 1, "spine" + s, l + 1);
+            }
+        }
+
+        EcmpRoutingMatrix matrix = EcmpRoutingMatrix.build(devices, links);
+        assertEquals(500, matrix.deviceCount());
+        assertEquals(spines, matrix.nextHops(did("leaf0"), did("leaf1")).size());
+        assertTrue("Matrix uses " + matrix.memoryFootprint() + " bytes",
+                   matrix.memoryFootprint() < 1024 * 1024);
+
+        links.remove(link("leaf0", 1, "spine0", 1));
+        links.remove(link("spine0", 1, "leaf0", 1));
+        EcmpRoutingMatrix updated = matrix.update(devices, links);
+        Map<DeviceId, Set<DeviceId>> changes = updated.changedRoutes(matrix);
+        assertEquals(spines - 1, updated.nextHops(did("leaf0"), did("leaf1")).size());
+        assertEquals(leaves, changes.get(did("leaf0")).size());
+    }
+
+}
@@ -26,6 +26,7 @@ import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -51,6 +52,8 @@ import org.onosproject.net.flow.DefaultTrafficTreatment;
 import org.onosproject.net.flow.FlowRule;
 import org.onosproject.net.flow.FlowRuleEvent;
 import org.onosproject.net.flow.FlowRuleListener;
+import org.onosproject.net.flow.FlowRuleOperations;
+import org.onosproject.net.flow.FlowRuleOperationsContext;
 import org.onosproject.net.flow.FlowRuleService;
 import org.onosproject.net.flow.TrafficSelector;
 import org.onosproject.net.flow.TrafficTreatment;
@@ -94,6 +97,9 @@ public class FlowPerfApp {
     private CountDownLatch uninstallationLatch;
     private Iterator<Device> devices;
     private AtomicLong macIndex;
+    private final AtomicLong batchLatencyTotal = new AtomicLong();
+    private final AtomicLong batchLatencyMax = new AtomicLong();
+    private final AtomicInteger completedBatches = new AtomicInteger();
 
     List<FlowRule> addedRules = Lists.newArrayList();
 
@@ -140,6 +146,9 @@ public class FlowPerfApp {
                 + "Batch Size: {}", totalFlows, totalThreads, batchSize);
 
         macIndex = new AtomicLong(0);
+        batchLatencyTotal.set(0);
+        batchLatencyMax.set(0);
+        completedBatches.set(0);
         FlowRuleListener addMonitor = event -> {
             if (event.type() == FlowRuleEvent.Type.RULE_ADDED) {
                 installationLatch.countDown();
@@ -153,7 +162,7 @@ public class FlowPerfApp {
                 while (pendingBatchCount.getAndDecrement() > 0) {
                     List<FlowRule> batch = nextBatch(batchSize);
                     addedRules.addAll(batch);
-                    flowRuleService.applyFlowRules(batch.toArray(new FlowRule[]{}));
+                    applyTimed(batch);
                 }
             });
         }
@@ -165,6 +174,12 @@ public class FlowPerfApp {
             Thread.interrupted();
         }
         log.info("Time to install {} flows: {} ms", totalFlows, System.currentTimeMillis() - addStartTime);
+        int batches = completedBatches.get();
+        if (batches > 0) {
+            log.info("Batch installation latency over {} batches: avg {} ms, max {} ms", batches,
+                     TimeUnit.NANOSECONDS.toMillis(batchLatencyTotal.get() / batches),
+                     TimeUnit.NANOSECONDS.toMillis(batchLatencyMax.get()));
+        }
         flowRuleService.removeListener(addMonitor);
 
 
@@ -195,6 +210,23 @@ public class FlowPerfApp {
         flowRuleService.removeListener(removeListener);
     }
 
+    // Applies the batch of flow rules, recording the time until the
+    // installation of the whole batch is confirmed.
+    private void applyTimed(List<FlowRule> batch) {
+        FlowRuleOperations.Builder builder = FlowRuleOperations.builder();
+        batch.forEach(builder::add);
+        long start = System.nanoTime();
+        flowRuleService.apply(builder.build(new FlowRuleOperationsContext() {
+            @Override
+            public void onSuccess(FlowRuleOperations ops) {
+                long latency = System.nanoTime() - start;
+                batchLatencyTotal.addAndGet(latency);
+                batchLatencyMax.accumulateAndGet(latency, Math::max);
+                completedBatches.incrementAndGet();
+            }
+        }));
+    }
+
     private List<FlowRule> nextBatch(int size) {
         List<FlowRule> rules = Lists.newArrayList();
         for (int i = 0; i < size; ++i) {
@@ -236,7 +268,7 @@ public class FlowPerfApp {
         int newBatchSize = batchSize;
         int newTotalThreads = totalThreads;
         try {
-            String s = get(properties, "batchSize");
+            String s = get(properties, "totalFlows");
             newTotalFlows = isNullOrEmpty(s)
                     ? totalFlows : Integer.parseInt(s.trim());
 
@@ -15,6 +15,7 @@
  */
 package org.onosproject.cli.net;
 
+import com.codahale.metrics.Snapshot;
 import org.apache.karaf.shell.commands.Command;
 import org.onosproject.cli.AbstractShellCommand;
 import org.onosproject.net.packet.PacketProcessorEntry;
@@ -31,6 +32,7 @@ import static org.onosproject.net.packet.PacketProcessor.DIRECTOR_MAX;
 public class PacketProcessorsListCommand extends AbstractShellCommand {
 
     private static final String FMT = "priority=%s, class=%s, packets=%d, avgNanos=%d";
+    private static final String LATENCY_FMT = FMT + ", p50Nanos=%d, p99Nanos=%d";
 
     @Override
     protected void execute() {
@@ -44,9 +46,17 @@ public class PacketProcessorsListCommand extends AbstractShellCommand {
     }
 
     private void print(PacketProcessorEntry entry) {
-        print(FMT, priorityFormat(entry.priority()),
-              entry.processor().getClass().getName(),
-              entry.invocations(), entry.averageNanos());
+        Snapshot latency = entry.latencySnapshot();
+        if (latency == null) {
+            print(FMT, priorityFormat(entry.priority()),
+                  entry.processor().getClass().getName(),
+                  entry.invocations(), entry.averageNanos());
+        } else {
+            print(LATENCY_FMT, priorityFormat(entry.priority()),
+                  entry.processor().getClass().getName(),
+                  entry.invocations(), entry.averageNanos(),
+                  (long) latency.getMedian(), (long) latency.get99thPercentile());
+        }
     }
 
     private String priorityFormat(int priority) {
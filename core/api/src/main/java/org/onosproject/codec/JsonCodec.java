@@ -15,10 +15,12 @@
  */
 package org.onosproject.codec;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -40,6 +42,25 @@ public abstract class JsonCodec<T> {
         throw new UnsupportedOperationException("encode() not supported");
     }
 
+    /**
+     * Encodes the specified entity into JSON, writing it to the given
+     * generator. Default implementation writes the node produced by
+     * {@link #encode(Object, CodecContext)}; codecs of entities which are
+     * commonly encoded in bulk may override it to write their fields
+     * directly.
+     *
+     * @param entity    entity to encode
+     * @param context   encoding context
+     * @param generator generator to write the JSON to
+     * @throws IOException if the JSON cannot be written
+     * @throws java.lang.UnsupportedOperationException if the codec does not
+     *                                                 support encode operations
+     */
+    public void encode(T entity, CodecContext context, JsonGenerator generator)
+            throws IOException {
+        context.mapper().writeTree(generator, encode(entity, context));
+    }
+
     /**
      * Decodes the specified entity from JSON.
      *
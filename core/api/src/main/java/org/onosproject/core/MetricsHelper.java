@@ -53,4 +53,22 @@ public interface MetricsHelper {
         return null;
     }
 
+    /**
+     * Creates a Timer instance for timing a hot path with given name.
+     *
+     * @param component component name
+     * @param feature   feature name
+     * @param name      timer name
+     * @return          Timer instance; null if there is no metrics service
+     */
+    default Timer createLatencyTimer(String component, String feature, String name) {
+        final MetricsService metricsService = metricsService();
+        if (metricsService != null) {
+            MetricsComponent c = metricsService.registerComponent(component);
+            MetricsFeature f = c.registerFeature(feature);
+            return metricsService.createLatencyTimer(c, f, name);
+        }
+        return null;
+    }
+
 }
@@ -15,11 +15,19 @@
  */
 package org.onosproject.event;
 
+import java.util.concurrent.Executor;
+
 /**
  * Entity capable of receiving events.
  */
 public interface EventListener<E extends Event> extends EventFilter<E> {
 
+    /**
+     * Default number of events held for a listener notified through an
+     * executor.
+     */
+    int DEFAULT_MAILBOX_CAPACITY = 10_000;
+
     /**
      * Reacts to the specified event.
      *
@@ -27,4 +35,29 @@ public interface EventListener<E extends Event> extends EventFilter<E> {
      */
     void event(E event);
 
+    /**
+     * Returns the executor through which the listener is to be notified.
+     * Listeners which provide an executor are notified off the event
+     * dispatching thread; their events are held in a bounded mailbox and
+     * delivered one at a time, in order. Relevance of events is still
+     * assessed on the dispatching thread.
+     * Default implementation returns null.
+     *
+     * @return executor; null to be notified on the dispatching thread
+     */
+    default Executor executor() {
+        return null;
+    }
+
+    /**
+     * Returns the maximum number of events held for the listener while it
+     * is notified through an executor. Events arriving at a full mailbox
+     * are dropped.
+     *
+     * @return mailbox capacity
+     */
+    default int mailboxCapacity() {
+        return DEFAULT_MAILBOX_CAPACITY;
+    }
+
 }
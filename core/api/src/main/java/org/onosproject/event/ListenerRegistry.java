@@ -15,10 +15,21 @@
  */
 package org.onosproject.event;
 
+import com.codahale.metrics.Timer;
 import org.slf4j.Logger;
 
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.slf4j.LoggerFactory.getLogger;
@@ -26,25 +37,48 @@ import static org.slf4j.LoggerFactory.getLogger;
 /**
  * Base implementation of an event sink and a registry capable of tracking
  * listeners and dispatching events to them as part of event sink processing.
+ * <p>
+ * Listeners are notified on the dispatching thread, unless they provide an
+ * {@link EventListener#executor() executor} of their own. The time each
+ * listener takes to process events is tracked; a listener notified on the
+ * dispatching thread which repeatedly takes too long is reported, and any
+ * listener which takes longer than the time limit is ejected, whichever
+ * thread it is notified on.
+ * </p>
  */
 public class ListenerRegistry<E extends Event, L extends EventListener<E>>
         implements ListenerService<E, L>, EventSink<E> {
 
     private static final long LIMIT = 1_800; // ms
 
+    // Listeners taking longer than this to process an event, a number of
+    // times in a row, are reported as slow
+    private static final long SLOW_LIMIT_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final int SLOW_STRIKES = 3;
+
     private final Logger log = getLogger(getClass());
 
-    private long lastStart;
-    private L lastListener;
+    // Deliveries in progress, at most one per dispatching thread, as an
+    // event sink may be driven by several dispatch lanes at once, and one
+    // per mailbox being drained
+    private final Set<Delivery> deliveries = ConcurrentHashMap.newKeySet();
+    private final ThreadLocal<Delivery> delivery = ThreadLocal.withInitial(Delivery::new);
 
     /**
      * Set of listeners that have registered.
      */
     protected final Set<L> listeners = new CopyOnWriteArraySet<>();
 
+    // Delivery state of each of the registered listeners
+    private final Map<L, ListenerEntry> entries = new ConcurrentHashMap<>();
+
+    // Provides the timers of the listeners, by listener class name
+    private volatile Function<String, Timer> timerFactory;
+
     @Override
     public void addListener(L listener) {
         checkNotNull(listener, "Listener cannot be null");
+        entries.computeIfAbsent(listener, ListenerEntry::new);
         listeners.add(listener);
     }
 
@@ -54,38 +88,120 @@ public class ListenerRegistry<E extends Event, L extends EventListener<E>>
         if (!listeners.remove(listener)) {
             log.warn("Listener {} not registered", listener);
         }
+        entries.remove(listener);
     }
 
     @Override
     public void process(E event) {
-        for (L listener : listeners) {
-            try {
-                lastListener = listener;
-                lastStart = System.currentTimeMillis();
-                if (listener.isRelevant(event)) {
-                    listener.event(event);
+        Delivery d = delivery.get();
+        deliveries.add(d);
+        try {
+            for (L listener : listeners) {
+                try {
+                    d.listener = listener;
+                    d.start = System.currentTimeMillis();
+                    ListenerEntry entry = entries.get(listener);
+                    if (entry != null && listener.isRelevant(event)) {
+                        Mailbox mailbox = entry.mailbox;
+                        if (mailbox != null) {
+                            mailbox.offer(event);
+                        } else {
+                            entry.deliver(event);
+                        }
+                    }
+                } catch (Exception error) {
+                    reportProblem(event, error);
+                } finally {
+                    d.start = 0;
                 }
-                lastStart = 0;
-            } catch (Exception error) {
-                reportProblem(event, error);
             }
+        } finally {
+            deliveries.remove(d);
         }
     }
 
     @Override
     public void onProcessLimit() {
-        if (lastStart > 0) {
-            long duration = System.currentTimeMillis() - lastStart;
+        deliveries.forEach(this::checkLimit);
+    }
+
+    // Ejects the listener of the given delivery if it has exceeded the
+    // time limit.
+    private void checkLimit(Delivery d) {
+        L listener = d.listener;
+        long start = d.start;
+        if (start > 0) {
+            long duration = System.currentTimeMillis() - start;
             if (duration > LIMIT) {
                 log.error("Listener {} exceeded execution time limit: {} ms; ejected",
-                          lastListener.getClass().getName(),
+                          listener.getClass().getName(),
                           duration);
-                removeListener(lastListener);
+                d.start = 0;
+                removeListener(listener);
             }
-            lastStart = 0;
         }
     }
 
+    /**
+     * Returns the mean time the given listener took to process an event.
+     *
+     * @param listener registered listener
+     * @return mean processing time in nanoseconds; 0 if the listener has
+     * not processed any events or is not registered
+     */
+    public long meanLatency(L listener) {
+        ListenerEntry entry = entries.get(listener);
+        return entry == null ? 0 : entry.meanLatency();
+    }
+
+    /**
+     * Returns the number of events dropped for the given listener because
+     * its mailbox was full.
+     *
+     * @param listener registered listener
+     * @return number of dropped events
+     */
+    public long droppedEvents(L listener) {
+        ListenerEntry entry = entries.get(listener);
+        return entry == null ? 0 : entry.dropped.get();
+    }
+
+    /**
+     * Indicates whether the given listener is notified off the dispatching
+     * thread, through the executor it provides.
+     *
+     * @param listener registered listener
+     * @return true if the listener is notified through an executor
+     */
+    public boolean isDecoupled(L listener) {
+        ListenerEntry entry = entries.get(listener);
+        return entry != null && entry.mailbox != null;
+    }
+
+    /**
+     * Indicates whether the given listener, notified on the dispatching
+     * thread, has repeatedly been slow to process events.
+     *
+     * @param listener registered listener
+     * @return true if the listener has been reported as slow
+     */
+    public boolean isSlow(L listener) {
+        ListenerEntry entry = entries.get(listener);
+        return entry != null && entry.slow;
+    }
+
+    /**
+     * Sets the factory of the timers recording how long each listener takes
+     * to process an event. Listeners of the same class share a timer.
+     *
+     * @param timerFactory factory providing the timer of a listener class
+     *                     name, possibly null; null for no timers
+     */
+    public void setTimerFactory(Function<String, Timer> timerFactory) {
+        this.timerFactory = timerFactory;
+        entries.values().forEach(ListenerEntry::resetTimer);
+    }
+
     /**
      * Reports a problem encountered while processing an event.
      *
@@ -96,4 +212,148 @@ public class ListenerRegistry<E extends Event, L extends EventListener<E>>
         log.warn("Exception encountered while processing event " + event, error);
     }
 
+    // Listener being invoked by a dispatching thread and since when.
+    private class Delivery {
+        private volatile L listener;
+        private volatile long start;
+    }
+
+    // Delivery mode and latency record of a registered listener.
+    private class ListenerEntry {
+        private final L listener;
+        private final AtomicLong events = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+        private final Mailbox mailbox;
+        private volatile Timer timer;
+        private volatile boolean slow;
+        private int strikes;
+
+        ListenerEntry(L listener) {
+            this.listener = listener;
+            Executor executor = listener.executor();
+            mailbox = executor == null ? null :
+                    new Mailbox(this, executor, listener.mailboxCapacity());
+            resetTimer();
+        }
+
+        void resetTimer() {
+            Function<String, Timer> factory = timerFactory;
+            timer = factory == null ? null : factory.apply(listener.getClass().getName());
+        }
+
+        // Notifies the listener and records the time it took; a listener
+        // notified inline which is repeatedly slow is reported once.
+        void deliver(E event) {
+            long start = System.nanoTime();
+            listener.event(event);
+            long elapsed = System.nanoTime() - start;
+            events.incrementAndGet();
+            totalNanos.addAndGet(elapsed);
+            Timer t = timer;
+            if (t != null) {
+                t.update(elapsed, TimeUnit.NANOSECONDS);
+            }
+
+            if (mailbox == null) {
+                if (elapsed < SLOW_LIMIT_NANOS) {
+                    strikes = 0;
+                } else if (++strikes >= SLOW_STRIKES && !slow) {
+                    slow = true;
+                    log.warn("Listener {} is slow to process events ({} ms on average); " +
+                                     "it should provide an executor",
+                             listener.getClass().getName(),
+                             TimeUnit.NANOSECONDS.toMillis(meanLatency()));
+                }
+            }
+        }
+
+        long meanLatency() {
+            long count = events.get();
+            return count == 0 ? 0 : totalNanos.get() / count;
+        }
+    }
+
+    // Bounded queue of events for a listener, drained in order through the
+    // listener's executor.
+    private class Mailbox implements Runnable {
+        private final ListenerEntry entry;
+        private final Executor executor;
+        private final BlockingQueue<E> queue;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        // Delivery in progress while the mailbox is being drained
+        private final Delivery delivery = new Delivery();
+
+        Mailbox(ListenerEntry entry, Executor executor, int capacity) {
+            this.entry = entry;
+            this.executor = executor;
+            this.queue = new LinkedBlockingQueue<>(capacity);
+        }
+
+        void offer(E event) {
+            // Watch over the listener as it is not notified on the
+            // dispatching thread, which is what the dispatcher monitors
+            checkLimit(delivery);
+            if (!listeners.contains(entry.listener)) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                if (entry.dropped.getAndIncrement() == 0) {
+                    log.warn("Mailbox of listener {} is full; dropping events",
+                             entry.listener.getClass().getName());
+                }
+                return;
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false);
+                    log.warn("Unable to notify listener {}",
+                             entry.listener.getClass().getName(), e);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            delivery.listener = entry.listener;
+            deliveries.add(delivery);
+            try {
+                drain();
+            } finally {
+                deliveries.remove(delivery);
+            }
+            scheduled.set(false);
+            // Pick up events offered after the queue was found empty
+            if (!queue.isEmpty()) {
+                schedule();
+            }
+        }
+
+        private void drain() {
+            E event = queue.poll();
+            while (event != null) {
+                if (!listeners.contains(entry.listener)) {
+                    // Listener has been removed in the meantime
+                    queue.clear();
+                    break;
+                }
+                try {
+                    delivery.start = System.currentTimeMillis();
+                    entry.deliver(event);
+                } catch (Exception error) {
+                    reportProblem(event, error);
+                } finally {
+                    delivery.start = 0;
+                }
+                event = queue.poll();
+            }
+        }
+    }
+
 }
@@ -15,6 +15,7 @@
  */
 package org.onosproject.net.behaviour;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.onosproject.net.DeviceId;
@@ -50,6 +51,17 @@ public interface Pipeliner extends HandlerBehaviour {
      */
     void forward(ForwardingObjective forwardObjective);
 
+    /**
+     * Installs the forwarding rules of a batch of objectives onto the device.
+     * Drivers able to do so should program the batch as a whole; by default
+     * the objectives are installed one at a time, in order.
+     *
+     * @param forwardObjectives forwarding objectives
+     */
+    default void forward(Collection<ForwardingObjective> forwardObjectives) {
+        forwardObjectives.forEach(this::forward);
+    }
+
     /**
      * Installs the next hop elements into the device.
      *
@@ -15,6 +15,8 @@
  */
 package org.onosproject.net.packet;
 
+import com.codahale.metrics.Snapshot;
+
 /**
  * Packet processor entry tracking the processor, its priority and
  * time consumption.
@@ -55,4 +57,16 @@ public interface PacketProcessorEntry {
      * @return average time in nanos
      */
     long averageNanos();
+
+    /**
+     * Returns the distribution of the time spent processing packets, as
+     * recorded by the latency timer shared by the processors of the same
+     * class.
+     *
+     * @return snapshot of processing times in nanoseconds; null if no
+     * latency timer is kept for the processor
+     */
+    default Snapshot latencySnapshot() {
+        return null;
+    }
 }
@@ -18,6 +18,8 @@ package org.onosproject.net.packet;
 
 import org.onosproject.net.driver.HandlerBehaviour;
 
+import java.util.Collection;
+
 /**
  * Packet programmable device behaviour.
  */
@@ -28,4 +30,13 @@ public interface PacketProgrammable extends HandlerBehaviour {
      * @param packet outbound packet
      */
     void emit(OutboundPacket packet);
+
+    /**
+     * Emits the specified outbound packets onto the network from the device.
+     *
+     * @param packets outbound packets
+     */
+    default void emit(Collection<OutboundPacket> packets) {
+        packets.forEach(this::emit);
+    }
 }
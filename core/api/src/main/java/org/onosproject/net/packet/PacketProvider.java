@@ -17,6 +17,8 @@ package org.onosproject.net.packet;
 
 import org.onosproject.net.provider.Provider;
 
+import java.util.Collection;
+
 /**
  * Abstraction of a packet provider capable of emitting packets.
  */
@@ -29,4 +31,15 @@ public interface PacketProvider extends Provider {
      */
     void emit(OutboundPacket packet);
 
+    /**
+     * Emits the specified outbound packets onto the network. Providers
+     * capable of writing several packets to a device at once should
+     * override this to do so.
+     *
+     * @param packets outbound packets, all sent through the same device
+     */
+    default void emit(Collection<OutboundPacket> packets) {
+        packets.forEach(this::emit);
+    }
+
 }
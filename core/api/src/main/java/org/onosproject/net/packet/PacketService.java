@@ -15,12 +15,16 @@
  */
 package org.onosproject.net.packet;
 
+import com.google.common.collect.ImmutableMap;
 import org.onosproject.core.ApplicationId;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.flow.TrafficSelector;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Service for intercepting data plane packets and for emitting synthetic
@@ -42,7 +46,25 @@ public interface PacketService {
      */
     void addProcessor(PacketProcessor processor, int priority);
 
-    // TODO allow processors to register for particular types of packets
+    /**
+     * Adds the specified processor to the list of packet processors,
+     * declaring interest only in packets matching any of the given
+     * selectors. Selectors are used as dispatch hints; only criteria on
+     * Ethernet type, IP protocol, TCP/UDP ports and ICMPv6 type are
+     * honoured and a processor whose selectors use any other criteria will
+     * be handed all packets. Processors must therefore still validate the
+     * packets they are given.
+     *
+     * @param processor processor to be added
+     * @param priority  priority in the reverse natural order
+     * @param selectors selectors of packets of interest; empty for all packets
+     * @throws java.lang.IllegalArgumentException if a processor with the
+     *                                            given priority already exists
+     */
+    default void addProcessor(PacketProcessor processor, int priority,
+                              Set<TrafficSelector> selectors) {
+        addProcessor(processor, priority);
+    }
 
     /**
      * Removes the specified processor from the processing pipeline.
@@ -123,4 +145,24 @@ public interface PacketService {
      */
     void emit(OutboundPacket packet);
 
+    /**
+     * Emits the specified outbound packets onto the network. Packets bound
+     * for the same device are handed to its provider as a single batch.
+     *
+     * @param packets outbound packets
+     */
+    default void emit(Collection<OutboundPacket> packets) {
+        packets.forEach(this::emit);
+    }
+
+    /**
+     * Returns the recent rate of packets emitted by this instance through
+     * each device.
+     *
+     * @return map of device identifier to packets-out per second
+     */
+    default Map<DeviceId, Double> getPacketOutRates() {
+        return ImmutableMap.of();
+    }
+
 }
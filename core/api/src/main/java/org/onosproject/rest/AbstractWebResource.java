@@ -15,6 +15,7 @@
  */
 package org.onosproject.rest;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
@@ -23,13 +24,31 @@ import org.onosproject.codec.CodecContext;
 import org.onosproject.codec.CodecService;
 import org.onosproject.codec.JsonCodec;
 
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
 /**
  * Abstract REST resource.
  */
 public class AbstractWebResource extends BaseResource implements CodecContext {
 
+    private static final String GZIP = "gzip";
+    private static final String NEXT = "next";
+
     private final ObjectMapper mapper = new ObjectMapper();
 
+    @Context
+    private HttpHeaders headers;
+
     @Override
     public ObjectMapper mapper() {
         return mapper;
@@ -63,6 +82,70 @@ public class AbstractWebResource extends BaseResource implements CodecContext {
         return result;
     }
 
+    /**
+     * Returns a response which streams the JSON object wrapping the array
+     * encoding of the specified items, one item at a time, rather than
+     * building the whole of it in memory. A page of the items may be
+     * selected by offset and limit; if items remain past the page, the
+     * offset of the next page is given by the "next" field of the object.
+     * The response is gzip-compressed if the client accepts it.
+     *
+     * @param codecClass codec item class
+     * @param field      field holding the array
+     * @param items      items to be encoded into array, iterated lazily
+     * @param offset     number of leading items to skip
+     * @param limit      maximum number of items to encode; 0 for no limit
+     * @param <T>        item type
+     * @return response streaming the JSON object
+     */
+    protected <T> Response streamArray(Class<T> codecClass, String field,
+                                       Iterable<T> items, int offset, int limit) {
+        checkArgument(offset >= 0, "Offset must not be negative");
+        checkArgument(limit >= 0, "Limit must not be negative");
+        JsonCodec<T> codec = codec(codecClass);
+        boolean gzip = acceptsGzip();
+
+        StreamingOutput stream = output -> {
+            OutputStream out = gzip ? new GZIPOutputStream(output) : output;
+            try (JsonGenerator generator = mapper().getFactory().createGenerator(out)) {
+                generator.writeStartObject();
+                generator.writeArrayFieldStart(field);
+
+                Iterator<T> iterator = items.iterator();
+                int index = 0;
+                for (; index < offset && iterator.hasNext(); index++) {
+                    iterator.next();
+                }
+                for (int count = 0; (limit == 0 || count < limit) && iterator.hasNext(); count++) {
+                    codec.encode(iterator.next(), this, generator);
+                    index++;
+                }
+
+                generator.writeEndArray();
+                if (iterator.hasNext()) {
+                    generator.writeNumberField(NEXT, index);
+                }
+                generator.writeEndObject();
+            }
+        };
+
+        Response.ResponseBuilder response = ok(stream).type(MediaType.APPLICATION_JSON_TYPE);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, GZIP);
+        }
+        return response.build();
+    }
+
+    // Indicates whether the client accepts gzip-compressed responses.
+    private boolean acceptsGzip() {
+        if (headers == null) {
+            return false;
+        }
+        List<String> encodings = headers.getRequestHeader(HttpHeaders.ACCEPT_ENCODING);
+        return encodings != null &&
+                encodings.stream().anyMatch(e -> e.toLowerCase().contains(GZIP));
+    }
+
     @Override
     public <T> T getService(Class<T> serviceClass) {
         return get(serviceClass);
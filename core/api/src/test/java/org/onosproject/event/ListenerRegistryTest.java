@@ -15,9 +15,21 @@
  */
 package org.onosproject.event;
 
+import com.codahale.metrics.Timer;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -71,4 +83,155 @@ public class ListenerRegistryTest {
         assertTrue("BAR not processed", secondListener.events.contains(BAR_EVENT));
     }
 
+    @Test
+    public void asyncListener() throws Exception {
+        List<Runnable> tasks = Lists.newArrayList();
+        AsyncListener async = new AsyncListener(tasks::add, 2);
+        manager.addListener(async);
+        manager.addListener(secondListener);
+        assertTrue("not decoupled", manager.isDecoupled(async));
+
+        manager.process(FOO_EVENT);
+        manager.process(BAR_EVENT);
+        manager.process(FOO_EVENT);
+
+        // Listeners notified inline are not held back, while events beyond
+        // the capacity of the mailbox are dropped
+        assertEquals(3, secondListener.events.size());
+        assertTrue("notified inline", async.events.isEmpty());
+        assertEquals(1, tasks.size());
+        assertEquals(1, manager.droppedEvents(async));
+
+        tasks.get(0).run();
+        assertEquals(Lists.newArrayList(FOO_EVENT, BAR_EVENT), async.events);
+    }
+
+    @Test
+    public void slowListener() throws Exception {
+        CountDownLatch latch = new CountDownLatch(4);
+        SlowListener slow = new SlowListener(latch);
+        manager.addListener(slow);
+
+        for (int i = 0; i < 4; i++) {
+            manager.process(FOO_EVENT);
+        }
+        assertTrue("slow listener not notified", latch.await(5, TimeUnit.SECONDS));
+        assertTrue("slow listener not reported", manager.isSlow(slow));
+        assertTrue(manager.meanLatency(slow) >= TimeUnit.MILLISECONDS.toNanos(100));
+
+        // Listeners which did not ask for an executor stay on the
+        // dispatching thread
+        assertFalse("slow listener decoupled", manager.isDecoupled(slow));
+        for (Thread thread : slow.threads) {
+            assertEquals(Thread.currentThread(), thread);
+        }
+    }
+
+    @Test
+    public void listenerRemovedDuringProcessing() {
+        TestListener remover = new TestListener() {
+            @Override
+            public void event(TestEvent event) {
+                super.event(event);
+                manager.removeListener(secondListener);
+            }
+        };
+        manager.addListener(remover);
+        manager.addListener(secondListener);
+
+        manager.process(FOO_EVENT);
+        assertEquals(1, remover.events.size());
+        assertTrue("removed listener notified", secondListener.events.isEmpty());
+        assertEquals(0, manager.meanLatency(secondListener));
+    }
+
+    @Test
+    public void hungAsyncListener() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AsyncListener hung = new AsyncListener(executor, 10) {
+            @Override
+            public void event(TestEvent event) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        manager.addListener(hung);
+
+        try {
+            manager.process(FOO_EVENT);
+            assertTrue("listener not notified", started.await(5, TimeUnit.SECONDS));
+            Thread.sleep(2_000);
+
+            // The listener is ejected once past the time limit, even though
+            // it is not notified on the dispatching thread
+            manager.process(BAR_EVENT);
+            assertFalse("hung listener not ejected", manager.listeners.contains(hung));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void listenerTimers() {
+        Map<String, Timer> timers = Maps.newHashMap();
+        manager.addListener(listener);
+        manager.setTimerFactory(name -> timers.computeIfAbsent(name, n -> new Timer()));
+        manager.addListener(secondListener);
+
+        manager.process(FOO_EVENT);
+        manager.process(BAR_EVENT);
+
+        // Listeners of the same class share a timer
+        assertEquals(1, timers.size());
+        assertEquals(4, timers.get(TestListener.class.getName()).getCount());
+    }
+
+    private static class AsyncListener extends TestListener {
+        private final Executor executor;
+        private final int capacity;
+
+        AsyncListener(Executor executor, int capacity) {
+            this.executor = executor;
+            this.capacity = capacity;
+        }
+
+        @Override
+        public Executor executor() {
+            return executor;
+        }
+
+        @Override
+        public int mailboxCapacity() {
+            return capacity;
+        }
+    }
+
+    private static class SlowListener extends TestListener {
+        private final List<Thread> threads = Lists.newCopyOnWriteArrayList();
+        private final CountDownLatch latch;
+
+        SlowListener(CountDownLatch latch) {
+            this.latch = latch;
+        }
+
+        @Override
+        public void event(TestEvent event) {
+            threads.add(Thread.currentThread());
+            try {
+                Thread.sleep(110);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            super.event(event);
+            latch.countDown();
+        }
+    }
+
 }
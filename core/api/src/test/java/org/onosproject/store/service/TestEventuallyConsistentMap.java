@@ -20,6 +20,7 @@ import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
@@ -103,7 +104,7 @@ public final class TestEventuallyConsistentMap<K, V> extends EventuallyConsisten
         if (result != null) {
             EventuallyConsistentMapEvent<K, V> removeEvent =
                     new EventuallyConsistentMapEvent<>(mapName, REMOVE,
-                            key, map.get(key));
+                            key, result);
             notifyListeners(removeEvent);
         }
         return result;
@@ -121,7 +122,14 @@ public final class TestEventuallyConsistentMap<K, V> extends EventuallyConsisten
 
     @Override
     public V compute(K key, BiFunction<K, V, V> recomputeFunction) {
-        return map.compute(key, recomputeFunction);
+        V previous = map.get(key);
+        V result = map.compute(key, recomputeFunction);
+        if (result != null && !Objects.equals(previous, result)) {
+            notifyListeners(new EventuallyConsistentMapEvent<>(mapName, PUT, key, result));
+        } else if (result == null && previous != null) {
+            notifyListeners(new EventuallyConsistentMapEvent<>(mapName, REMOVE, key, previous));
+        }
+        return result;
     }
 
     @Override
@@ -20,6 +20,7 @@ import com.codahale.metrics.Gauge;
 import com.codahale.metrics.Meter;
 import com.codahale.metrics.Metric;
 import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Snapshot;
 import com.codahale.metrics.Timer;
 
 import com.fasterxml.jackson.databind.node.ObjectNode;
@@ -52,6 +53,10 @@ public class MetricCodec extends JsonCodec<Metric> {
     private static final String MAX = "max";
     private static final String MEAN = "mean";
     private static final String STDDEV = "stddev";
+    private static final String P50 = "p50";
+    private static final String P95 = "p95";
+    private static final String P99 = "p99";
+    private static final String P999 = "p999";
 
     private static final String TIMER = "timer";
 
@@ -81,6 +86,11 @@ public class MetricCodec extends JsonCodec<Metric> {
             dataNode.put(MIN, ((Histogram) metric).getSnapshot().getMin());
             dataNode.put(MAX, ((Histogram) metric).getSnapshot().getMax());
             dataNode.put(STDDEV, ((Histogram) metric).getSnapshot().getStdDev());
+            Snapshot snapshot = ((Histogram) metric).getSnapshot();
+            dataNode.put(P50, snapshot.getMedian());
+            dataNode.put(P95, snapshot.get95thPercentile());
+            dataNode.put(P99, snapshot.get99thPercentile());
+            dataNode.put(P999, snapshot.get999thPercentile());
             objectNode.set(HISTOGRAM, dataNode);
         } else if (metric instanceof Timer) {
             dataNode.put(COUNTER, ((Timer) metric).getCount());
@@ -92,6 +102,13 @@ public class MetricCodec extends JsonCodec<Metric> {
             dataNode.put(MIN, nanoToMs(((Timer) metric).getSnapshot().getMin()));
             dataNode.put(MAX, nanoToMs(((Timer) metric).getSnapshot().getMax()));
             dataNode.put(STDDEV, nanoToMs(((Timer) metric).getSnapshot().getStdDev()));
+            // Percentiles keep fractions of a millisecond, as hot path
+            // latencies are often well below one
+            Snapshot snapshot = ((Timer) metric).getSnapshot();
+            dataNode.put(P50, nanoToFractionalMs(snapshot.getMedian()));
+            dataNode.put(P95, nanoToFractionalMs(snapshot.get95thPercentile()));
+            dataNode.put(P99, nanoToFractionalMs(snapshot.get99thPercentile()));
+            dataNode.put(P999, nanoToFractionalMs(snapshot.get999thPercentile()));
             objectNode.set(TIMER, dataNode);
         }
         return objectNode;
@@ -100,4 +117,8 @@ public class MetricCodec extends JsonCodec<Metric> {
     private double nanoToMs(double nano) {
         return TimeUnit.MILLISECONDS.convert((long) nano, TimeUnit.NANOSECONDS);
     }
+
+    private double nanoToFractionalMs(double nano) {
+        return nano / TimeUnit.MILLISECONDS.toNanos(1);
+    }
 }
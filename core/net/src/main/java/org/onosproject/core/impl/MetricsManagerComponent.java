@@ -18,9 +18,17 @@ package org.onosproject.core.impl;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Modified;
+import org.apache.felix.scr.annotations.Property;
+import org.apache.felix.scr.annotations.Reference;
+import org.apache.felix.scr.annotations.ReferenceCardinality;
+import org.apache.felix.scr.annotations.ReferencePolicy;
 import org.apache.felix.scr.annotations.Service;
 
 import org.onlab.metrics.MetricsManager;
+import org.onlab.util.Tools;
+import org.onosproject.cfg.ComponentConfigService;
+import org.osgi.service.component.ComponentContext;
 
 /**
  * Metrics service implementation.
@@ -29,13 +37,49 @@ import org.onlab.metrics.MetricsManager;
 @Service
 public class MetricsManagerComponent extends MetricsManager {
 
+    private static final boolean DEFAULT_LATENCY_TIMERS = true;
+
+    @Property(name = "latencyTimers", boolValue = DEFAULT_LATENCY_TIMERS,
+            label = "Enable latency timers on core hot paths")
+    private boolean latencyTimers = DEFAULT_LATENCY_TIMERS;
+
+    // Optional, as the configuration service itself depends on components
+    // which are instrumented
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL_UNARY,
+               policy = ReferencePolicy.DYNAMIC)
+    protected ComponentConfigService cfgService;
+
     @Activate
-    protected void activate() {
+    protected void activate(ComponentContext context) {
         super.clear();
+        modified(context);
     }
 
     @Deactivate
     protected void deactivate() {
         super.clear();
     }
+
+    @Modified
+    protected void modified(ComponentContext context) {
+        if (context != null) {
+            latencyTimers = Tools.isPropertyEnabled(context.getProperties(),
+                                                    "latencyTimers", latencyTimers);
+        }
+        setLatencyTimersEnabled(latencyTimers);
+    }
+
+    protected void bindCfgService(ComponentConfigService service) {
+        if (cfgService == null) {
+            cfgService = service;
+            cfgService.registerProperties(getClass());
+        }
+    }
+
+    protected void unbindCfgService(ComponentConfigService service) {
+        if (cfgService == service) {
+            cfgService.unregisterProperties(getClass(), false);
+            cfgService = null;
+        }
+    }
 }
@@ -15,39 +15,60 @@
  */
 package org.onosproject.event.impl;
 
+import java.util.ArrayList;
+import java.util.Dictionary;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TimerTask;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Modified;
+import org.apache.felix.scr.annotations.Property;
+import org.apache.felix.scr.annotations.Reference;
+import org.apache.felix.scr.annotations.ReferenceCardinality;
+import org.apache.felix.scr.annotations.ReferencePolicy;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.onlab.util.SharedExecutors;
+import org.onosproject.cfg.ComponentConfigService;
+import org.onosproject.core.MetricsHelper;
 import org.onosproject.event.AbstractEvent;
 import org.onosproject.event.DefaultEventSinkRegistry;
 import org.onosproject.event.Event;
 import org.onosproject.event.EventDeliveryService;
 import org.onosproject.event.EventSink;
+import org.onosproject.event.ListenerRegistry;
 import org.onosproject.net.device.DeviceEvent;
 import org.onosproject.net.flow.FlowRuleEvent;
 import org.onosproject.net.host.HostEvent;
 import org.onosproject.net.intent.IntentEvent;
 import org.onosproject.net.link.LinkEvent;
 import org.onosproject.net.topology.TopologyEvent;
+import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Timer;
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static org.onlab.metrics.MetricsUtil.startTimer;
+import static org.onlab.metrics.MetricsUtil.stopTimer;
+import static org.onlab.util.Tools.getIntegerProperty;
 import static org.onlab.util.Tools.groupedThreads;
 import static org.onosproject.security.AppGuard.checkPermission;
 import static org.onosproject.security.AppPermission.Type.EVENT_READ;
@@ -55,38 +76,56 @@ import static org.onosproject.security.AppPermission.Type.EVENT_WRITE;
 import static org.slf4j.LoggerFactory.getLogger;
 /**
  * Simple implementation of an event dispatching service.
+ * <p>
+ * Topology related events may be spread over several dispatch lanes. Events
+ * are assigned to a lane by their subject, so that events of the same
+ * device, link source or host are delivered in order, while events of
+ * unrelated subjects are delivered in parallel.
+ * </p>
  */
 @Component(immediate = true)
 @Service
 public class CoreEventDispatcher extends DefaultEventSinkRegistry
-        implements EventDeliveryService {
+        implements EventDeliveryService, MetricsHelper {
 
     private final Logger log = getLogger(getClass());
 
+    private static final String METRICS_COMPONENT = "EventDispatcher";
+    private static final String QUEUE_DEPTH = "queueDepth";
+    private static final String SINK_FEATURE = "sink";
+    private static final String LISTENER_FEATURE = "listener";
 
-    private DispatchLoop topologyDispatcher = new DispatchLoop("topology");
-    private DispatchLoop programmingDispatcher = new DispatchLoop("programming");
-    private DispatchLoop defaultDispatcher = new DispatchLoop("default");
+    private static final int DEFAULT_TOPOLOGY_LANES = 1;
+    @Property(name = "topologyLanes", intValue = DEFAULT_TOPOLOGY_LANES,
+            label = "Number of dispatch lanes over which topology events are " +
+                    "partitioned by subject; listeners of these events must " +
+                    "be thread-safe if greater than 1")
+    private int topologyLanes = DEFAULT_TOPOLOGY_LANES;
 
-    private Map<Class, DispatchLoop> dispatcherMap =
-            new ImmutableMap.Builder<Class, DispatchLoop>()
-                .put(TopologyEvent.class, topologyDispatcher)
-                .put(DeviceEvent.class, topologyDispatcher)
-                .put(LinkEvent.class, topologyDispatcher)
-                .put(HostEvent.class, topologyDispatcher)
-                .put(FlowRuleEvent.class, programmingDispatcher)
-                .put(IntentEvent.class, programmingDispatcher)
-                .build();
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
 
-    private Set<DispatchLoop> dispatchers =
-            new ImmutableSet.Builder<DispatchLoop>()
-                .addAll(dispatcherMap.values())
-                .add(defaultDispatcher)
-                .build();
+    // Optional, as the configuration service itself depends on components
+    // which post events
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL_UNARY,
+               policy = ReferencePolicy.DYNAMIC)
+    protected ComponentConfigService cfgService;
+
+    private volatile DispatchLoop[] topologyDispatchers;
+    private DispatchLoop[] programmingDispatchers;
+    private DispatchLoop[] defaultDispatchers;
+
+    private volatile Map<Class, DispatchLoop[]> dispatcherMap;
+
+    private volatile Set<DispatchLoop> dispatchers;
+
+    private final Map<Class, Timer> sinkTimers = new ConcurrentHashMap<>();
 
     // Default number of millis a sink can take to process an event.
     private static final long DEFAULT_EXECUTE_MS = 5_000; // ms
     private static final long WATCHDOG_MS = 250; // ms
+    // Longest time lanes replacing others wait for them to drain
+    private static final long DRAIN_MS = 10_000; // ms
 
     @SuppressWarnings("unchecked")
     private static final Event KILL_PILL = new AbstractEvent(null, 0) {
@@ -95,11 +134,29 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
     private long maxProcessMillis = DEFAULT_EXECUTE_MS;
 
     private DispatchLoop getDispatcher(Event event) {
-        DispatchLoop dispatcher = dispatcherMap.get(event.getClass());
-        if (dispatcher == null) {
-            dispatcher = defaultDispatcher;
+        DispatchLoop[] lanes = dispatcherMap.get(event.getClass());
+        if (lanes == null) {
+            return defaultDispatchers[0];
+        }
+        if (lanes.length == 1) {
+            return lanes[0];
+        }
+        return lanes[Math.floorMod(partitionKey(event).hashCode(), lanes.length)];
+    }
+
+    // Returns the key by which an event is assigned to a dispatch lane.
+    // Link events follow their source device, so that they remain ordered
+    // with respect to the events of that device. Topology events, and any
+    // others without a partitioning subject, share a single lane.
+    private static Object partitionKey(Event event) {
+        if (event instanceof DeviceEvent) {
+            return ((DeviceEvent) event).subject().id();
+        } else if (event instanceof LinkEvent) {
+            return ((LinkEvent) event).subject().src().deviceId();
+        } else if (event instanceof HostEvent) {
+            return ((HostEvent) event).subject().id();
         }
-        return dispatcher;
+        return event.getClass();
     }
 
     @Override
@@ -111,22 +168,125 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
     }
 
     @Activate
-    public void activate() {
+    public void activate(ComponentContext context) {
+        topologyLanes = readTopologyLanes(context);
+        topologyDispatchers = createLanes("topology", topologyLanes, new DispatchLoop[0]);
+        programmingDispatchers = createLanes("programming", 1, new DispatchLoop[0]);
+        defaultDispatchers = createLanes("default", 1, new DispatchLoop[0]);
+        mapDispatchers();
 
         if (maxProcessMillis != 0) {
             dispatchers.forEach(DispatchLoop::startWatchdog);
         }
 
-        log.info("Started");
+        log.info("Started with {} topology dispatch lanes", topologyLanes);
     }
 
     @Deactivate
     public void deactivate() {
         dispatchers.forEach(DispatchLoop::stop);
+        sinkTimers.clear();
 
         log.info("Stopped");
     }
 
+    @Modified
+    public void modified(ComponentContext context) {
+        int lanes = readTopologyLanes(context);
+        if (lanes == topologyLanes) {
+            return;
+        }
+
+        // Events still queued on the current lanes are delivered before
+        // the new lanes start dispatching, so that per-subject order holds
+        DispatchLoop[] retired = topologyDispatchers;
+        for (DispatchLoop lane : retired) {
+            lane.unregisterMetrics();
+        }
+        topologyLanes = lanes;
+        topologyDispatchers = createLanes("topology", lanes, retired);
+        mapDispatchers();
+        for (DispatchLoop lane : retired) {
+            lane.retire();
+        }
+        if (maxProcessMillis != 0) {
+            for (DispatchLoop lane : topologyDispatchers) {
+                lane.startWatchdog();
+            }
+        }
+
+        log.info("Reconfigured with {} topology dispatch lanes", topologyLanes);
+    }
+
+    protected void bindCfgService(ComponentConfigService service) {
+        if (cfgService == null) {
+            cfgService = service;
+            cfgService.registerProperties(getClass());
+        }
+    }
+
+    protected void unbindCfgService(ComponentConfigService service) {
+        if (cfgService == service) {
+            cfgService.unregisterProperties(getClass(), false);
+            cfgService = null;
+        }
+    }
+
+    @Override
+    public <E extends Event> void addSink(Class<E> eventClass, EventSink<E> sink) {
+        super.addSink(eventClass, sink);
+        if (sink instanceof ListenerRegistry) {
+            ((ListenerRegistry<?, ?>) sink).setTimerFactory(
+                    name -> createLatencyTimer(METRICS_COMPONENT, LISTENER_FEATURE, name));
+        }
+    }
+
+    private int readTopologyLanes(ComponentContext context) {
+        if (context == null) {
+            return topologyLanes;
+        }
+        Dictionary<?, ?> properties = context.getProperties();
+        return Math.max(1, getIntegerProperty(properties, "topologyLanes",
+                                              DEFAULT_TOPOLOGY_LANES));
+    }
+
+    // Maps event classes to the current lanes.
+    private void mapDispatchers() {
+        dispatcherMap = new ImmutableMap.Builder<Class, DispatchLoop[]>()
+                .put(TopologyEvent.class, topologyDispatchers)
+                .put(DeviceEvent.class, topologyDispatchers)
+                .put(LinkEvent.class, topologyDispatchers)
+                .put(HostEvent.class, topologyDispatchers)
+                .put(FlowRuleEvent.class, programmingDispatchers)
+                .put(IntentEvent.class, programmingDispatchers)
+                .build();
+
+        dispatchers = new ImmutableSet.Builder<DispatchLoop>()
+                .add(topologyDispatchers)
+                .add(programmingDispatchers)
+                .add(defaultDispatchers)
+                .build();
+    }
+
+    private DispatchLoop[] createLanes(String name, int count, DispatchLoop[] predecessors) {
+        DispatchLoop[] lanes = new DispatchLoop[count];
+        for (int i = 0; i < count; i++) {
+            lanes[i] = new DispatchLoop(count == 1 ? name : name + "-" + i, predecessors);
+        }
+        return lanes;
+    }
+
+    @Override
+    public MetricsService metricsService() {
+        return metricsService;
+    }
+
+    // Returns the timer of the sink processing events of the given class.
+    private Timer sinkTimer(Class eventClass) {
+        return sinkTimers.computeIfAbsent(
+                eventClass, c -> createLatencyTimer(METRICS_COMPONENT, SINK_FEATURE, c.getName()));
+    }
+
     @Override
     public void setDispatchTimeLimit(long millis) {
         checkPermission(EVENT_WRITE);
@@ -149,42 +309,54 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
     }
 
     // Auxiliary event dispatching loop that feeds off the events queue.
-    private class DispatchLoop implements Runnable {
+    private class DispatchLoop {
         private final String name;
         private volatile boolean stopped;
+        private volatile boolean retired;
         private volatile EventSink lastSink;
         // Means to detect long-running sinks
         private final Stopwatch stopwatch = Stopwatch.createUnstarted();
         private TimerTask watchdog;
-        private volatile Future<?> dispatchFuture;
+        // Generation of the dispatch thread; a thread given up on by the
+        // watchdog bails out as soon as its sink returns
+        private volatile int generation;
+        private volatile ExecutorService executor;
         private final BlockingQueue<Event> eventsQueue;
-        private final ExecutorService executor;
+        private final CountDownLatch terminated = new CountDownLatch(1);
 
-        DispatchLoop(String name) {
+        DispatchLoop(String name, DispatchLoop[] predecessors) {
             this.name = name;
-            executor = newSingleThreadExecutor(
+            eventsQueue = new LinkedBlockingQueue<>();
+            executor = newExecutor();
+            executor.execute(() -> {
+                awaitDrained(predecessors);
+                dispatch(0);
+            });
+            registerMetrics();
+        }
+
+        private ExecutorService newExecutor() {
+            return newSingleThreadExecutor(
                     groupedThreads("onos/event",
                     "dispatch-" + name + "%d", log));
-            eventsQueue = new LinkedBlockingQueue<>();
-            dispatchFuture = executor.submit(this);
         }
 
         public boolean add(Event event) {
             return eventsQueue.add(event);
         }
 
-        @Override
-        public void run() {
-            stopped = false;
+        private void dispatch(int gen) {
             log.info("Dispatch loop initiated");
-            while (!stopped) {
+            while (!stopped && generation == gen) {
                 try {
                     // Fetch the next event and if it is the kill-pill, bail
                     Event event = eventsQueue.take();
                     if (event == KILL_PILL) {
+                        forwardQueued();
+                        terminated.countDown();
                         break;
                     }
-                    process(event);
+                    process(event, gen);
                 } catch (InterruptedException e) {
                     log.warn("Dispatch loop interrupted");
                 } catch (Exception | Error e) {
@@ -196,23 +368,83 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
 
         // Locate the sink for the event class and use it to process the event
         @SuppressWarnings("unchecked")
-        private void process(Event event) {
+        private void process(Event event, int gen) {
             EventSink sink = getSink(event.getClass());
             if (sink != null) {
                 lastSink = sink;
+                Timer.Context timer = startTimer(sinkTimer(event.getClass()));
                 stopwatch.start();
-                sink.process(event);
-                stopwatch.reset();
+                try {
+                    sink.process(event);
+                } finally {
+                    // The stopwatch now belongs to the thread which took over
+                    if (generation == gen) {
+                        stopwatch.reset();
+                    }
+                    stopTimer(timer);
+                }
             } else {
                 log.warn("No sink registered for event class {}",
                          event.getClass().getName());
             }
         }
 
+        // Waits for the lanes this one replaces to deliver their events.
+        private void awaitDrained(DispatchLoop[] predecessors) {
+            try {
+                for (DispatchLoop lane : predecessors) {
+                    if (!lane.terminated.await(DRAIN_MS, TimeUnit.MILLISECONDS)) {
+                        log.warn("Dispatch loop {} not drained; dispatching anyway",
+                                 lane.name);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // Hands the events which raced with the retirement of this lane
+        // over to the current lanes.
+        private void forwardQueued() {
+            if (retired) {
+                List<Event> queued = new ArrayList<>();
+                eventsQueue.drainTo(queued);
+                queued.forEach(CoreEventDispatcher.this::post);
+            }
+        }
+
         void stop() {
             stopped = true;
             stopWatchdog();
             add(KILL_PILL);
+            executor.shutdown();
+            unregisterMetrics();
+        }
+
+        // Delivers the events still queued and terminates.
+        void retire() {
+            retired = true;
+            stopWatchdog();
+            add(KILL_PILL);
+            executor.shutdown();
+        }
+
+        // Exports the depth of the events queue.
+        private void registerMetrics() {
+            if (metricsService != null) {
+                MetricsComponent c = metricsService.registerComponent(METRICS_COMPONENT);
+                MetricsFeature f = c.registerFeature(name);
+                metricsService.registerMetric(c, f, QUEUE_DEPTH,
+                                              (Gauge<Integer>) eventsQueue::size);
+            }
+        }
+
+        private void unregisterMetrics() {
+            if (metricsService != null) {
+                MetricsComponent c = metricsService.registerComponent(METRICS_COMPONENT);
+                MetricsFeature f = c.registerFeature(name);
+                metricsService.removeMetric(c, f, QUEUE_DEPTH);
+            }
         }
 
         // Monitors event sinks to make sure none take too long to execute.
@@ -229,11 +461,14 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
                     // Notify the sink that it has exceeded its time limit.
                     lastSink.onProcessLimit();
 
-                    // Cancel the old dispatch loop and submit a new one.
-
-                stop();
-                dispatchFuture.cancel(true);
-                dispatchFuture = executor.submit(this);
+                    // Give up on the dispatch thread, which may never return
+                    // from the sink, and resume with the events still queued
+                    // on a thread of its own.
+                    int gen = ++generation;
+                    ExecutorService abandoned = executor;
+                    executor = newExecutor();
+                    executor.execute(() -> dispatch(gen));
+                    abandoned.shutdownNow();
                 }
             }
         }
@@ -15,6 +15,7 @@
  */
 package org.onosproject.net.flow.impl;
 
+import com.codahale.metrics.Timer;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
@@ -29,11 +30,13 @@ import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.metrics.MetricsService;
 import org.onlab.util.Tools;
 import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.core.ApplicationId;
 import org.onosproject.core.CoreService;
 import org.onosproject.core.IdGenerator;
+import org.onosproject.core.MetricsHelper;
 import org.onosproject.mastership.MastershipService;
 import org.onosproject.net.Device;
 import org.onosproject.net.DeviceId;
@@ -64,6 +67,7 @@ import org.onosproject.net.provider.AbstractProviderService;
 import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Dictionary;
 import java.util.HashSet;
@@ -76,6 +80,8 @@ import java.util.concurrent.Executors;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Strings.isNullOrEmpty;
+import static org.onlab.metrics.MetricsUtil.startTimer;
+import static org.onlab.metrics.MetricsUtil.stopTimer;
 import static org.onlab.util.Tools.get;
 import static org.onlab.util.Tools.groupedThreads;
 import static org.onosproject.net.flow.FlowRuleEvent.Type.RULE_ADD_REQUESTED;
@@ -95,7 +101,7 @@ import static org.slf4j.LoggerFactory.getLogger;
 public class FlowRuleManager
         extends AbstractListenerProviderRegistry<FlowRuleEvent, FlowRuleListener,
                                                  FlowRuleProvider, FlowRuleProviderService>
-        implements FlowRuleService, FlowRuleProviderRegistry {
+        implements FlowRuleService, FlowRuleProviderRegistry, MetricsHelper {
 
     private final Logger log = getLogger(getClass());
 
@@ -145,6 +151,11 @@ public class FlowRuleManager
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected ComponentConfigService cfgService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
+
+    private Timer operationsTimer;
+
     @Activate
     public void activate(ComponentContext context) {
         modified(context);
@@ -153,6 +164,7 @@ public class FlowRuleManager
         deviceService.addListener(deviceListener);
         cfgService.registerProperties(getClass());
         idGenerator = coreService.getIdGenerator(FLOW_OP_TOPIC);
+        operationsTimer = createLatencyTimer("FlowRuleManager", "operations", "apply");
         log.info("Started");
     }
 
@@ -176,6 +188,11 @@ public class FlowRuleManager
                              deviceService, mastershipService, fallbackFlowPollFrequency);
     }
 
+    @Override
+    public MetricsService metricsService() {
+        return metricsService;
+    }
+
     @Override
     protected FlowRuleProvider defaultProvider() {
         return defaultProvider;
@@ -605,22 +622,39 @@ public class FlowRuleManager
         private final List<Set<FlowRuleOperation>> stages;
         private final Set<DeviceId> pendingDevices = new HashSet<>();
         private boolean hasFailed = false;
+        // Times the operations from submission until all stages are done
+        private Timer.Context timing;
 
         FlowOperationsProcessor(FlowRuleOperations ops) {
             this.stages = Lists.newArrayList(ops.stages());
             this.fops = ops;
+            this.timing = startTimer(operationsTimer);
         }
 
         @Override
-        public synchronized void run() {
-            if (stages.size() > 0) {
-                process(stages.remove(0));
-            } else if (!hasFailed) {
-                fops.callback().onSuccess(fops);
+        public void run() {
+            List<FlowRuleBatchOperation> localBatches;
+            synchronized (this) {
+                if (stages.isEmpty()) {
+                    stopTimer(timing);
+                    timing = null;
+                    if (!hasFailed) {
+                        fops.callback().onSuccess(fops);
+                    }
+                    return;
+                }
+                localBatches = process(stages.remove(0));
             }
+            // Batches of devices mastered by this node are applied to the
+            // local flow table and handed to the provider on this thread,
+            // without holding the processor, which their completion
+            // reports back to.
+            localBatches.forEach(store::storeBatch);
         }
 
-        private void process(Set<FlowRuleOperation> ops) {
+        // Dispatches the batches of remotely mastered devices, and returns
+        // those of locally mastered devices
+        private List<FlowRuleBatchOperation> process(Set<FlowRuleOperation> ops) {
             Multimap<DeviceId, FlowRuleBatchEntry> perDeviceBatches = ArrayListMultimap.create();
 
             for (FlowRuleOperation op : ops) {
@@ -629,13 +663,19 @@ public class FlowRuleManager
             }
             pendingDevices.addAll(perDeviceBatches.keySet());
 
+            List<FlowRuleBatchOperation> localBatches = new ArrayList<>();
             for (DeviceId deviceId : perDeviceBatches.keySet()) {
                 long id = idGenerator.getNewId();
                 final FlowRuleBatchOperation b = new FlowRuleBatchOperation(perDeviceBatches.get(deviceId),
                                                deviceId, id);
                 pendingFlowOperations.put(id, this);
-                deviceInstallers.execute(() -> store.storeBatch(b));
+                if (mastershipService.isLocalMaster(deviceId)) {
+                    localBatches.add(b);
+                } else {
+                    deviceInstallers.execute(() -> store.storeBatch(b));
+                }
             }
+            return localBatches;
         }
 
         synchronized void satisfy(DeviceId devId) {
@@ -56,7 +56,9 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -116,6 +118,11 @@ public class FlowObjectiveManager implements FlowObjectiveService {
 
     private final Map<Integer, Set<PendingNext>> pendingForwards = Maps.newConcurrentMap();
 
+    // Forwarding objectives awaiting installation, by device; each queue is
+    // flushed to the device pipeliner as a single batch
+    private final Map<DeviceId, Queue<ForwardingObjective>> forwardQueues = Maps.newConcurrentMap();
+    private final Set<DeviceId> scheduledFlushes = Sets.newConcurrentHashSet();
+
     // local store to track which nextObjectives were sent to which device
     // for debugging purposes
     private Map<Integer, DeviceId> nextToDevice = Maps.newConcurrentMap();
@@ -138,6 +145,8 @@ public class FlowObjectiveManager implements FlowObjectiveService {
         pipeliners.clear();
         driverHandlers.clear();
         nextToDevice.clear();
+        forwardQueues.clear();
+        scheduledFlushes.clear();
         log.info("Stopped");
     }
 
@@ -192,6 +201,48 @@ public class FlowObjectiveManager implements FlowObjectiveService {
         }
     }
 
+    /**
+     * Task that passes all forwarding objectives queued for a device down to
+     * the driver in a single batch. If no suitable driver can be found yet,
+     * the objectives are handed over to individual installers, which retry.
+     */
+    private class ForwardingBatchInstaller implements Runnable {
+        private final DeviceId deviceId;
+
+        public ForwardingBatchInstaller(DeviceId deviceId) {
+            this.deviceId = checkNotNull(deviceId);
+        }
+
+        @Override
+        public void run() {
+            // Objectives queued from now on schedule another flush.
+            scheduledFlushes.remove(deviceId);
+            Queue<ForwardingObjective> queue = forwardQueues.get(deviceId);
+            List<ForwardingObjective> batch = new ArrayList<>();
+            ForwardingObjective fwd = queue != null ? queue.poll() : null;
+            while (fwd != null) {
+                batch.add(fwd);
+                fwd = queue.poll();
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            try {
+                Pipeliner pipeliner = getDevicePipeliner(deviceId);
+                if (pipeliner != null) {
+                    log.debug("Installing {} forwarding objectives on device {}",
+                              batch.size(), deviceId);
+                    pipeliner.forward(batch);
+                } else {
+                    batch.forEach(o -> executorService.execute(new ObjectiveInstaller(deviceId, o)));
+                }
+            } catch (Exception e) {
+                log.warn("Exception while installing flow objectives", e);
+            }
+        }
+    }
+
     @Override
     public void filter(DeviceId deviceId, FilteringObjective filteringObjective) {
         checkPermission(FLOWRULE_WRITE);
@@ -204,7 +255,11 @@ public class FlowObjectiveManager implements FlowObjectiveService {
         if (queueObjective(deviceId, forwardingObjective)) {
             return;
         }
-        executorService.execute(new ObjectiveInstaller(deviceId, forwardingObjective));
+        forwardQueues.computeIfAbsent(deviceId, k -> new ConcurrentLinkedQueue<>())
+                .add(forwardingObjective);
+        if (scheduledFlushes.add(deviceId)) {
+            executorService.execute(new ForwardingBatchInstaller(deviceId));
+        }
     }
 
     @Override
@@ -229,28 +284,38 @@ public class FlowObjectiveManager implements FlowObjectiveService {
             // fast path
             return false;
         }
-        boolean queued = false;
-        synchronized (pendingForwards) {
-            // double check the flow objective store, because this block could run
-            // after a notification arrives
-            if (flowObjectiveStore.getNextGroup(fwd.nextId()) == null) {
-                pendingForwards.compute(fwd.nextId(), (id, pending) -> {
-                    PendingNext next = new PendingNext(deviceId, fwd);
-                    if (pending == null) {
-                        return Sets.newHashSet(next);
-                    } else {
-                        pending.add(next);
-                        return pending;
-                    }
-                });
-                queued = true;
+        PendingNext next = new PendingNext(deviceId, fwd);
+        pendingForwards.compute(fwd.nextId(), (id, pending) -> {
+            if (pending == null) {
+                return Sets.newHashSet(next);
+            } else {
+                pending.add(next);
+                return pending;
             }
+        });
+
+        // The next objective may have been stored, and its notification
+        // handled, since the store was checked above. Whoever takes the
+        // objective out of the pending set installs it: the notification,
+        // which removes the whole set, or this thread.
+        if (flowObjectiveStore.getNextGroup(fwd.nextId()) != null &&
+                removePending(fwd.nextId(), next)) {
+            return false;
         }
-        if (queued) {
-            log.debug("Queued forwarding objective {} for nextId {} meant for device {}",
-                      fwd.id(), fwd.nextId(), deviceId);
-        }
-        return queued;
+        log.debug("Queued forwarding objective {} for nextId {} meant for device {}",
+                  fwd.id(), fwd.nextId(), deviceId);
+        return true;
+    }
+
+    // Removes an objective from those pending on a next objective, returning
+    // whether it was still pending.
+    private boolean removePending(Integer nextId, PendingNext next) {
+        boolean[] removed = {false};
+        pendingForwards.computeIfPresent(nextId, (id, pending) -> {
+            removed[0] = pending.remove(next);
+            return pending.isEmpty() ? null : pending;
+        });
+        return removed[0];
     }
 
     /**
@@ -415,11 +480,8 @@ public class FlowObjectiveManager implements FlowObjectiveService {
         public void notify(ObjectiveEvent event) {
             if (event.type() == Type.ADD) {
                 log.debug("Received notification of obj event {}", event);
-                Set<PendingNext> pending;
-                synchronized (pendingForwards) {
-                    // needs to be synchronized for queueObjective lookup
-                    pending = pendingForwards.remove(event.subject());
-                }
+                // atomic with respect to queueObjective for the same nextId
+                Set<PendingNext> pending = pendingForwards.remove(event.subject());
 
                 if (pending == null) {
                     log.debug("Nothing pending for this obj event {}", event);
@@ -428,8 +490,10 @@ public class FlowObjectiveManager implements FlowObjectiveService {
 
                 log.debug("Processing {} pending forwarding objectives for nextId {}",
                          pending.size(), event.subject());
-                pending.forEach(p -> getDevicePipeliner(p.deviceId())
-                                .forward(p.forwardingObjective()));
+                Map<DeviceId, List<ForwardingObjective>> batches = Maps.newHashMap();
+                pending.forEach(p -> batches.computeIfAbsent(p.deviceId(), k -> new ArrayList<>())
+                        .add(p.forwardingObjective()));
+                batches.forEach((deviceId, batch) -> getDevicePipeliner(deviceId).forward(batch));
             }
         }
     }
@@ -44,7 +44,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -107,7 +109,9 @@ public class HostMonitor implements TimerTask {
      */
     void addMonitoringFor(IpAddress ip) {
         monitoredAddresses.add(ip);
-        probe(ip);
+        List<OutboundPacket> probes = new ArrayList<>();
+        probe(ip, probes);
+        emit(probes);
     }
 
     /**
@@ -159,18 +163,28 @@ public class HostMonitor implements TimerTask {
 
     @Override
     public void run(Timeout timeout) throws Exception {
-        monitoredAddresses.forEach(this::probe);
+        // Gather the probes for all monitored addresses and send them as
+        // a single batch, which lets them be aggregated per device.
+        List<OutboundPacket> probes = new ArrayList<>();
+        monitoredAddresses.forEach(ip -> probe(ip, probes));
+        emit(probes);
 
         synchronized (this) {
             this.timeout = Timer.getTimer().newTimeout(this, probeRate, TimeUnit.MILLISECONDS);
         }
     }
 
-    private void probe(IpAddress ip) {
+    private void emit(List<OutboundPacket> probes) {
+        if (!probes.isEmpty()) {
+            packetService.emit(probes);
+        }
+    }
+
+    private void probe(IpAddress ip, List<OutboundPacket> probes) {
         Set<Host> hosts = hostManager.getHostsByIp(ip);
 
         if (hosts.isEmpty()) {
-            sendRequest(ip);
+            sendRequest(ip, probes);
         } else {
             for (Host host : hosts) {
                 HostProvider provider = hostProviders.get(host.providerId());
@@ -184,11 +198,12 @@ public class HostMonitor implements TimerTask {
     }
 
     /**
-     * Sends an ARP or NDP request for the given IP address.
+     * Prepares an ARP or NDP request for the given IP address.
      *
      * @param targetIp IP address to send the request for
+     * @param probes   list to which the request packets are added
      */
-    private void sendRequest(IpAddress targetIp) {
+    private void sendRequest(IpAddress targetIp, List<OutboundPacket> probes) {
         Interface intf = interfaceService.getMatchingInterface(targetIp);
 
         if (intf == null) {
@@ -202,16 +217,16 @@ public class HostMonitor implements TimerTask {
 
         for (InterfaceIpAddress ia : intf.ipAddressesList()) {
             if (ia.subnetAddress().contains(targetIp)) {
-                sendProbe(intf.connectPoint(), targetIp, ia.ipAddress(),
-                        intf.mac(), intf.vlan());
+                probes.add(buildProbe(intf.connectPoint(), targetIp, ia.ipAddress(),
+                                      intf.mac(), intf.vlan()));
             }
         }
     }
 
-    private void sendProbe(ConnectPoint connectPoint,
-                           IpAddress targetIp,
-                           IpAddress sourceIp, MacAddress sourceMac,
-                           VlanId vlan) {
+    private OutboundPacket buildProbe(ConnectPoint connectPoint,
+                                      IpAddress targetIp,
+                                      IpAddress sourceIp, MacAddress sourceMac,
+                                      VlanId vlan) {
         Ethernet probePacket = null;
 
         if (targetIp.isIp4()) {
@@ -226,11 +241,8 @@ public class HostMonitor implements TimerTask {
             .setOutput(connectPoint.port())
             .build();
 
-        OutboundPacket outboundPacket =
-            new DefaultOutboundPacket(connectPoint.deviceId(), treatment,
-                                      ByteBuffer.wrap(probePacket.serialize()));
-
-        packetService.emit(outboundPacket);
+        return new DefaultOutboundPacket(connectPoint.deviceId(), treatment,
+                                         ByteBuffer.wrap(probePacket.serialize()));
     }
 
     private Ethernet buildArpRequest(IpAddress targetIp, IpAddress sourceIp,
@@ -15,6 +15,7 @@
  */
 package org.onosproject.net.intent.impl;
 
+import com.codahale.metrics.Timer;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 
@@ -25,8 +26,14 @@ import org.onosproject.net.intent.IntentException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+import static org.onlab.metrics.MetricsUtil.startTimer;
+import static org.onlab.metrics.MetricsUtil.stopTimer;
 
 // TODO: consider a better name
 class CompilerRegistry {
@@ -34,6 +41,38 @@ class CompilerRegistry {
     private final ConcurrentMap<Class<? extends Intent>,
             IntentCompiler<? extends Intent>> compilers = new ConcurrentHashMap<>();
 
+    // Per-compiler permits and latency timers; compilers without a timer
+    // are cached as such, so that the factory is asked only once
+    private final ConcurrentMap<IntentCompiler<?>, Semaphore> permits = new ConcurrentHashMap<>();
+    private final ConcurrentMap<IntentCompiler<?>, Optional<Timer>> timers = new ConcurrentHashMap<>();
+
+    private volatile int concurrencyLimit = 0;
+    private volatile Function<String, Timer> timerFactory = name -> null;
+
+    /**
+     * Sets the maximum number of compilations that each compiler may run
+     * concurrently.
+     *
+     * @param limit maximum number of concurrent compilations; 0 for no limit
+     */
+    void setConcurrencyLimit(int limit) {
+        if (limit != concurrencyLimit) {
+            concurrencyLimit = limit;
+            permits.clear();
+        }
+    }
+
+    /**
+     * Sets the factory of the timers which measure the latency of each
+     * compiler, given the compiler name. The factory may return null.
+     *
+     * @param timerFactory timer factory
+     */
+    void setTimerFactory(Function<String, Timer> timerFactory) {
+        this.timerFactory = timerFactory;
+        timers.clear();
+    }
+
     /**
      * Registers the specified compiler for the given intent class.
      *
@@ -79,12 +118,38 @@ class CompilerRegistry {
         registerSubclassCompilerIfNeeded(intent);
         // FIXME: get previous resources
         List<Intent> installable = new ArrayList<>();
-        for (Intent compiled : getCompiler(intent).compile(intent, previousInstallables)) {
+        for (Intent compiled : compileOnce(getCompiler(intent), intent, previousInstallables)) {
             installable.addAll(compile(compiled, previousInstallables));
         }
         return installable;
     }
 
+    /**
+     * Runs a single compilation step, within the concurrency limit of the
+     * compiler and measuring its latency. Permits are not held while the
+     * resulting intents are compiled further.
+     */
+    private <T extends Intent> List<Intent> compileOnce(IntentCompiler<T> compiler, T intent,
+                                                        List<Intent> previousInstallables) {
+        int limit = concurrencyLimit;
+        Semaphore semaphore = limit > 0 ?
+                permits.computeIfAbsent(compiler, c -> new Semaphore(limit)) : null;
+        if (semaphore != null) {
+            semaphore.acquireUninterruptibly();
+        }
+        Timer timer = timers.computeIfAbsent(compiler, c ->
+                Optional.ofNullable(timerFactory.apply(c.getClass().getSimpleName()))).orElse(null);
+        Timer.Context context = startTimer(timer);
+        try {
+            return compiler.compile(intent, previousInstallables);
+        } finally {
+            stopTimer(context);
+            if (semaphore != null) {
+                semaphore.release();
+            }
+        }
+    }
+
     /**
      * Returns the corresponding intent compiler to the specified intent.
      *
@@ -16,6 +16,7 @@
 
 package org.onosproject.net.intent.impl;
 
+import com.codahale.metrics.Timer;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import org.onosproject.net.DeviceId;
@@ -41,10 +42,13 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkState;
+import static org.onlab.metrics.MetricsUtil.startTimer;
+import static org.onlab.metrics.MetricsUtil.stopTimer;
 import static org.onosproject.net.intent.IntentState.*;
 import static org.slf4j.LoggerFactory.getLogger;
 
@@ -59,6 +63,7 @@ class IntentInstaller {
     private ObjectiveTrackerService trackerService;
     private FlowRuleService flowRuleService;
     private FlowObjectiveService flowObjectiveService;
+    private volatile Timer timer;
 
     private enum Direction {
         ADD,
@@ -81,6 +86,16 @@ class IntentInstaller {
         this.flowObjectiveService = flowObjectiveService;
     }
 
+    /**
+     * Sets the timer of intent updates, from their application until their
+     * completion or failure.
+     *
+     * @param timer timer; null for none
+     */
+    void setTimer(Timer timer) {
+        this.timer = timer;
+    }
+
 
     // FIXME: Refactor to accept both FlowObjectiveIntent and FlowRuleIntents
     // FIXME: Intent Manager should have never become dependent on a specific intent type(s).
@@ -94,8 +109,12 @@ class IntentInstaller {
      * @param toInstall   optional intent to install
      */
     void apply(Optional<IntentData> toUninstall, Optional<IntentData> toInstall) {
+        // Completion of the update, successful or not, stops the timer once
+        AtomicReference<Timer.Context> timing = new AtomicReference<>(startTimer(timer));
+
         // Hook for handling success
         Consumer<OperationContext> successConsumer = (ctx) -> {
+            stopTimer(timing.getAndSet(null));
             if (toInstall.isPresent()) {
                 IntentData installData = toInstall.get();
                 log.debug("Completed installing: {}", installData.key());
@@ -120,6 +139,7 @@ class IntentInstaller {
 
         // Hook for handling errors
         Consumer<OperationContext> errorConsumer = (ctx) -> {
+            stopTimer(timing.getAndSet(null));
             // if toInstall was cause of error, then recompile (manage/increment counter, when exceeded -> CORRUPT)
             if (toInstall.isPresent()) {
                 IntentData installData = toInstall.get();
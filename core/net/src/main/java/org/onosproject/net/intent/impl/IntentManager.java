@@ -23,10 +23,12 @@ import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.metrics.MetricsService;
 import org.onlab.util.Tools;
 import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.core.CoreService;
 import org.onosproject.core.IdGenerator;
+import org.onosproject.core.MetricsHelper;
 import org.onosproject.event.AbstractListenerManager;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.flow.FlowRuleService;
@@ -83,7 +85,7 @@ import static org.slf4j.LoggerFactory.getLogger;
 @Service
 public class IntentManager
         extends AbstractListenerManager<IntentEvent, IntentListener>
-        implements IntentService, IntentExtensionService {
+        implements IntentService, IntentExtensionService, MetricsHelper {
 
     private static final Logger log = getLogger(IntentManager.class);
 
@@ -107,6 +109,12 @@ public class IntentManager
             label = "Number of worker threads")
     private int numThreads = DEFAULT_NUM_THREADS;
 
+    private static final int DEFAULT_COMPILER_CONCURRENCY = 0;
+    @Property(name = "compilerConcurrency",
+            intValue = DEFAULT_COMPILER_CONCURRENCY,
+            label = "Maximum number of concurrent compilations per intent compiler; 0 for no limit")
+    private int compilerConcurrency = DEFAULT_COMPILER_CONCURRENCY;
+
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected CoreService coreService;
 
@@ -131,6 +139,9 @@ public class IntentManager
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected GroupService groupService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
+
     private ExecutorService batchExecutor;
     private ExecutorService workerExecutor;
 
@@ -149,7 +160,9 @@ public class IntentManager
     public void activate() {
         configService.registerProperties(getClass());
 
+        compilerRegistry.setTimerFactory(name -> createLatencyTimer("IntentManager", "compile", name));
         intentInstaller.init(store, trackerService, flowRuleService, flowObjectiveService);
+        intentInstaller.setTimer(createLatencyTimer("IntentManager", "install", "apply"));
         if (skipReleaseResourcesOnWithdrawal) {
             store.setDelegate(testOnlyDelegate);
         } else {
@@ -214,6 +227,19 @@ public class IntentManager
             }
             logConfig("Reconfigured number of worker threads");
         }
+
+        s = Tools.get(context.getProperties(), "compilerConcurrency");
+        int newCompilerConcurrency = isNullOrEmpty(s) ? compilerConcurrency : Integer.parseInt(s.trim());
+        if (newCompilerConcurrency != compilerConcurrency) {
+            compilerConcurrency = newCompilerConcurrency;
+            compilerRegistry.setConcurrencyLimit(compilerConcurrency);
+            log.info("Configured. Compiler concurrency is {}", compilerConcurrency);
+        }
+    }
+
+    @Override
+    public MetricsService metricsService() {
+        return metricsService;
     }
 
     private void logConfig(String prefix) {
@@ -15,9 +15,8 @@
  */
 package org.onosproject.net.intent.impl;
 
-import com.google.common.collect.HashMultimap;
-import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.SetMultimap;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Timer;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
@@ -25,6 +24,10 @@ import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.ReferencePolicy;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
+import org.onosproject.core.MetricsHelper;
 import org.onosproject.event.Event;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.ElementId;
@@ -56,10 +59,13 @@ import org.onosproject.net.topology.TopologyService;
 import org.slf4j.Logger;
 
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -67,7 +73,8 @@ import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
-import static com.google.common.collect.Multimaps.synchronizedSetMultimap;
+import static org.onlab.metrics.MetricsUtil.startTimer;
+import static org.onlab.metrics.MetricsUtil.stopTimer;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static java.util.concurrent.Executors.newSingleThreadExecutor;
 import static org.onlab.util.Tools.groupedThreads;
@@ -85,16 +92,17 @@ import static org.slf4j.LoggerFactory.getLogger;
  */
 @Component(immediate = true)
 @Service
-public class ObjectiveTracker implements ObjectiveTrackerService {
+public class ObjectiveTracker implements ObjectiveTrackerService, MetricsHelper {
 
     private final Logger log = getLogger(getClass());
 
-    private final SetMultimap<LinkKey, Key> intentsByLink =
-            //TODO this could be slow as a point of synchronization
-            synchronizedSetMultimap(HashMultimap.<LinkKey, Key>create());
+    // Inverted indexes of intents by the resources they use; updates to the
+    // intents of one resource never contend with those of another.
+    private final ConcurrentMap<LinkKey, Set<Key>> intentsByLink =
+            new ConcurrentHashMap<>();
 
-    private final SetMultimap<ElementId, Key> intentsByDevice =
-            synchronizedSetMultimap(HashMultimap.<ElementId, Key>create());
+    private final ConcurrentMap<ElementId, Set<Key>> intentsByDevice =
+            new ConcurrentHashMap<>();
 
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected TopologyService topologyService;
@@ -115,6 +123,9 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected WorkPartitionService partitionService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
+
     private ExecutorService executorService =
             newSingleThreadExecutor(groupedThreads("onos/intent", "objectivetracker", log));
     private ScheduledExecutorService executor =
@@ -127,10 +138,24 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
     private WorkPartitionEventListener partitionListener = new InternalPartitionListener();
     private TopologyChangeDelegate delegate;
 
+    // Events awaiting processing; all events pending at the time the
+    // processing runs are handled as one batch.
+    private final Queue<TrackedEvent> pendingEvents = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean processingScheduled = new AtomicBoolean(false);
+
+    private Timer lookupTimer;
+    private Histogram affectedIntentsHistogram;
+
     protected final AtomicBoolean updateScheduled = new AtomicBoolean(false);
 
     @Activate
     public void activate() {
+        lookupTimer = createTimer("ObjectiveTracker", "events", "lookup");
+        if (metricsService != null) {
+            MetricsComponent component = metricsService.registerComponent("ObjectiveTracker");
+            MetricsFeature feature = component.registerFeature("events");
+            affectedIntentsHistogram = metricsService.createHistogram(component, feature, "affectedIntents");
+        }
         topologyService.addListener(listener);
         resourceService.addListener(resourceListener);
         deviceService.addListener(deviceListener);
@@ -175,14 +200,19 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
         this.delegate = null;
     }
 
+    @Override
+    public MetricsService metricsService() {
+        return metricsService;
+    }
+
     @Override
     public void addTrackedResources(Key intentKey,
                                     Collection<NetworkResource> resources) {
         for (NetworkResource resource : resources) {
             if (resource instanceof Link) {
-                intentsByLink.put(linkKey((Link) resource), intentKey);
+                track(intentsByLink, linkKey((Link) resource), intentKey);
             } else if (resource instanceof ElementId) {
-                intentsByDevice.put((ElementId) resource, intentKey);
+                track(intentsByDevice, (ElementId) resource, intentKey);
             }
         }
     }
@@ -192,13 +222,44 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
                                        Collection<NetworkResource> resources) {
         for (NetworkResource resource : resources) {
             if (resource instanceof Link) {
-                intentsByLink.remove(linkKey((Link) resource), intentKey);
+                untrack(intentsByLink, linkKey((Link) resource), intentKey);
             } else if (resource instanceof ElementId) {
-                intentsByDevice.remove(resource, intentKey);
+                untrack(intentsByDevice, (ElementId) resource, intentKey);
             }
         }
     }
 
+    // Adds the intent to the index entry of the resource.
+    private static <K> void track(ConcurrentMap<K, Set<Key>> index, K resource, Key intentKey) {
+        index.compute(resource, (k, keys) -> {
+            Set<Key> set = keys != null ? keys : ConcurrentHashMap.newKeySet();
+            set.add(intentKey);
+            return set;
+        });
+    }
+
+    // Removes the intent from the index entry of the resource, dropping the
+    // entry once it is empty.
+    private static <K> void untrack(ConcurrentMap<K, Set<Key>> index, K resource, Key intentKey) {
+        index.computeIfPresent(resource, (k, keys) -> {
+            keys.remove(intentKey);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    // Accrues the intents tracked for the resource into the given set.
+    private <K> void lookup(ConcurrentMap<K, Set<Key>> index, K resource, Set<Key> intentKeys) {
+        Timer.Context timer = startTimer(lookupTimer);
+        try {
+            Set<Key> keys = index.get(resource);
+            if (keys != null) {
+                intentKeys.addAll(keys);
+            }
+        } finally {
+            stopTimer(timer);
+        }
+    }
+
     @Override
     public void trackIntent(IntentData intentData) {
 
@@ -215,7 +276,7 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
         if (log.isTraceEnabled()) {
             log.trace("intent {}, old: {}, new: {}, installableCount: {}, resourceCount: {}",
                       key,
-                      intentsByDevice.values().contains(key),
+                      intentsByDevice.values().stream().anyMatch(keys -> keys.contains(key)),
                       isLocal && isInstalled,
                       installables.size(),
                       intent.resources().size() +
@@ -243,16 +304,66 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
         }
     }
 
+    /**
+     * Queues the event for processing with any other pending events.
+     *
+     * @param event event to process
+     */
+    private void submit(TrackedEvent event) {
+        pendingEvents.add(event);
+        if (processingScheduled.compareAndSet(false, true)) {
+            executorService.execute(this::processPendingEvents);
+        }
+    }
+
+    // Processes all pending events as a batch, computing the set of intents
+    // they affect once and triggering their recompilation in one go.
+    private void processPendingEvents() {
+        processingScheduled.set(false);
+        Set<Key> intentsToRecompile = new HashSet<>();
+        boolean compileAllFailed = false;
+        int count = 0;
+        TrackedEvent event;
+        while ((event = pendingEvents.poll()) != null) {
+            // If there is no delegate, why bother? Just drop the event.
+            if (delegate != null) {
+                compileAllFailed |= event.accrue(intentsToRecompile);
+                count++;
+            }
+        }
+        if (count == 0 || delegate == null) {
+            return;
+        }
+
+        if (affectedIntentsHistogram != null) {
+            affectedIntentsHistogram.update(intentsToRecompile.size());
+        }
+        log.debug("{} events affect {} intents", count, intentsToRecompile.size());
+        delegate.triggerCompile(intentsToRecompile, compileAllFailed);
+    }
+
+    // Event whose effect on the tracked intents is determined when the
+    // batch containing it is processed.
+    private interface TrackedEvent {
+        /**
+         * Accrues the keys of the intents affected by the event.
+         *
+         * @param intentKeys set to accrue the affected intent keys into
+         * @return true if all failed intents should be recompiled
+         */
+        boolean accrue(Set<Key> intentKeys);
+    }
+
     // Internal re-actor to topology change events.
     private class InternalTopologyListener implements TopologyListener {
         @Override
         public void event(TopologyEvent event) {
-            executorService.execute(new TopologyChangeHandler(event));
+            submit(new TopologyChangeHandler(event));
         }
     }
 
     // Re-dispatcher of topology change events.
-    private class TopologyChangeHandler implements Runnable {
+    private class TopologyChangeHandler implements TrackedEvent {
 
         private final TopologyEvent event;
 
@@ -261,39 +372,29 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
         }
 
         @Override
-        public void run() {
-            // If there is no delegate, why bother? Just bail.
-            if (delegate == null) {
-                return;
+        public boolean accrue(Set<Key> intentsToRecompile) {
+            if (event.reasons() == null || event.reasons().isEmpty()) {
+                return true;
             }
 
-            if (event.reasons() == null || event.reasons().isEmpty()) {
-                delegate.triggerCompile(Collections.emptySet(), true);
-
-            } else {
-                Set<Key> intentsToRecompile = new HashSet<>();
-                boolean dontRecompileAllFailedIntents = true;
-
-                // Scan through the list of reasons and keep accruing all
-                // intents that need to be recompiled.
-                for (Event reason : event.reasons()) {
-                    if (reason instanceof LinkEvent) {
-                        LinkEvent linkEvent = (LinkEvent) reason;
-                        final LinkKey linkKey = linkKey(linkEvent.subject());
-                        synchronized (intentsByLink) {
-                            Set<Key> intentKeys = intentsByLink.get(linkKey);
-                            log.debug("recompile triggered by LinkEvent {} ({}) for {}",
-                                    linkKey, linkEvent.type(), intentKeys);
-                            intentsToRecompile.addAll(intentKeys);
-                        }
-                        dontRecompileAllFailedIntents = dontRecompileAllFailedIntents &&
-                                (linkEvent.type() == LINK_REMOVED ||
-                                (linkEvent.type() == LINK_UPDATED &&
-                                linkEvent.subject().isDurable()));
-                    }
+            boolean dontRecompileAllFailedIntents = true;
+
+            // Scan through the list of reasons and keep accruing all
+            // intents that need to be recompiled.
+            for (Event reason : event.reasons()) {
+                if (reason instanceof LinkEvent) {
+                    LinkEvent linkEvent = (LinkEvent) reason;
+                    final LinkKey linkKey = linkKey(linkEvent.subject());
+                    log.debug("recompile triggered by LinkEvent {} ({})",
+                              linkKey, linkEvent.type());
+                    lookup(intentsByLink, linkKey, intentsToRecompile);
+                    dontRecompileAllFailedIntents = dontRecompileAllFailedIntents &&
+                            (linkEvent.type() == LINK_REMOVED ||
+                            (linkEvent.type() == LINK_UPDATED &&
+                            linkEvent.subject().isDurable()));
                 }
-                delegate.triggerCompile(intentsToRecompile, !dontRecompileAllFailedIntents);
             }
+            return !dontRecompileAllFailedIntents;
         }
     }
 
@@ -301,13 +402,7 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
         @Override
         public void event(ResourceEvent event) {
             if (event.subject().isSubTypeOf(PortNumber.class)) {
-                executorService.execute(() -> {
-                    if (delegate == null) {
-                        return;
-                    }
-
-                    delegate.triggerCompile(Collections.emptySet(), true);
-                });
+                submit(intentKeys -> true);
             }
         }
     }
@@ -317,7 +412,7 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
     /*
      * Re-dispatcher of device and host events.
      */
-    private class DeviceAvailabilityHandler implements Runnable {
+    private class DeviceAvailabilityHandler implements TrackedEvent {
 
         private final ElementId id;
         private final boolean available;
@@ -328,19 +423,10 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
         }
 
         @Override
-        public void run() {
-            // If there is no delegate, why bother? Just bail.
-            if (delegate == null) {
-                return;
-            }
-
+        public boolean accrue(Set<Key> intentKeys) {
             // TODO should we recompile on available==true?
-
-            final ImmutableSet<Key> snapshot;
-            synchronized (intentsByDevice) {
-                snapshot = ImmutableSet.copyOf(intentsByDevice.get(id));
-            }
-            delegate.triggerCompile(snapshot, available);
+            lookup(intentsByDevice, id, intentKeys);
+            return available;
         }
     }
 
@@ -360,7 +446,7 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
                 boolean available = (type == DeviceEvent.Type.DEVICE_AVAILABILITY_CHANGED ||
                         type == DeviceEvent.Type.DEVICE_ADDED ||
                         type == DeviceEvent.Type.DEVICE_UPDATED);
-                executorService.execute(new DeviceAvailabilityHandler(id, available));
+                submit(new DeviceAvailabilityHandler(id, available));
                 break;
             case PORT_ADDED:
             case PORT_REMOVED:
@@ -381,7 +467,7 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
                 case HOST_ADDED:
                 case HOST_MOVED:
                 case HOST_REMOVED:
-                    executorService.execute(new DeviceAvailabilityHandler(id, false));
+                    submit(new DeviceAvailabilityHandler(id, false));
                     break;
                 case HOST_UPDATED:
                 default:
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.intent.impl.compiler;
+
+import com.codahale.metrics.Gauge;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
+
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Bounded memo of intermediate compilation results, shared by the intents
+ * which yield equal keys. Entries may be scoped to an epoch, such as the
+ * topology they were computed against, and are then only found by lookups
+ * within the same epoch; entries of past epochs are no longer used and are
+ * the first to be evicted as the memo fills.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+final class CompilationMemo<K, V> {
+
+    private static final String COMPONENT = "IntentCompiler";
+    private static final String HIT_RATE = "memoHitRate";
+    private static final String SIZE = "memoSize";
+
+    private final Cache<EpochKey<K>, V> cache;
+
+    /**
+     * Creates a memo holding up to the given number of entries.
+     *
+     * @param maxSize maximum number of entries
+     */
+    CompilationMemo(long maxSize) {
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the value memoized for the key, computing it if absent.
+     *
+     * @param key    key
+     * @param loader function computing the value of the key
+     * @return value of the key
+     */
+    V get(K key, Function<K, V> loader) {
+        return get(null, key, loader);
+    }
+
+    /**
+     * Returns the value memoized for the key within the given epoch,
+     * computing it if absent. Lookups within different epochs may be
+     * interleaved; each sees the values of its own epoch only.
+     *
+     * @param epoch  epoch the value is computed in, compared by equality;
+     *               null if values do not depend on an epoch. Memoized
+     *               values keep their epoch reachable, so it should be
+     *               small, such as the time of a topology
+     * @param key    key
+     * @param loader function computing the value of the key
+     * @return value of the key
+     */
+    V get(Object epoch, K key, Function<K, V> loader) {
+        EpochKey<K> epochKey = new EpochKey<>(epoch, key);
+        V value = cache.getIfPresent(epochKey);
+        if (value == null) {
+            value = loader.apply(key);
+            cache.put(epochKey, value);
+        }
+        return value;
+    }
+
+    /**
+     * Returns the ratio of lookups which found a memoized value.
+     *
+     * @return hit rate; 1.0 if there have been no lookups
+     */
+    double hitRate() {
+        return cache.stats().hitRate();
+    }
+
+    /**
+     * Returns the number of memoized values.
+     *
+     * @return number of entries
+     */
+    long size() {
+        return cache.size();
+    }
+
+    /**
+     * Drops all memoized values.
+     */
+    void clear() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Exports the hit rate and size of the memo as gauges of the given
+     * feature.
+     *
+     * @param metricsService metrics service; may be null
+     * @param feature        feature name, typically that of the compiler
+     */
+    void registerMetrics(MetricsService metricsService, String feature) {
+        if (metricsService == null) {
+            return;
+        }
+        MetricsComponent c = metricsService.registerComponent(COMPONENT);
+        MetricsFeature f = c.registerFeature(feature);
+        metricsService.registerMetric(c, f, HIT_RATE, (Gauge<Double>) this::hitRate);
+        metricsService.registerMetric(c, f, SIZE, (Gauge<Long>) this::size);
+    }
+
+    /**
+     * Removes the gauges exported by {@link #registerMetrics}.
+     *
+     * @param metricsService metrics service; may be null
+     * @param feature        feature name
+     */
+    void unregisterMetrics(MetricsService metricsService, String feature) {
+        if (metricsService == null) {
+            return;
+        }
+        MetricsComponent c = metricsService.registerComponent(COMPONENT);
+        MetricsFeature f = c.registerFeature(feature);
+        metricsService.removeMetric(c, f, HIT_RATE);
+        metricsService.removeMetric(c, f, SIZE);
+    }
+
+    // Key qualified by the epoch it was computed in
+    private static final class EpochKey<K> {
+        private final Object epoch;
+        private final K key;
+
+        private EpochKey(Object epoch, K key) {
+            this.epoch = epoch;
+            this.key = key;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(epoch, key);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof EpochKey)) {
+                return false;
+            }
+            EpochKey<?> that = (EpochKey<?>) obj;
+            return Objects.equals(epoch, that.epoch) && Objects.equals(key, that.key);
+        }
+    }
+}
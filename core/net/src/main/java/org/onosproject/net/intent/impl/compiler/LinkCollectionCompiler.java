@@ -16,6 +16,8 @@
 
 package org.onosproject.net.intent.impl.compiler;
 
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.SetMultimap;
 import com.google.common.collect.Sets;
 import org.onlab.packet.Ip4Address;
@@ -55,6 +57,7 @@ import org.onosproject.net.flow.instructions.L4ModificationInstruction.ModTransp
 import org.onosproject.net.intent.IntentCompilationException;
 import org.onosproject.net.intent.LinkCollectionIntent;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -73,6 +76,12 @@ public class LinkCollectionCompiler<T> {
     private static final Set<Criterion.Type> TAG_CRITERION_TYPES =
             Sets.immutableEnumSet(VLAN_VID, MPLS_LABEL, TUNNEL_ID);
 
+    private static final int MAX_DEVICE_PORTS = 10000;
+
+    // Input and output ports of each device, by links and end points
+    final CompilationMemo<List<Object>, DevicePorts> devicePorts =
+            new CompilationMemo<>(MAX_DEVICE_PORTS);
+
     /**
      * Helper class to encapsulate treatment and selector.
      */
@@ -99,6 +108,49 @@ public class LinkCollectionCompiler<T> {
 
     }
 
+    /**
+     * Helper class to encapsulate the input and output ports of each device.
+     */
+    protected static class DevicePorts {
+
+        private final SetMultimap<DeviceId, PortNumber> inputPorts;
+
+        private final SetMultimap<DeviceId, PortNumber> outputPorts;
+
+        public DevicePorts(SetMultimap<DeviceId, PortNumber> inputPorts,
+                           SetMultimap<DeviceId, PortNumber> outputPorts) {
+            this.inputPorts = ImmutableSetMultimap.copyOf(inputPorts);
+            this.outputPorts = ImmutableSetMultimap.copyOf(outputPorts);
+        }
+
+        public SetMultimap<DeviceId, PortNumber> inputPorts() {
+            return inputPorts;
+        }
+
+        public SetMultimap<DeviceId, PortNumber> outputPorts() {
+            return outputPorts;
+        }
+
+    }
+
+    /**
+     * Returns the input and output ports of each device of the intent. The
+     * ports are computed once for all intents with the same links and end
+     * points, such as those compiled from intents sharing a tree.
+     *
+     * @param intent the related intent
+     * @return input and output ports of each device
+     */
+    protected DevicePorts devicePorts(LinkCollectionIntent intent) {
+        List<Object> key = Arrays.asList(intent.links(), intent.ingressPoints(), intent.egressPoints());
+        return devicePorts.get(key, k -> {
+            SetMultimap<DeviceId, PortNumber> inputPorts = HashMultimap.create();
+            SetMultimap<DeviceId, PortNumber> outputPorts = HashMultimap.create();
+            computePorts(intent, inputPorts, outputPorts);
+            return new DevicePorts(inputPorts, outputPorts);
+        });
+    }
+
     /**
      * Helper method to compute input and output ports.
      *
@@ -15,7 +15,6 @@
  */
 package org.onosproject.net.intent.impl.compiler;
 
-import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.SetMultimap;
 import com.google.common.collect.Sets;
@@ -24,6 +23,7 @@ import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
+import org.onlab.metrics.MetricsService;
 import org.onosproject.core.ApplicationId;
 import org.onosproject.core.CoreService;
 import org.onosproject.net.DeviceId;
@@ -61,26 +61,31 @@ public class LinkCollectionIntentFlowObjectiveCompiler
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected FlowObjectiveService flowObjectiveService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
+
     private ApplicationId appId;
 
     @Activate
     public void activate() {
         appId = coreService.registerApplication("org.onosproject.net.intent");
+        devicePorts.registerMetrics(metricsService, "LinkCollectionIntentFlowObjectiveCompiler");
         registrator.registerCompiler(LinkCollectionIntent.class, this, true);
     }
 
     @Deactivate
     public void deactivate() {
+        devicePorts.unregisterMetrics(metricsService, "LinkCollectionIntentFlowObjectiveCompiler");
+        devicePorts.clear();
         registrator.unregisterCompiler(LinkCollectionIntent.class, true);
     }
 
     @Override
     public List<Intent> compile(LinkCollectionIntent intent, List<Intent> installable) {
 
-        SetMultimap<DeviceId, PortNumber> inputPorts = HashMultimap.create();
-        SetMultimap<DeviceId, PortNumber> outputPorts = HashMultimap.create();
-
-        computePorts(intent, inputPorts, outputPorts);
+        DevicePorts ports = devicePorts(intent);
+        SetMultimap<DeviceId, PortNumber> inputPorts = ports.inputPorts();
+        SetMultimap<DeviceId, PortNumber> outputPorts = ports.outputPorts();
 
         List<Objective> objectives = new ArrayList<>();
         List<DeviceId> devices = new ArrayList<>();
@@ -16,12 +16,12 @@
 package org.onosproject.net.intent.impl.compiler;
 
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Sets;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
+import org.onlab.metrics.MetricsService;
 import org.onosproject.net.ConnectPoint;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.Link;
@@ -35,11 +35,13 @@ import org.onosproject.net.intent.LinkCollectionIntent;
 import org.onosproject.net.intent.MultiPointToSinglePointIntent;
 import org.onosproject.net.intent.PointToPointIntent;
 import org.onosproject.net.topology.PathService;
+import org.onosproject.net.topology.TopologyService;
 
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 
 import static org.onosproject.net.intent.constraint.PartialFailureConstraint.intentAllowsPartialFailure;
@@ -48,6 +50,11 @@ import static org.onosproject.net.intent.constraint.PartialFailureConstraint.int
 /**
  * An intent compiler for
  * {@link org.onosproject.net.intent.MultiPointToSinglePointIntent}.
+ * <p>
+ * Intents sharing ingress and egress points, such as those of prefixes
+ * advertised through the same peer, share the tree computed for the first
+ * of them until the topology changes.
+ * </p>
  */
 @Component(immediate = true)
 public class MultiPointToSinglePointIntentCompiler
@@ -62,25 +69,70 @@ public class MultiPointToSinglePointIntentCompiler
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected DeviceService deviceService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected TopologyService topologyService;
+
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
+
+    private static final int MAX_TREES = 10000;
+    private static final String FEATURE = "MultiPointToSinglePointIntentCompiler";
+
+    // Trees computed against the current topology, by ingress and egress points
+    final CompilationMemo<TreeKey, Tree> trees = new CompilationMemo<>(MAX_TREES);
+
     @Activate
     public void activate() {
+        trees.registerMetrics(metricsService, FEATURE);
         intentManager.registerCompiler(MultiPointToSinglePointIntent.class, this);
     }
 
     @Deactivate
     public void deactivate() {
         intentManager.unregisterCompiler(PointToPointIntent.class);
+        trees.unregisterMetrics(metricsService, FEATURE);
+        trees.clear();
     }
 
     @Override
     public List<Intent> compile(MultiPointToSinglePointIntent intent, List<Intent> installable) {
-        Map<DeviceId, Link> links = new HashMap<>();
-        ConnectPoint egressPoint = intent.egressPoint();
+        TreeKey key = new TreeKey(intent.ingressPoints(), intent.egressPoint());
+        Tree tree = trees.get(topologyService.currentTopology().time(), key, this::computeTree);
 
         final boolean allowMissingPaths = intentAllowsPartialFailure(intent);
+        if (!tree.partialTree) {
+            throw new IntentException("Could not find any paths between ingress and egress points.");
+        } else if (!allowMissingPaths && tree.anyMissingPaths) {
+            throw new IntentException("Missing some paths between ingress and egress ports.");
+        }
+
+        Intent result = LinkCollectionIntent.builder()
+                .appId(intent.appId())
+                .treatment(intent.treatment())
+                .selector(intent.selector())
+                .links(tree.links)
+                .filteredIngressPoints(intent.filteredIngressPoints())
+                .filteredEgressPoints(ImmutableSet.of(intent.filteredEgressPoint()))
+                .priority(intent.priority())
+                .constraints(intent.constraints())
+                .build();
+
+        return Collections.singletonList(result);
+    }
+
+    /**
+     * Computes the tree joining the ingress points to the egress point.
+     *
+     * @param key ingress and egress points
+     * @return tree of links, possibly partial
+     */
+    private Tree computeTree(TreeKey key) {
+        Map<DeviceId, Link> links = new HashMap<>();
+        ConnectPoint egressPoint = key.egressPoint;
+
         boolean partialTree = false;
         boolean anyMissingPaths = false;
-        for (ConnectPoint ingressPoint : intent.ingressPoints()) {
+        for (ConnectPoint ingressPoint : key.ingressPoints) {
             if (ingressPoint.deviceId().equals(egressPoint.deviceId())) {
                 if (deviceService.isAvailable(ingressPoint.deviceId())) {
                     partialTree = true;
@@ -91,7 +143,7 @@ public class MultiPointToSinglePointIntentCompiler
                 continue;
             }
 
-            Path path = getPath(ingressPoint, intent.egressPoint());
+            Path path = getPath(ingressPoint, egressPoint);
             if (path != null) {
                 partialTree = true;
 
@@ -111,24 +163,7 @@ public class MultiPointToSinglePointIntentCompiler
             }
         }
 
-        if (!partialTree) {
-            throw new IntentException("Could not find any paths between ingress and egress points.");
-        } else if (!allowMissingPaths && anyMissingPaths) {
-            throw new IntentException("Missing some paths between ingress and egress ports.");
-        }
-
-        Intent result = LinkCollectionIntent.builder()
-                .appId(intent.appId())
-                .treatment(intent.treatment())
-                .selector(intent.selector())
-                .links(Sets.newHashSet(links.values()))
-                .filteredIngressPoints(intent.filteredIngressPoints())
-                .filteredEgressPoints(ImmutableSet.of(intent.filteredEgressPoint()))
-                .priority(intent.priority())
-                .constraints(intent.constraints())
-                .build();
-
-        return Collections.singletonList(result);
+        return new Tree(ImmutableSet.copyOf(links.values()), partialTree, anyMissingPaths);
     }
 
     /**
@@ -146,4 +181,47 @@ public class MultiPointToSinglePointIntentCompiler
         // TODO: let's be more intelligent about this eventually
         return paths.iterator().next();
     }
+
+    // Ingress and egress points which determine the tree of an intent.
+    static final class TreeKey {
+        private final Set<ConnectPoint> ingressPoints;
+        private final ConnectPoint egressPoint;
+
+        private TreeKey(Set<ConnectPoint> ingressPoints, ConnectPoint egressPoint) {
+            this.ingressPoints = ingressPoints;
+            this.egressPoint = egressPoint;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(ingressPoints, egressPoint);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof TreeKey)) {
+                return false;
+            }
+            TreeKey that = (TreeKey) obj;
+            return Objects.equals(this.egressPoint, that.egressPoint) &&
+                    Objects.equals(this.ingressPoints, that.ingressPoints);
+        }
+    }
+
+    // Links of a tree, along with whether any or all of the ingress points
+    // could be joined to the egress point.
+    static final class Tree {
+        private final Set<Link> links;
+        private final boolean partialTree;
+        private final boolean anyMissingPaths;
+
+        private Tree(Set<Link> links, boolean partialTree, boolean anyMissingPaths) {
+            this.links = links;
+            this.partialTree = partialTree;
+            this.anyMissingPaths = anyMissingPaths;
+        }
+    }
 }
@@ -27,6 +27,12 @@ import org.onosproject.net.provider.ProviderId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.stream.Collectors.groupingBy;
+
 /**
  * Driver-based packet rule provider.
  */
@@ -60,6 +66,19 @@ public class PacketDriverProvider extends AbstractProvider implements PacketProv
         }
     }
 
+    @Override
+    public void emit(Collection<OutboundPacket> packets) {
+        // Resolve the driver behaviour only once per device.
+        Map<DeviceId, List<OutboundPacket>> batches =
+                packets.stream().collect(groupingBy(OutboundPacket::sendThrough));
+        batches.forEach((deviceId, batch) -> {
+            PacketProgrammable programmable = getPacketProgrammable(deviceId);
+            if (programmable != null) {
+                programmable.emit(batch);
+            }
+        });
+    }
+
     private PacketProgrammable getPacketProgrammable(DeviceId deviceId) {
         Device device = deviceService.getDevice(deviceId);
         if (device.is(PacketProgrammable.class)) {
@@ -15,18 +15,26 @@
  */
 package org.onosproject.net.packet.impl;
 
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.Timer;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.metrics.MetricsService;
+import org.onlab.packet.Ethernet;
 import org.onosproject.cluster.ClusterService;
 import org.onosproject.cluster.NodeId;
 import org.onosproject.core.ApplicationId;
 import org.onosproject.core.CoreService;
+import org.onosproject.core.MetricsHelper;
 import org.onosproject.net.Device;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.device.DeviceEvent;
@@ -58,12 +66,17 @@ import org.onosproject.net.provider.AbstractProviderRegistry;
 import org.onosproject.net.provider.AbstractProviderService;
 import org.slf4j.Logger;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.stream.Collectors.groupingBy;
 import static org.onlab.util.Tools.groupedThreads;
 import static org.onosproject.security.AppGuard.checkPermission;
 import static org.onosproject.security.AppPermission.Type.PACKET_EVENT;
@@ -78,7 +91,7 @@ import static org.slf4j.LoggerFactory.getLogger;
 @Service
 public class PacketManager
         extends AbstractProviderRegistry<PacketProvider, PacketProviderService>
-        implements PacketService, PacketProviderRegistry {
+        implements PacketService, PacketProviderRegistry, MetricsHelper {
 
     private final Logger log = getLogger(getClass());
 
@@ -86,6 +99,7 @@ public class PacketManager
     private static final String ERROR_NULL_SELECTOR = "Selector cannot be null";
     private static final String ERROR_NULL_APP_ID = "Application ID cannot be null";
     private static final String ERROR_NULL_DEVICE_ID = "Device ID cannot be null";
+    private static final String ERROR_NULL_SELECTORS = "Selectors cannot be null";
 
     private final PacketStoreDelegate delegate = new InternalStoreDelegate();
 
@@ -104,14 +118,20 @@ public class PacketManager
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected FlowObjectiveService objectiveService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
+
     private ExecutorService eventHandlingExecutor;
 
     private final DeviceListener deviceListener = new InternalDeviceListener();
 
     private final List<ProcessorEntry> processors = Lists.newCopyOnWriteArrayList();
+    private volatile ProcessorIndex processorIndex = new ProcessorIndex(ImmutableList.of());
 
     private final  PacketDriverProvider defaultProvider = new PacketDriverProvider();
 
+    private final Map<DeviceId, EmitMeter> emitMeters = Maps.newConcurrentMap();
+
     private ApplicationId appId;
     private NodeId localNodeId;
 
@@ -136,6 +156,11 @@ public class PacketManager
         log.info("Stopped");
     }
 
+    @Override
+    public MetricsService metricsService() {
+        return metricsService;
+    }
+
     @Override
     protected PacketProvider defaultProvider() {
         return defaultProvider;
@@ -143,18 +168,32 @@ public class PacketManager
 
     @Override
     public void addProcessor(PacketProcessor processor, int priority) {
+        addProcessor(processor, priority, ImmutableSet.of());
+    }
+
+    @Override
+    public void addProcessor(PacketProcessor processor, int priority,
+                             Set<TrafficSelector> selectors) {
         checkPermission(PACKET_EVENT);
         checkNotNull(processor, ERROR_NULL_PROCESSOR);
-        ProcessorEntry entry = new ProcessorEntry(processor, priority);
-
-        // Insert the new processor according to its priority.
-        int i = 0;
-        for (; i < processors.size(); i++) {
-            if (priority < processors.get(i).priority()) {
-                break;
+        checkNotNull(selectors, ERROR_NULL_SELECTORS);
+        // Processors of the same class share a timer
+        Timer timer = createLatencyTimer("PacketManager", "process",
+                                         processor.getClass().getName());
+        ProcessorEntry entry = new ProcessorEntry(processor, priority,
+                                                  ProcessorFilter.compile(selectors), timer);
+
+        synchronized (processors) {
+            // Insert the new processor according to its priority.
+            int i = 0;
+            for (; i < processors.size(); i++) {
+                if (priority < processors.get(i).priority()) {
+                    break;
+                }
             }
+            processors.add(i, entry);
+            processorIndex = new ProcessorIndex(processors);
         }
-        processors.add(i, entry);
     }
 
     @Override
@@ -162,12 +201,15 @@ public class PacketManager
         checkPermission(PACKET_EVENT);
         checkNotNull(processor, ERROR_NULL_PROCESSOR);
 
-        // Remove the processor entry.
-        for (int i = 0; i < processors.size(); i++) {
-            if (processors.get(i).processor() == processor) {
-                processors.remove(i);
-                break;
+        synchronized (processors) {
+            // Remove the processor entry.
+            for (int i = 0; i < processors.size(); i++) {
+                if (processors.get(i).processor() == processor) {
+                    processors.remove(i);
+                    break;
+                }
             }
+            processorIndex = new ProcessorIndex(processors);
         }
     }
 
@@ -337,6 +379,22 @@ public class PacketManager
         store.emit(packet);
     }
 
+    @Override
+    public void emit(Collection<OutboundPacket> packets) {
+        checkPermission(PACKET_WRITE);
+        checkNotNull(packets, "Packets cannot be null");
+        packets.forEach(packet -> checkNotNull(packet, "Packet cannot be null"));
+        store.emit(packets);
+    }
+
+    @Override
+    public Map<DeviceId, Double> getPacketOutRates() {
+        checkPermission(PACKET_READ);
+        ImmutableMap.Builder<DeviceId, Double> rates = ImmutableMap.builder();
+        emitMeters.forEach((deviceId, meter) -> rates.put(deviceId, meter.rate()));
+        return rates.build();
+    }
+
     private void localEmit(OutboundPacket packet) {
         Device device = deviceService.getDevice(packet.sendThrough());
         if (device == null) {
@@ -345,9 +403,31 @@ public class PacketManager
         PacketProvider packetProvider = getProvider(device.providerId());
         if (packetProvider != null) {
             packetProvider.emit(packet);
+            emitMeter(device.id()).mark(1);
         }
     }
 
+    private void localEmit(Collection<OutboundPacket> packets) {
+        // Resolve the device and its provider only once per device batch.
+        Map<DeviceId, List<OutboundPacket>> batches =
+                packets.stream().collect(groupingBy(OutboundPacket::sendThrough));
+        batches.forEach((deviceId, batch) -> {
+            Device device = deviceService.getDevice(deviceId);
+            if (device == null) {
+                return;
+            }
+            PacketProvider packetProvider = getProvider(device.providerId());
+            if (packetProvider != null) {
+                packetProvider.emit(batch);
+                emitMeter(deviceId).mark(batch.size());
+            }
+        });
+    }
+
+    private EmitMeter emitMeter(DeviceId deviceId) {
+        return emitMeters.computeIfAbsent(deviceId, k -> new EmitMeter());
+    }
+
     @Override
     protected PacketProviderService createProviderService(PacketProvider provider) {
         return new InternalPacketProviderService(provider);
@@ -366,8 +446,12 @@ public class PacketManager
 
         @Override
         public void processPacket(PacketContext context) {
-            // TODO filter packets sent to processors based on registrations
-            for (ProcessorEntry entry : processors) {
+            // Visit only the processors interested in this kind of packet.
+            Ethernet eth = context.inPacket().parsed();
+            for (ProcessorEntry entry : processorIndex.candidates(eth)) {
+                if (entry.filter != null && !entry.filter.matches(eth)) {
+                    continue;
+                }
                 try {
                     long start = System.nanoTime();
                     entry.processor().process(context);
@@ -390,6 +474,11 @@ public class PacketManager
             localEmit(event.subject());
         }
 
+        @Override
+        public void emit(Collection<OutboundPacket> packets) {
+            localEmit(packets);
+        }
+
         @Override
         public void requestPackets(PacketRequest request) {
             DeviceId deviceid = request.deviceId().orElse(null);
@@ -429,6 +518,9 @@ public class PacketManager
                                 pushRulesToDevice(device);
                             }
                             break;
+                        case DEVICE_REMOVED:
+                            emitMeters.remove(device.id());
+                            break;
                         default:
                             break;
                     }
@@ -439,18 +531,66 @@ public class PacketManager
         }
     }
 
+    /**
+     * Dispatch index of packet processors keyed by the Ethernet types of
+     * the packets in which they are interested. Processors are kept in
+     * priority order within each of the dispatch lists.
+     */
+    private static final class ProcessorIndex {
+        private static final ProcessorEntry[] NONE = new ProcessorEntry[0];
+
+        private final ProcessorEntry[] unfiltered;
+        private final ProcessorEntry[] anyEthType;
+        private final Map<Short, ProcessorEntry[]> byEthType;
+
+        ProcessorIndex(List<ProcessorEntry> entries) {
+            unfiltered = entries.stream()
+                    .filter(e -> e.filter == null)
+                    .toArray(ProcessorEntry[]::new);
+            anyEthType = entries.stream()
+                    .filter(e -> e.filter == null || e.filter.ethTypes() == null)
+                    .toArray(ProcessorEntry[]::new);
+
+            ImmutableMap.Builder<Short, ProcessorEntry[]> builder = ImmutableMap.builder();
+            entries.stream()
+                    .filter(e -> e.filter != null && e.filter.ethTypes() != null)
+                    .flatMap(e -> e.filter.ethTypes().stream())
+                    .distinct()
+                    .forEach(t -> builder.put(t, entries.stream()
+                            .filter(e -> e.filter == null || e.filter.ethTypes() == null ||
+                                    e.filter.ethTypes().contains(t))
+                            .toArray(ProcessorEntry[]::new)));
+            byEthType = builder.build();
+        }
+
+        // Returns the processors which may be interested in the packet;
+        // unparsed packets go only to processors without filters.
+        ProcessorEntry[] candidates(Ethernet eth) {
+            if (eth == null) {
+                return unfiltered.length > 0 ? unfiltered : NONE;
+            }
+            ProcessorEntry[] entries = byEthType.get(eth.getEtherType());
+            return entries != null ? entries : anyEthType;
+        }
+    }
+
     /**
      * Entity for tracking stats for a packet processor.
      */
-    private class ProcessorEntry implements PacketProcessorEntry {
+    private static class ProcessorEntry implements PacketProcessorEntry {
         private final PacketProcessor processor;
         private final int priority;
+        private final ProcessorFilter filter;
+        private final Timer timer;
         private long invocations = 0;
         private long nanos = 0;
 
-        public ProcessorEntry(PacketProcessor processor, int priority) {
+        public ProcessorEntry(PacketProcessor processor, int priority,
+                              ProcessorFilter filter, Timer timer) {
             this.processor = processor;
             this.priority = priority;
+            this.filter = filter;
+            this.timer = timer;
         }
 
         @Override
@@ -478,9 +618,50 @@ public class PacketManager
             return invocations > 0 ? nanos / invocations : 0;
         }
 
+        @Override
+        public Snapshot latencySnapshot() {
+            return timer != null ? timer.getSnapshot() : null;
+        }
+
         void addNanos(long nanos) {
             this.nanos += nanos;
             this.invocations++;
+            if (timer != null) {
+                timer.update(nanos, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * Tracks the rate of packets emitted through a device over the most
+     * recently completed one second window.
+     */
+    private static final class EmitMeter {
+        private static final long WINDOW_NANOS = 1_000_000_000L;
+
+        private long windowStart = System.nanoTime();
+        private long windowCount = 0;
+        private double rate = 0;
+
+        synchronized void mark(long count) {
+            roll(System.nanoTime());
+            windowCount += count;
+        }
+
+        synchronized double rate() {
+            roll(System.nanoTime());
+            return rate;
+        }
+
+        // Closes out the current window if it has elapsed.
+        private void roll(long now) {
+            long elapsed = now - windowStart;
+            if (elapsed >= WINDOW_NANOS) {
+                // Windows skipped without any packets imply a zero rate.
+                rate = elapsed < 2 * WINDOW_NANOS ? windowCount * 1e9 / elapsed : 0;
+                windowStart = now;
+                windowCount = 0;
+            }
         }
     }
 }
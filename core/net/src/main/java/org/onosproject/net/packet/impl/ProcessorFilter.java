@@ -0,0 +1,209 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.packet.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.onlab.packet.Ethernet;
+import org.onlab.packet.ICMP6;
+import org.onlab.packet.IPacket;
+import org.onlab.packet.IPv4;
+import org.onlab.packet.IPv6;
+import org.onlab.packet.TCP;
+import org.onlab.packet.UDP;
+import org.onosproject.net.flow.TrafficSelector;
+import org.onosproject.net.flow.criteria.Criterion;
+import org.onosproject.net.flow.criteria.EthTypeCriterion;
+import org.onosproject.net.flow.criteria.IPProtocolCriterion;
+import org.onosproject.net.flow.criteria.Icmpv6TypeCriterion;
+import org.onosproject.net.flow.criteria.TcpPortCriterion;
+import org.onosproject.net.flow.criteria.UdpPortCriterion;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compiled form of the traffic selectors through which a packet processor
+ * declared interest in particular packets. A packet is of interest if it
+ * matches any one of the selectors.
+ * <p>
+ * Only criteria on Ethernet type, IP protocol, TCP/UDP ports and ICMPv6
+ * type are understood; selectors using any other criteria cannot be
+ * compiled, in which case the processor is handed all packets.
+ * </p>
+ */
+final class ProcessorFilter {
+
+    private static final int ANY = -1;
+
+    private final List<Clause> clauses;
+    private final Set<Short> ethTypes;
+
+    private ProcessorFilter(List<Clause> clauses) {
+        this.clauses = clauses;
+        ImmutableSet.Builder<Short> builder = ImmutableSet.builder();
+        boolean anyEthType = false;
+        for (Clause clause : clauses) {
+            if (clause.ethType == ANY) {
+                anyEthType = true;
+            } else {
+                builder.add((short) clause.ethType);
+            }
+        }
+        this.ethTypes = anyEthType ? null : builder.build();
+    }
+
+    /**
+     * Compiles the specified selectors into a processor filter.
+     *
+     * @param selectors traffic selectors; may be null
+     * @return compiled filter; null if the processor should see all packets
+     */
+    static ProcessorFilter compile(Set<TrafficSelector> selectors) {
+        if (selectors == null || selectors.isEmpty()) {
+            return null;
+        }
+
+        ImmutableList.Builder<Clause> clauses = ImmutableList.builder();
+        for (TrafficSelector selector : selectors) {
+            Clause clause = Clause.compile(selector);
+            if (clause == null) {
+                return null;
+            }
+            clauses.add(clause);
+        }
+        return new ProcessorFilter(clauses.build());
+    }
+
+    /**
+     * Returns the set of Ethernet types which the filter may accept.
+     *
+     * @return set of Ethernet types; null if any Ethernet type may be accepted
+     */
+    Set<Short> ethTypes() {
+        return ethTypes;
+    }
+
+    /**
+     * Indicates whether the specified packet is of interest.
+     *
+     * @param eth parsed packet
+     * @return true if the packet matches any of the compiled selectors
+     */
+    boolean matches(Ethernet eth) {
+        for (Clause clause : clauses) {
+            if (clause.matches(eth)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Compiled form of a single traffic selector.
+    private static final class Clause {
+        private int ethType = ANY;
+        private int ipProto = ANY;
+        private int tcpSrc = ANY;
+        private int tcpDst = ANY;
+        private int udpSrc = ANY;
+        private int udpDst = ANY;
+        private int icmp6Type = ANY;
+
+        // Returns null if the selector uses criteria that are not understood.
+        private static Clause compile(TrafficSelector selector) {
+            Clause clause = new Clause();
+            for (Criterion criterion : selector.criteria()) {
+                switch (criterion.type()) {
+                    case ETH_TYPE:
+                        clause.ethType = ((EthTypeCriterion) criterion).ethType().toShort() & 0xffff;
+                        break;
+                    case IP_PROTO:
+                        clause.ipProto = ((IPProtocolCriterion) criterion).protocol() & 0xff;
+                        break;
+                    case TCP_SRC:
+                        clause.tcpSrc = ((TcpPortCriterion) criterion).tcpPort().toInt();
+                        break;
+                    case TCP_DST:
+                        clause.tcpDst = ((TcpPortCriterion) criterion).tcpPort().toInt();
+                        break;
+                    case UDP_SRC:
+                        clause.udpSrc = ((UdpPortCriterion) criterion).udpPort().toInt();
+                        break;
+                    case UDP_DST:
+                        clause.udpDst = ((UdpPortCriterion) criterion).udpPort().toInt();
+                        break;
+                    case ICMPV6_TYPE:
+                        clause.icmp6Type = ((Icmpv6TypeCriterion) criterion).icmpv6Type() & 0xff;
+                        break;
+                    default:
+                        return null;
+                }
+            }
+            return clause;
+        }
+
+        private boolean matches(Ethernet eth) {
+            if (ethType != ANY && ethType != (eth.getEtherType() & 0xffff)) {
+                return false;
+            }
+            if (ipProto == ANY && tcpSrc == ANY && tcpDst == ANY &&
+                    udpSrc == ANY && udpDst == ANY && icmp6Type == ANY) {
+                return true;
+            }
+
+            // Locate the IP protocol and the transport payload.
+            IPacket ip = eth.getPayload();
+            int proto;
+            if (ip instanceof IPv4) {
+                proto = ((IPv4) ip).getProtocol() & 0xff;
+            } else if (ip instanceof IPv6) {
+                proto = ((IPv6) ip).getNextHeader() & 0xff;
+            } else {
+                return false;
+            }
+            if (ipProto != ANY && ipProto != proto) {
+                return false;
+            }
+
+            IPacket l4 = ip.getPayload();
+            if (tcpSrc != ANY || tcpDst != ANY) {
+                if (!(l4 instanceof TCP) ||
+                        !port(tcpSrc, ((TCP) l4).getSourcePort()) ||
+                        !port(tcpDst, ((TCP) l4).getDestinationPort())) {
+                    return false;
+                }
+            }
+            if (udpSrc != ANY || udpDst != ANY) {
+                if (!(l4 instanceof UDP) ||
+                        !port(udpSrc, ((UDP) l4).getSourcePort()) ||
+                        !port(udpDst, ((UDP) l4).getDestinationPort())) {
+                    return false;
+                }
+            }
+            if (icmp6Type != ANY) {
+                if (!(l4 instanceof ICMP6) || icmp6Type != (((ICMP6) l4).getIcmpType() & 0xff)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean port(int expected, int actual) {
+            return expected == ANY || expected == actual;
+        }
+    }
+
+}
@@ -15,6 +15,7 @@
  */
 package org.onosproject.net.proxyarp.impl;
 
+import com.google.common.collect.Lists;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
@@ -45,6 +46,7 @@ import org.onosproject.net.host.HostService;
 import org.onosproject.net.link.LinkService;
 import org.onosproject.net.packet.DefaultOutboundPacket;
 import org.onosproject.net.packet.InboundPacket;
+import org.onosproject.net.packet.OutboundPacket;
 import org.onosproject.net.packet.PacketContext;
 import org.onosproject.net.packet.PacketService;
 import org.onosproject.net.proxyarp.ProxyArpService;
@@ -52,6 +54,7 @@ import org.onosproject.net.proxyarp.ProxyArpStore;
 import org.slf4j.Logger;
 
 import java.nio.ByteBuffer;
+import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -413,6 +416,7 @@ public class ProxyArpManager implements ProxyArpService {
     private void flood(Ethernet request, ConnectPoint inPort) {
         TrafficTreatment.Builder builder = null;
         ByteBuffer buf = ByteBuffer.wrap(request.serialize());
+        List<OutboundPacket> packets = Lists.newArrayList();
 
         for (ConnectPoint connectPoint : edgeService.getEdgePoints()) {
             if (hasIpAddress(connectPoint)
@@ -423,9 +427,12 @@ public class ProxyArpManager implements ProxyArpService {
 
             builder = DefaultTrafficTreatment.builder();
             builder.setOutput(connectPoint.port());
-            packetService.emit(new DefaultOutboundPacket(connectPoint.deviceId(),
-                                                         builder.build(), buf));
+            packets.add(new DefaultOutboundPacket(connectPoint.deviceId(),
+                                                  builder.build(), buf));
         }
+
+        // Emit all copies at once so they are batched per device.
+        packetService.emit(packets);
     }
 
     /**
@@ -18,29 +18,43 @@ package org.onosproject.event.impl;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.onlab.osgi.ComponentContextAdapter;
 import org.onosproject.event.AbstractEvent;
 import org.onosproject.event.EventSink;
+import org.onosproject.net.DefaultDevice;
+import org.onosproject.net.Device;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.device.DeviceEvent;
+import org.onosproject.net.provider.ProviderId;
 
 import java.util.ArrayList;
+import java.util.Dictionary;
+import java.util.Hashtable;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.onosproject.net.NetTestTools.did;
 
 /**
  * Test of the event dispatcher mechanism.
  */
 public class CoreEventDispatcherTest {
 
+    private static final ProviderId PID = new ProviderId("of", "foo");
+
     private final CoreEventDispatcher dispatcher = new CoreEventDispatcher();
     private final PrickleSink prickleSink = new PrickleSink();
     private final GooSink gooSink = new GooSink();
 
     @Before
     public void setUp() {
-        dispatcher.activate();
+        dispatcher.activate(null);
         dispatcher.addSink(Prickle.class, prickleSink);
         dispatcher.addSink(Goo.class, gooSink);
     }
@@ -88,6 +102,102 @@ public class CoreEventDispatcherTest {
         assertTrue(takesTooLong.interrupted);
     }
 
+    @Test
+    public void postToPartitionedLanes() throws Exception {
+        CoreEventDispatcher partitioned = new CoreEventDispatcher();
+        partitioned.activate(lanes(4));
+        DeviceEventSink sink = new DeviceEventSink();
+        partitioned.addSink(DeviceEvent.class, sink);
+
+        final int devices = 8;
+        final int eventsPerDevice = 100;
+        sink.latch = new CountDownLatch(devices * eventsPerDevice);
+        for (int i = 0; i < eventsPerDevice; i++) {
+            for (int d = 0; d < devices; d++) {
+                Device device = new DefaultDevice(PID, did("d" + d), Device.Type.SWITCH,
+                                                  "m", "h", "s", String.valueOf(i), null);
+                partitioned.post(new DeviceEvent(DeviceEvent.Type.DEVICE_UPDATED, device));
+            }
+        }
+        assertTrue("events not delivered", sink.latch.await(5, TimeUnit.SECONDS));
+
+        // Events of each device were delivered in the order posted, by
+        // more than one dispatch thread
+        for (int d = 0; d < devices; d++) {
+            List<String> serials = sink.serials.get(did("d" + d));
+            assertEquals(eventsPerDevice, serials.size());
+            for (int i = 0; i < eventsPerDevice; i++) {
+                assertEquals(String.valueOf(i), serials.get(i));
+            }
+        }
+        assertTrue(sink.threads.size() > 1);
+
+        partitioned.removeSink(DeviceEvent.class);
+        partitioned.deactivate();
+    }
+
+    @Test
+    public void postAfterSinkHangs() throws Exception {
+        HangingSink hangingSink = new HangingSink();
+        dispatcher.setDispatchTimeLimit(250);
+        dispatcher.addSink(TooLongEvent.class, hangingSink);
+        prickleSink.latch = new CountDownLatch(1);
+        dispatcher.post(new TooLongEvent("XYZZY"));
+        dispatcher.post(new Prickle("yo"));
+
+        // Events queued behind the hanging sink are dispatched by a new
+        // thread while the old one is still held
+        assertTrue("event not dispatched", prickleSink.latch.await(2, TimeUnit.SECONDS));
+        validate(prickleSink, "yo");
+        hangingSink.release.countDown();
+        dispatcher.removeSink(TooLongEvent.class);
+    }
+
+    @Test
+    public void reconfigureLanes() throws Exception {
+        DeviceEventSink sink = new DeviceEventSink();
+        dispatcher.addSink(DeviceEvent.class, sink);
+
+        final int devices = 8;
+        final int eventsPerDevice = 100;
+        sink.latch = new CountDownLatch(devices * eventsPerDevice);
+        for (int i = 0; i < eventsPerDevice; i++) {
+            if (i == eventsPerDevice / 2) {
+                dispatcher.modified(lanes(4));
+            }
+            for (int d = 0; d < devices; d++) {
+                Device device = new DefaultDevice(PID, did("d" + d), Device.Type.SWITCH,
+                                                  "m", "h", "s", String.valueOf(i), null);
+                dispatcher.post(new DeviceEvent(DeviceEvent.Type.DEVICE_UPDATED, device));
+            }
+        }
+        assertTrue("events not delivered", sink.latch.await(5, TimeUnit.SECONDS));
+
+        // Sinks survive the change, and events of each device are still
+        // delivered in the order posted
+        for (int d = 0; d < devices; d++) {
+            List<String> serials = sink.serials.get(did("d" + d));
+            assertEquals(eventsPerDevice, serials.size());
+            for (int i = 0; i < eventsPerDevice; i++) {
+                assertEquals(String.valueOf(i), serials.get(i));
+            }
+        }
+        assertTrue(sink.threads.size() > 1);
+        dispatcher.removeSink(DeviceEvent.class);
+    }
+
+    // Returns a context configuring the given number of topology lanes
+    private static ComponentContextAdapter lanes(int count) {
+        return new ComponentContextAdapter() {
+            @Override
+            public Dictionary getProperties() {
+                Hashtable<String, String> props = new Hashtable<>();
+                props.put("topologyLanes", String.valueOf(count));
+                return props;
+            }
+        };
+    }
+
     private void validate(Sink sink, String... strings) {
         int i = 0;
         assertEquals("incorrect event count", strings.length, sink.subjects.size());
@@ -141,6 +251,20 @@ public class CoreEventDispatcherTest {
         }
     }
 
+    private static class DeviceEventSink implements EventSink<DeviceEvent> {
+        final Map<DeviceId, List<String>> serials = new ConcurrentHashMap<>();
+        final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        CountDownLatch latch;
+
+        @Override
+        public void process(DeviceEvent event) {
+            threads.add(Thread.currentThread());
+            serials.computeIfAbsent(event.subject().id(), id -> new ArrayList<>())
+                    .add(event.subject().serialNumber());
+            latch.countDown();
+        }
+    }
+
     private static class TooLongEvent extends AbstractEvent<Type, String> {
         protected TooLongEvent(String subject) {
             super(Type.FOO, subject);
@@ -162,4 +286,21 @@ public class CoreEventDispatcherTest {
         }
     }
 
+    private static class HangingSink implements EventSink<TooLongEvent> {
+        final CountDownLatch release = new CountDownLatch(1);
+        int interrupts;
+
+        @Override
+        public void process(TooLongEvent event) {
+            // Holds on to the dispatch thread, even when interrupted
+            while (release.getCount() > 0) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    interrupts++;
+                }
+            }
+        }
+    }
+
 }
@@ -49,9 +49,13 @@ import org.onosproject.net.flow.DefaultFlowRule;
 import org.onosproject.net.flow.FlowEntry;
 import org.onosproject.net.flow.FlowEntry.FlowEntryState;
 import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.flow.FlowRuleBatchEvent;
 import org.onosproject.net.flow.FlowRuleBatchOperation;
+import org.onosproject.net.flow.FlowRuleBatchRequest;
 import org.onosproject.net.flow.FlowRuleEvent;
 import org.onosproject.net.flow.FlowRuleListener;
+import org.onosproject.net.flow.FlowRuleOperations;
+import org.onosproject.net.flow.FlowRuleOperationsContext;
 import org.onosproject.net.flow.FlowRuleProgrammable;
 import org.onosproject.net.flow.FlowRuleProvider;
 import org.onosproject.net.flow.FlowRuleProviderRegistry;
@@ -76,8 +80,11 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicLong;
@@ -117,12 +124,14 @@ public class FlowRuleManagerTest {
     private ApplicationId appId;
 
     private TestDriverManager driverService;
+    private TestFlowRuleStore store;
 
 
     @Before
     public void setUp() {
         mgr = new FlowRuleManager();
-        mgr.store = new SimpleFlowRuleStore();
+        store = new TestFlowRuleStore();
+        mgr.store = store;
         injectEventDispatcher(mgr, new TestEventDispatcher());
         mgr.deviceService = new TestDeviceService();
         mgr.mastershipService = new TestMastershipService();
@@ -478,6 +487,41 @@ public class FlowRuleManagerTest {
         });
     }
 
+    /**
+     * Tests that batches of devices mastered by this node are stored on the
+     * processing thread, without holding the operations processor which
+     * their completion reports back to.
+     */
+    @Test
+    public void localMasterBatches() throws InterruptedException {
+        mgr.mastershipService = new MastershipServiceAdapter() {
+            @Override
+            public MastershipRole getLocalRole(DeviceId deviceId) {
+                return DID.equals(deviceId) ? MastershipRole.MASTER : MastershipRole.STANDBY;
+            }
+        };
+        mgr.deviceInstallers = Executors.newSingleThreadExecutor();
+        store.completeBatches = true;
+
+        CountDownLatch done = new CountDownLatch(1);
+        mgr.apply(FlowRuleOperations.builder()
+                          .add(flowRule(DID, 1, 1))
+                          .add(flowRule(FOO_DID, 1, 1))
+                          .build(new FlowRuleOperationsContext() {
+                              @Override
+                              public void onSuccess(FlowRuleOperations ops) {
+                                  done.countDown();
+                              }
+                          }));
+
+        assertTrue("operations not completed", done.await(5, TimeUnit.SECONDS));
+        assertSame("local batch not stored inline",
+                   Thread.currentThread(), store.storedOn.get(DID));
+        assertNotSame("remote batch stored inline",
+                      Thread.currentThread(), store.storedOn.get(FOO_DID));
+        assertTrue("local batch completion held up", store.completedWhileStoring.get(DID));
+    }
+
 
     private static class TestListener implements FlowRuleListener {
         final List<FlowRuleEvent> events = new ArrayList<>();
@@ -689,6 +733,33 @@ public class FlowRuleManagerTest {
         }
     }
 
+    // Store which, when asked to, completes each batch from another thread
+    // while the batch is being stored, instead of handing it to a provider
+    private static class TestFlowRuleStore extends SimpleFlowRuleStore {
+        private final Map<DeviceId, Thread> storedOn = new ConcurrentHashMap<>();
+        private final Map<DeviceId, Boolean> completedWhileStoring = new ConcurrentHashMap<>();
+        private volatile boolean completeBatches;
+
+        @Override
+        public void storeBatch(FlowRuleBatchOperation operation) {
+            if (!completeBatches) {
+                super.storeBatch(operation);
+                return;
+            }
+            storedOn.put(operation.deviceId(), Thread.currentThread());
+            Thread completion = new Thread(() -> notifyDelegate(FlowRuleBatchEvent.completed(
+                    new FlowRuleBatchRequest(operation.id(), Collections.emptySet()),
+                    new CompletedBatchOperation(true, Collections.emptySet(), operation.deviceId()))));
+            completion.start();
+            try {
+                completion.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            completedWhileStoring.put(operation.deviceId(), !completion.isAlive());
+        }
+    }
+
     private class TestMastershipService extends MastershipServiceAdapter {
         @Override
         public MastershipRole getLocalRole(DeviceId deviceId) {
@@ -16,13 +16,17 @@
 package org.onosproject.net.flowobjective.impl;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.onlab.junit.TestUtils;
 import org.onlab.packet.ChassisId;
+import org.onlab.packet.TpPort;
 import org.onosproject.net.DefaultAnnotations;
 import org.onosproject.net.DefaultDevice;
 import org.onosproject.net.Device;
@@ -63,6 +67,8 @@ import org.onosproject.net.intent.TestTools;
 import static org.hamcrest.CoreMatchers.hasItem;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.onlab.junit.TestUtils.TestUtilsException;
 
@@ -88,6 +94,9 @@ public class FlowObjectiveManagerTest {
     List<String> filteringObjectives;
     List<String> forwardingObjectives;
     List<String> nextObjectives;
+    List<Integer> forwardingBatches;
+    // Holds up the pipeliners while they install a batch
+    CountDownLatch batchGate = new CountDownLatch(0);
 
     private class TestDeviceService extends DeviceServiceAdapter {
 
@@ -169,6 +178,17 @@ public class FlowObjectiveManagerTest {
             forwardingObjectives.add(deviceId.toString());
         }
 
+        @Override
+        public void forward(Collection<ForwardingObjective> forwardObjectives) {
+            try {
+                batchGate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            forwardingBatches.add(forwardObjectives.size());
+            forwardObjectives.forEach(this::forward);
+        }
+
         @Override
         public void next(NextObjective nextObjective) {
             nextObjectives.add(deviceId.toString());
@@ -192,13 +212,15 @@ public class FlowObjectiveManagerTest {
         manager.driverService = new TestDriverService();
 
         filteringObjectives = new ArrayList<>();
-        forwardingObjectives = new ArrayList<>();
+        forwardingObjectives = Collections.synchronizedList(new ArrayList<>());
         nextObjectives = new ArrayList<>();
+        forwardingBatches = Collections.synchronizedList(new ArrayList<>());
         manager.activate();
     }
 
     @After
     public void tearDownTest() {
+        batchGate.countDown();
         manager.deactivate();
         manager = null;
         filteringObjectives.clear();
@@ -232,6 +254,35 @@ public class FlowObjectiveManagerTest {
         assertThat(nextObjectives, hasSize(0));
     }
 
+    /**
+     * Tests that forwarding objectives for a device are handed to its
+     * pipeliner in batches.
+     */
+    @Test
+    public void batchedForwardingObjectives() {
+        int count = 100;
+        // Objectives queue up while the pipeliner installs the first batch
+        batchGate = new CountDownLatch(1);
+        for (int i = 0; i < count; i++) {
+            ForwardingObjective forward =
+                    DefaultForwardingObjective.builder()
+                            .fromApp(NetTestTools.APP_ID)
+                            .withFlag(ForwardingObjective.Flag.SPECIFIC)
+                            .withSelector(DefaultTrafficSelector.builder().matchTcpDst(TpPort.tpPort(i)).build())
+                            .withTreatment(DefaultTrafficTreatment.emptyTreatment())
+                            .withPriority(i)
+                            .makePermanent()
+                            .add();
+            manager.forward(id1, forward);
+        }
+        batchGate.countDown();
+
+        TestTools.assertAfter(RETRY_MS, () ->
+                assertThat(forwardingObjectives, hasSize(count)));
+        assertThat(forwardingBatches.stream().mapToInt(Integer::intValue).sum(), is(count));
+        assertThat(forwardingBatches.size(), lessThan(count));
+    }
+
     /**
      * Tests adding a filtering objective.
      */
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.intent.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.onosproject.core.IdGenerator;
+import org.onosproject.net.intent.Intent;
+import org.onosproject.net.intent.IntentCompiler;
+import org.onosproject.net.intent.IntentTestsMocks.MockIntent;
+import org.onosproject.net.intent.MockIdGenerator;
+import org.onosproject.net.intent.TestInstallableIntent;
+
+import com.google.common.collect.ImmutableList;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Unit tests for the compiler registry.
+ */
+public class CompilerRegistryTest {
+
+    private static final int COMPILATIONS = 6;
+
+    private IdGenerator idGenerator;
+    private ExecutorService executor;
+    private final CompilerRegistry registry = new CompilerRegistry();
+    private final BlockingCompiler compiler = new BlockingCompiler();
+
+    @Before
+    public void setUp() {
+        idGenerator = new MockIdGenerator();
+        Intent.bindIdGenerator(idGenerator);
+        executor = Executors.newFixedThreadPool(COMPILATIONS);
+        registry.registerCompiler(MockIntent.class, compiler);
+    }
+
+    @After
+    public void tearDown() {
+        compiler.release.countDown();
+        executor.shutdownNow();
+        Intent.unbindIdGenerator(idGenerator);
+    }
+
+    /**
+     * Tests that no more compilations than the limit run at once.
+     */
+    @Test
+    public void concurrencyLimit() throws Exception {
+        registry.setConcurrencyLimit(2);
+
+        List<Future<List<Intent>>> results = compileAll();
+        assertThat(compiler.started.await(200, TimeUnit.MILLISECONDS), is(false));
+        assertThat(compiler.running.get(), is(2));
+
+        compiler.release.countDown();
+        for (Future<List<Intent>> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS), hasSize(1));
+        }
+        assertThat(compiler.maxRunning.get(), is(2));
+    }
+
+    /**
+     * Tests that compilations are not limited by default.
+     */
+    @Test
+    public void noLimit() throws Exception {
+        List<Future<List<Intent>>> results = compileAll();
+        assertThat(compiler.started.await(5, TimeUnit.SECONDS), is(true));
+
+        compiler.release.countDown();
+        for (Future<List<Intent>> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS), hasSize(1));
+        }
+        assertThat(compiler.maxRunning.get(), is(COMPILATIONS));
+    }
+
+    /**
+     * Tests that the timer factory is asked once per compiler, even when
+     * it provides no timer.
+     */
+    @Test
+    public void missingTimerCached() {
+        AtomicInteger requests = new AtomicInteger();
+        registry.setTimerFactory(name -> {
+            requests.incrementAndGet();
+            return null;
+        });
+        compiler.release.countDown();
+
+        registry.compile(new MockIntent(MockIntent.nextId()), null);
+        registry.compile(new MockIntent(MockIntent.nextId()), null);
+        assertThat(requests.get(), is(1));
+    }
+
+    private List<Future<List<Intent>>> compileAll() {
+        List<Future<List<Intent>>> results = new ArrayList<>();
+        for (int i = 0; i < COMPILATIONS; i++) {
+            Intent intent = new MockIntent(MockIntent.nextId());
+            results.add(executor.submit(() -> registry.compile(intent, null)));
+        }
+        return results;
+    }
+
+    // Compiler which holds each compilation until released
+    private static class BlockingCompiler implements IntentCompiler<MockIntent> {
+        private final CountDownLatch started = new CountDownLatch(COMPILATIONS);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final AtomicInteger running = new AtomicInteger();
+        private final AtomicInteger maxRunning = new AtomicInteger();
+
+        @Override
+        public List<Intent> compile(MockIntent intent, List<Intent> installable) {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                running.decrementAndGet();
+            }
+            return ImmutableList.of(new TestInstallableIntent(1));
+        }
+    }
+}
@@ -18,6 +18,7 @@ package org.onosproject.net.intent.impl;
 import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
@@ -324,5 +325,37 @@ public class ObjectiveTrackerTest {
         assertThat(delegate.compileAllFailedFromEvent, is(true));
     }
 
+    /**
+     * Tests that intents no longer tracked are not reported for events on
+     * the resources they used.
+     *
+     * @throws InterruptedException if the latch wait fails.
+     */
+    @Test
+    public void testEventLinkDownUntracked() throws Exception {
+        final Link link = link("src", 1, "dst", 2);
+        reasons.add(new LinkEvent(LinkEvent.Type.LINK_REMOVED, link));
+
+        final Key key1 = Key.of(0x333L, APP_ID);
+        final Key key2 = Key.of(0x444L, APP_ID);
+        Collection<NetworkResource> resources = ImmutableSet.of(link);
+        tracker.addTrackedResources(key1, resources);
+        tracker.addTrackedResources(key2, resources);
+        tracker.removeTrackedResources(key1, resources);
+
+        listener.event(new TopologyEvent(TopologyEvent.Type.TOPOLOGY_CHANGED,
+                                         topology, reasons));
+        assertThat(
+                delegate.latch.await(WAIT_TIMEOUT_SECONDS, TimeUnit.SECONDS),
+                is(true));
+
+        assertThat(delegate.intentIdsFromEvent, hasSize(1));
+        assertThat(delegate.intentIdsFromEvent.get(0).toString(),
+                   equalTo("0x444"));
+
+        tracker.removeTrackedResources(key2, resources);
+        Map<?, ?> intentsByLink = TestUtils.getField(tracker, "intentsByLink");
+        assertThat(intentsByLink.isEmpty(), is(true));
+    }
 
 }
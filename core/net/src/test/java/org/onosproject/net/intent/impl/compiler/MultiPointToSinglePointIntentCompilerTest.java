@@ -32,16 +32,23 @@ import org.onosproject.net.intent.Intent;
 import org.onosproject.net.intent.IntentTestsMocks;
 import org.onosproject.net.intent.LinkCollectionIntent;
 import org.onosproject.net.intent.MultiPointToSinglePointIntent;
+import org.onosproject.net.topology.Topology;
+import org.onosproject.net.topology.TopologyServiceAdapter;
 
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.onosproject.net.NetTestTools.connectPoint;
 import static org.onosproject.net.intent.LinksHaveEntryWithSourceDestinationPairMatcher.linksHasPath;
 
@@ -54,6 +61,23 @@ public class MultiPointToSinglePointIntentCompilerTest extends AbstractIntentTes
 
     private TrafficSelector selector = new IntentTestsMocks.MockSelector();
     private TrafficTreatment treatment = new IntentTestsMocks.MockTreatment();
+    private MockTopologyService topologyService = new MockTopologyService();
+
+    private static class MockTopologyService extends TopologyServiceAdapter {
+        private Topology topology = topology(1);
+
+        @Override
+        public Topology currentTopology() {
+            return topology;
+        }
+    }
+
+    private static Topology topology(long time) {
+        Topology topology = createMock(Topology.class);
+        expect(topology.time()).andReturn(time).anyTimes();
+        replay(topology);
+        return topology;
+    }
 
     /**
      * Creates a MultiPointToSinglePoint intent for a group of ingress points
@@ -110,6 +134,7 @@ public class MultiPointToSinglePointIntentCompilerTest extends AbstractIntentTes
                 new MultiPointToSinglePointIntentCompiler();
         compiler.pathService = new IntentTestsMocks.Mp2MpMockPathService(hops);
         compiler.deviceService = new IntentTestsMocks.MockDeviceService();
+        compiler.topologyService = topologyService;
         return compiler;
     }
 
@@ -326,5 +351,39 @@ public class MultiPointToSinglePointIntentCompilerTest extends AbstractIntentTes
 
     }
 
+    /**
+     * Tests that intents sharing ingress and egress points share the tree
+     * computed for the first of them, until the topology changes.
+     */
+    @Test
+    public void testTreeMemoization() {
+        String[] ingress = {"i1", "i2"};
+        String egress = "e";
+        String[] hops = {"h1"};
+        MultiPointToSinglePointIntentCompiler compiler = makeCompiler(hops);
 
+        MultiPointToSinglePointIntent first = makeIntent(ingress, egress);
+        MultiPointToSinglePointIntent second = makeIntent(ingress, egress);
+        LinkCollectionIntent firstResult = (LinkCollectionIntent) compiler.compile(first, null).get(0);
+        LinkCollectionIntent secondResult = (LinkCollectionIntent) compiler.compile(second, null).get(0);
+
+        assertThat(secondResult.links(), sameInstance(firstResult.links()));
+        assertThat(compiler.trees.hitRate(), is(0.5));
+        assertThat(compiler.trees.size(), is(1L));
+
+        // Trees are memoized per topology.
+        topologyService.topology = topology(2);
+        LinkCollectionIntent thirdResult = (LinkCollectionIntent) compiler.compile(first, null).get(0);
+        assertThat(thirdResult.links(), not(sameInstance(firstResult.links())));
+        assertThat(thirdResult.links(), is(firstResult.links()));
+
+        // Compiling against an earlier topology does not drop the trees
+        // memoized for the others.
+        topologyService.topology = topology(1);
+        LinkCollectionIntent fourthResult = (LinkCollectionIntent) compiler.compile(first, null).get(0);
+        assertThat(fourthResult.links(), sameInstance(firstResult.links()));
+        topologyService.topology = topology(2);
+        LinkCollectionIntent fifthResult = (LinkCollectionIntent) compiler.compile(first, null).get(0);
+        assertThat(fifthResult.links(), sameInstance(thirdResult.links()));
+    }
 }
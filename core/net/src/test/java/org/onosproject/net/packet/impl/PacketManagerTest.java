@@ -16,37 +16,57 @@
 
 package org.onosproject.net.packet.impl;
 
+import com.codahale.metrics.MetricFilter;
+import com.codahale.metrics.Timer;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import org.junit.Before;
 import org.junit.Test;
+import org.onlab.metrics.MetricsManager;
+import org.onlab.packet.ARP;
+import org.onlab.packet.Ethernet;
 import org.onosproject.cluster.ClusterServiceAdapter;
 import org.onosproject.common.event.impl.TestEventDispatcher;
 import org.onosproject.core.CoreServiceAdapter;
 import org.onosproject.core.IdGenerator;
 import org.onosproject.event.TestListener;
 import org.onosproject.net.AnnotationKeys;
+import org.onosproject.net.ConnectPoint;
 import org.onosproject.net.DefaultAnnotations;
 import org.onosproject.net.DefaultDevice;
 import org.onosproject.net.Device;
 import org.onosproject.net.DeviceId;
+import org.onosproject.net.PortNumber;
 import org.onosproject.net.device.DeviceServiceAdapter;
 import org.onosproject.net.driver.AbstractHandlerBehaviour;
 import org.onosproject.net.driver.DefaultDriver;
 import org.onosproject.net.driver.impl.DriverManager;
+import org.onosproject.net.flow.DefaultTrafficSelector;
 import org.onosproject.net.flow.DefaultTrafficTreatment;
+import org.onosproject.net.flow.TrafficSelector;
+import org.onosproject.net.packet.DefaultInboundPacket;
 import org.onosproject.net.packet.DefaultOutboundPacket;
+import org.onosproject.net.packet.DefaultPacketContext;
 import org.onosproject.net.packet.OutboundPacket;
+import org.onosproject.net.packet.PacketContext;
+import org.onosproject.net.packet.PacketProcessor;
 import org.onosproject.net.packet.PacketProgrammable;
+import org.onosproject.net.packet.PacketProvider;
 import org.onosproject.net.packet.PacketProviderRegistry;
+import org.onosproject.net.packet.PacketProviderService;
+import org.onosproject.net.provider.AbstractProvider;
 import org.onosproject.net.provider.ProviderId;
 import org.onosproject.net.provider.TestProvider;
 import org.onosproject.store.trivial.SimplePacketStore;
 
 import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.onosproject.net.NetTestTools.injectEventDispatcher;
 
 /**
@@ -65,6 +85,7 @@ public class PacketManagerTest {
             new DefaultDevice(FOO_PID, FOO_DID, Device.Type.SWITCH, "", "", "", "", null, ANNOTATIONS);
 
     private PacketManager mgr;
+    private final MetricsManager metrics = new MetricsManager();
 
     protected TestProvider provider;
     protected TestListener listener = new TestListener();
@@ -82,6 +103,7 @@ public class PacketManagerTest {
         mgr.deviceService = new TestDeviceService();
         mgr.deviceService = new TestDeviceService();
         mgr.coreService = new TestCoreService();
+        mgr.metricsService = metrics;
         providerRegistry = mgr;
         mgr.activate();
         driverService = new TestDriverManager();
@@ -102,6 +124,91 @@ public class PacketManagerTest {
         assertEquals("Packet not emitted correctly", packet, emittedPacket);
     }
 
+    /**
+     * Tests emission of a batch of packets through the fallback provider.
+     */
+    @Test
+    public void packetBatchEmission() {
+        OutboundPacket first =
+                new DefaultOutboundPacket(FOO_DID, DefaultTrafficTreatment.emptyTreatment(), ByteBuffer.allocate(5));
+        OutboundPacket second =
+                new DefaultOutboundPacket(FOO_DID, DefaultTrafficTreatment.emptyTreatment(), ByteBuffer.allocate(6));
+        mgr.emit(ImmutableList.of(first, second));
+        assertEquals("Packet batch not emitted correctly", second, emittedPacket);
+        assertTrue("Packet-out rate not tracked", mgr.getPacketOutRates().containsKey(FOO_DID));
+    }
+
+    /**
+     * Tests that packet-in dispatch honours the selectors of processors.
+     */
+    @Test
+    public void filteredProcessorDispatch() {
+        List<String> seen = new CopyOnWriteArrayList<>();
+        PacketProcessor all = context -> seen.add("all");
+        PacketProcessor arp = context -> seen.add("arp");
+        PacketProcessor lldp = context -> seen.add("lldp");
+
+        mgr.addProcessor(all, PacketProcessor.advisor(0));
+        mgr.addProcessor(arp, PacketProcessor.director(0),
+                         ImmutableSet.of(ethTypeSelector(Ethernet.TYPE_ARP)));
+        mgr.addProcessor(lldp, PacketProcessor.director(1),
+                         ImmutableSet.of(ethTypeSelector(Ethernet.TYPE_LLDP)));
+
+        PacketProviderService providerService = mgr.register(new TestPacketProvider());
+
+        providerService.processPacket(packetContext(Ethernet.TYPE_ARP));
+        assertEquals("Wrong processors visited", ImmutableList.of("all", "arp"), seen);
+
+        seen.clear();
+        providerService.processPacket(packetContext(Ethernet.TYPE_IPV4));
+        assertEquals("Wrong processors visited", ImmutableList.of("all"), seen);
+
+        seen.clear();
+        mgr.removeProcessor(arp);
+        providerService.processPacket(packetContext(Ethernet.TYPE_ARP));
+        assertEquals("Wrong processors visited", ImmutableList.of("all"), seen);
+
+        seen.clear();
+        providerService.processPacket(packetContext(Ethernet.TYPE_LLDP));
+        assertEquals("Wrong processors visited", ImmutableList.of("all", "lldp"), seen);
+
+        assertEquals("Invocations not tracked", 1, mgr.getProcessors().get(1).invocations());
+        Timer timer = metrics.getTimers(MetricFilter.ALL)
+                .get("PacketManager.process." + lldp.getClass().getName());
+        assertEquals("Latency not timed", 1, timer.getCount());
+        assertEquals("Latency distribution not exposed",
+                     1, mgr.getProcessors().get(1).latencySnapshot().size());
+    }
+
+    private static TrafficSelector ethTypeSelector(short ethType) {
+        return DefaultTrafficSelector.builder().matchEthType(ethType).build();
+    }
+
+    private static PacketContext packetContext(short ethType) {
+        Ethernet eth = new Ethernet();
+        eth.setEtherType(ethType);
+        if (ethType == Ethernet.TYPE_ARP) {
+            eth.setPayload(new ARP());
+        }
+        ConnectPoint cp = new ConnectPoint(FOO_DID, PortNumber.portNumber(1));
+        return new DefaultPacketContext(0, new DefaultInboundPacket(cp, eth, ByteBuffer.allocate(0)),
+                                        null, false) {
+            @Override
+            public void send() {
+            }
+        };
+    }
+
+    private static class TestPacketProvider extends AbstractProvider implements PacketProvider {
+        TestPacketProvider() {
+            super(FOO_PID);
+        }
+
+        @Override
+        public void emit(OutboundPacket packet) {
+        }
+    }
+
     private static class TestDeviceService extends DeviceServiceAdapter {
         @Override
         public int getDeviceCount() {
@@ -15,6 +15,8 @@
  */
 package org.onosproject.store.config.impl;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Timer;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
@@ -27,6 +29,7 @@ import com.fasterxml.jackson.databind.node.NullNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.databind.node.ShortNode;
 import com.fasterxml.jackson.databind.node.TextNode;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
 import org.apache.felix.scr.annotations.Activate;
@@ -35,7 +38,11 @@ import org.apache.felix.scr.annotations.Deactivate;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.onlab.util.KryoNamespace;
+import org.onosproject.core.MetricsHelper;
 import org.onosproject.net.config.Config;
 import org.onosproject.net.config.ConfigApplyDelegate;
 import org.onosproject.net.config.ConfigFactory;
@@ -58,8 +65,11 @@ import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static org.onlab.metrics.MetricsUtil.startTimer;
+import static org.onlab.metrics.MetricsUtil.stopTimer;
 import static org.onosproject.net.config.NetworkConfigEvent.Type.CONFIG_ADDED;
 import static org.onosproject.net.config.NetworkConfigEvent.Type.CONFIG_REGISTERED;
 import static org.onosproject.net.config.NetworkConfigEvent.Type.CONFIG_REMOVED;
@@ -73,7 +83,7 @@ import static org.onosproject.net.config.NetworkConfigEvent.Type.CONFIG_UPDATED;
 @Service
 public class DistributedNetworkConfigStore
         extends AbstractStore<NetworkConfigEvent, NetworkConfigStoreDelegate>
-        implements NetworkConfigStore {
+        implements NetworkConfigStore, MetricsHelper {
 
     private final Logger log = LoggerFactory.getLogger(getClass());
 
@@ -84,9 +94,17 @@ public class DistributedNetworkConfigStore
     private static final String INVALID_JSON_OBJECT =
             "JSON node is not an object for object type config";
 
+    private static final String COMPONENT = "NetworkConfigStore";
+    private static final String FEATURE = "getConfig";
+    private static final long ABSENT = -1;
+    private static final int MAX_CACHED_CONFIGS = 10000;
+
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected StorageService storageService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
+
     private ConsistentMap<ConfigKey, JsonNode> configs;
 
     private final Map<String, ConfigFactory> factoriesByConfig = Maps.newConcurrentMap();
@@ -94,6 +112,21 @@ public class DistributedNetworkConfigStore
     private final ConfigApplyDelegate applyDelegate = new InternalApplyDelegate();
     private final MapEventListener<ConfigKey, JsonNode> listener = new InternalMapListener();
 
+    // Node-local cache of the JSON of configs, kept coherent through the
+    // versions of the map entries the JSON was read from; bounded, as it
+    // also records the keys queried without config and the removals
+    final Map<ConfigKey, CachedConfig> configCache = CacheBuilder.newBuilder()
+            .maximumSize(MAX_CACHED_CONFIGS)
+            .<ConfigKey, CachedConfig>build()
+            .asMap();
+    // Count of the updates and removals recorded in the cache; a reader only
+    // caches what it read from the map if none was recorded in the meantime,
+    // as the marker of a recorded removal may since have been evicted
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+    private Timer getConfigTimer;
+
     @Activate
     public void activate() {
         KryoNamespace.Builder kryoBuilder = new KryoNamespace.Builder()
@@ -110,19 +143,56 @@ public class DistributedNetworkConfigStore
                 .withRelaxedReadConsistency()
                 .build();
         configs.addListener(listener);
+        registerMetrics();
         log.info("Started");
     }
 
     @Deactivate
     public void deactivate() {
         configs.removeListener(listener);
+        unregisterMetrics();
+        configCache.clear();
         log.info("Stopped");
     }
 
+    @Override
+    public MetricsService metricsService() {
+        return metricsService;
+    }
+
+    private void registerMetrics() {
+        getConfigTimer = createTimer(COMPONENT, FEATURE, "latency");
+        if (metricsService != null) {
+            MetricsComponent c = metricsService.registerComponent(COMPONENT);
+            MetricsFeature f = c.registerFeature(FEATURE);
+            metricsService.registerMetric(c, f, "cacheHitRate", (Gauge<Double>) this::cacheHitRate);
+        }
+    }
+
+    private void unregisterMetrics() {
+        if (metricsService != null) {
+            MetricsComponent c = metricsService.registerComponent(COMPONENT);
+            MetricsFeature f = c.registerFeature(FEATURE);
+            metricsService.removeMetric(c, f, "cacheHitRate");
+        }
+    }
+
+    /**
+     * Returns the ratio of config queries served from the node-local cache.
+     *
+     * @return cache hit rate; 0 if there have been no queries
+     */
+    double cacheHitRate() {
+        long hits = cacheHits.get();
+        long total = hits + cacheMisses.get();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
     @Override
     public void addConfigFactory(ConfigFactory configFactory) {
         factoriesByConfig.put(configFactory.configClass().getName(), configFactory);
         processPendingConfigs(configFactory);
+        invalidateAll();
         notifyDelegate(new NetworkConfigEvent(CONFIG_REGISTERED, configFactory.configKey(),
                                               configFactory.configClass()));
     }
@@ -169,6 +239,7 @@ public class DistributedNetworkConfigStore
     public void removeConfigFactory(ConfigFactory configFactory) {
         factoriesByConfig.remove(configFactory.configClass().getName());
         processExistingConfigs(configFactory);
+        invalidateAll();
         notifyDelegate(new NetworkConfigEvent(CONFIG_UNREGISTERED, configFactory.configKey(),
                                               configFactory.configClass()));
     }
@@ -237,19 +308,65 @@ public class DistributedNetworkConfigStore
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public <S, T extends Config<S>> T getConfig(S subject, Class<T> configClass) {
-        Versioned<JsonNode> json = configs.get(key(subject, configClass));
-        return json != null ? createConfig(subject, configClass, json.value()) : null;
+        Timer.Context timer = startTimer(getConfigTimer);
+        try {
+            ConfigKey key = key(subject, configClass);
+            CachedConfig cached = configCache.get(key);
+            if (cached != null && cached.materialized) {
+                cacheHits.incrementAndGet();
+                // Callers may edit the config before applying it, so each
+                // gets its own copy of the cached JSON.
+                return cached.json != null ?
+                        createConfig(subject, configClass, cached.json.deepCopy()) : null;
+            }
+
+            cacheMisses.incrementAndGet();
+            long seen = invalidations.get();
+            Versioned<JsonNode> json = configs.get(key);
+            T config = json != null ? createConfig(subject, configClass, json.value()) : null;
+            if (json == null) {
+                cacheConfig(key, CachedConfig.of(ABSENT, null), seen);
+            } else if (config != null) {
+                cacheConfig(key, CachedConfig.of(json.version(), json.value().deepCopy()), seen);
+            }
+            return config;
+        } finally {
+            stopTimer(timer);
+        }
+    }
+
+    // Caches the config read from the map unless a more recent state of the
+    // key is known, or any state was recorded since the given count of
+    // invalidations was seen.
+    private void cacheConfig(ConfigKey key, CachedConfig config, long seen) {
+        configCache.compute(key, (k, cached) -> invalidations.get() == seen &&
+                config.supersedes(cached) ? config : cached);
+    }
+
+    // Records a more recent state of the key than the configs read so far.
+    private void invalidate(ConfigKey key, CachedConfig marker) {
+        invalidations.incrementAndGet();
+        configCache.compute(key, (k, cached) -> marker.supersedes(cached) ? marker : cached);
+    }
+
+    // Forgets the cached configs of all keys.
+    private void invalidateAll() {
+        invalidations.incrementAndGet();
+        configCache.clear();
     }
 
 
     @Override
     public <S, C extends Config<S>> C createConfig(S subject, Class<C> configClass) {
         ConfigFactory<S, C> factory = getConfigFactory(configClass);
-        Versioned<JsonNode> json = configs.computeIfAbsent(key(subject, configClass),
+        ConfigKey key = key(subject, configClass);
+        Versioned<JsonNode> json = configs.computeIfAbsent(key,
                                                              k -> factory.isList() ?
                                                                      mapper.createArrayNode() :
                                                                      mapper.createObjectNode());
+        invalidate(key, CachedConfig.stale(json.version()));
         return createConfig(subject, configClass, json.value());
     }
 
@@ -270,7 +387,9 @@ public class DistributedNetworkConfigStore
         }
 
         // Insert the validated configuration and get it back.
-        Versioned<JsonNode> versioned = configs.putAndGet(key(subject, configClass), json);
+        ConfigKey key = key(subject, configClass);
+        Versioned<JsonNode> versioned = configs.putAndGet(key, json);
+        invalidate(key, CachedConfig.stale(versioned.version()));
 
         // Re-create the config if for some reason what we attempted to put
         // was supplanted by someone else already.
@@ -284,7 +403,11 @@ public class DistributedNetworkConfigStore
 
     @Override
     public <S, C extends Config<S>> void clearConfig(S subject, Class<C> configClass) {
-        configs.remove(key(subject, configClass));
+        ConfigKey key = key(subject, configClass);
+        Versioned<JsonNode> removed = configs.remove(key);
+        if (removed != null) {
+            invalidate(key, CachedConfig.removed(removed.version()));
+        }
     }
 
     @Override
@@ -386,7 +509,9 @@ public class DistributedNetworkConfigStore
     private class InternalApplyDelegate implements ConfigApplyDelegate {
         @Override
         public void onApply(Config config) {
-            configs.put(key(config.subject(), config.getClass()), config.node());
+            ConfigKey key = key(config.subject(), config.getClass());
+            Versioned<JsonNode> versioned = configs.putAndGet(key, config.node());
+            invalidate(key, CachedConfig.stale(versioned.version()));
         }
     }
 
@@ -441,6 +566,51 @@ public class DistributedNetworkConfigStore
         }
     }
 
+    // JSON of the config cached for a key, or a marker of the most recent
+    // version of the key known to this node. A materialized entry without
+    // JSON records that the key has no config. The cached JSON is never
+    // modified, only copied.
+    private static final class CachedConfig {
+        // Ranks of entries of the same version
+        private static final int STALE = 0;
+        private static final int VALUE = 1;
+        private static final int REMOVED = 2;
+
+        final long version;
+        final JsonNode json;
+        final boolean materialized;
+        private final int rank;
+
+        private CachedConfig(long version, JsonNode json, int rank) {
+            this.version = version;
+            this.json = json;
+            this.materialized = rank != STALE;
+            this.rank = rank;
+        }
+
+        // Marks the configs older than the given version as stale.
+        static CachedConfig stale(long version) {
+            return new CachedConfig(version, null, STALE);
+        }
+
+        // JSON of the given version; null if there is none.
+        static CachedConfig of(long version, JsonNode json) {
+            return new CachedConfig(version, json, VALUE);
+        }
+
+        // Records the removal of the given version.
+        static CachedConfig removed(long version) {
+            return new CachedConfig(version, null, REMOVED);
+        }
+
+        // Indicates whether this entry reflects a more recent state than
+        // the given one.
+        boolean supersedes(CachedConfig other) {
+            return other == null || version > other.version ||
+                    (version == other.version && rank > other.rank);
+        }
+    }
+
     private class InternalMapListener implements MapEventListener<ConfigKey, JsonNode> {
         @Override
         public void event(MapEvent<ConfigKey, JsonNode> event) {
@@ -449,6 +619,16 @@ public class DistributedNetworkConfigStore
                 return;
             }
 
+            // Force cached configs to be re-created from the new value.
+            if (event.newValue() != null) {
+                invalidate(event.key(), CachedConfig.stale(event.newValue().version()));
+            } else if (event.oldValue() != null) {
+                invalidate(event.key(), CachedConfig.removed(event.oldValue().version()));
+            } else {
+                invalidations.incrementAndGet();
+                configCache.remove(event.key());
+            }
+
             ConfigFactory factory = factoriesByConfig.get(event.key().configClass);
             if (factory != null) {
                 Object subject = event.key().subject;
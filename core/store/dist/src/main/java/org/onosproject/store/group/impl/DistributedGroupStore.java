@@ -132,12 +132,18 @@ public class DistributedGroupStore
     // Per device group table with (device id + group id) as key
     private final ConcurrentMap<DeviceId, ConcurrentMap<GroupId, StoredGroupEntry>>
             groupEntriesById = new ConcurrentHashMap<>();
+    // Per device index of the group key map, maintained from its events
+    private final ConcurrentMap<DeviceId, ConcurrentMap<GroupKey, StoredGroupEntry>>
+            groupEntriesByDevice = new ConcurrentHashMap<>();
     private ConsistentMap<GroupStoreKeyMapKey,
             StoredGroupEntry> auditPendingReqQueue = null;
     private MapEventListener<GroupStoreKeyMapKey, StoredGroupEntry>
             mapListener = new GroupStoreKeyMapListener();
     private final ConcurrentMap<DeviceId, ConcurrentMap<GroupId, Group>>
             extraneousGroupEntriesById = new ConcurrentHashMap<>();
+    // Per device index of extraneous groups by their buckets
+    private final ConcurrentMap<DeviceId, ConcurrentMap<GroupBuckets, Set<GroupId>>>
+            extraneousGroupIdsByBuckets = new ConcurrentHashMap<>();
     private ExecutorService messageHandlingExecutor;
     private static final int MESSAGE_HANDLER_THREAD_POOL_SIZE = 1;
     private final HashMap<DeviceId, Boolean> deviceAuditStatus = new HashMap<>();
@@ -201,6 +207,7 @@ public class DistributedGroupStore
                 .withSerializer(serializer)
                 .build();
         groupStoreEntriesByKey.addListener(mapListener);
+        getGroupStoreKeyMap().forEach(this::indexGroupEntry);
         log.debug("Current size of groupstorekeymap:{}",
                   groupStoreEntriesByKey.size());
 
@@ -271,6 +278,48 @@ public class DistributedGroupStore
         return groupEntriesById.computeIfAbsent(deviceId, k -> new ConcurrentHashMap<>());
     }
 
+    /**
+     * Stores a group entry in the group key map, and indexes it right away
+     * so that the entry is found by the device lookups as soon as this
+     * returns rather than once the map event is received.
+     *
+     * @param key group store key
+     * @param group group entry
+     */
+    private void putGroupStoreEntry(GroupStoreKeyMapKey key, StoredGroupEntry group) {
+        getGroupStoreKeyMap().put(key, group);
+        indexGroupEntry(key, group);
+    }
+
+    /**
+     * Removes a group entry from the group key map and from the index.
+     *
+     * @param key group store key
+     */
+    private void removeGroupStoreEntry(GroupStoreKeyMapKey key) {
+        groupStoreEntriesByKey.remove(key);
+        unindexGroupEntry(key);
+    }
+
+    // Adds the entry to the group key index of its device.
+    private void indexGroupEntry(GroupStoreKeyMapKey key, StoredGroupEntry group) {
+        groupEntriesByDevice.compute(key.deviceId(), (deviceId, table) -> {
+            ConcurrentMap<GroupKey, StoredGroupEntry> updated =
+                    table == null ? new ConcurrentHashMap<>() : table;
+            updated.put(key.appCookie, group);
+            return updated;
+        });
+    }
+
+    // Removes the entry from the group key index of its device, dropping
+    // the device from the index once it has no groups left.
+    private void unindexGroupEntry(GroupStoreKeyMapKey key) {
+        groupEntriesByDevice.computeIfPresent(key.deviceId(), (deviceId, table) -> {
+            table.remove(key.appCookie);
+            return table.isEmpty() ? null : table;
+        });
+    }
+
     /**
      * Returns the pending group request table.
      *
@@ -299,8 +348,7 @@ public class DistributedGroupStore
      */
     @Override
     public int getGroupCount(DeviceId deviceId) {
-        return (getGroups(deviceId) != null) ?
-                Iterables.size(getGroups(deviceId)) : 0;
+        return Iterables.size(getStoredGroups(deviceId));
     }
 
     /**
@@ -322,11 +370,10 @@ public class DistributedGroupStore
             return Collections.emptySet();
         }
 
-        Set<StoredGroupEntry> storedGroups = getGroupStoreKeyMap().values()
-                .stream()
-                .filter(input -> input.deviceId().equals(deviceId))
-                .collect(Collectors.toSet());
-        return ImmutableSet.copyOf(storedGroups);
+        ConcurrentMap<GroupKey, StoredGroupEntry> storedGroups =
+                groupEntriesByDevice.get(deviceId);
+        return storedGroups == null ? Collections.emptySet() :
+                ImmutableSet.copyOf(storedGroups.values());
     }
 
     /**
@@ -449,18 +496,45 @@ public class DistributedGroupStore
                                                       GroupBuckets buckets) {
         ConcurrentMap<GroupId, Group> extraneousMap =
                 extraneousGroupEntriesById.get(deviceId);
-        if (extraneousMap == null) {
+        ConcurrentMap<GroupBuckets, Set<GroupId>> bucketsIndex =
+                extraneousGroupIdsByBuckets.get(deviceId);
+        if (extraneousMap == null || bucketsIndex == null) {
             return null;
         }
 
-        for (Group extraneousGroup : extraneousMap.values()) {
-            if (extraneousGroup.buckets().equals(buckets)) {
+        Set<GroupId> groupIds = bucketsIndex.getOrDefault(buckets, Collections.emptySet());
+        for (GroupId groupId : groupIds) {
+            Group extraneousGroup = extraneousMap.get(groupId);
+            if (extraneousGroup != null && extraneousGroup.buckets().equals(buckets)) {
                 return extraneousGroup;
             }
         }
         return null;
     }
 
+    // Indexes or un-indexes the extraneous group under its buckets,
+    // dropping the device from the index once it has no groups left.
+    private void indexExtraneousGroupBuckets(Group group, boolean add) {
+        extraneousGroupIdsByBuckets.compute(group.deviceId(), (deviceId, bucketsIndex) -> {
+            if (bucketsIndex == null) {
+                if (!add) {
+                    return null;
+                }
+                bucketsIndex = new ConcurrentHashMap<>();
+            }
+            bucketsIndex.compute(group.buckets(), (buckets, ids) -> {
+                Set<GroupId> updated = ids == null ? new HashSet<>() : new HashSet<>(ids);
+                if (add) {
+                    updated.add(group.id());
+                } else {
+                    updated.remove(group.id());
+                }
+                return updated.isEmpty() ? null : ImmutableSet.copyOf(updated);
+            });
+            return bucketsIndex.isEmpty() ? null : bucketsIndex;
+        });
+    }
+
     private void storeGroupDescriptionInternal(GroupDescription groupDesc) {
         // Check if a group is existing with the same key
         if (getGroup(groupDesc.deviceId(), groupDesc.appCookie()) != null) {
@@ -504,9 +578,8 @@ public class DistributedGroupStore
                     StoredGroupEntry group = new DefaultGroup(
                             matchingExtraneousGroup.id(), groupDesc);
                     // Insert the newly created group entry into key and id maps
-                    getGroupStoreKeyMap().
-                            put(new GroupStoreKeyMapKey(groupDesc.deviceId(),
-                                                        groupDesc.appCookie()), group);
+                    putGroupStoreEntry(new GroupStoreKeyMapKey(groupDesc.deviceId(),
+                                                               groupDesc.appCookie()), group);
                     // Ensure it also inserted into group id based table to
                     // avoid any chances of duplication in group id generation
                     getGroupIdTable(groupDesc.deviceId()).
@@ -524,9 +597,8 @@ public class DistributedGroupStore
                     StoredGroupEntry modifiedGroup = new DefaultGroup(
                             matchingExtraneousGroup.id(), groupDesc);
                     modifiedGroup.setState(GroupState.PENDING_UPDATE);
-                    getGroupStoreKeyMap().
-                            put(new GroupStoreKeyMapKey(groupDesc.deviceId(),
-                                                        groupDesc.appCookie()), modifiedGroup);
+                    putGroupStoreEntry(new GroupStoreKeyMapKey(groupDesc.deviceId(),
+                                                               groupDesc.appCookie()), modifiedGroup);
                     // Ensure it also inserted into group id based table to
                     // avoid any chances of duplication in group id generation
                     getGroupIdTable(groupDesc.deviceId()).
@@ -553,9 +625,8 @@ public class DistributedGroupStore
                 StoredGroupEntry group = new DefaultGroup(
                         matchingExtraneousGroup.id(), groupDesc);
                 // Insert the newly created group entry into key and id maps
-                getGroupStoreKeyMap().
-                        put(new GroupStoreKeyMapKey(groupDesc.deviceId(),
-                                                    groupDesc.appCookie()), group);
+                putGroupStoreEntry(new GroupStoreKeyMapKey(groupDesc.deviceId(),
+                                                           groupDesc.appCookie()), group);
                 // Ensure it also inserted into group id based table to
                 // avoid any chances of duplication in group id generation
                 getGroupIdTable(groupDesc.deviceId()).
@@ -593,9 +664,8 @@ public class DistributedGroupStore
         // Create a group entry object
         StoredGroupEntry group = new DefaultGroup(id, groupDesc);
         // Insert the newly created group entry into key and id maps
-        getGroupStoreKeyMap().
-                put(new GroupStoreKeyMapKey(groupDesc.deviceId(),
-                                            groupDesc.appCookie()), group);
+        putGroupStoreEntry(new GroupStoreKeyMapKey(groupDesc.deviceId(),
+                                                   groupDesc.appCookie()), group);
         // Ensure it also inserted into group id based table to
         // avoid any chances of duplication in group id generation
         getGroupIdTable(groupDesc.deviceId()).
@@ -706,9 +776,8 @@ public class DistributedGroupStore
             //groupkey based map update listener
             log.debug("updateGroupDescriptionInternal with type {}: Group updated with buckets",
                       type);
-            getGroupStoreKeyMap().
-                    put(new GroupStoreKeyMapKey(newGroup.deviceId(),
-                                                newGroup.appCookie()), newGroup);
+            putGroupStoreEntry(new GroupStoreKeyMapKey(newGroup.deviceId(),
+                                                       newGroup.appCookie()), newGroup);
             notifyDelegate(new GroupEvent(Type.GROUP_UPDATE_REQUESTED, newGroup));
         } else {
             log.warn("updateGroupDescriptionInternal with type {}: No "
@@ -825,9 +894,8 @@ public class DistributedGroupStore
                   existing.state());
         synchronized (existing) {
             existing.setState(GroupState.PENDING_DELETE);
-            getGroupStoreKeyMap().
-                    put(new GroupStoreKeyMapKey(existing.deviceId(), existing.appCookie()),
-                        existing);
+            putGroupStoreEntry(new GroupStoreKeyMapKey(existing.deviceId(), existing.appCookie()),
+                               existing);
         }
         log.debug("deleteGroupDescriptionInternal: in device {} issuing GROUP_REMOVE_REQUESTED",
                   deviceId);
@@ -890,9 +958,8 @@ public class DistributedGroupStore
                     event = new GroupEvent(Type.GROUP_UPDATED, existing);
                 }
                 //Re-PUT map entries to trigger map update events
-                getGroupStoreKeyMap().
-                        put(new GroupStoreKeyMapKey(existing.deviceId(),
-                                                    existing.appCookie()), existing);
+                putGroupStoreEntry(new GroupStoreKeyMapKey(existing.deviceId(),
+                                                           existing.appCookie()), existing);
             }
         } else {
             log.warn("addOrUpdateGroupEntry: Group update "
@@ -920,8 +987,8 @@ public class DistributedGroupStore
                       group.deviceId());
             //Removal from groupid based map will happen in the
             //map update listener
-            getGroupStoreKeyMap().remove(new GroupStoreKeyMapKey(existing.deviceId(),
-                                                                 existing.appCookie()));
+            removeGroupStoreEntry(new GroupStoreKeyMapKey(existing.deviceId(),
+                                                          existing.appCookie()));
             notifyDelegate(new GroupEvent(Type.GROUP_REMOVED, existing));
         } else {
             log.warn("removeGroupEntry for {} in device{} is "
@@ -933,20 +1000,19 @@ public class DistributedGroupStore
 
     private void purgeGroupEntries(Set<Entry<GroupStoreKeyMapKey, StoredGroupEntry>> entries) {
         entries.forEach(entry -> {
-            groupStoreEntriesByKey.remove(entry.getKey());
+            removeGroupStoreEntry(entry.getKey());
         });
     }
 
     @Override
     public void purgeGroupEntry(DeviceId deviceId) {
-        Set<Entry<GroupStoreKeyMapKey, StoredGroupEntry>> entriesPendingRemove =
-                new HashSet<>();
-
-        getGroupStoreKeyMap().entrySet().stream()
-                .filter(entry -> entry.getKey().deviceId().equals(deviceId))
-                .forEach(entriesPendingRemove::add);
-
-        purgeGroupEntries(entriesPendingRemove);
+        // The index of the device holds the same entries getGroups() reports
+        ConcurrentMap<GroupKey, StoredGroupEntry> storedGroups =
+                groupEntriesByDevice.get(deviceId);
+        if (storedGroups != null) {
+            ImmutableSet.copyOf(storedGroups.keySet()).forEach(appCookie ->
+                    removeGroupStoreEntry(new GroupStoreKeyMapKey(deviceId, appCookie)));
+        }
     }
 
     @Override
@@ -1046,8 +1112,8 @@ public class DistributedGroupStore
                              existing.deviceId());
                     //Removal from groupid based map will happen in the
                     //map update listener
-                    getGroupStoreKeyMap().remove(new GroupStoreKeyMapKey(existing.deviceId(),
-                                                                         existing.appCookie()));
+                    removeGroupStoreEntry(new GroupStoreKeyMapKey(existing.deviceId(),
+                                                                  existing.appCookie()));
                 }
                 break;
             case MODIFY:
@@ -1068,7 +1134,11 @@ public class DistributedGroupStore
                   group.deviceId());
         ConcurrentMap<GroupId, Group> extraneousIdTable =
                 getExtraneousGroupIdTable(group.deviceId());
-        extraneousIdTable.put(group.id(), group);
+        Group previous = extraneousIdTable.put(group.id(), group);
+        if (previous != null && !previous.buckets().equals(group.buckets())) {
+            indexExtraneousGroupBuckets(previous, false);
+        }
+        indexExtraneousGroupBuckets(group, true);
         // Don't remove the extraneous groups, instead re-use it when
         // a group request comes with the same set of buckets
     }
@@ -1080,7 +1150,10 @@ public class DistributedGroupStore
                   group.deviceId());
         ConcurrentMap<GroupId, Group> extraneousIdTable =
                 getExtraneousGroupIdTable(group.deviceId());
-        extraneousIdTable.remove(group.id());
+        Group previous = extraneousIdTable.remove(group.id());
+        if (previous != null) {
+            indexExtraneousGroupBuckets(previous, false);
+        }
     }
 
     @Override
@@ -1121,8 +1194,9 @@ public class DistributedGroupStore
                       group.id(),
                       key.deviceId());
             if (mapEvent.type() == MapEvent.Type.INSERT || mapEvent.type() == MapEvent.Type.UPDATE) {
-                // Update the group ID table
+                // Update the group ID table and the group key index
                 getGroupIdTable(group.deviceId()).put(group.id(), group);
+                indexGroupEntry(key, group);
                 StoredGroupEntry value = Versioned.valueOrNull(mapEvent.newValue());
                 if (value.state() == Group.GroupState.ADDED) {
                     if (value.isGroupStateAddedFirstTime()) {
@@ -1139,8 +1213,9 @@ public class DistributedGroupStore
                 }
             } else if (mapEvent.type() == MapEvent.Type.REMOVE) {
                 groupEvent = new GroupEvent(Type.GROUP_REMOVED, group);
-                // Remove the entry from the group ID table
+                // Remove the entry from the group ID table and the group key index
                 getGroupIdTable(group.deviceId()).remove(group.id(), group);
+                unindexGroupEntry(key);
             }
 
             if (groupEvent != null) {
@@ -1416,9 +1491,8 @@ public class DistributedGroupStore
                           existing.state());
                 existing.setState(Group.GroupState.PENDING_ADD_RETRY);
                 //Re-PUT map entries to trigger map update events
-                getGroupStoreKeyMap().
-                        put(new GroupStoreKeyMapKey(existing.deviceId(),
-                                                    existing.appCookie()), existing);
+                putGroupStoreEntry(new GroupStoreKeyMapKey(existing.deviceId(),
+                                                           existing.appCookie()), existing);
                 notifyDelegate(new GroupEvent(GroupEvent.Type.GROUP_ADD_REQUESTED,
                                               group));
                 break;
@@ -16,11 +16,14 @@
 package org.onosproject.store.host.impl;
 
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Modified;
+import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
@@ -28,6 +31,8 @@ import org.onlab.packet.IpAddress;
 import org.onlab.packet.MacAddress;
 import org.onlab.packet.VlanId;
 import org.onlab.util.KryoNamespace;
+import org.onlab.util.Tools;
+import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.net.Annotations;
 import org.onosproject.net.ConnectPoint;
 import org.onosproject.net.DefaultAnnotations;
@@ -44,17 +49,28 @@ import org.onosproject.net.provider.ProviderId;
 import org.onosproject.store.AbstractStore;
 import org.onosproject.store.serializers.KryoNamespaces;
 import org.onosproject.store.service.ConsistentMap;
+import org.onosproject.store.service.EventuallyConsistentMap;
+import org.onosproject.store.service.EventuallyConsistentMapEvent;
+import org.onosproject.store.service.EventuallyConsistentMapListener;
 import org.onosproject.store.service.MapEvent;
 import org.onosproject.store.service.MapEventListener;
+import org.onosproject.store.service.MultiValuedTimestamp;
 import org.onosproject.store.service.Serializer;
 import org.onosproject.store.service.StorageService;
+import org.onosproject.store.service.WallClockTimestamp;
+import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 
+import java.util.AbstractMap;
 import java.util.Collection;
+import java.util.Dictionary;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -65,7 +81,8 @@ import static org.onosproject.net.host.HostEvent.Type.*;
 import static org.slf4j.LoggerFactory.getLogger;
 
 /**
- * Manages the inventory of hosts using a {@code EventuallyConsistentMap}.
+ * Manages the inventory of hosts using a {@code ConsistentMap} or,
+ * if so configured, an {@code EventuallyConsistentMap}.
  */
 @Component(immediate = true)
 @Service
@@ -78,38 +95,94 @@ public class DistributedHostStore
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected StorageService storageService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected ComponentConfigService cfgService;
+
+    private static final boolean DEFAULT_EVENTUALLY_CONSISTENT = false;
+    @Property(name = "useEventuallyConsistentMap", boolValue = DEFAULT_EVENTUALLY_CONSISTENT,
+            label = "Keep hosts in an eventually consistent map rather than in a " +
+                    "consistent map; takes effect when the store is restarted")
+    boolean useEventuallyConsistentMap = DEFAULT_EVENTUALLY_CONSISTENT;
+
+    // Exactly one of these is in use, as configured
     private ConsistentMap<HostId, DefaultHost> hostsConsistentMap;
+    EventuallyConsistentMap<HostId, DefaultHost> hostsEcMap;
+
+    // Orders the host updates made on this instance at the same wall-clock time
+    private final AtomicLong sequenceNumber = new AtomicLong();
+
     private Map<HostId, DefaultHost> hosts;
 
     private MapEventListener<HostId, DefaultHost> hostLocationTracker =
             new HostLocationTracker();
 
+    private EventuallyConsistentMapListener<HostId, DefaultHost> ecHostLocationTracker =
+            new EcHostLocationTracker();
+
     @Activate
-    public void activate() {
+    public void activate(ComponentContext context) {
+        cfgService.registerProperties(getClass());
+        Dictionary<?, ?> properties = context != null ? context.getProperties() : new Properties();
+        Boolean flag = Tools.isPropertyEnabled(properties, "useEventuallyConsistentMap");
+        if (flag != null) {
+            useEventuallyConsistentMap = flag;
+        }
+
         KryoNamespace.Builder hostSerializer = KryoNamespace.newBuilder()
                 .register(KryoNamespaces.API);
 
-        hostsConsistentMap = storageService.<HostId, DefaultHost>consistentMapBuilder()
-                .withName("onos-hosts")
-                .withRelaxedReadConsistency()
-                .withSerializer(Serializer.using(hostSerializer.build()))
-                .build();
-
-        hosts = hostsConsistentMap.asJavaMap();
-
-
-        hostsConsistentMap.addListener(hostLocationTracker);
+        if (useEventuallyConsistentMap) {
+            // Order host updates by the time at which they were made, using
+            // the local sequence only to break ties; this avoids a cluster-wide
+            // logical clock, which would cost a consensus round-trip per update.
+            hostsEcMap = storageService.<HostId, DefaultHost>eventuallyConsistentMapBuilder()
+                    .withName("onos-hosts-ec")
+                    .withSerializer(hostSerializer.register(MultiValuedTimestamp.class))
+                    .withTimestampProvider((k, v) -> new MultiValuedTimestamp<>(new WallClockTimestamp(),
+                                                                                sequenceNumber.getAndIncrement()))
+                    .build();
+            hosts = new EcMapView<>(hostsEcMap);
+            hostsEcMap.addListener(ecHostLocationTracker);
+        } else {
+            hostsConsistentMap = storageService.<HostId, DefaultHost>consistentMapBuilder()
+                    .withName("onos-hosts")
+                    .withRelaxedReadConsistency()
+                    .withSerializer(Serializer.using(hostSerializer.build()))
+                    .build();
+            hosts = hostsConsistentMap.asJavaMap();
+            hostsConsistentMap.addListener(hostLocationTracker);
+        }
 
-        log.info("Started");
+        log.info("Started; using {} map",
+                 useEventuallyConsistentMap ? "eventually consistent" : "consistent");
     }
 
     @Deactivate
     public void deactivate() {
-        hostsConsistentMap.removeListener(hostLocationTracker);
+        cfgService.unregisterProperties(getClass(), false);
+        if (hostsEcMap != null) {
+            hostsEcMap.removeListener(ecHostLocationTracker);
+            hostsEcMap.destroy();
+        } else {
+            hostsConsistentMap.removeListener(hostLocationTracker);
+        }
 
         log.info("Stopped");
     }
 
+    @Modified
+    public void modified(ComponentContext context) {
+        // The backing map is chosen once, as switching it would lose the
+        // hosts learned so far; the new choice applies on restart.
+        Boolean flag = Tools.isPropertyEnabled(context.getProperties(),
+                                               "useEventuallyConsistentMap");
+        if (flag != null && flag != (hostsEcMap != null)) {
+            useEventuallyConsistentMap = flag;
+            log.info("Hosts will be kept in an {} map once the store is restarted",
+                     flag ? "eventually consistent" : "consistent");
+        }
+    }
+
     private boolean shouldUpdate(DefaultHost existingHost,
                                  ProviderId providerId,
                                  HostId hostId,
@@ -152,40 +225,51 @@ public class DistributedHostStore
                                         HostId hostId,
                                         HostDescription hostDescription,
                                         boolean replaceIPs) {
-        hostsConsistentMap.computeIf(hostId,
-                       existingHost -> shouldUpdate(existingHost, providerId, hostId,
-                                                    hostDescription, replaceIPs),
-                       (id, existingHost) -> {
-                           HostLocation location = hostDescription.location();
-
-                           final Set<IpAddress> addresses;
-                           if (existingHost == null || replaceIPs) {
-                               addresses = ImmutableSet.copyOf(hostDescription.ipAddress());
-                           } else {
-                               addresses = Sets.newHashSet(existingHost.ipAddresses());
-                               addresses.addAll(hostDescription.ipAddress());
-                           }
-
-                           final Annotations annotations;
-                           final boolean configured;
-                           if (existingHost != null) {
-                               annotations = merge((DefaultAnnotations) existingHost.annotations(),
-                                       hostDescription.annotations());
-                               configured = existingHost.configured();
-                           } else {
-                               annotations = hostDescription.annotations();
-                               configured = hostDescription.configured();
-                           }
-
-                           return new DefaultHost(providerId,
-                                                  hostId,
-                                                  hostDescription.hwAddress(),
-                                                  hostDescription.vlan(),
-                                                  location,
-                                                  addresses,
-                                                  configured,
-                                                  annotations);
-                       });
+        BiFunction<HostId, DefaultHost, DefaultHost> update = (id, existingHost) -> {
+            HostLocation location = hostDescription.location();
+
+            final Set<IpAddress> addresses;
+            if (existingHost == null || replaceIPs) {
+                addresses = ImmutableSet.copyOf(hostDescription.ipAddress());
+            } else {
+                addresses = Sets.newHashSet(existingHost.ipAddresses());
+                addresses.addAll(hostDescription.ipAddress());
+            }
+
+            final Annotations annotations;
+            final boolean configured;
+            if (existingHost != null) {
+                annotations = merge((DefaultAnnotations) existingHost.annotations(),
+                        hostDescription.annotations());
+                configured = existingHost.configured();
+            } else {
+                annotations = hostDescription.annotations();
+                configured = hostDescription.configured();
+            }
+
+            return new DefaultHost(providerId,
+                                   hostId,
+                                   hostDescription.hwAddress(),
+                                   hostDescription.vlan(),
+                                   location,
+                                   addresses,
+                                   configured,
+                                   annotations);
+        };
+
+        if (hostsConsistentMap != null) {
+            hostsConsistentMap.computeIf(hostId,
+                           existingHost -> shouldUpdate(existingHost, providerId, hostId,
+                                                        hostDescription, replaceIPs),
+                           update);
+        } else if (shouldUpdate(hostsEcMap.get(hostId), providerId, hostId,
+                                hostDescription, replaceIPs)) {
+            // Locally the update is merged into the current host atomically;
+            // concurrent updates from other instances resolve by recency.
+            hostsEcMap.compute(hostId, (id, existingHost) ->
+                    shouldUpdate(existingHost, providerId, hostId, hostDescription, replaceIPs) ?
+                            update.apply(id, existingHost) : existingHost);
+        }
         return null;
     }
 
@@ -199,6 +283,11 @@ public class DistributedHostStore
     // TODO No longer need to return HostEvent
     @Override
     public HostEvent removeIp(HostId hostId, IpAddress ipAddress) {
+        // Computing an absent host would leave a tombstone behind in the
+        // eventually consistent map
+        if (!hosts.containsKey(hostId)) {
+            return null;
+        }
         hosts.compute(hostId, (id, existingHost) -> {
             if (existingHost != null) {
                 checkState(Objects.equals(hostId.mac(), existingHost.mac()),
@@ -278,6 +367,15 @@ public class DistributedHostStore
         return collection.stream().filter(predicate).collect(Collectors.toSet());
     }
 
+    // Notifies the delegate of an update of an existing host.
+    private void notifyHostUpdated(Host prevHost, Host host) {
+        if (!Objects.equals(prevHost.location(), host.location())) {
+            notifyDelegate(new HostEvent(HOST_MOVED, host, prevHost));
+        } else if (!Objects.equals(prevHost, host)) {
+            notifyDelegate(new HostEvent(HOST_UPDATED, host, prevHost));
+        }
+    }
+
     private class HostLocationTracker implements MapEventListener<HostId, DefaultHost> {
         @Override
         public void event(MapEvent<HostId, DefaultHost> event) {
@@ -290,11 +388,7 @@ public class DistributedHostStore
                 case UPDATE:
                     host = checkNotNull(event.newValue().value());
                     Host prevHost = checkNotNull(event.oldValue().value());
-                    if (!Objects.equals(prevHost.location(), host.location())) {
-                        notifyDelegate(new HostEvent(HOST_MOVED, host, prevHost));
-                    } else if (!Objects.equals(prevHost, host)) {
-                        notifyDelegate(new HostEvent(HOST_UPDATED, host, prevHost));
-                    }
+                    notifyHostUpdated(prevHost, host);
                     break;
                 case REMOVE:
                     host = checkNotNull(event.oldValue().value());
@@ -305,4 +399,85 @@ public class DistributedHostStore
             }
         }
     }
+
+    private class EcHostLocationTracker implements EventuallyConsistentMapListener<HostId, DefaultHost> {
+        // Hosts as last reported, to tell additions, moves and updates apart
+        private final Map<HostId, Host> lastSeen = Maps.newConcurrentMap();
+
+        @Override
+        public void event(EventuallyConsistentMapEvent<HostId, DefaultHost> event) {
+            Host host = checkNotNull(event.value());
+            switch (event.type()) {
+                case PUT:
+                    Host prevHost = lastSeen.put(event.key(), host);
+                    if (prevHost == null) {
+                        notifyDelegate(new HostEvent(HOST_ADDED, host));
+                    } else {
+                        notifyHostUpdated(prevHost, host);
+                    }
+                    break;
+                case REMOVE:
+                    lastSeen.remove(event.key());
+                    notifyDelegate(new HostEvent(HOST_REMOVED, host));
+                    break;
+                default:
+                    log.warn("Unknown map event type: {}", event.type());
+            }
+        }
+    }
+
+    // Map view of an eventually consistent map, allowing the host queries
+    // to be shared by both kinds of backing maps.
+    private static final class EcMapView<K, V> extends AbstractMap<K, V> {
+        private final EventuallyConsistentMap<K, V> map;
+
+        private EcMapView(EventuallyConsistentMap<K, V> map) {
+            this.map = map;
+        }
+
+        @Override
+        public int size() {
+            return map.size();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean containsKey(Object key) {
+            return map.containsKey((K) key);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V get(Object key) {
+            return map.get((K) key);
+        }
+
+        @Override
+        public V put(K key, V value) {
+            V previous = map.get(key);
+            map.put(key, value);
+            return previous;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V remove(Object key) {
+            return map.remove((K) key);
+        }
+
+        @Override
+        public V compute(K key, BiFunction<? super K, ? super V, ? extends V> function) {
+            return map.compute(key, function::apply);
+        }
+
+        @Override
+        public Collection<V> values() {
+            return map.values();
+        }
+
+        @Override
+        public Set<Entry<K, V>> entrySet() {
+            return map.entrySet();
+        }
+    }
 }
@@ -17,6 +17,7 @@ package org.onosproject.store.packet.impl;
 
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
@@ -48,8 +49,10 @@ import org.onosproject.store.service.StorageService;
 import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 
+import java.util.Collection;
 import java.util.Dictionary;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
@@ -97,6 +100,9 @@ public class DistributedPacketStore
     private static final MessageSubject PACKET_OUT_SUBJECT =
             new MessageSubject("packet-out");
 
+    private static final MessageSubject PACKET_OUT_BATCH_SUBJECT =
+            new MessageSubject("packet-out-batch");
+
     private static final StoreSerializer SERIALIZER = StoreSerializer.using(KryoNamespaces.API);
 
     private ExecutorService messageHandlingExecutor;
@@ -123,6 +129,11 @@ public class DistributedPacketStore
                 packet -> notifyDelegate(new PacketEvent(Type.EMIT, packet)),
                 messageHandlingExecutor);
 
+        communicationService.<List<OutboundPacket>>addSubscriber(PACKET_OUT_BATCH_SUBJECT,
+                SERIALIZER::decode,
+                this::emitLocally,
+                messageHandlingExecutor);
+
         tracker = new PacketRequestTracker();
 
         log.info("Started");
@@ -132,6 +143,7 @@ public class DistributedPacketStore
     public void deactivate() {
         cfgService.unregisterProperties(getClass(), false);
         communicationService.removeSubscriber(PACKET_OUT_SUBJECT);
+        communicationService.removeSubscriber(PACKET_OUT_BATCH_SUBJECT);
         messageHandlingExecutor.shutdown();
         tracker = null;
         log.info("Stopped");
@@ -186,6 +198,42 @@ public class DistributedPacketStore
                             });
     }
 
+    @Override
+    public void emit(Collection<OutboundPacket> packets) {
+        NodeId myId = clusterService.getLocalNode().id();
+
+        // Group the packets by the instance that masters their device.
+        Map<NodeId, List<OutboundPacket>> batches = Maps.newHashMap();
+        for (OutboundPacket packet : packets) {
+            NodeId master = mastershipService.getMasterFor(packet.sendThrough());
+            if (master != null) {
+                batches.computeIfAbsent(master, k -> Lists.newArrayList()).add(packet);
+            }
+        }
+
+        batches.forEach((master, batch) -> {
+            if (myId.equals(master)) {
+                emitLocally(batch);
+                return;
+            }
+
+            communicationService.unicast(batch, PACKET_OUT_BATCH_SUBJECT, SERIALIZER::encode, master)
+                                .whenComplete((r, error) -> {
+                                    if (error != null) {
+                                        log.warn("Failed to send packet-out batch to {}", master, error);
+                                    }
+                                });
+        });
+    }
+
+    // Hands the batch of packets to the delegate for local emission.
+    private void emitLocally(List<OutboundPacket> packets) {
+        PacketStoreDelegate delegate = this.delegate;
+        if (delegate != null) {
+            delegate.emit(packets);
+        }
+    }
+
     @Override
     public void requestPackets(PacketRequest request) {
         tracker.add(request);
@@ -15,13 +15,18 @@
  */
 package org.onosproject.store.resource.impl;
 
+import com.codahale.metrics.Meter;
 import com.google.common.annotations.Beta;
 import com.google.common.collect.ImmutableSet;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
+import org.apache.felix.scr.annotations.Deactivate;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.onlab.util.KryoNamespace;
 import org.onlab.util.Tools;
 import org.onosproject.net.resource.ContinuousResource;
@@ -46,18 +51,24 @@ import org.onosproject.store.service.TransactionContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static org.onlab.util.Tools.groupedThreads;
 import static org.onosproject.net.resource.ResourceEvent.Type.RESOURCE_ADDED;
 import static org.onosproject.net.resource.ResourceEvent.Type.RESOURCE_REMOVED;
 
@@ -84,20 +95,48 @@ public class ConsistentResourceStore extends AbstractStore<ResourceEvent, Resour
             .register(MplsLabelCodec.class)
             .build());
 
+    private static final int PREFETCH_THREADS = 8;
+
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected StorageService service;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
+
     private ConsistentDiscreteResourceSubStore discreteStore;
     private ConsistentContinuousResourceSubStore continuousStore;
 
+    // Executor on which the reads of batched operations are issued in parallel
+    private ExecutorService prefetchExecutor;
+
+    private OperationMeters registerMeters;
+    private OperationMeters unregisterMeters;
+    private OperationMeters allocateMeters;
+    private OperationMeters releaseMeters;
+
     @Activate
     public void activate() {
         discreteStore = new ConsistentDiscreteResourceSubStore(service);
         continuousStore = new ConsistentContinuousResourceSubStore(service);
+        prefetchExecutor = newFixedThreadPool(PREFETCH_THREADS,
+                groupedThreads("onos/store/resource", "prefetch-%d", log));
+
+        MetricsComponent component = metricsService.registerComponent("ResourceStore");
+        registerMeters = new OperationMeters(component, "register");
+        unregisterMeters = new OperationMeters(component, "unregister");
+        allocateMeters = new OperationMeters(component, "allocate");
+        releaseMeters = new OperationMeters(component, "release");
 
         log.info("Started");
     }
 
+    @Deactivate
+    public void deactivate() {
+        prefetchExecutor.shutdown();
+
+        log.info("Stopped");
+    }
+
     // Computational complexity: O(1) if the resource is discrete type.
     // O(n) if the resource is continuous type where n is the number of the existing allocations for the resource
     @Override
@@ -119,6 +158,7 @@ public class ConsistentResourceStore extends AbstractStore<ResourceEvent, Resour
             resources.forEach(r -> log.trace("registering {}", r));
         }
 
+        registerMeters.attempts.mark();
         TransactionContext tx = service.transactionContextBuilder().build();
         tx.begin();
 
@@ -132,15 +172,15 @@ public class ConsistentResourceStore extends AbstractStore<ResourceEvent, Resour
         for (Map.Entry<DiscreteResource, List<Resource>> entry : resourceMap.entrySet()) {
             DiscreteResourceId parentId = entry.getKey().id();
             if (!discreteTxStore.lookup(parentId).isPresent()) {
-                return abortTransaction(tx);
+                return abortTransaction(tx, registerMeters);
             }
 
             if (!register(discreteTxStore, continuousTxStore, parentId, entry.getValue())) {
-                return abortTransaction(tx);
+                return abortTransaction(tx, registerMeters);
             }
         }
 
-        return tx.commit().whenComplete((status, error) -> {
+        return commitTransaction(tx, registerMeters).whenComplete((status, error) -> {
             if (status == CommitStatus.SUCCESS) {
                 log.trace("Transaction commit succeeded on registration: resources={}", resources);
                 List<ResourceEvent> events = resources.stream()
@@ -158,6 +198,7 @@ public class ConsistentResourceStore extends AbstractStore<ResourceEvent, Resour
     public boolean unregister(List<? extends ResourceId> ids) {
         checkNotNull(ids);
 
+        unregisterMeters.attempts.mark();
         TransactionContext tx = service.transactionContextBuilder().build();
         tx.begin();
 
@@ -186,11 +227,11 @@ public class ConsistentResourceStore extends AbstractStore<ResourceEvent, Resour
                         entry.getKey(), entry.getValue().size());
                 log.debug("Failed to unregister {}: Failed to remove values: {}",
                         entry.getKey(), entry.getValue());
-                return abortTransaction(tx);
+                return abortTransaction(tx, unregisterMeters);
             }
         }
 
-        return tx.commit().whenComplete((status, error) -> {
+        return commitTransaction(tx, unregisterMeters).whenComplete((status, error) -> {
             if (status == CommitStatus.SUCCESS) {
                 List<ResourceEvent> events = resources.stream()
                         .filter(x -> x.parent().isPresent())
@@ -208,51 +249,57 @@ public class ConsistentResourceStore extends AbstractStore<ResourceEvent, Resour
         checkNotNull(resources);
         checkNotNull(consumer);
 
+        allocateMeters.attempts.mark();
         TransactionContext tx = service.transactionContextBuilder().build();
         tx.begin();
 
         TransactionalDiscreteResourceSubStore discreteTxStore = discreteStore.transactional(tx);
         TransactionalContinuousResourceSubStore continuousTxStore = continuousStore.transactional(tx);
+        prefetch(discreteTxStore, resources);
         for (Resource resource : resources) {
             if (resource instanceof DiscreteResource) {
                 if (!discreteTxStore.allocate(consumer.consumerId(), (DiscreteResource) resource)) {
-                    return abortTransaction(tx);
+                    return abortTransaction(tx, allocateMeters);
                 }
             } else if (resource instanceof ContinuousResource) {
                 if (!continuousTxStore.allocate(consumer.consumerId(), (ContinuousResource) resource)) {
-                    return abortTransaction(tx);
+                    return abortTransaction(tx, allocateMeters);
                 }
             }
         }
 
-        return tx.commit().join() == CommitStatus.SUCCESS;
+        return commitTransaction(tx, allocateMeters).join() == CommitStatus.SUCCESS;
     }
 
     @Override
     public boolean release(List<ResourceAllocation> allocations) {
         checkNotNull(allocations);
 
+        releaseMeters.attempts.mark();
         TransactionContext tx = service.transactionContextBuilder().build();
         tx.begin();
 
         TransactionalDiscreteResourceSubStore discreteTxStore = discreteStore.transactional(tx);
         TransactionalContinuousResourceSubStore continuousTxStore = continuousStore.transactional(tx);
+        prefetch(discreteTxStore, allocations.stream()
+                .map(ResourceAllocation::resource)
+                .collect(Collectors.toList()));
         for (ResourceAllocation allocation : allocations) {
             Resource resource = allocation.resource();
             ResourceConsumerId consumerId = allocation.consumerId();
 
             if (resource instanceof DiscreteResource) {
                 if (!discreteTxStore.release((DiscreteResource) resource, consumerId)) {
-                    return abortTransaction(tx);
+                    return abortTransaction(tx, releaseMeters);
                 }
             } else if (resource instanceof ContinuousResource) {
                 if (!continuousTxStore.release((ContinuousResource) resource, consumerId)) {
-                    return abortTransaction(tx);
+                    return abortTransaction(tx, releaseMeters);
                 }
             }
         }
 
-        return tx.commit().join() == CommitStatus.SUCCESS;
+        return commitTransaction(tx, releaseMeters).join() == CommitStatus.SUCCESS;
     }
 
     // computational complexity: O(1) if the resource is discrete type.
@@ -290,10 +337,8 @@ public class ConsistentResourceStore extends AbstractStore<ResourceEvent, Resour
     public Set<Resource> getChildResources(DiscreteResourceId parent) {
         checkNotNull(parent);
 
-        return ImmutableSet.<Resource>builder()
-                .addAll(discreteStore.getChildResources(parent))
-                .addAll(continuousStore.getChildResources(parent))
-                .build();
+        return union(discreteStore.getChildResources(parent),
+                continuousStore.getChildResources(parent));
     }
 
     @Override
@@ -301,9 +346,19 @@ public class ConsistentResourceStore extends AbstractStore<ResourceEvent, Resour
         checkNotNull(parent);
         checkNotNull(cls);
 
+        return union(discreteStore.getChildResources(parent, cls),
+                continuousStore.getChildResources(parent, cls));
+    }
+
+    // Discrete children may be range-encoded views spanning many values, so
+    // avoid copying them unless there are continuous children to merge in.
+    private Set<Resource> union(Set<DiscreteResource> discrete, Set<ContinuousResource> continuous) {
+        if (continuous.isEmpty()) {
+            return Collections.unmodifiableSet(discrete);
+        }
         return ImmutableSet.<Resource>builder()
-                .addAll(discreteStore.getChildResources(parent, cls))
-                .addAll(continuousStore.getChildResources(parent, cls))
+                .addAll(discrete)
+                .addAll(continuous)
                 .build();
     }
 
@@ -319,17 +374,75 @@ public class ConsistentResourceStore extends AbstractStore<ResourceEvent, Resour
         return Stream.concat(discrete, continuous).collect(Collectors.toList());
     }
 
+    /**
+     * Reads the entries of the discrete resources in a batch ahead of the
+     * transactional operations on them, so that the batch costs a single
+     * round of parallel reads rather than one round-trip per resource.
+     *
+     * @param discreteTxStore transactional discrete resource store
+     * @param resources       resources about to be operated on
+     */
+    private void prefetch(TransactionalDiscreteResourceSubStore discreteTxStore,
+                          Collection<? extends Resource> resources) {
+        if (resources.size() < 2) {
+            return;
+        }
+
+        List<DiscreteResource> discreteResources = new ArrayList<>(resources.size());
+        for (Resource resource : resources) {
+            if (resource instanceof DiscreteResource) {
+                discreteResources.add((DiscreteResource) resource);
+            }
+        }
+        discreteTxStore.prefetch(discreteResources, prefetchExecutor);
+    }
+
     /**
      * Abort the transaction.
      *
-     * @param tx transaction context
+     * @param tx     transaction context
+     * @param meters meters of the operation run by the transaction
      * @return always false
      */
-    private boolean abortTransaction(TransactionContext tx) {
+    private boolean abortTransaction(TransactionContext tx, OperationMeters meters) {
+        meters.aborts.mark();
         tx.abort();
         return false;
     }
 
+    /**
+     * Commits the transaction, accounting for commits which fail because of
+     * conflicting concurrent updates.
+     *
+     * @param tx     transaction context
+     * @param meters meters of the operation run by the transaction
+     * @return future of the commit status
+     */
+    private CompletableFuture<CommitStatus> commitTransaction(TransactionContext tx,
+                                                              OperationMeters meters) {
+        return tx.commit().whenComplete((status, error) -> {
+            if (status != CommitStatus.SUCCESS) {
+                meters.conflicts.mark();
+            }
+        });
+    }
+
+    // Rates of the attempts of an operation, of the attempts aborted because
+    // the requested resources were not available, and of the attempts whose
+    // commit failed because of conflicting concurrent updates.
+    private final class OperationMeters {
+        private final Meter attempts;
+        private final Meter aborts;
+        private final Meter conflicts;
+
+        private OperationMeters(MetricsComponent component, String operation) {
+            MetricsFeature feature = component.registerFeature(operation);
+            attempts = metricsService.createMeter(component, feature, "attempts");
+            aborts = metricsService.createMeter(component, feature, "aborts");
+            conflicts = metricsService.createMeter(component, feature, "conflicts");
+        }
+    }
+
     /**
      * Appends the values to the existing values associated with the specified key.
      * If the map already has all the given values, appending will not happen.
@@ -17,12 +17,15 @@ package org.onosproject.store.resource.impl;
 
 import com.google.common.base.MoreObjects;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterators;
 import com.google.common.collect.Sets;
 import org.onosproject.net.resource.DiscreteResource;
 import org.onosproject.net.resource.DiscreteResourceCodec;
 import org.onosproject.net.resource.DiscreteResourceId;
 import org.onosproject.net.resource.Resources;
 
+import java.util.AbstractSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
@@ -161,9 +164,10 @@ final class EncodableDiscreteResources implements DiscreteResources {
 
     @Override
     public Set<DiscreteResource> values() {
-        return map.values().stream()
-                .flatMap(x -> x.values(parent.id()).stream())
-                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (map.size() == 1) {
+            return map.values().iterator().next().values(parent.id());
+        }
+        return new UnionSet();
     }
 
     @Override
@@ -205,4 +209,33 @@ final class EncodableDiscreteResources implements DiscreteResources {
                 .add("values", values())
                 .toString();
     }
+
+    // Read-only view of the union of the values of all classes, which are
+    // disjoint from one another by construction.
+    private final class UnionSet extends AbstractSet<DiscreteResource> {
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof DiscreteResource)) {
+                return false;
+            }
+            DiscreteResource resource = (DiscreteResource) o;
+            EncodedDiscreteResources values = resource.valueAs(Object.class)
+                    .map(x -> map.get(x.getClass()))
+                    .orElse(null);
+            return values != null && values.values(parent.id()).contains(resource);
+        }
+
+        @Override
+        public int size() {
+            long size = map.values().stream().mapToLong(EncodedDiscreteResources::size).sum();
+            return (int) Math.min(Integer.MAX_VALUE, size);
+        }
+
+        @Override
+        public Iterator<DiscreteResource> iterator() {
+            return Iterators.concat(map.values().stream()
+                    .map(x -> x.values(parent.id()).iterator())
+                    .iterator());
+        }
+    }
 }
@@ -16,21 +16,23 @@
 package org.onosproject.store.resource.impl;
 
 import com.google.common.base.MoreObjects;
-import com.google.common.collect.DiscreteDomain;
+import com.google.common.collect.Iterators;
 import com.google.common.collect.Range;
 import com.google.common.collect.RangeSet;
 import com.google.common.collect.TreeRangeSet;
+import org.onlab.util.ClosedOpenRange;
 import org.onlab.util.Tools;
 import org.onosproject.net.resource.DiscreteResource;
 import org.onosproject.net.resource.DiscreteResourceCodec;
 import org.onosproject.net.resource.DiscreteResourceId;
 import org.onosproject.net.resource.Resources;
 
-import java.util.LinkedHashSet;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
@@ -46,15 +48,27 @@ final class EncodedDiscreteResources {
         this.codec = codec;
     }
 
+    @SuppressWarnings("unchecked")
     static EncodedDiscreteResources of(Set<DiscreteResource> resources, DiscreteResourceCodec codec) {
-        RangeSet<Integer> rangeSet = TreeRangeSet.create();
-        resources.stream()
+        int[] encoded = resources.stream()
                 .map(x -> x.valueAs(Object.class))
                 .flatMap(Tools::stream)
-                .map(x -> codec.encode(x))
-                .map(Range::singleton)
-                .map(x -> x.canonical(DiscreteDomain.integers()))
-                .forEach(rangeSet::add);
+                .mapToInt(x -> codec.encode(x))
+                .toArray();
+        Arrays.sort(encoded);
+
+        // Coalesce runs of consecutive values into ranges in a single pass
+        // rather than merging each value into the range set one at a time.
+        RangeSet<Integer> rangeSet = TreeRangeSet.create();
+        int i = 0;
+        while (i < encoded.length) {
+            int lower = encoded[i];
+            int upper = lower;
+            while (++i < encoded.length && encoded[i] - upper <= 1) {
+                upper = encoded[i];
+            }
+            rangeSet.add(Range.closedOpen(lower, upper + 1));
+        }
 
         return new EncodedDiscreteResources(rangeSet, codec);
     }
@@ -67,13 +81,29 @@ final class EncodedDiscreteResources {
         return codec;
     }
 
+    /**
+     * Returns a view of the resources under the specified parent. Members
+     * are decoded only as they are iterated over.
+     *
+     * @param parent parent of the resources
+     * @return set of resources
+     */
     Set<DiscreteResource> values(DiscreteResourceId parent) {
-        return rangeSet.asRanges().stream()
-                .flatMapToInt(x1 -> IntStream.range(x1.lowerEndpoint(), x1.upperEndpoint()))
-                .boxed()
-                .map(x -> codec.decode(x))
-                .map(x -> Resources.discrete(parent, x).resource())
-                .collect(Collectors.toCollection(LinkedHashSet::new));
+        return new ValueSet(parent);
+    }
+
+    /**
+     * Returns the number of encoded values.
+     *
+     * @return number of values
+     */
+    long size() {
+        long size = 0;
+        for (Range<Integer> range : rangeSet.asRanges()) {
+            ClosedOpenRange bounds = ClosedOpenRange.of(range);
+            size += (long) bounds.upperBound() - bounds.lowerBound();
+        }
+        return size;
     }
 
     Class<?> encodedClass() {
@@ -136,4 +166,64 @@ final class EncodedDiscreteResources {
                 .add("codec", codec)
                 .toString();
     }
+
+    // Read-only view of the encoded values as resources under a parent.
+    private final class ValueSet extends AbstractSet<DiscreteResource> {
+        private final DiscreteResourceId parent;
+
+        private ValueSet(DiscreteResourceId parent) {
+            this.parent = parent;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof DiscreteResource)) {
+                return false;
+            }
+            DiscreteResource resource = (DiscreteResource) o;
+            if (!resource.parent().filter(x -> x.id().equals(parent)).isPresent()) {
+                return false;
+            }
+            Class<?> cls = resource.valueAs(Object.class).map(Object::getClass).orElse(null);
+            return !isEmpty() && cls == encodedClass() && EncodedDiscreteResources.this.contains(resource);
+        }
+
+        @Override
+        public int size() {
+            return (int) Math.min(Integer.MAX_VALUE, EncodedDiscreteResources.this.size());
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return rangeSet.isEmpty();
+        }
+
+        @Override
+        public Iterator<DiscreteResource> iterator() {
+            Iterator<Iterator<DiscreteResource>> ranges = Iterators.transform(
+                    rangeSet.asRanges().iterator(), this::rangeIterator);
+            return Iterators.unmodifiableIterator(Iterators.concat(ranges));
+        }
+
+        @SuppressWarnings("unchecked")
+        private Iterator<DiscreteResource> rangeIterator(Range<Integer> range) {
+            ClosedOpenRange bounds = ClosedOpenRange.of(range);
+            return new Iterator<DiscreteResource>() {
+                private int next = bounds.lowerBound();
+
+                @Override
+                public boolean hasNext() {
+                    return next < bounds.upperBound();
+                }
+
+                @Override
+                public DiscreteResource next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return Resources.discrete(parent, codec.decode(next++)).resource();
+                }
+            };
+        }
+    }
 }
@@ -25,33 +25,45 @@ import com.google.common.collect.TreeRangeSet;
 import org.onlab.util.ClosedOpenRange;
 import org.onosproject.net.resource.DiscreteResourceCodec;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 /**
  * Kryo Serializer for {@link EncodedDiscreteResources}.
+ * <p>
+ * Ranges are written in ascending order as variable-length integers: the
+ * lower bound of each range relative to the upper bound of the previous one,
+ * followed by the length of the range. A range typically takes two to four
+ * bytes regardless of the number of values it spans.
+ * </p>
  */
 final class EncodedResourcesSerializer extends Serializer<EncodedDiscreteResources> {
     @Override
     public void write(Kryo kryo, Output output, EncodedDiscreteResources object) {
-        List<ClosedOpenRange> ranges = object.rangeSet().asRanges().stream()
-                .map(ClosedOpenRange::of)
-                .collect(Collectors.toList());
-        kryo.writeObject(output, ranges);
+        Set<Range<Integer>> ranges = object.rangeSet().asRanges();
+        output.writeVarInt(ranges.size(), true);
+        long previous = 0;
+        for (Range<Integer> range : ranges) {
+            ClosedOpenRange bounds = ClosedOpenRange.of(range);
+            output.writeVarLong(bounds.lowerBound() - previous, false);
+            output.writeVarLong((long) bounds.upperBound() - bounds.lowerBound(), true);
+            previous = bounds.upperBound();
+        }
         kryo.writeClassAndObject(output, object.codec());
     }
 
     @Override
     public EncodedDiscreteResources read(Kryo kryo, Input input, Class<EncodedDiscreteResources> cls) {
-        @SuppressWarnings("unchecked")
-        List<ClosedOpenRange> ranges = kryo.readObject(input, ArrayList.class);
+        int count = input.readVarInt(true);
+        RangeSet<Integer> rangeSet = TreeRangeSet.create();
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            long lower = previous + input.readVarLong(false);
+            long upper = lower + input.readVarLong(true);
+            rangeSet.add(Range.closedOpen((int) lower, (int) upper));
+            previous = upper;
+        }
         DiscreteResourceCodec codec = (DiscreteResourceCodec) kryo.readClassAndObject(input);
 
-        RangeSet<Integer> rangeSet = TreeRangeSet.create();
-        ranges.stream()
-                .map(x -> Range.closedOpen(x.lowerBound(), x.upperBound()))
-                .forEach(rangeSet::add);
         return new EncodedDiscreteResources(rangeSet, codec);
     }
 }
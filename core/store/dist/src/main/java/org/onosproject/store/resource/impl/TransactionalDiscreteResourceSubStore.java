@@ -24,8 +24,12 @@ import org.onosproject.store.service.TransactionalMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 import static org.onosproject.store.resource.impl.ConsistentResourceStore.SERIALIZER;
 
@@ -39,6 +43,34 @@ class TransactionalDiscreteResourceSubStore {
         this.consumers = tx.getTransactionalMap(MapNames.DISCRETE_CONSUMER_MAP, SERIALIZER);
     }
 
+    /**
+     * Reads the entries which allocating or releasing the specified resources
+     * will access, issuing the reads in parallel on the given executor. The
+     * entries are kept in the read cache of the transaction, so that
+     * subsequent operations on the resources need no further round-trips.
+     *
+     * @param resources resources about to be allocated or released
+     * @param executor executor on which to issue the reads
+     */
+    void prefetch(Collection<DiscreteResource> resources, Executor executor) {
+        Set<DiscreteResourceId> parents = new HashSet<>();
+        Set<DiscreteResourceId> ids = new HashSet<>();
+        for (DiscreteResource resource : resources) {
+            ids.add(resource.id());
+            resource.id().parent().ifPresent(parents::add);
+        }
+
+        CompletableFuture<?>[] reads = new CompletableFuture<?>[parents.size() + ids.size()];
+        int i = 0;
+        for (DiscreteResourceId parent : parents) {
+            reads[i++] = CompletableFuture.runAsync(() -> childMap.get(parent), executor);
+        }
+        for (DiscreteResourceId id : ids) {
+            reads[i++] = CompletableFuture.runAsync(() -> consumers.get(id), executor);
+        }
+        CompletableFuture.allOf(reads).join();
+    }
+
     // check the existence in the set: O(1) operation
     Optional<DiscreteResource> lookup(DiscreteResourceId id) {
         if (!id.parent().isPresent()) {
@@ -23,6 +23,7 @@ import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.graph.CompactDijkstraGraphSearch;
 import org.onlab.graph.GraphPathSearch;
 import org.onlab.util.KryoNamespace;
 import org.onosproject.cfg.ComponentConfigService;
@@ -90,7 +91,7 @@ public class DistributedTopologyStore
 
     private final Logger log = getLogger(getClass());
 
-    private static final String FORMAT = "Settings: linkWeightFunction={}";
+    private static final String FORMAT = "Settings: linkWeightFunction={}, graphPathSearch={}";
 
     private volatile DefaultTopology current =
             new DefaultTopology(ProviderId.NONE,
@@ -122,6 +123,14 @@ public class DistributedTopologyStore
             label = "Default link-weight function: hopCount, linkMetric, geoDistance")
     private String linkWeightFunction = DEFAULT_LINK_WEIGHT_FUNCTION;
 
+    private static final String DIJKSTRA = "dijkstra";
+    private static final String COMPACT_DIJKSTRA = "compactDijkstra";
+
+    private static final String DEFAULT_GRAPH_PATH_SEARCH = DIJKSTRA;
+    @Property(name = "graphPathSearch", value = DEFAULT_GRAPH_PATH_SEARCH,
+            label = "Default graph path search algorithm: dijkstra, compactDijkstra")
+    private String graphPathSearch = DEFAULT_GRAPH_PATH_SEARCH;
+
     // Cluster root to broadcast points bindings to allow convergence to
     // a shared broadcast tree; node that is the master of the cluster root
     // is the primary.
@@ -167,7 +176,15 @@ public class DistributedTopologyStore
                             new GeoDistanceLinkWeight(deviceService) : null;
             setDefaultLinkWeight(weight);
         }
-        log.info(FORMAT, linkWeightFunction);
+
+        String newGraphPathSearch = get(properties, "graphPathSearch");
+        if (newGraphPathSearch != null &&
+                !Objects.equals(newGraphPathSearch, graphPathSearch)) {
+            graphPathSearch = newGraphPathSearch;
+            setDefaultGraphPathSearch(graphPathSearch.equals(COMPACT_DIJKSTRA) ?
+                                              new CompactDijkstraGraphSearch<>() : null);
+        }
+        log.info(FORMAT, linkWeightFunction, graphPathSearch);
     }
 
     @Override
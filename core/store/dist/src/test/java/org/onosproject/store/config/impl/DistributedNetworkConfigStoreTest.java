@@ -24,11 +24,16 @@ import org.onosproject.net.config.SubjectFactory;
 import org.onosproject.store.service.TestStorageService;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
 import java.util.Set;
@@ -235,4 +240,66 @@ public class DistributedNetworkConfigStoreTest {
 
         assertThat(newConfig1, notNullValue());
     }
+
+    /**
+     * Tests that queried configs are served from the cache until updated.
+     */
+    @Test
+    public void testConfigCache() {
+        configStore.addConfigFactory(new MockConfigFactory(BasicConfig.class, "config1"));
+        assertThat(configStore.getConfig("subject", BasicConfig.class), nullValue());
+
+        configStore.applyConfig("subject", BasicConfig.class, new ObjectMapper().createObjectNode());
+        BasicConfig first = configStore.getConfig("subject", BasicConfig.class);
+        assertThat(first, notNullValue());
+        BasicConfig cached = configStore.getConfig("subject", BasicConfig.class);
+        assertThat(cached, not(sameInstance(first)));
+        assertThat(cached.node(), is(first.node()));
+
+        configStore.applyConfig("subject", BasicConfig.class,
+                                new ObjectMapper().createObjectNode().put("key", "value"));
+        BasicConfig updated = configStore.getConfig("subject", BasicConfig.class);
+        assertThat(updated, not(sameInstance(first)));
+        assertThat(updated.node().get("key").asText(), is("value"));
+
+        configStore.clearConfig("subject", BasicConfig.class);
+        assertThat(configStore.getConfig("subject", BasicConfig.class), nullValue());
+        assertThat(configStore.getConfig("subject", BasicConfig.class), nullValue());
+        assertThat(configStore.cacheHitRate(), greaterThan(0.0));
+    }
+
+    /**
+     * Tests that the cache does not grow with the keys queried without
+     * config.
+     */
+    @Test
+    public void testConfigCacheBounded() {
+        configStore.addConfigFactory(new MockConfigFactory(BasicConfig.class, "config1"));
+        for (int i = 0; i < 11000; i++) {
+            assertThat(configStore.getConfig("subject" + i, BasicConfig.class), nullValue());
+        }
+        assertThat(configStore.configCache.size(), lessThanOrEqualTo(10000));
+    }
+
+    /**
+     * Tests that edits of a config not applied are not seen by other readers.
+     */
+    @Test
+    public void testCachedConfigNotShared() {
+        configStore.addConfigFactory(new MockConfigFactory(BasicConfig.class, "config1"));
+        configStore.applyConfig("subject", BasicConfig.class,
+                                new ObjectMapper().createObjectNode().put("key", "value"));
+
+        BasicConfig edited = configStore.getConfig("subject", BasicConfig.class);
+        ((ObjectNode) edited.node()).put("key", "edited");
+        assertThat(edited.node(), not(sameInstance(
+                configStore.getConfig("subject", BasicConfig.class).node())));
+        assertThat(configStore.getConfig("subject", BasicConfig.class)
+                           .node().get("key").asText(), is("value"));
+
+        edited = configStore.getConfig("subject", BasicConfig.class);
+        ((ObjectNode) edited.node()).put("key", "edited");
+        assertThat(configStore.getConfig("subject", BasicConfig.class)
+                           .node().get("key").asText(), is("value"));
+    }
 }
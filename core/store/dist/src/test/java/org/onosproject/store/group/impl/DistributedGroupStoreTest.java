@@ -18,6 +18,7 @@ package org.onosproject.store.group.impl;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.After;
 import org.junit.Before;
@@ -48,6 +49,7 @@ import org.onosproject.net.group.GroupStore;
 import org.onosproject.net.group.GroupStoreDelegate;
 import org.onosproject.store.cluster.messaging.ClusterCommunicationServiceAdapter;
 import org.onosproject.store.service.ConsistentMap;
+import org.onosproject.store.service.MapEventListener;
 import org.onosproject.store.service.TestStorageService;
 
 import com.google.common.collect.ImmutableList;
@@ -178,6 +180,30 @@ public class DistributedGroupStoreTest {
     }
 
 
+    /**
+     * Tests that the device lookups reflect the store's own writes before
+     * the map events for them are received.
+     */
+    @Test
+    public void testDeviceLookupsReadOwnWrites() throws Exception {
+        ConsistentMap<?, ?> keyMap = TestUtils.getField(groupStoreImpl, "groupStoreEntriesByKey");
+        MapEventListener listener = TestUtils.getField(groupStoreImpl, "mapListener");
+        Map<?, ?> index = TestUtils.getField(groupStoreImpl, "groupEntriesByDevice");
+        keyMap.removeListener(listener);
+        try {
+            groupStore.deviceInitialAuditCompleted(deviceId1, true);
+            groupStore.storeGroupDescription(groupDescription1);
+            assertThat(groupStore.getGroupCount(deviceId1), is(1));
+            assertThat(Lists.newArrayList(groupStore.getGroups(deviceId1)), hasSize(1));
+
+            groupStore.purgeGroupEntry(deviceId1);
+            assertThat(groupStore.getGroupCount(deviceId1), is(0));
+            assertThat(index.isEmpty(), is(true));
+        } finally {
+            keyMap.addListener(listener);
+        }
+    }
+
     /**
      * Tests adding and removing a group.
      */
@@ -388,6 +414,32 @@ public class DistributedGroupStoreTest {
         assertThat(extraneous, hasSize(0));
     }
 
+    /**
+     * Tests reuse of an extraneous group with matching buckets.
+     */
+    @Test
+    public void testExtraneousGroupReuseByBuckets() {
+        groupStore.deviceInitialAuditCompleted(deviceId1, true);
+
+        GroupBuckets otherBuckets = new GroupBuckets(ImmutableList.of(failoverGroupBucket));
+        Group other = new DefaultGroup(groupId2, new DefaultGroupDescription(
+                deviceId1, FAILOVER, otherBuckets, groupKey2, groupId2.id(), APP_ID));
+        Group extraneous = new DefaultGroup(groupId3, new DefaultGroupDescription(
+                deviceId1, ALL, buckets, groupKey3, groupId3.id(), APP_ID));
+        groupStore.addOrUpdateExtraneousGroupEntry(other);
+        groupStore.addOrUpdateExtraneousGroupEntry(extraneous);
+
+        groupStore.storeGroupDescription(new DefaultGroupDescription(
+                deviceId1, ALL, buckets, groupKey1, null, APP_ID));
+
+        Group group = groupStore.getGroup(deviceId1, groupKey1);
+        assertThat(group, notNullValue());
+        assertThat(group.id(), is(groupId3));
+        assertThat(Lists.newArrayList(groupStore.getExtraneousGroups(deviceId1)),
+                   hasSize(1));
+        assertThat(groupStore.getGroupCount(deviceId1), is(1));
+    }
+
     /**
      * Tests updating of group descriptions.
      */
@@ -15,24 +15,34 @@
  */
 package org.onosproject.store.host.impl;
 
+import com.google.common.collect.ImmutableSet;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.onlab.packet.IpAddress;
 import org.onlab.packet.MacAddress;
+import org.onosproject.cfg.ComponentConfigAdapter;
+import org.onosproject.net.DefaultHost;
+import org.onosproject.net.DeviceId;
 import org.onosproject.net.Host;
 import org.onosproject.net.HostId;
 import org.onosproject.net.HostLocation;
+import org.onosproject.net.PortNumber;
 import org.onosproject.net.host.DefaultHostDescription;
 import org.onosproject.net.host.HostDescription;
+import org.onosproject.net.host.HostEvent;
 import org.onosproject.net.provider.ProviderId;
 import org.onosproject.store.service.TestStorageService;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import static junit.framework.TestCase.assertTrue;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 
 /**
  * Tests for the ECHostStore.
@@ -48,12 +58,23 @@ public class DistributedHostStoreTest {
 
     private static final ProviderId PID = new ProviderId("of", "foo");
 
+    private static final HostLocation LOCATION1 =
+            new HostLocation(DeviceId.deviceId("of:1"), PortNumber.portNumber(1), 0L);
+    private static final HostLocation LOCATION2 =
+            new HostLocation(DeviceId.deviceId("of:2"), PortNumber.portNumber(1), 0L);
+
     @Before
     public void setUp() {
-        ecXHostStore = new DistributedHostStore();
+        ecXHostStore = createStore(false);
+    }
 
-        ecXHostStore.storageService = new TestStorageService();
-        ecXHostStore.activate();
+    private static DistributedHostStore createStore(boolean eventuallyConsistent) {
+        DistributedHostStore store = new DistributedHostStore();
+        store.storageService = new TestStorageService();
+        store.cfgService = new ComponentConfigAdapter();
+        store.useEventuallyConsistentMap = eventuallyConsistent;
+        store.activate(null);
+        return store;
     }
 
     @After
@@ -82,4 +103,83 @@ public class DistributedHostStoreTest {
         assertTrue(host.ipAddresses().contains(IP2));
     }
 
+    /**
+     * Tests host updates, moves and removal when backed by an eventually
+     * consistent map.
+     */
+    @Test
+    public void testEventuallyConsistentMap() {
+        DistributedHostStore store = createStore(true);
+        List<HostEvent> events = new ArrayList<>();
+        store.setDelegate(events::add);
+
+        try {
+            store.createOrUpdateHost(PID, HOSTID,
+                                     new DefaultHostDescription(HOSTID.mac(), HOSTID.vlanId(),
+                                                                LOCATION1, IP1), false);
+            store.createOrUpdateHost(PID, HOSTID,
+                                     new DefaultHostDescription(HOSTID.mac(), HOSTID.vlanId(),
+                                                                LOCATION1, IP2), false);
+            Host host = store.getHost(HOSTID);
+            assertEquals(LOCATION1, host.location());
+            assertTrue(host.ipAddresses().contains(IP1));
+            assertTrue(host.ipAddresses().contains(IP2));
+
+            store.createOrUpdateHost(PID, HOSTID,
+                                     new DefaultHostDescription(HOSTID.mac(), HOSTID.vlanId(),
+                                                                LOCATION2, IP1), false);
+            assertEquals(LOCATION2, store.getHost(HOSTID).location());
+            assertEquals(1, store.getConnectedHosts(LOCATION2).size());
+            assertEquals(1, store.getHosts(IP2).size());
+
+            store.removeIp(HOSTID, IP1);
+            assertFalse(store.getHost(HOSTID).ipAddresses().contains(IP1));
+
+            store.removeHost(HOSTID);
+            assertNull(store.getHost(HOSTID));
+            assertEquals(0, store.getHostCount());
+
+            assertEquals(HostEvent.Type.HOST_ADDED, events.get(0).type());
+            assertEquals(HostEvent.Type.HOST_REMOVED, events.get(events.size() - 1).type());
+        } finally {
+            store.deactivate();
+        }
+    }
+
+    /**
+     * Tests that IPs removed by another instance are not brought back when
+     * backed by an eventually consistent map.
+     */
+    @Test
+    public void testRemoteIpRemovalKept() {
+        DistributedHostStore store = createStore(true);
+        try {
+            store.createOrUpdateHost(PID, HOSTID,
+                                     new DefaultHostDescription(HOSTID.mac(), HOSTID.vlanId(),
+                                                                LOCATION1, IP1), false);
+
+            // Another instance replaced the IPs of the host
+            store.hostsEcMap.put(HOSTID, new DefaultHost(PID, HOSTID, HOSTID.mac(), HOSTID.vlanId(),
+                                                         LOCATION1, ImmutableSet.of(IP2)));
+
+            assertEquals(ImmutableSet.of(IP2), store.getHost(HOSTID).ipAddresses());
+        } finally {
+            store.deactivate();
+        }
+    }
+
+    /**
+     * Tests that removing an IP of an unknown host leaves no entry behind.
+     */
+    @Test
+    public void testRemoveIpOfUnknownHost() {
+        DistributedHostStore store = createStore(true);
+        try {
+            store.removeIp(HOSTID, IP1);
+            assertFalse(store.hostsEcMap.containsKey(HOSTID));
+            assertEquals(0, store.getHostCount());
+        } finally {
+            store.deactivate();
+        }
+    }
 }
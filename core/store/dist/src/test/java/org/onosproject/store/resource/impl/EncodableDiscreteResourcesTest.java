@@ -18,6 +18,7 @@ package org.onosproject.store.resource.impl;
 
 import com.google.common.collect.ImmutableSet;
 import org.junit.Test;
+import org.onlab.packet.MplsLabel;
 import org.onlab.packet.VlanId;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.PortNumber;
@@ -53,6 +54,28 @@ public class EncodableDiscreteResourcesTest {
         assertThat(decoded, is(original));
     }
 
+    @Test
+    public void testMplsLabelRangesSerialize() {
+        DiscreteResource port = Resources.discrete(DeviceId.deviceId("a"), PortNumber.portNumber(1)).resource();
+        Set<DiscreteResource> resources = Stream.concat(
+                IntStream.range(16, 1 << 20).mapToObj(MplsLabel::mplsLabel),
+                IntStream.range(1, 4095).mapToObj(x -> VlanId.vlanId((short) x)))
+                .map(port::child)
+                .collect(Collectors.toSet());
+
+        DiscreteResources original = EncodableDiscreteResources.of(resources);
+        assertThat(original.values().size(), is(resources.size()));
+        assertThat(original.lookup(Resources.discrete(port.id(), MplsLabel.mplsLabel(100)).id()).isPresent(),
+                is(true));
+        assertThat(original.values().contains(port.child(VlanId.vlanId((short) 4095))), is(false));
+
+        byte[] bytes = serializer.encode(original);
+        // two ranges, whatever the number of labels and VLAN IDs they span
+        assertThat(bytes.length < 256, is(true));
+        DiscreteResources decoded = serializer.decode(bytes);
+        assertThat(decoded, is(original));
+    }
+
     @Test
     public void testIfResourceIsFound() {
         DiscreteResource res1 = Resources.discrete(DeviceId.deviceId("a"), PortNumber.portNumber(1)).resource();
@@ -18,6 +18,7 @@ package org.onosproject.store.primitives.impl;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
@@ -59,7 +60,9 @@ public class DefaultTransactionalMap<K, V> implements TransactionalMap<K, V>, Tr
     private final ConsistentMap<K, V> backingConsistentMap;
     private final String name;
     private final Serializer serializer;
-    private final Map<K, Versioned<V>> readCache = Maps.newConcurrentMap();
+    // Values read from the backing map, including the keys found absent,
+    // so that each key is read at most once per transaction
+    private final Map<K, Optional<Versioned<V>>> readCache = Maps.newConcurrentMap();
     private final Map<K, V> writeCache = Maps.newConcurrentMap();
     private final Set<K> deleteSet = Sets.newConcurrentHashSet();
 
@@ -103,11 +106,23 @@ public class DefaultTransactionalMap<K, V> implements TransactionalMap<K, V>, Tr
         if (latest != null) {
             return latest;
         } else {
-            Versioned<V> v = readCache.computeIfAbsent(key, k -> backingConsistentMap.get(k));
+            Versioned<V> v = readCache.computeIfAbsent(key, k -> Optional.ofNullable(backingConsistentMap.get(k)))
+                    .orElse(null);
             return v != null ? v.value() : null;
         }
     }
 
+    /**
+     * Returns the version of the value read for the specified key.
+     *
+     * @param key key
+     * @return value read from the backing map, or null if the key was not
+     * read or was found absent
+     */
+    private Versioned<V> original(K key) {
+        return readCache.getOrDefault(key, Optional.empty()).orElse(null);
+    }
+
     @Override
     public boolean containsKey(K key) {
         return get(key) != null;
@@ -205,7 +220,7 @@ public class DefaultTransactionalMap<K, V> implements TransactionalMap<K, V>, Tr
         return Stream.concat(
             // 1st stream: delete ops
             deleteSet.stream()
-                .map(key -> Pair.of(key, readCache.get(key)))
+                .map(key -> Pair.of(key, original(key)))
                 .filter(e -> e.getValue() != null)
                 .map(e -> MapUpdate.<K, V>newBuilder()
                  .withMapName(name)
@@ -216,7 +231,7 @@ public class DefaultTransactionalMap<K, V> implements TransactionalMap<K, V>, Tr
             // 2nd stream: write ops
             writeCache.entrySet().stream()
                     .map(e -> {
-                        Versioned<V> original = readCache.get(e.getKey());
+                        Versioned<V> original = original(e.getKey());
                         if (original == null) {
                             return MapUpdate.<K, V>newBuilder()
                                     .withMapName(name)
@@ -243,7 +258,7 @@ public class DefaultTransactionalMap<K, V> implements TransactionalMap<K, V>, Tr
     protected List<MapUpdate<String, byte[]>> toMapUpdates() {
         List<MapUpdate<String, byte[]>> updates = Lists.newLinkedList();
         deleteSet.forEach(key -> {
-            Versioned<V> original = readCache.get(key);
+            Versioned<V> original = original(key);
             if (original != null) {
                 updates.add(MapUpdate.<String, byte[]>newBuilder()
                         .withMapName(name)
@@ -254,7 +269,7 @@ public class DefaultTransactionalMap<K, V> implements TransactionalMap<K, V>, Tr
             }
         });
         writeCache.forEach((key, value) -> {
-            Versioned<V> original = readCache.get(key);
+            Versioned<V> original = original(key);
             if (original == null) {
                 updates.add(MapUpdate.<String, byte[]>newBuilder()
                         .withMapName(name)
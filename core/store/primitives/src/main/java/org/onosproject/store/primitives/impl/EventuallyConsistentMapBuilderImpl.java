@@ -15,6 +15,7 @@
  */
 package org.onosproject.store.primitives.impl;
 
+import org.onlab.metrics.MetricsService;
 import org.onlab.util.KryoNamespace;
 import org.onosproject.cluster.ClusterService;
 import org.onosproject.cluster.NodeId;
@@ -56,6 +57,7 @@ public class EventuallyConsistentMapBuilderImpl<K, V>
     private boolean persistent = false;
     private boolean persistentMap = false;
     private final PersistenceService persistenceService;
+    private final MetricsService metricsService;
 
     /**
      * Creates a new eventually consistent map builder.
@@ -63,11 +65,15 @@ public class EventuallyConsistentMapBuilderImpl<K, V>
      * @param clusterService cluster service
      * @param clusterCommunicator cluster communication service
      * @param persistenceService persistence service
+     * @param metricsService metrics service; null if the map is not to be
+     *                       instrumented
      */
     public EventuallyConsistentMapBuilderImpl(ClusterService clusterService,
                                               ClusterCommunicationService clusterCommunicator,
-                                              PersistenceService persistenceService) {
+                                              PersistenceService persistenceService,
+                                              MetricsService metricsService) {
         this.persistenceService = persistenceService;
+        this.metricsService = metricsService;
         this.clusterService = checkNotNull(clusterService);
         this.clusterCommunicator = checkNotNull(clusterCommunicator);
     }
@@ -160,20 +166,25 @@ public class EventuallyConsistentMapBuilderImpl<K, V>
         }
         checkNotNull(serializer, "serializer is a mandatory parameter");
 
-        return new EventuallyConsistentMapImpl<>(name,
-                                                 clusterService,
-                                                 clusterCommunicator,
-                                                 serializer,
-                                                 timestampProvider,
-                                                 peerUpdateFunction,
-                                                 eventExecutor,
-                                                 communicationExecutor,
-                                                 backgroundExecutor,
-                                                 tombstonesDisabled,
-                                                 antiEntropyPeriod,
-                                                 antiEntropyTimeUnit,
-                                                 convergeFaster,
-                                                 persistent,
-                                                 persistenceService);
+        EventuallyConsistentMapImpl<K, V> map =
+                new EventuallyConsistentMapImpl<>(name,
+                                                  clusterService,
+                                                  clusterCommunicator,
+                                                  serializer,
+                                                  timestampProvider,
+                                                  peerUpdateFunction,
+                                                  eventExecutor,
+                                                  communicationExecutor,
+                                                  backgroundExecutor,
+                                                  tombstonesDisabled,
+                                                  antiEntropyPeriod,
+                                                  antiEntropyTimeUnit,
+                                                  convergeFaster,
+                                                  persistent,
+                                                  persistenceService);
+        if (metricsService != null) {
+            map.instrument(metricsService);
+        }
+        return map;
     }
 }
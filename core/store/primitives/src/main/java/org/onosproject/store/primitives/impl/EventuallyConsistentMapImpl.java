@@ -22,6 +22,9 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import org.apache.commons.lang3.tuple.Pair;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.onlab.util.AbstractAccumulator;
 import org.onlab.util.KryoNamespace;
 import org.onlab.util.SlidingWindowCounter;
@@ -64,6 +67,8 @@ import java.util.stream.Collectors;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static org.onlab.metrics.MetricsUtil.startTimer;
+import static org.onlab.metrics.MetricsUtil.stopTimer;
 import static org.onlab.util.BoundedThreadPool.newFixedThreadPool;
 import static org.onlab.util.Tools.groupedThreads;
 import static org.onosproject.store.service.EventuallyConsistentMapEvent.Type.PUT;
@@ -127,6 +132,13 @@ public class EventuallyConsistentMapImpl<K, V>
 
     private static final String PERSISTENT_LOCAL_MAP_NAME = "itemsMap";
 
+    private static final String METRICS_COMPONENT = "EventuallyConsistentMap";
+
+    // Gossip timers; null if the map is not instrumented
+    private volatile com.codahale.metrics.Timer antiEntropyTimer;
+    private volatile com.codahale.metrics.Timer updateSendTimer;
+    private volatile com.codahale.metrics.Timer updateProcessTimer;
+
 
     /**
      * Creates a new eventually consistent map shared amongst multiple instances.
@@ -551,6 +563,20 @@ public class EventuallyConsistentMapImpl<K, V>
         );
     }
 
+    /**
+     * Times the gossip of this map: anti-entropy exchanges, and the sending
+     * and processing of update batches.
+     *
+     * @param metricsService metrics service
+     */
+    void instrument(MetricsService metricsService) {
+        MetricsComponent component = metricsService.registerComponent(METRICS_COMPONENT);
+        MetricsFeature feature = component.registerFeature(mapName);
+        antiEntropyTimer = metricsService.createLatencyTimer(component, feature, "antiEntropy");
+        updateSendTimer = metricsService.createLatencyTimer(component, feature, "updateSend");
+        updateProcessTimer = metricsService.createLatencyTimer(component, feature, "updateProcess");
+    }
+
     private boolean underHighLoad() {
         return counter.get(LOAD_WINDOW) > HIGH_LOAD_THRESHOLD;
     }
@@ -580,6 +606,7 @@ public class EventuallyConsistentMapImpl<K, V>
 
     private void sendAdvertisementToPeer(NodeId peer) {
         long adCreationTime = System.currentTimeMillis();
+        com.codahale.metrics.Timer.Context timing = startTimer(antiEntropyTimer);
         AntiEntropyAdvertisement<K> ad = createAdvertisement();
         clusterCommunicator.sendAndReceive(ad,
                 antiEntropyAdvertisementSubject,
@@ -587,6 +614,7 @@ public class EventuallyConsistentMapImpl<K, V>
                 serializer::decode,
                 peer)
                 .whenComplete((result, error) -> {
+                    stopTimer(timing);
                     if (error != null) {
                         log.debug("Failed to send anti-entropy advertisement to {}: {}",
                                 peer, error.getMessage());
@@ -716,6 +744,15 @@ public class EventuallyConsistentMapImpl<K, V>
         if (destroyed) {
             return;
         }
+        com.codahale.metrics.Timer.Context timing = startTimer(updateProcessTimer);
+        try {
+            processUpdateEntries(updates);
+        } finally {
+            stopTimer(timing);
+        }
+    }
+
+    private void processUpdateEntries(Collection<UpdateEntry<K, V>> updates) {
         updates.forEach(update -> {
             final K key = update.key();
             final MapValue<V> value = update.value() == null ? null : update.value().copy();
@@ -780,11 +817,13 @@ public class EventuallyConsistentMapImpl<K, V>
             items.forEach(item -> map.compute(item.key(), (key, existing) ->
                     item.isNewerThan(existing) ? item : existing));
             communicationExecutor.execute(() -> {
+                com.codahale.metrics.Timer.Context timing = startTimer(updateSendTimer);
                 clusterCommunicator.unicast(ImmutableList.copyOf(map.values()),
                                             updateMessageSubject,
                                             serializer::encode,
                                             peer)
                                    .whenComplete((result, error) -> {
+                                       stopTimer(timing);
                                        if (error != null) {
                                            log.debug("Failed to send to {}", peer, error);
                                        }
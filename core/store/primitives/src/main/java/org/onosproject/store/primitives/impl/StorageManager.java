@@ -32,6 +32,7 @@ import org.apache.felix.scr.annotations.Deactivate;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.metrics.MetricsService;
 import org.onosproject.cluster.ClusterService;
 import org.onosproject.cluster.PartitionId;
 import org.onosproject.persistence.PersistenceService;
@@ -88,6 +89,9 @@ public class StorageManager implements StorageService, StorageAdminService {
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected PersistenceService persistenceService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
+
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected PartitionService partitionService;
 
@@ -127,7 +131,8 @@ public class StorageManager implements StorageService, StorageAdminService {
         checkPermission(STORAGE_WRITE);
         return new EventuallyConsistentMapBuilderImpl<>(clusterService,
                 clusterCommunicator,
-                persistenceService);
+                persistenceService,
+                metricsService);
     }
 
     @Override
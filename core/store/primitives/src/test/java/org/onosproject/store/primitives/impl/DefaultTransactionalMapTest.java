@@ -0,0 +1,106 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.primitives.impl;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.onosproject.store.primitives.MapUpdate;
+import org.onosproject.store.service.AsyncConsistentMap;
+import org.onosproject.store.service.ConsistentMap;
+import org.onosproject.store.service.ConsistentMapAdapter;
+import org.onosproject.store.service.Serializer;
+import org.onosproject.store.service.TransactionContext;
+import org.onosproject.store.service.Versioned;
+
+/**
+ * Unit tests for DefaultTransactionalMap.
+ */
+public class DefaultTransactionalMapTest {
+
+    private final AtomicInteger reads = new AtomicInteger();
+    private DefaultTransactionalMap<String, String> map;
+
+    @Before
+    public void setUp() {
+        ConsistentMap<String, String> backing = new ConsistentMapAdapter<String, String>() {
+            @Override
+            public Versioned<String> get(String key) {
+                reads.incrementAndGet();
+                return "present".equals(key) ? new Versioned<>("value", 1) : null;
+            }
+        };
+
+        @SuppressWarnings("unchecked")
+        AsyncConsistentMap<String, String> asyncMap = createMock(AsyncConsistentMap.class);
+        expect(asyncMap.asConsistentMap()).andReturn(backing);
+        replay(asyncMap);
+
+        TransactionContext tx = createMock(TransactionContext.class);
+        expect(tx.isOpen()).andReturn(true).anyTimes();
+        expect(tx.transactionId()).andReturn(null).anyTimes();
+        replay(tx);
+
+        map = new DefaultTransactionalMap<>("test", asyncMap, tx,
+                                            createMock(Serializer.class));
+    }
+
+    /**
+     * Tests that each key is read from the backing map once per transaction,
+     * whether it is present or not.
+     */
+    @Test
+    public void testReadsCached() {
+        assertEquals("value", map.get("present"));
+        assertEquals("value", map.get("present"));
+        assertNull(map.get("absent"));
+        assertNull(map.get("absent"));
+        map.putIfAbsent("absent", "new");
+        map.replace("present", "value", "updated");
+
+        assertEquals(2, reads.get());
+    }
+
+    /**
+     * Tests that writes to keys found absent are committed as
+     * put-if-absent, and the others against the version read.
+     */
+    @Test
+    public void testUpdates() {
+        map.get("absent");
+        map.put("absent", "new");
+        map.put("present", "updated");
+
+        List<MapUpdate<String, String>> updates = map.updates();
+        assertEquals(2, updates.size());
+        for (MapUpdate<String, String> update : updates) {
+            if (update.key().equals("absent")) {
+                assertEquals(MapUpdate.Type.PUT_IF_ABSENT, update.type());
+            } else {
+                assertEquals(MapUpdate.Type.PUT_IF_VERSION_MATCH, update.type());
+                assertEquals(1, update.currentVersion());
+            }
+        }
+    }
+}
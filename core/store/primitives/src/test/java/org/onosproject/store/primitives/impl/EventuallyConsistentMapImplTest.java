@@ -139,7 +139,7 @@ public class EventuallyConsistentMapImplTest {
                 .register(TestTimestamp.class);
 
         ecMap = new EventuallyConsistentMapBuilderImpl<String, String>(
-                        clusterService, clusterCommunicator, persistenceService)
+                        clusterService, clusterCommunicator, persistenceService, null)
                 .withName(MAP_NAME)
                 .withSerializer(serializer)
                 .withTimestampProvider((k, v) -> clockService.getTimestamp(k, v))
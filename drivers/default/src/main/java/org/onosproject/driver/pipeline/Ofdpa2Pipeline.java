@@ -200,6 +200,65 @@ public class Ofdpa2Pipeline extends AbstractHandlerBehaviour implements Pipeline
         sendForward(fwd, rules);
     }
 
+    /**
+     * Installs the flow rules of a batch of forwarding objectives as a single
+     * flow rule operation, in stages which preserve the order of additions
+     * and removals. If the operation fails, all objectives of the batch are
+     * reported as failed.
+     *
+     * @param fwds forwarding objectives
+     */
+    @Override
+    public void forward(Collection<ForwardingObjective> fwds) {
+        FlowRuleOperations.Builder flowOpsBuilder = FlowRuleOperations.builder();
+        List<ForwardingObjective> batched = new ArrayList<>();
+        Objective.Operation lastOp = null;
+        for (ForwardingObjective fwd : fwds) {
+            if (fwd.op() != Objective.Operation.ADD && fwd.op() != Objective.Operation.REMOVE) {
+                fail(fwd, ObjectiveError.UNKNOWN);
+                log.warn("Unknown forwarding type {}", fwd.op());
+                continue;
+            }
+            Collection<FlowRule> rules = processForward(fwd);
+            if (rules == null || rules.isEmpty()) {
+                // Assumes fail message has already been generated
+                continue;
+            }
+            if (lastOp != null && lastOp != fwd.op()) {
+                flowOpsBuilder.newStage();
+            }
+            lastOp = fwd.op();
+            for (FlowRule rule : rules) {
+                if (rule == null) {
+                    continue;
+                }
+                if (fwd.op() == Objective.Operation.ADD) {
+                    flowOpsBuilder.add(rule);
+                } else {
+                    flowOpsBuilder.remove(rule);
+                }
+            }
+            batched.add(fwd);
+        }
+        if (batched.isEmpty()) {
+            return;
+        }
+
+        log.debug("Applying flow rules of {} forwarding objectives to sw:{}",
+                  batched.size(), deviceId);
+        flowRuleService.apply(flowOpsBuilder.build(new FlowRuleOperationsContext() {
+            @Override
+            public void onSuccess(FlowRuleOperations ops) {
+                batched.forEach(Ofdpa2Pipeline::pass);
+            }
+
+            @Override
+            public void onError(FlowRuleOperations ops) {
+                batched.forEach(fwd -> fail(fwd, ObjectiveError.FLOWINSTALLATIONFAILED));
+            }
+        }));
+    }
+
     protected void sendForward(ForwardingObjective fwd, Collection<FlowRule> rules) {
         FlowRuleOperations.Builder flowOpsBuilder = FlowRuleOperations.builder();
         switch (fwd.op()) {
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.driver.pipeline;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Before;
+import org.junit.Test;
+import org.onlab.packet.Ethernet;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.PortNumber;
+import org.onosproject.net.flow.DefaultTrafficSelector;
+import org.onosproject.net.flow.DefaultTrafficTreatment;
+import org.onosproject.net.flow.FlowRuleOperation;
+import org.onosproject.net.flow.FlowRuleOperations;
+import org.onosproject.net.flow.FlowRuleServiceAdapter;
+import org.onosproject.net.flow.TrafficSelector;
+import org.onosproject.net.flowobjective.DefaultForwardingObjective;
+import org.onosproject.net.flowobjective.ForwardingObjective;
+import org.onosproject.net.flowobjective.Objective;
+import org.onosproject.net.flowobjective.ObjectiveContext;
+import org.onosproject.net.flowobjective.ObjectiveError;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.onosproject.net.NetTestTools.APP_ID;
+
+/**
+ * Unit tests for the batched forwarding of the OF-DPA 2.0 pipeline.
+ */
+public class Ofdpa2PipelineTest {
+
+    private final List<FlowRuleOperations> applied = new ArrayList<>();
+    private final Map<Objective, Object> results = new HashMap<>();
+    private final Ofdpa2Pipeline pipeline = new Ofdpa2Pipeline();
+
+    private final ObjectiveContext context = new ObjectiveContext() {
+        @Override
+        public void onSuccess(Objective objective) {
+            results.put(objective, "success");
+        }
+
+        @Override
+        public void onError(Objective objective, ObjectiveError error) {
+            results.put(objective, error);
+        }
+    };
+
+    @Before
+    public void setUp() {
+        pipeline.deviceId = DeviceId.deviceId("of:1");
+        pipeline.flowRuleService = new FlowRuleServiceAdapter() {
+            @Override
+            public void apply(FlowRuleOperations ops) {
+                applied.add(ops);
+            }
+        };
+    }
+
+    /**
+     * Tests that a batch is applied as a single operation, in stages which
+     * keep additions and removals in order, and that its objectives pass
+     * once the operation succeeds.
+     */
+    @Test
+    public void batchApplied() {
+        ForwardingObjective add1 = versatile(1, true).add(context);
+        ForwardingObjective add2 = versatile(2, true).add(context);
+        ForwardingObjective remove = versatile(3, true).remove(context);
+        ForwardingObjective bad = versatile(4, false).add(context);
+
+        pipeline.forward(ImmutableList.of(add1, add2, bad, remove));
+
+        assertThat(applied, hasSize(1));
+        FlowRuleOperations ops = applied.get(0);
+        List<Set<FlowRuleOperation>> stages = ops.stages();
+        assertThat(stages, hasSize(2));
+        assertThat(stages.get(0), hasSize(2));
+        stages.get(0).forEach(op -> assertThat(op.type(), is(FlowRuleOperation.Type.ADD)));
+        assertThat(stages.get(1), hasSize(1));
+        stages.get(1).forEach(op -> assertThat(op.type(), is(FlowRuleOperation.Type.REMOVE)));
+
+        // the malformed objective fails on its own
+        assertThat(results.get(bad), is(ObjectiveError.BADPARAMS));
+        assertThat(results.size(), is(1));
+
+        ops.callback().onSuccess(ops);
+        assertThat(results.get(add1), is("success"));
+        assertThat(results.get(add2), is("success"));
+        assertThat(results.get(remove), is("success"));
+    }
+
+    /**
+     * Tests that all objectives of a batch fail when its operation fails.
+     */
+    @Test
+    public void batchFailed() {
+        ForwardingObjective add1 = versatile(1, true).add(context);
+        ForwardingObjective add2 = versatile(2, true).add(context);
+
+        pipeline.forward(ImmutableList.of(add1, add2));
+        FlowRuleOperations ops = applied.get(0);
+        ops.callback().onError(ops);
+
+        assertThat(results.get(add1), is(ObjectiveError.FLOWINSTALLATIONFAILED));
+        assertThat(results.get(add2), is(ObjectiveError.FLOWINSTALLATIONFAILED));
+    }
+
+    /**
+     * Tests that nothing is applied when no objective of a batch yields
+     * flow rules.
+     */
+    @Test
+    public void nothingToApply() {
+        pipeline.forward(ImmutableList.of(versatile(1, false).add(context)));
+        assertThat(applied, hasSize(0));
+    }
+
+    // Builds a versatile objective punting to the controller; without the
+    // ethernet type, the objective is malformed
+    private static DefaultForwardingObjective.Builder versatile(int priority, boolean withEthType) {
+        TrafficSelector.Builder selector = DefaultTrafficSelector.builder();
+        if (withEthType) {
+            selector.matchEthType(Ethernet.TYPE_ARP);
+        }
+        return DefaultForwardingObjective.builder()
+                .fromApp(APP_ID)
+                .withFlag(ForwardingObjective.Flag.VERSATILE)
+                .withPriority(priority)
+                .withSelector(selector.build())
+                .withTreatment(DefaultTrafficTreatment.builder()
+                                       .setOutput(PortNumber.CONTROLLER).build())
+                .makePermanent();
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.incubator.net.routing;
+
+import org.junit.Test;
+import org.onlab.packet.Ip4Prefix;
+import org.onlab.packet.Ip6Prefix;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.onosproject.incubator.net.routing.RouteTools.createBinaryString;
+
+/**
+ * Unit tests for the routing tools.
+ */
+public class RouteToolsTest {
+
+    /**
+     * Tests creating binary strings from IPv4 and IPv6 prefixes.
+     */
+    @Test
+    public void testCreateBinaryString() {
+        assertThat(createBinaryString(Ip4Prefix.valueOf("0.0.0.0/0")), is("0"));
+        assertThat(createBinaryString(Ip4Prefix.valueOf("192.168.166.0/22")),
+                   is("0" + "1100000010101000101001"));
+        assertThat(createBinaryString(Ip4Prefix.valueOf("130.162.10.1/25")),
+                   is("0" + "1000001010100010000010100"));
+
+        assertThat(createBinaryString(Ip6Prefix.valueOf("::/0")), is("0"));
+        assertThat(createBinaryString(Ip6Prefix.valueOf("2000::/8")),
+                   is("0" + "00100000"));
+    }
+}
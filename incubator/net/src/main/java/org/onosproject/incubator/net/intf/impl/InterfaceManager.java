@@ -16,9 +16,13 @@
 
 package org.onosproject.incubator.net.intf.impl;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import com.googlecode.concurrenttrees.radix.node.concrete.DefaultByteArrayNodeFactory;
+import com.googlecode.concurrenttrees.radixinverted.ConcurrentInvertedRadixTree;
+import com.googlecode.concurrenttrees.radixinverted.InvertedRadixTree;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
@@ -26,6 +30,7 @@ import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
 import org.onlab.packet.IpAddress;
+import org.onlab.packet.IpPrefix;
 import org.onlab.packet.VlanId;
 import org.onosproject.event.ListenerRegistry;
 import org.onosproject.incubator.net.config.basics.ConfigException;
@@ -39,16 +44,20 @@ import org.onosproject.net.ConnectPoint;
 import org.onosproject.net.config.NetworkConfigEvent;
 import org.onosproject.net.config.NetworkConfigListener;
 import org.onosproject.net.config.NetworkConfigService;
+import org.onosproject.net.host.InterfaceIpAddress;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
 import static java.util.stream.Collectors.collectingAndThen;
 import static java.util.stream.Collectors.toSet;
+import static org.onosproject.incubator.net.routing.RouteTools.createBinaryString;
 
 /**
  * Manages the inventory of interfaces in the system.
@@ -70,6 +79,18 @@ public class InterfaceManager extends ListenerRegistry<InterfaceEvent, Interface
 
     private final Map<ConnectPoint, Set<Interface>> interfaces = Maps.newConcurrentMap();
 
+    // Indexes derived from the interfaces above. They are updated under the
+    // manager's lock as ports are reconfigured and read without locking;
+    // sets held in the indexes are concurrent sets updated in place.
+    private final Map<ConnectPoint, Map<String, Interface>> interfacesByName =
+            Maps.newConcurrentMap();
+    private final Map<IpAddress, Set<Interface>> interfacesByIp = Maps.newConcurrentMap();
+    private final Map<VlanId, Set<Interface>> interfacesByVlan = Maps.newConcurrentMap();
+    private final InvertedRadixTree<Set<Interface>> subnets4 =
+            new ConcurrentInvertedRadixTree<>(new DefaultByteArrayNodeFactory());
+    private final InvertedRadixTree<Set<Interface>> subnets6 =
+            new ConcurrentInvertedRadixTree<>(new DefaultByteArrayNodeFactory());
+
     @Activate
     public void activate() {
         configService.addListener(listener);
@@ -103,13 +124,8 @@ public class InterfaceManager extends ListenerRegistry<InterfaceEvent, Interface
 
     @Override
     public Interface getInterfaceByName(ConnectPoint connectPoint, String name) {
-        Optional<Interface> intf =
-                interfaces.getOrDefault(connectPoint, Collections.emptySet())
-                .stream()
-                .filter(i -> i.name().equals(name))
-                .findAny();
-
-        return intf.orElse(null);
+        return interfacesByName.getOrDefault(connectPoint, Collections.emptyMap())
+                .get(name);
     }
 
     @Override
@@ -123,35 +139,27 @@ public class InterfaceManager extends ListenerRegistry<InterfaceEvent, Interface
 
     @Override
     public Set<Interface> getInterfacesByIp(IpAddress ip) {
-        return interfaces.values()
-                .stream()
-                .flatMap(set -> set.stream())
-                .filter(intf -> intf.ipAddresses()
-                        .stream()
-                        .anyMatch(ia -> ia.ipAddress().equals(ip)))
-                .collect(collectingAndThen(toSet(), ImmutableSet::copyOf));
+        return ImmutableSet.copyOf(interfacesByIp.getOrDefault(ip, ImmutableSet.of()));
     }
 
     @Override
     public Interface getMatchingInterface(IpAddress ip) {
-        Optional<Interface> match = interfaces.values()
-                .stream()
-                .flatMap(set -> set.stream())
-                .filter(intf -> intf.ipAddresses()
-                        .stream()
-                        .anyMatch(intfIp -> intfIp.subnetAddress().contains(ip)))
-                .findFirst();
-
-        return match.orElse(null);
+        // Interfaces on the most specific subnet containing the address
+        // come last
+        Interface match = null;
+        for (Set<Interface> intfs : subnets(ip.isIp4())
+                .getValuesForKeysPrefixing(createBinaryString(ip.toIpPrefix()))) {
+            Iterator<Interface> it = intfs.iterator();
+            if (it.hasNext()) {
+                match = it.next();
+            }
+        }
+        return match;
     }
 
     @Override
     public Set<Interface> getInterfacesByVlan(VlanId vlan) {
-        return interfaces.values()
-                .stream()
-                .flatMap(set -> set.stream())
-                .filter(intf -> intf.vlan().equals(vlan))
-                .collect(collectingAndThen(toSet(), ImmutableSet::copyOf));
+        return ImmutableSet.copyOf(interfacesByVlan.getOrDefault(vlan, ImmutableSet.of()));
     }
 
     private void updateInterfaces(InterfaceConfig intfConfig) {
@@ -162,6 +170,7 @@ public class InterfaceManager extends ListenerRegistry<InterfaceEvent, Interface
             if (old == null) {
                 old = Collections.emptySet();
             }
+            reindex(intfConfig.subject(), old, intfConfig.getInterfaces());
 
             for (Interface intf : intfConfig.getInterfaces()) {
                 if (intf.name().equals(Interface.NO_INTERFACE_NAME)) {
@@ -195,12 +204,86 @@ public class InterfaceManager extends ListenerRegistry<InterfaceEvent, Interface
 
     private void removeInterfaces(ConnectPoint port) {
         Set<Interface> old = interfaces.remove(port);
+        if (old == null) {
+            return;
+        }
+        reindex(port, old, Collections.emptySet());
 
         old.stream()
                 .filter(i -> !i.name().equals(Interface.NO_INTERFACE_NAME))
                 .forEach(i -> process(new InterfaceEvent(InterfaceEvent.Type.INTERFACE_REMOVED, i)));
     }
 
+    /**
+     * Brings the lookup indexes up to date with a change of the interfaces
+     * configured on the given port. Only the entries of interfaces which
+     * were added or removed are touched.
+     *
+     * @param port     port whose interfaces changed
+     * @param oldIntfs interfaces previously configured on the port
+     * @param newIntfs interfaces now configured on the port
+     */
+    private synchronized void reindex(ConnectPoint port, Collection<Interface> oldIntfs,
+                                      Collection<Interface> newIntfs) {
+        Set<Interface> removed = Sets.difference(Sets.newHashSet(oldIntfs),
+                                                 Sets.newHashSet(newIntfs));
+        Set<Interface> added = Sets.difference(Sets.newHashSet(newIntfs),
+                                               Sets.newHashSet(oldIntfs));
+
+        // Add first so that lookups racing with an update do not miss an
+        // interface which remains configured
+        added.forEach(intf -> index(intf, true));
+        removed.forEach(intf -> index(intf, false));
+
+        if (newIntfs.isEmpty()) {
+            interfacesByName.remove(port);
+        } else {
+            Map<String, Interface> byName = Maps.newHashMap();
+            newIntfs.forEach(intf -> byName.putIfAbsent(intf.name(), intf));
+            interfacesByName.put(port, ImmutableMap.copyOf(byName));
+        }
+    }
+
+    private void index(Interface intf, boolean add) {
+        update(interfacesByVlan, intf.vlan(), intf, add);
+        for (InterfaceIpAddress ia : intf.ipAddresses()) {
+            update(interfacesByIp, ia.ipAddress(), intf, add);
+
+            IpPrefix subnet = ia.subnetAddress();
+            InvertedRadixTree<Set<Interface>> tree = subnets(subnet.isIp4());
+            String key = createBinaryString(subnet);
+            Set<Interface> intfs = tree.getValueForExactKey(key);
+            if (add) {
+                if (intfs == null) {
+                    intfs = Sets.newConcurrentHashSet();
+                    tree.put(key, intfs);
+                }
+                intfs.add(intf);
+            } else if (intfs != null) {
+                intfs.remove(intf);
+                if (intfs.isEmpty()) {
+                    tree.remove(key);
+                }
+            }
+        }
+    }
+
+    private static <K> void update(Map<K, Set<Interface>> index, K key,
+                                   Interface intf, boolean add) {
+        if (add) {
+            index.computeIfAbsent(key, k -> Sets.newConcurrentHashSet()).add(intf);
+        } else {
+            index.computeIfPresent(key, (k, intfs) -> {
+                intfs.remove(intf);
+                return intfs.isEmpty() ? null : intfs;
+            });
+        }
+    }
+
+    private InvertedRadixTree<Set<Interface>> subnets(boolean ip4) {
+        return ip4 ? subnets4 : subnets6;
+    }
+
     @Override
     public void add(Interface intf) {
         InterfaceConfig config =
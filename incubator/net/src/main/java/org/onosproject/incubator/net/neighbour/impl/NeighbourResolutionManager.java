@@ -18,6 +18,7 @@ package org.onosproject.incubator.net.neighbour.impl;
 
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimaps;
 import com.google.common.collect.SetMultimap;
 import org.apache.felix.scr.annotations.Activate;
@@ -58,6 +59,7 @@ import org.onosproject.net.flow.TrafficTreatment;
 import org.onosproject.net.host.HostService;
 import org.onosproject.net.packet.DefaultOutboundPacket;
 import org.onosproject.net.packet.InboundPacket;
+import org.onosproject.net.packet.OutboundPacket;
 import org.onosproject.net.packet.PacketContext;
 import org.onosproject.net.packet.PacketProcessor;
 import org.onosproject.net.packet.PacketService;
@@ -69,6 +71,7 @@ import java.nio.ByteBuffer;
 import java.util.Collection;
 import java.util.Dictionary;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
@@ -125,7 +128,10 @@ public class NeighbourResolutionManager implements NeighbourResolutionService {
         componentConfigService.registerProperties(getClass());
         modified(context);
 
-        packetService.addProcessor(processor, PacketProcessor.director(1));
+        packetService.addProcessor(processor, PacketProcessor.director(1),
+                                   ImmutableSet.of(buildArpSelector(),
+                                                   buildNeighborSolicitationSelector(),
+                                                   buildNeighborAdvertisementSelector()));
     }
 
     @Deactivate
@@ -563,11 +569,15 @@ public class NeighbourResolutionManager implements NeighbourResolutionService {
 
         @Override
         public void flood(NeighbourMessageContext context) {
-            edgeService.getEdgePoints().forEach(connectPoint -> {
-                if (!connectPoint.equals(context.inPort())) {
-                    sendTo(context.packet(), connectPoint);
-                }
-            });
+            // Serialize once and emit all copies together, batched per device.
+            ByteBuffer packet = ByteBuffer.wrap(context.packet().serialize());
+            List<OutboundPacket> packets = Tools.stream(edgeService.getEdgePoints())
+                    .filter(connectPoint -> !connectPoint.equals(context.inPort()))
+                    .map(connectPoint -> new DefaultOutboundPacket(connectPoint.deviceId(),
+                            DefaultTrafficTreatment.builder().setOutput(connectPoint.port()).build(),
+                            packet))
+                    .collect(Collectors.toList());
+            packetService.emit(packets);
         }
 
         @Override
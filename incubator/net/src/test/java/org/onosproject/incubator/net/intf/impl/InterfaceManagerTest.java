@@ -42,6 +42,7 @@ import java.util.Set;
 
 import static junit.framework.TestCase.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Unit tests for InterfaceManager.
@@ -231,6 +232,85 @@ public class InterfaceManagerTest {
         assertEquals(NUM_INTERFACES - 1, interfaceManager.getInterfaces().size());
     }
 
+    @Test
+    public void testGetMatchingInterfaceLongestPrefix() throws Exception {
+        ConnectPoint cp = ConnectPoint.deviceConnectPoint("of:0000000000000001/2");
+        Interface wide = new Interface("wide", cp,
+                Collections.singletonList(InterfaceIpAddress.valueOf("192.168.0.1/16")),
+                MacAddress.valueOf(200), VlanId.NONE);
+
+        configs.put(cp, new TestInterfaceConfig(cp, Collections.singleton(wide)));
+        listener.event(new NetworkConfigEvent(
+                NetworkConfigEvent.Type.CONFIG_ADDED, cp, CONFIG_CLASS));
+
+        // The /24 subnet of interface 1 is more specific than the /16
+        assertEquals(createInterface(1),
+                     interfaceManager.getMatchingInterface(Ip4Address.valueOf("192.168.1.100")));
+        assertEquals(wide,
+                     interfaceManager.getMatchingInterface(Ip4Address.valueOf("192.168.200.1")));
+        assertEquals(wide, interfaceManager.getInterfaceByName(cp, "wide"));
+
+        // Removing the more specific subnet falls back to the wider one
+        listener.event(new NetworkConfigEvent(
+                NetworkConfigEvent.Type.CONFIG_REMOVED, createConnectPoint(1), CONFIG_CLASS));
+        assertEquals(wide,
+                     interfaceManager.getMatchingInterface(Ip4Address.valueOf("192.168.1.100")));
+        assertEquals(Collections.emptySet(),
+                     interfaceManager.getInterfacesByIp(Ip4Address.valueOf("192.168.1.1")));
+        assertEquals(Collections.emptySet(),
+                     interfaceManager.getInterfacesByVlan(VlanId.vlanId((short) 1)));
+    }
+
+    @Test
+    public void testLookupsWithManyInterfaces() throws Exception {
+        final int numInterfaces = 10000;
+        for (int i = 0; i < numInterfaces; i++) {
+            ConnectPoint cp = ConnectPoint.deviceConnectPoint("of:00000000000001" +
+                    String.format("%02x", i / 256) + "/" + (i % 256 + 1));
+            InterfaceIpAddress ia = InterfaceIpAddress.valueOf(
+                    "10." + (i / 256) + "." + (i % 256) + ".1/24");
+            Interface intf = new Interface("intf" + i, cp,
+                    Collections.singletonList(ia),
+                    MacAddress.valueOf(i),
+                    VlanId.vlanId((short) (i % 4000 + 1)));
+            configs.put(cp, new TestInterfaceConfig(cp, Collections.singleton(intf)));
+            listener.event(new NetworkConfigEvent(
+                    NetworkConfigEvent.Type.CONFIG_ADDED, cp, CONFIG_CLASS));
+        }
+
+        assertEquals(NUM_INTERFACES + numInterfaces,
+                     interfaceManager.getInterfaces().size());
+
+        for (int i = 0; i < numInterfaces; i++) {
+            String subnet = "10." + (i / 256) + "." + (i % 256) + ".";
+            Interface intf = interfaceManager.getMatchingInterface(
+                    Ip4Address.valueOf(subnet + "100"));
+            assertEquals("intf" + i, intf.name());
+            assertEquals(intf, interfaceManager.getInterfaceByName(
+                    intf.connectPoint(), intf.name()));
+            assertEquals(Collections.singleton(intf),
+                         interfaceManager.getInterfacesByIp(Ip4Address.valueOf(subnet + "1")));
+        }
+        // VLAN 1 holds three of the new interfaces and one of the initial ones
+        assertEquals(4, interfaceManager.getInterfacesByVlan(VlanId.vlanId((short) 1)).size());
+        assertNull(interfaceManager.getMatchingInterface(Ip4Address.valueOf("11.0.0.1")));
+
+        // Removed interfaces disappear from the indexes
+        ConnectPoint cp = ConnectPoint.deviceConnectPoint("of:0000000000000100/1");
+        configs.remove(cp);
+        listener.event(new NetworkConfigEvent(
+                NetworkConfigEvent.Type.CONFIG_REMOVED, cp, CONFIG_CLASS));
+        assertNull(interfaceManager.getMatchingInterface(Ip4Address.valueOf("10.0.0.100")));
+        assertNull(interfaceManager.getInterfaceByName(cp, "intf0"));
+        assertEquals(Collections.emptySet(),
+                     interfaceManager.getInterfacesByIp(Ip4Address.valueOf("10.0.0.1")));
+        Set<Interface> vlan1 = interfaceManager.getInterfacesByVlan(VlanId.vlanId((short) 1));
+        assertEquals(3, vlan1.size());
+        assertTrue(vlan1.stream().noneMatch(intf -> intf.name().equals("intf0")));
+        assertEquals(NUM_INTERFACES + numInterfaces - 1,
+                     interfaceManager.getInterfaces().size());
+    }
+
     /**
      * Test version of NetworkConfigService which allows us to pass in subjects
      * and InterfaceConfigs directly.
@@ -49,6 +49,8 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
+import static org.onosproject.incubator.net.routing.RouteTools.createBinaryString;
+
 /**
  * Route store based on in-memory storage.
  */
@@ -162,22 +164,6 @@ public class LocalRouteStore extends AbstractStore<RouteEvent, RouteStoreDelegat
         return routeTables.get(routeTableId);
     }
 
-    private static String createBinaryString(IpPrefix ipPrefix) {
-        byte[] octets = ipPrefix.address().toOctets();
-        StringBuilder result = new StringBuilder(ipPrefix.prefixLength());
-        result.append("0");
-        for (int i = 0; i < ipPrefix.prefixLength(); i++) {
-            int byteOffset = i / Byte.SIZE;
-            int bitOffset = i % Byte.SIZE;
-            int mask = 1 << (Byte.SIZE - 1 - bitOffset);
-            byte value = octets[byteOffset];
-            boolean isSet = ((value & mask) != 0);
-            result.append(isSet ? "1" : "0");
-        }
-
-        return result.toString();
-    }
-
     /**
      * Route table into which routes can be placed.
      */
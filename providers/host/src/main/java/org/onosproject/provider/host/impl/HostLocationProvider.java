@@ -15,6 +15,11 @@
  */
 package org.onosproject.provider.host.impl;
 
+import com.codahale.metrics.Gauge;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Sets;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
@@ -22,6 +27,10 @@ import org.apache.felix.scr.annotations.Modified;
 import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
+import org.apache.felix.scr.annotations.ReferencePolicy;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.onlab.packet.ARP;
 import org.onlab.packet.Ethernet;
 import org.onlab.packet.ICMP6;
@@ -53,6 +62,8 @@ import org.onosproject.net.flow.TrafficSelector;
 import org.onosproject.net.flow.TrafficTreatment;
 import org.onosproject.net.host.DefaultHostDescription;
 import org.onosproject.net.host.HostDescription;
+import org.onosproject.net.host.HostEvent;
+import org.onosproject.net.host.HostListener;
 import org.onosproject.net.host.HostProvider;
 import org.onosproject.net.host.HostProviderRegistry;
 import org.onosproject.net.host.HostProviderService;
@@ -72,8 +83,14 @@ import org.slf4j.Logger;
 
 import java.nio.ByteBuffer;
 import java.util.Dictionary;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
 import static org.onlab.util.Tools.groupedThreads;
@@ -109,10 +126,15 @@ public class HostLocationProvider extends AbstractProvider implements HostProvid
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected ComponentConfigService cfgService;
 
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL_UNARY,
+               policy = ReferencePolicy.DYNAMIC)
+    protected MetricsService metricsService;
+
     private HostProviderService providerService;
 
     private final InternalHostProvider processor = new InternalHostProvider();
     private final DeviceListener deviceListener = new InternalDeviceListener();
+    private final HostListener hostListener = new InternalHostListener();
 
     private ApplicationId appId;
 
@@ -129,8 +151,40 @@ public class HostLocationProvider extends AbstractProvider implements HostProvid
             label = "Enable requesting packet intercepts")
     private boolean requestInterceptsEnabled = true;
 
+    private static final int DEFAULT_SUPPRESSION_WINDOW = 1000;
+    @Property(name = "hostUpdateSuppressionWindow", intValue = DEFAULT_SUPPRESSION_WINDOW,
+            label = "Window in milliseconds during which host updates carrying " +
+                    "no new location or IP address are suppressed; 0 disables suppression")
+    private int hostUpdateSuppressionWindow = DEFAULT_SUPPRESSION_WINDOW;
+
+    private static final int DEFAULT_BATCH_INTERVAL = 0;
+    @Property(name = "hostUpdateBatchInterval", intValue = DEFAULT_BATCH_INTERVAL,
+            label = "Interval in milliseconds over which host updates are coalesced " +
+                    "before being applied; 0 applies them immediately")
+    private int hostUpdateBatchInterval = DEFAULT_BATCH_INTERVAL;
+
     protected ExecutorService eventHandler;
 
+    private ScheduledExecutorService updateHandler;
+    private ScheduledFuture<?> flushTask;
+
+    // Most recent update applied for each host; null if suppression is disabled
+    private volatile Cache<HostId, HostDescription> recentUpdates;
+
+    // Coalesced updates awaiting the next batch; guarded by itself
+    private final Map<HostId, HostDescription> pendingUpdates = new LinkedHashMap<>();
+
+    private final AtomicLong suppressedUpdates = new AtomicLong();
+    private final AtomicLong appliedUpdates = new AtomicLong();
+
+    private static final String METRICS_COMPONENT = "HostLocationProvider";
+    private static final String METRICS_FEATURE = "HostUpdates";
+    private static final String APPLIED = "applied";
+    private static final String SUPPRESSED = "suppressed";
+    private static final String PENDING = "pending";
+    private MetricsComponent metricsComponent;
+    private MetricsFeature metricsFeature;
+
     private static final byte[] SENDER_ADDRESS = IpAddress.valueOf("0.0.0.0").toOctets();
 
     /**
@@ -146,9 +200,12 @@ public class HostLocationProvider extends AbstractProvider implements HostProvid
         appId = coreService.registerApplication("org.onosproject.provider.host");
         eventHandler = newSingleThreadScheduledExecutor(
                 groupedThreads("onos/host-loc-provider", "event-handler", log));
+        updateHandler = newSingleThreadScheduledExecutor(
+                groupedThreads("onos/host-loc-provider", "update-handler", log));
         providerService = providerRegistry.register(this);
         packetService.addProcessor(processor, PacketProcessor.advisor(1));
         deviceService.addListener(deviceListener);
+        hostService.addListener(hostListener);
 
         modified(context);
 
@@ -161,12 +218,16 @@ public class HostLocationProvider extends AbstractProvider implements HostProvid
 
         withdrawIntercepts();
 
-        providerRegistry.unregister(this);
         packetService.removeProcessor(processor);
+        flushUpdates();
+        providerRegistry.unregister(this);
         deviceService.removeListener(deviceListener);
+        hostService.removeListener(hostListener);
         eventHandler.shutdown();
+        updateHandler.shutdown();
         providerService = null;
-        log.info("Stopped");
+        log.info("Stopped; {} host updates applied, {} suppressed",
+                 appliedUpdates.get(), suppressedUpdates.get());
     }
 
     @Modified
@@ -178,6 +239,71 @@ public class HostLocationProvider extends AbstractProvider implements HostProvid
         } else {
             withdrawIntercepts();
         }
+
+        setupUpdateHandling();
+    }
+
+    protected void bindMetricsService(MetricsService service) {
+        if (metricsService == null) {
+            metricsService = service;
+            registerMetrics(service);
+        }
+    }
+
+    protected void unbindMetricsService(MetricsService service) {
+        if (metricsService == service) {
+            removeMetrics(service);
+            metricsService = null;
+        }
+    }
+
+    /**
+     * Publishes the counts of applied, suppressed and pending host updates.
+     *
+     * @param metrics metrics service
+     */
+    private void registerMetrics(MetricsService metrics) {
+        metricsComponent = metrics.registerComponent(METRICS_COMPONENT);
+        metricsFeature = metricsComponent.registerFeature(METRICS_FEATURE);
+        metrics.registerMetric(metricsComponent, metricsFeature, APPLIED,
+                               (Gauge<Long>) appliedUpdates::get);
+        metrics.registerMetric(metricsComponent, metricsFeature, SUPPRESSED,
+                               (Gauge<Long>) suppressedUpdates::get);
+        metrics.registerMetric(metricsComponent, metricsFeature, PENDING,
+                               (Gauge<Integer>) this::pendingUpdateCount);
+    }
+
+    private void removeMetrics(MetricsService metrics) {
+        if (metricsComponent == null) {
+            return;
+        }
+        metrics.removeMetric(metricsComponent, metricsFeature, APPLIED);
+        metrics.removeMetric(metricsComponent, metricsFeature, SUPPRESSED);
+        metrics.removeMetric(metricsComponent, metricsFeature, PENDING);
+        metricsComponent = null;
+    }
+
+    /**
+     * Sets up suppression and batching of host updates as configured.
+     */
+    private synchronized void setupUpdateHandling() {
+        recentUpdates = hostUpdateSuppressionWindow <= 0 ? null :
+                CacheBuilder.newBuilder()
+                        .expireAfterWrite(hostUpdateSuppressionWindow, TimeUnit.MILLISECONDS)
+                        .<HostId, HostDescription>build();
+
+        if (flushTask != null) {
+            flushTask.cancel(false);
+            flushTask = null;
+        }
+        if (hostUpdateBatchInterval > 0) {
+            flushTask = updateHandler.scheduleWithFixedDelay(this::flushUpdates,
+                                                             hostUpdateBatchInterval,
+                                                             hostUpdateBatchInterval,
+                                                             TimeUnit.MILLISECONDS);
+        } else {
+            flushUpdates();
+        }
     }
 
     /**
@@ -264,6 +390,91 @@ public class HostLocationProvider extends AbstractProvider implements HostProvid
             log.info("Configured. Request intercepts is {}",
                     requestInterceptsEnabled ? "enabled" : "disabled");
         }
+
+        Integer value = Tools.getIntegerProperty(properties, "hostUpdateSuppressionWindow");
+        if (value == null) {
+            log.info("Host update suppression window is not configured, " +
+                             "using current value of {} ms", hostUpdateSuppressionWindow);
+        } else {
+            hostUpdateSuppressionWindow = value;
+            log.info("Configured. Host update suppression window is {} ms",
+                     hostUpdateSuppressionWindow);
+        }
+
+        value = Tools.getIntegerProperty(properties, "hostUpdateBatchInterval");
+        if (value == null) {
+            log.info("Host update batch interval is not configured, " +
+                             "using current value of {} ms", hostUpdateBatchInterval);
+        } else {
+            hostUpdateBatchInterval = value;
+            log.info("Configured. Host update batch interval is {} ms",
+                     hostUpdateBatchInterval);
+        }
+    }
+
+    /**
+     * Returns the number of host updates which were applied.
+     *
+     * @return count of applied host updates
+     */
+    long appliedUpdateCount() {
+        return appliedUpdates.get();
+    }
+
+    /**
+     * Returns the number of host updates which were suppressed because
+     * they carried nothing new.
+     *
+     * @return count of suppressed host updates
+     */
+    long suppressedUpdateCount() {
+        return suppressedUpdates.get();
+    }
+
+    /**
+     * Returns the number of coalesced host updates awaiting the next batch.
+     *
+     * @return count of pending host updates
+     */
+    int pendingUpdateCount() {
+        synchronized (pendingUpdates) {
+            return pendingUpdates.size();
+        }
+    }
+
+    /**
+     * Forgets the recent update of a host if the host has since been given
+     * another location or lost some of its IP addresses elsewhere, so that
+     * an update restoring them is not suppressed.
+     *
+     * @param host host as now known by the host service
+     */
+    private void forgetStaleUpdate(Host host) {
+        Cache<HostId, HostDescription> recent = recentUpdates;
+        if (recent == null) {
+            return;
+        }
+        HostDescription last = recent.getIfPresent(host.id());
+        if (last != null && (!last.location().equals(host.location()) ||
+                !host.ipAddresses().containsAll(last.ipAddress()))) {
+            recent.invalidate(host.id());
+        }
+    }
+
+    /**
+     * Forgets the pending and recent updates of a host, so that a batched
+     * update does not bring it back and later updates are not suppressed.
+     *
+     * @param hid host ID
+     */
+    private void forgetHost(HostId hid) {
+        synchronized (pendingUpdates) {
+            pendingUpdates.remove(hid);
+        }
+        Cache<HostId, HostDescription> recent = recentUpdates;
+        if (recent != null) {
+            recent.invalidate(hid);
+        }
     }
 
     @Override
@@ -330,6 +541,68 @@ public class HostLocationProvider extends AbstractProvider implements HostProvid
         return ethernet;
     }
 
+    /**
+     * Submits a host update; updates which carry no new location or IP
+     * address for a recently updated host are dropped, while the rest are
+     * either applied right away or coalesced into the next batch.
+     *
+     * @param hid  host ID
+     * @param desc host description
+     */
+    private void submitUpdate(HostId hid, HostDescription desc) {
+        Cache<HostId, HostDescription> recent = recentUpdates;
+        if (recent != null) {
+            HostDescription last = recent.getIfPresent(hid);
+            boolean sameLocation = last != null && last.location().equals(desc.location());
+            if (sameLocation && last.ipAddress().containsAll(desc.ipAddress())) {
+                suppressedUpdates.incrementAndGet();
+                return;
+            }
+            recent.put(hid, sameLocation ? merge(last, desc) : desc);
+        }
+
+        if (hostUpdateBatchInterval <= 0) {
+            applyUpdate(hid, desc);
+        } else {
+            synchronized (pendingUpdates) {
+                pendingUpdates.merge(hid, desc, HostLocationProvider::merge);
+            }
+        }
+    }
+
+    // Applies all coalesced host updates.
+    private void flushUpdates() {
+        Map<HostId, HostDescription> batch;
+        synchronized (pendingUpdates) {
+            if (pendingUpdates.isEmpty()) {
+                return;
+            }
+            batch = ImmutableMap.copyOf(pendingUpdates);
+            pendingUpdates.clear();
+        }
+        batch.forEach(this::applyUpdate);
+    }
+
+    private void applyUpdate(HostId hid, HostDescription desc) {
+        HostProviderService service = providerService;
+        if (service == null) {
+            return;
+        }
+        try {
+            service.hostDetected(hid, desc, false);
+            appliedUpdates.incrementAndGet();
+        } catch (IllegalStateException e) {
+            log.debug("Host {} suppressed", hid);
+        }
+    }
+
+    // Merges a later description of a host into an earlier one, keeping
+    // the latest location and all IP addresses learned in the meantime.
+    private static HostDescription merge(HostDescription earlier, HostDescription later) {
+        return new DefaultHostDescription(later.hwAddress(), later.vlan(), later.location(),
+                                          Sets.union(earlier.ipAddress(), later.ipAddress()));
+    }
+
     private class InternalHostProvider implements PacketProcessor {
         /**
          * Update host location only.
@@ -341,12 +614,7 @@ public class HostLocationProvider extends AbstractProvider implements HostProvid
          */
         private void updateLocation(HostId hid, MacAddress mac,
                                     VlanId vlan, HostLocation hloc) {
-            HostDescription desc = new DefaultHostDescription(mac, vlan, hloc);
-            try {
-                providerService.hostDetected(hid, desc, false);
-            } catch (IllegalStateException e) {
-                log.debug("Host {} suppressed", hid);
-            }
+            submitUpdate(hid, new DefaultHostDescription(mac, vlan, hloc));
         }
 
         /**
@@ -364,11 +632,7 @@ public class HostLocationProvider extends AbstractProvider implements HostProvid
             HostDescription desc = ip.isZero() || ip.isSelfAssigned() ?
                     new DefaultHostDescription(mac, vlan, hloc) :
                     new DefaultHostDescription(mac, vlan, hloc, ip);
-            try {
-                providerService.hostDetected(hid, desc, false);
-            } catch (IllegalStateException e) {
-                log.debug("Host {} suppressed", hid);
-            }
+            submitUpdate(hid, desc);
         }
 
         @Override
@@ -509,9 +773,29 @@ public class HostLocationProvider extends AbstractProvider implements HostProvid
         }
     }
 
+    // Auxiliary listener to host events, covering hosts moved, updated or
+    // removed elsewhere.
+    private class InternalHostListener implements HostListener {
+        @Override
+        public void event(HostEvent event) {
+            switch (event.type()) {
+                case HOST_MOVED:
+                case HOST_UPDATED:
+                    forgetStaleUpdate(event.subject());
+                    break;
+                case HOST_REMOVED:
+                    forgetHost(event.subject().id());
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
     // Signals host vanish for all specified hosts.
     private void removeHosts(Set<Host> hosts) {
         for (Host host : hosts) {
+            forgetHost(host.id());
             if (host.providerId().equals(HostLocationProvider.this.id())) {
                 providerService.hostVanished(host.id());
             }
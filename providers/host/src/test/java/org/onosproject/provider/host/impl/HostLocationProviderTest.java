@@ -15,12 +15,15 @@
  */
 package org.onosproject.provider.host.impl;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricFilter;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.MoreExecutors;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.onlab.metrics.MetricsManager;
 import org.onlab.osgi.ComponentContextAdapter;
 import org.onlab.packet.ARP;
 import org.onlab.packet.ChassisId;
@@ -54,6 +57,8 @@ import org.onosproject.net.device.DeviceListener;
 import org.onosproject.net.device.DeviceServiceAdapter;
 import org.onosproject.net.flow.TrafficTreatment;
 import org.onosproject.net.host.HostDescription;
+import org.onosproject.net.host.HostEvent;
+import org.onosproject.net.host.HostListener;
 import org.onosproject.net.host.HostProvider;
 import org.onosproject.net.host.HostProviderRegistry;
 import org.onosproject.net.host.HostProviderService;
@@ -73,6 +78,7 @@ import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.Dictionary;
 import java.util.Hashtable;
+import java.util.Map;
 import java.util.Set;
 
 import static org.easymock.EasyMock.*;
@@ -295,6 +301,129 @@ public class HostLocationProviderTest {
         assertThat(descr.vlan(), is(VLAN));
     }
 
+    /**
+     * When receiving repeated packets with nothing new, suppresses updates.
+     */
+    @Test
+    public void testSuppressRepeatedUpdates() {
+        testProcessor.process(new TestArpPacketContext(DEV1));
+        testProcessor.process(new TestArpPacketContext(DEV1));
+        testProcessor.process(new TestIpv4PacketContext(DEV1));
+        assertNotNull("new host expected", providerService.added);
+        assertNull("host update unexpected", providerService.moved);
+        assertThat(provider.appliedUpdateCount(), is(1L));
+        assertThat(provider.suppressedUpdateCount(), is(2L));
+    }
+
+    /**
+     * When batching is enabled, coalesces updates of the same host.
+     */
+    @Test
+    public void testCoalesceUpdates() {
+        provider.modified(batchContext(60000));
+        testProcessor.process(new TestIpv4PacketContext(DEV1));
+        testProcessor.process(new TestArpPacketContext(DEV1));
+        assertNull("host update not expected yet", providerService.added);
+
+        provider.modified(batchContext(0));
+        HostDescription descr = providerService.added;
+        assertNotNull("coalesced host update expected", descr);
+        assertNull("single host update expected", providerService.moved);
+        assertThat(descr.location(), is(LOCATION));
+        assertThat(descr.ipAddress(), is(ImmutableSet.of(IP_ADDRESS)));
+        assertThat(provider.appliedUpdateCount(), is(1L));
+    }
+
+    /**
+     * A batched update does not bring back a host removed in the meantime.
+     */
+    @Test
+    public void testRemovalDropsPendingUpdate() {
+        provider.modified(CTX_FOR_REMOVE);
+        provider.modified(batchContext(60000));
+        testProcessor.process(new TestArpPacketContext(DEV1));
+        assertThat(provider.pendingUpdateCount(), is(1));
+
+        Device device = new DefaultDevice(ProviderId.NONE, deviceId(DEV1), SWITCH,
+                                          "m", "h", "s", "n", new ChassisId(0L));
+        deviceService.listener.event(new DeviceEvent(DEVICE_REMOVED, device));
+        assertThat(provider.pendingUpdateCount(), is(0));
+
+        provider.modified(batchContext(0));
+        assertNull("host update not expected", providerService.added);
+    }
+
+    /**
+     * A host removed elsewhere is no longer suppressed when heard again.
+     */
+    @Test
+    public void testHostRemovedClearsSuppression() {
+        testProcessor.process(new TestArpPacketContext(DEV1));
+        providerService.clear();
+
+        hostService.listener.event(new HostEvent(HostEvent.Type.HOST_REMOVED, HOST));
+        testProcessor.process(new TestArpPacketContext(DEV1));
+        assertNotNull("host update expected", providerService.added);
+        assertThat(provider.appliedUpdateCount(), is(2L));
+        assertThat(provider.suppressedUpdateCount(), is(0L));
+    }
+
+    /**
+     * A host moved elsewhere is no longer suppressed when heard again at its
+     * previous location, while updates of the same host state keep it so.
+     */
+    @Test
+    public void testHostMovedClearsSuppression() {
+        testProcessor.process(new TestArpPacketContext(DEV1));
+        providerService.clear();
+
+        hostService.listener.event(new HostEvent(HostEvent.Type.HOST_UPDATED, HOST));
+        testProcessor.process(new TestArpPacketContext(DEV1));
+        assertNull("host update unexpected", providerService.added);
+
+        Host moved = new DefaultHost(PROVIDER_ID, hostId(MAC), MAC, vlanId(VlanId.UNTAGGED),
+                                     new HostLocation(deviceId(DEV2), portNumber(INPORT), 0L),
+                                     ImmutableSet.of(IP_ADDRESS));
+        hostService.listener.event(new HostEvent(HostEvent.Type.HOST_MOVED, moved, HOST));
+        testProcessor.process(new TestArpPacketContext(DEV1));
+        assertNotNull("host update expected", providerService.added);
+        assertThat(providerService.added.location(), is(LOCATION));
+        assertThat(provider.appliedUpdateCount(), is(2L));
+        assertThat(provider.suppressedUpdateCount(), is(1L));
+    }
+
+    /**
+     * Publishes the update counters through the metrics service while it
+     * is bound.
+     */
+    @Test
+    public void testUpdateMetrics() {
+        MetricsManager metrics = new MetricsManager();
+        provider.bindMetricsService(metrics);
+
+        testProcessor.process(new TestArpPacketContext(DEV1));
+        testProcessor.process(new TestArpPacketContext(DEV1));
+
+        Map<String, Gauge> gauges = metrics.getGauges(MetricFilter.ALL);
+        assertThat(gauges.get("HostLocationProvider.HostUpdates.applied").getValue(), is(1L));
+        assertThat(gauges.get("HostLocationProvider.HostUpdates.suppressed").getValue(), is(1L));
+        assertThat(gauges.get("HostLocationProvider.HostUpdates.pending").getValue(), is(0));
+
+        provider.unbindMetricsService(metrics);
+        assertTrue("metrics not removed", metrics.getGauges(MetricFilter.ALL).isEmpty());
+    }
+
+    private static ComponentContextAdapter batchContext(int interval) {
+        return new ComponentContextAdapter() {
+            @Override
+            public Dictionary getProperties() {
+                Hashtable<String, String> props = new Hashtable<>();
+                props.put("hostUpdateBatchInterval", Integer.toString(interval));
+                return props;
+            }
+        };
+    }
+
     /**
      * When receiving NeighborAdvertisement, updates location and IP.
      */
@@ -1020,6 +1149,13 @@ public class HostLocationProviderTest {
     }
 
     private class TestHostService extends HostServiceAdapter {
+        HostListener listener;
+
+        @Override
+        public void addListener(HostListener listener) {
+            this.listener = listener;
+        }
+
         @Override
         public Set<Host> getConnectedHosts(ConnectPoint connectPoint) {
             ConnectPoint cp1 = new ConnectPoint(deviceId(DEV1), portNumber(INPORT));
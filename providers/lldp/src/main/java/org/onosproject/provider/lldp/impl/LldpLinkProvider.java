@@ -337,7 +337,9 @@ public class LldpLinkProvider extends AbstractProvider implements ProbedLinkProv
         providerService = providerRegistry.register(this);
         masterService.addListener(roleListener);
         deviceService.addListener(deviceListener);
-        packetService.addProcessor(packetProcessor, PacketProcessor.advisor(0));
+        packetService.addProcessor(packetProcessor, PacketProcessor.advisor(0),
+                                   ImmutableSet.of(ethTypeSelector(TYPE_LLDP),
+                                                   ethTypeSelector(TYPE_BSN)));
 
         loadDevices();
 
@@ -525,6 +527,10 @@ public class LldpLinkProvider extends AbstractProvider implements ProbedLinkProv
         packetService.cancelPackets(selector.build(), PacketPriority.CONTROL, appId);
     }
 
+    private static TrafficSelector ethTypeSelector(short ethType) {
+        return DefaultTrafficSelector.builder().matchEthType(ethType).build();
+    }
+
     protected SuppressionRules rules() {
         return rules;
     }
@@ -38,6 +38,7 @@ import org.onosproject.openflow.controller.OpenFlowController;
 import org.onosproject.openflow.controller.OpenFlowPacketContext;
 import org.onosproject.openflow.controller.OpenFlowSwitch;
 import org.onosproject.openflow.controller.PacketListener;
+import org.projectfloodlight.openflow.protocol.OFMessage;
 import org.projectfloodlight.openflow.protocol.OFPacketOut;
 import org.projectfloodlight.openflow.protocol.OFPortDesc;
 import org.projectfloodlight.openflow.protocol.action.OFAction;
@@ -47,8 +48,13 @@ import org.projectfloodlight.openflow.types.OFPort;
 import org.slf4j.Logger;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
+import static java.util.stream.Collectors.groupingBy;
 import static org.slf4j.LoggerFactory.getLogger;
 
 
@@ -95,18 +101,8 @@ public class OpenFlowPacketProvider extends AbstractProvider implements PacketPr
 
     @Override
     public void emit(OutboundPacket packet) {
-        DeviceId devId = packet.sendThrough();
-        String scheme = devId.toString().split(":")[0];
-
-        if (!scheme.equals(this.id().scheme())) {
-            throw new IllegalArgumentException(
-                    "Don't know how to handle Device with scheme " + scheme);
-        }
-
-        Dpid dpid = Dpid.dpid(devId.uri());
-        OpenFlowSwitch sw = controller.getSwitch(dpid);
+        OpenFlowSwitch sw = getSwitch(packet.sendThrough());
         if (sw == null) {
-            log.warn("Device {} isn't available?", devId);
             return;
         }
 
@@ -123,6 +119,48 @@ public class OpenFlowPacketProvider extends AbstractProvider implements PacketPr
 
     }
 
+    @Override
+    public void emit(Collection<OutboundPacket> packets) {
+        Map<DeviceId, List<OutboundPacket>> batches =
+                packets.stream().collect(groupingBy(OutboundPacket::sendThrough));
+        batches.forEach((devId, batch) -> {
+            OpenFlowSwitch sw = getSwitch(devId);
+            if (sw == null) {
+                return;
+            }
+
+            // Build all packet-outs for the switch and write them at once.
+            List<OFMessage> msgs = new ArrayList<>();
+            for (OutboundPacket packet : batch) {
+                for (Instruction inst : packet.treatment().allInstructions()) {
+                    if (inst.type().equals(Instruction.Type.OUTPUT)) {
+                        OFPortDesc p = portDesc(((OutputInstruction) inst).port());
+                        msgs.add(packetOut(sw, packet.data().array(), p.getPortNo()));
+                    }
+                }
+            }
+            if (!msgs.isEmpty()) {
+                sw.sendMsg(msgs);
+            }
+        });
+    }
+
+    private OpenFlowSwitch getSwitch(DeviceId devId) {
+        String scheme = devId.toString().split(":")[0];
+
+        if (!scheme.equals(this.id().scheme())) {
+            throw new IllegalArgumentException(
+                    "Don't know how to handle Device with scheme " + scheme);
+        }
+
+        Dpid dpid = Dpid.dpid(devId.uri());
+        OpenFlowSwitch sw = controller.getSwitch(dpid);
+        if (sw == null) {
+            log.warn("Device {} isn't available?", devId);
+        }
+        return sw;
+    }
+
     private OFPortDesc portDesc(PortNumber port) {
         OFPortDesc.Builder builder = OFFactoryVer10.INSTANCE.buildPortDesc();
         builder.setPortNo(OFPort.of((int) port.toLong()));
@@ -174,6 +174,17 @@ public class OpenFlowPacketProviderTest {
 
     }
 
+    @Test
+    public void emitBatch() {
+        sw.setRole(RoleState.MASTER);
+        provider.emit(Lists.newArrayList(
+                new DefaultOutboundPacket(DID, TR, ByteBuffer.wrap(ANY)),
+                new DefaultOutboundPacket(DID, TR, ByteBuffer.wrap(ANY)),
+                new DefaultOutboundPacket(DID_MISSING, TR, ByteBuffer.wrap(ANY))));
+        assertEquals("message not sent", 2 * PLIST.size(), sw.sent.size());
+        assertEquals("batch not written at once", 1, sw.writes);
+    }
+
     @Test
     public void handlePacket() {
         OFPacketIn pkt = sw.factory().buildPacketIn()
@@ -344,15 +355,19 @@ public class OpenFlowPacketProviderTest {
 
         RoleState state;
         List<OFMessage> sent = new ArrayList<OFMessage>();
+        int writes = 0;
         OFFactory factory = OFFactoryVer10.INSTANCE;
 
         @Override
         public void sendMsg(OFMessage msg) {
             sent.add(msg);
+            writes++;
         }
 
         @Override
         public void sendMsg(List<OFMessage> msgs) {
+            sent.addAll(msgs);
+            writes++;
         }
 
         @Override
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.graph;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Basis for path search algorithm implementations which operate on the
+ * primitive arrays of a {@link CompactGraph}.
+ * <p>
+ * Graphs which are not compact are converted prior to the search; the most
+ * recently converted immutable graph is remembered so that repeated searches
+ * over the same topology snapshot pay the conversion cost only once.
+ * </p>
+ *
+ * @param <V> vertex type
+ * @param <E> edge type
+ */
+public abstract class AbstractCompactGraphPathSearch<V extends Vertex, E extends Edge<V>>
+        extends AbstractGraphPathSearch<V, E> {
+
+    /**
+     * Sentinel used to denote absence of an edge or a vertex index.
+     */
+    protected static final int NONE = -1;
+
+    private volatile CompactCopy<V, E> lastCopy;
+
+    /**
+     * Returns the compact form of the specified graph.
+     *
+     * @param graph graph to be searched
+     * @return compact graph
+     */
+    protected CompactGraph<V, E> compact(Graph<V, E> graph) {
+        if (graph instanceof CompactGraph) {
+            return (CompactGraph<V, E>) graph;
+        }
+
+        // Only immutable graphs can be safely remembered between searches.
+        if (!(graph instanceof AdjacencyListsGraph)) {
+            return CompactGraph.copyOf(graph);
+        }
+
+        CompactCopy<V, E> copy = lastCopy;
+        if (copy == null || copy.source != graph) {
+            copy = new CompactCopy<>(graph, CompactGraph.copyOf(graph));
+            lastCopy = copy;
+        }
+        return copy.compact;
+    }
+
+    /**
+     * Populates the specified result using the primitive search state and
+     * builds its paths.
+     *
+     * @param result     result to populate
+     * @param graph      compact graph that was searched
+     * @param costs      cost to reach each vertex; {@link Double#MAX_VALUE}
+     *                   if the vertex was not reached
+     * @param parentHead first parent edge of each vertex; {@link #NONE} if none
+     * @param parentNext next parent edge of the same vertex for each edge;
+     *                   {@link #NONE} if none
+     */
+    protected void buildResult(DefaultResult result, CompactGraph<V, E> graph,
+                               double[] costs, int[] parentHead, int[] parentNext) {
+        for (int v = 0; v < costs.length; v++) {
+            if (costs[v] == Double.MAX_VALUE) {
+                continue;
+            }
+            V vertex = graph.vertex(v);
+            result.costs.put(vertex, costs[v]);
+            if (parentHead[v] != NONE) {
+                Set<E> edges = new HashSet<>();
+                for (int e = parentHead[v]; e != NONE; e = parentNext[e]) {
+                    edges.add(graph.edge(e));
+                }
+                result.parents.put(vertex, edges);
+            }
+        }
+        result.buildPaths();
+    }
+
+    // Binding of a source graph to its compact copy.
+    private static final class CompactCopy<V extends Vertex, E extends Edge<V>> {
+        private final Graph<V, E> source;
+        private final CompactGraph<V, E> compact;
+
+        private CompactCopy(Graph<V, E> source, CompactGraph<V, E> compact) {
+            this.source = source;
+            this.compact = compact;
+        }
+    }
+
+}
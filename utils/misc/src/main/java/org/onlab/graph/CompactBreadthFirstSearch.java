@@ -0,0 +1,82 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.graph;
+
+import java.util.Arrays;
+
+/**
+ * Implementation of the BFS algorithm over the integer-indexed arrays of a
+ * {@link CompactGraph}, using an array-backed FIFO queue in place of the
+ * hashed frontier sets of {@link BreadthFirstSearch}.
+ */
+public class CompactBreadthFirstSearch<V extends Vertex, E extends Edge<V>>
+        extends AbstractCompactGraphPathSearch<V, E> {
+
+    @Override
+    public Result<V, E> search(Graph<V, E> graph, V src, V dst,
+                               EdgeWeight<V, E> weight, int maxPaths) {
+        checkArguments(graph, src, dst);
+
+        DefaultResult result = new DefaultResult(src, dst, maxPaths);
+        CompactGraph<V, E> g = compact(graph);
+
+        int n = g.vertexCount();
+        int source = g.index(src);
+        int target = dst == null ? NONE : g.index(dst);
+
+        double[] costs = new double[n];
+        Arrays.fill(costs, Double.MAX_VALUE);
+        int[] parentHead = new int[n];
+        Arrays.fill(parentHead, NONE);
+        int[] parentNext = new int[g.edgeCount()];
+
+        // Each vertex enters the queue at most once, so a flat array will do.
+        int[] queue = new int[n];
+        int head = 0;
+        int tail = 0;
+        costs[source] = 0.0;
+        queue[tail++] = source;
+
+        boolean reachedEnd = false;
+        while (!reachedEnd && head < tail) {
+            int vertex = queue[head++];
+            double cost = costs[vertex];
+
+            // Visit all egress edges of the current vertex.
+            for (int e = g.egressStart(vertex), end = g.egressEnd(vertex); e < end; e++) {
+                int next = g.edgeDst(e);
+                if (costs[next] == Double.MAX_VALUE) {
+                    // If this vertex has not been visited yet, update it.
+                    costs[next] = cost + (weight == null ? 1.0 : weight.weight(g.edge(e)));
+                    if (maxPaths != 0) {
+                        parentHead[next] = e;
+                        parentNext[e] = NONE;
+                    }
+                    // If we have reached our intended destination, bail.
+                    if (next == target) {
+                        reachedEnd = true;
+                        break;
+                    }
+                    queue[tail++] = next;
+                }
+            }
+        }
+
+        buildResult(result, g, costs, parentHead, parentNext);
+        return result;
+    }
+
+}
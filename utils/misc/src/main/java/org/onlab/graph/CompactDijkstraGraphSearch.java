@@ -0,0 +1,191 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.graph;
+
+import java.util.Arrays;
+
+/**
+ * Dijkstra shortest-path graph search algorithm capable of finding not just
+ * one, but all shortest paths between the source and destinations.
+ * <p>
+ * Unlike {@link DijkstraGraphSearch}, this implementation runs over the
+ * integer-indexed arrays of a {@link CompactGraph} and uses an indexed
+ * binary heap with decrease-key, yielding {@code O((V + E) log V)} searches
+ * with no per-relaxation allocations.
+ * </p>
+ */
+public class CompactDijkstraGraphSearch<V extends Vertex, E extends Edge<V>>
+        extends AbstractCompactGraphPathSearch<V, E> {
+
+    @Override
+    public Result<V, E> search(Graph<V, E> graph, V src, V dst,
+                               EdgeWeight<V, E> weight, int maxPaths) {
+        checkArguments(graph, src, dst);
+
+        DefaultResult result = new DefaultResult(src, dst, maxPaths);
+        CompactGraph<V, E> g = compact(graph);
+
+        int n = g.vertexCount();
+        int source = g.index(src);
+        int target = dst == null ? NONE : g.index(dst);
+
+        double[] costs = new double[n];
+        Arrays.fill(costs, Double.MAX_VALUE);
+        int[] parentHead = new int[n];
+        Arrays.fill(parentHead, NONE);
+        int[] parentCount = new int[n];
+        int[] parentNext = new int[g.edgeCount()];
+        boolean[] settled = new boolean[n];
+
+        // Cost to reach the source vertex is 0 of course.
+        costs[source] = 0.0;
+
+        // Use the min priority queue to progressively find each nearest
+        // vertex until we reach the desired destination, if one was given,
+        // or until we reach all possible destinations.
+        IndexedMinHeap minQueue = new IndexedMinHeap(costs);
+        minQueue.offer(source);
+        double threshold = samenessThreshold();
+
+        while (!minQueue.isEmpty()) {
+            int nearest = minQueue.poll();
+            settled[nearest] = true;
+            if (nearest == target) {
+                break;
+            }
+
+            // Relax all egress edges of the nearest vertex.
+            double cost = costs[nearest];
+            for (int e = g.egressStart(nearest), end = g.egressEnd(nearest); e < end; e++) {
+                double hopCost = weight == null ? 1.0 : weight.weight(g.edge(e));
+                if (hopCost < 0) {
+                    continue;
+                }
+
+                int v = g.edgeDst(e);
+                double oldCost = costs[v];
+                double newCost = cost + hopCost;
+                boolean relaxed = newCost < oldCost;
+                boolean same = Math.abs(newCost - oldCost) <= threshold;
+                if (!same && !relaxed) {
+                    continue;
+                }
+
+                costs[v] = newCost;
+                if (!same) {
+                    parentHead[v] = NONE;
+                    parentCount[v] = 0;
+                }
+                if (maxPaths == ALL_PATHS || parentCount[v] < maxPaths) {
+                    parentNext[e] = parentHead[v];
+                    parentHead[v] = e;
+                    parentCount[v]++;
+                }
+                if (relaxed && !settled[v]) {
+                    minQueue.offer(v);
+                }
+            }
+        }
+
+        // Now construct a set of paths from the results.
+        buildResult(result, g, costs, parentHead, parentNext);
+        return result;
+    }
+
+    // Binary min-heap of vertex indexes ordered by their current cost and
+    // supporting in-place decrease-key through a position index.
+    private static final class IndexedMinHeap {
+        private final double[] keys;
+        private final int[] heap;
+        private final int[] positions;
+        private int size = 0;
+
+        private IndexedMinHeap(double[] keys) {
+            this.keys = keys;
+            this.heap = new int[keys.length];
+            this.positions = new int[keys.length];
+            Arrays.fill(positions, NONE);
+        }
+
+        private boolean isEmpty() {
+            return size == 0;
+        }
+
+        // Inserts the vertex or, if already present, restores its position
+        // following a decrease of its key.
+        private void offer(int v) {
+            int i = positions[v];
+            if (i == NONE) {
+                i = size++;
+                heap[i] = v;
+                positions[v] = i;
+            }
+            siftUp(i);
+        }
+
+        private int poll() {
+            int top = heap[0];
+            positions[top] = NONE;
+            size--;
+            if (size > 0) {
+                heap[0] = heap[size];
+                positions[heap[0]] = 0;
+                siftDown(0);
+            }
+            return top;
+        }
+
+        private void siftUp(int i) {
+            int v = heap[i];
+            double key = keys[v];
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                int p = heap[parent];
+                if (keys[p] <= key) {
+                    break;
+                }
+                heap[i] = p;
+                positions[p] = i;
+                i = parent;
+            }
+            heap[i] = v;
+            positions[v] = i;
+        }
+
+        private void siftDown(int i) {
+            int v = heap[i];
+            double key = keys[v];
+            int half = size >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                int right = child + 1;
+                if (right < size && keys[heap[right]] < keys[heap[child]]) {
+                    child = right;
+                }
+                int c = heap[child];
+                if (key <= keys[c]) {
+                    break;
+                }
+                heap[i] = c;
+                positions[c] = i;
+                i = child;
+            }
+            heap[i] = v;
+            positions[v] = i;
+        }
+    }
+
+}
@@ -0,0 +1,344 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.graph;
+
+import com.google.common.collect.ImmutableSet;
+
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Immutable graph implemented using compressed-sparse-row adjacency arrays.
+ * <p>
+ * Vertexes are assigned dense integer indexes in the range
+ * {@code [0, vertexCount())} and edges are stored grouped by their source
+ * vertex, so that egress edges of vertex {@code v} occupy the edge index
+ * range {@code [egressStart(v), egressEnd(v))}. This allows path search
+ * algorithms to operate on primitive arrays rather than on hashed vertex
+ * and edge objects.
+ * </p>
+ *
+ * @param <V> vertex type
+ * @param <E> edge type
+ */
+public class CompactGraph<V extends Vertex, E extends Edge<V>>
+        implements Graph<V, E> {
+
+    private final Set<V> vertexSet;
+    private final Set<E> edgeSet;
+
+    private final Object[] vertexes;
+    private final Map<V, Integer> indexes;
+
+    // Egress adjacency; edges grouped by source vertex index
+    private final Object[] edges;
+    private final int[] egressOffsets;
+    private final int[] edgeSources;
+    private final int[] edgeTargets;
+
+    // Ingress adjacency; edge indexes grouped by destination vertex index
+    private final int[] ingressOffsets;
+    private final int[] ingressEdges;
+
+    /**
+     * Creates a graph comprising of the specified vertexes and edges.
+     *
+     * @param vertexes set of graph vertexes
+     * @param edges    set of graph edges
+     */
+    public CompactGraph(Set<V> vertexes, Set<E> edges) {
+        checkNotNull(vertexes, "Vertex set cannot be null");
+        checkNotNull(edges, "Edge set cannot be null");
+
+        // Make sure that all edge end-points are added as vertexes
+        ImmutableSet.Builder<V> actualVertexes = ImmutableSet.builder();
+        actualVertexes.addAll(vertexes);
+        for (E edge : edges) {
+            actualVertexes.add(edge.src());
+            actualVertexes.add(edge.dst());
+        }
+        this.vertexSet = actualVertexes.build();
+        this.edgeSet = ImmutableSet.copyOf(edges);
+
+        // Assign a dense index to each vertex.
+        int n = vertexSet.size();
+        this.vertexes = new Object[n];
+        this.indexes = new HashMap<>(n * 2);
+        int i = 0;
+        for (V vertex : vertexSet) {
+            this.vertexes[i] = vertex;
+            indexes.put(vertex, i++);
+        }
+
+        // Count the egress and ingress degree of each vertex.
+        int m = edgeSet.size();
+        this.egressOffsets = new int[n + 1];
+        this.ingressOffsets = new int[n + 1];
+        for (E edge : edgeSet) {
+            egressOffsets[indexes.get(edge.src()) + 1]++;
+            ingressOffsets[indexes.get(edge.dst()) + 1]++;
+        }
+        for (i = 0; i < n; i++) {
+            egressOffsets[i + 1] += egressOffsets[i];
+            ingressOffsets[i + 1] += ingressOffsets[i];
+        }
+
+        // Now place each edge into its source slot and its destination slot.
+        this.edges = new Object[m];
+        this.edgeSources = new int[m];
+        this.edgeTargets = new int[m];
+        this.ingressEdges = new int[m];
+        int[] egressFill = new int[n];
+        int[] ingressFill = new int[n];
+        for (E edge : edgeSet) {
+            int s = indexes.get(edge.src());
+            int d = indexes.get(edge.dst());
+            int e = egressOffsets[s] + egressFill[s]++;
+            this.edges[e] = edge;
+            edgeSources[e] = s;
+            edgeTargets[e] = d;
+            ingressEdges[ingressOffsets[d] + ingressFill[d]++] = e;
+        }
+    }
+
+    /**
+     * Returns a compact copy of the specified graph. If the graph is already
+     * a compact graph, it is returned as-is.
+     *
+     * @param graph graph to copy
+     * @param <V>   vertex type
+     * @param <E>   edge type
+     * @return compact graph
+     */
+    public static <V extends Vertex, E extends Edge<V>> CompactGraph<V, E> copyOf(Graph<V, E> graph) {
+        checkNotNull(graph, "Graph cannot be null");
+        if (graph instanceof CompactGraph) {
+            return (CompactGraph<V, E>) graph;
+        }
+        return new CompactGraph<>(graph.getVertexes(), graph.getEdges());
+    }
+
+    /**
+     * Returns the number of vertexes in the graph.
+     *
+     * @return vertex count
+     */
+    public int vertexCount() {
+        return vertexes.length;
+    }
+
+    /**
+     * Returns the number of edges in the graph.
+     *
+     * @return edge count
+     */
+    public int edgeCount() {
+        return edges.length;
+    }
+
+    /**
+     * Returns the index of the specified vertex.
+     *
+     * @param vertex vertex to look up
+     * @return vertex index; -1 if the vertex is not in the graph
+     */
+    public int index(V vertex) {
+        Integer index = indexes.get(vertex);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Returns the vertex with the specified index.
+     *
+     * @param index vertex index
+     * @return vertex
+     */
+    @SuppressWarnings("unchecked")
+    public V vertex(int index) {
+        return (V) vertexes[index];
+    }
+
+    /**
+     * Returns the edge with the specified index.
+     *
+     * @param index edge index
+     * @return edge
+     */
+    @SuppressWarnings("unchecked")
+    public E edge(int index) {
+        return (E) edges[index];
+    }
+
+    /**
+     * Returns the index of the source vertex of the specified edge.
+     *
+     * @param edge edge index
+     * @return source vertex index
+     */
+    public int edgeSrc(int edge) {
+        return edgeSources[edge];
+    }
+
+    /**
+     * Returns the index of the destination vertex of the specified edge.
+     *
+     * @param edge edge index
+     * @return destination vertex index
+     */
+    public int edgeDst(int edge) {
+        return edgeTargets[edge];
+    }
+
+    /**
+     * Returns the first index of the egress edges of the specified vertex.
+     *
+     * @param vertex vertex index
+     * @return first egress edge index, inclusive
+     */
+    public int egressStart(int vertex) {
+        return egressOffsets[vertex];
+    }
+
+    /**
+     * Returns the end index of the egress edges of the specified vertex.
+     *
+     * @param vertex vertex index
+     * @return last egress edge index, exclusive
+     */
+    public int egressEnd(int vertex) {
+        return egressOffsets[vertex + 1];
+    }
+
+    /**
+     * Returns the number of ingress edges of the specified vertex.
+     *
+     * @param vertex vertex index
+     * @return ingress degree
+     */
+    public int ingressDegree(int vertex) {
+        return ingressOffsets[vertex + 1] - ingressOffsets[vertex];
+    }
+
+    /**
+     * Returns the index of the i-th ingress edge of the specified vertex.
+     *
+     * @param vertex vertex index
+     * @param i      ordinal of the ingress edge; less than ingress degree
+     * @return edge index
+     */
+    public int ingressEdge(int vertex, int i) {
+        return ingressEdges[ingressOffsets[vertex] + i];
+    }
+
+    @Override
+    public Set<V> getVertexes() {
+        return vertexSet;
+    }
+
+    @Override
+    public Set<E> getEdges() {
+        return edgeSet;
+    }
+
+    @Override
+    public Set<E> getEdgesFrom(V src) {
+        int v = index(src);
+        return v < 0 ? ImmutableSet.of() : new EdgeSlice(null, egressOffsets[v], egressOffsets[v + 1]);
+    }
+
+    @Override
+    public Set<E> getEdgesTo(V dst) {
+        int v = index(dst);
+        return v < 0 ? ImmutableSet.of() : new EdgeSlice(ingressEdges, ingressOffsets[v], ingressOffsets[v + 1]);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj instanceof CompactGraph) {
+            CompactGraph that = (CompactGraph) obj;
+            return this.getClass() == that.getClass() &&
+                    Objects.equals(this.vertexSet, that.vertexSet) &&
+                    Objects.equals(this.edgeSet, that.edgeSet);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(vertexSet, edgeSet);
+    }
+
+    @Override
+    public String toString() {
+        return toStringHelper(this)
+                .add("vertexes", vertexSet)
+                .add("edges", edgeSet)
+                .toString();
+    }
+
+    // Read-only set view over a contiguous range of edge slots, either
+    // directly into the edge array or indirectly through an index array.
+    private final class EdgeSlice extends AbstractSet<E> {
+        private final int[] indirect;
+        private final int start;
+        private final int end;
+
+        private EdgeSlice(int[] indirect, int start, int end) {
+            this.indirect = indirect;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new Iterator<E>() {
+                private int i = start;
+
+                @Override
+                public boolean hasNext() {
+                    return i < end;
+                }
+
+                @Override
+                public E next() {
+                    if (i >= end) {
+                        throw new NoSuchElementException();
+                    }
+                    int e = indirect == null ? i : indirect[i];
+                    i++;
+                    return edge(e);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return end - start;
+        }
+    }
+
+}
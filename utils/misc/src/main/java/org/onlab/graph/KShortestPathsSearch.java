@@ -46,13 +46,14 @@ public class KShortestPathsSearch<V extends Vertex, E extends Edge<V>> extends A
         //The modified edge weight removes any need to modify the original graph
         InnerEdgeWeighter modifiedWeighter = new InnerEdgeWeighter(checkNotNull(weight));
         checkArgument(maxPaths > 0);
-        Graph<V, E> originalGraph = checkNotNull(graph);
+        Graph<V, E> originalGraph = CompactGraph.copyOf(checkNotNull(graph));
         //the result contains the set of eventual results
         InnerOrderedResult result = new InnerOrderedResult(src, dst, maxPaths);
         ArrayList<Path<V, E>> resultPaths = new ArrayList<>(maxPaths);
         ArrayList<Path<V, E>> potentialPaths = Lists.newArrayList();
 
-        DijkstraGraphSearch<V, E> dijkstraSearch = new DijkstraGraphSearch<>();
+        CompactDijkstraGraphSearch<V, E> dijkstraSearch = new CompactDijkstraGraphSearch<>();
+        dijkstraSearch.setSamenessThreshold(samenessThreshold());
         Set<Path<V, E>> dijkstraResults = dijkstraSearch.search(originalGraph, src, dst, modifiedWeighter, 1).paths();
         //Checks if the dst was reachable
         if (dijkstraResults.size() == 0) {
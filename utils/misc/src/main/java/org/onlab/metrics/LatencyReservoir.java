@@ -0,0 +1,254 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.metrics;
+
+import com.codahale.metrics.Reservoir;
+import com.codahale.metrics.Snapshot;
+
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Reservoir which counts values into a fixed set of log-linear buckets, in
+ * the manner of HdrHistogram. Each power of two is split into 32 buckets,
+ * so that quantiles are accurate to about 3% whatever the magnitude of the
+ * values, in constant memory. Recording a value increments a single atomic
+ * counter and never blocks, which makes the reservoir suited to timing hot
+ * paths.
+ * <p>
+ * Snapshots cover the values recorded since the start of the previous
+ * window, so that they reflect recent behaviour; windows are rolled over
+ * when a snapshot is taken, keeping the recording path free of clock reads.
+ * Should snapshots be taken less often than once a window, each one covers
+ * the values recorded since the one before.
+ * </p>
+ */
+public class LatencyReservoir implements Reservoir {
+
+    private static final int SUB_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+
+    private static final long DEFAULT_WINDOW_MS = TimeUnit.MINUTES.toMillis(1);
+
+    private final long windowMillis;
+
+    private volatile AtomicLongArray current = new AtomicLongArray(BUCKETS);
+    private volatile AtomicLongArray previous = new AtomicLongArray(BUCKETS);
+    private long windowStart = System.currentTimeMillis();
+
+    /**
+     * Creates a reservoir with windows of one minute.
+     */
+    public LatencyReservoir() {
+        this(DEFAULT_WINDOW_MS);
+    }
+
+    /**
+     * Creates a reservoir with windows of the given length.
+     *
+     * @param windowMillis window length in milliseconds
+     */
+    public LatencyReservoir(long windowMillis) {
+        this.windowMillis = windowMillis;
+    }
+
+    @Override
+    public int size() {
+        return getSnapshot().size();
+    }
+
+    @Override
+    public void update(long value) {
+        current.incrementAndGet(bucket(value));
+    }
+
+    @Override
+    public Snapshot getSnapshot() {
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            if (now - windowStart >= windowMillis) {
+                // The current window may hold values recorded just now, as
+                // values carry no time; only the previous window is dropped
+                previous = current;
+                current = new AtomicLongArray(BUCKETS);
+                windowStart = now;
+            }
+        }
+
+        AtomicLongArray recent = current;
+        AtomicLongArray older = previous;
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = recent.get(i) + older.get(i);
+        }
+        return new BucketSnapshot(counts);
+    }
+
+    // Index of the bucket holding the given value
+    static int bucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return value < 0 ? 0 : (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    // Smallest value held by the given bucket
+    static long lowerBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        return (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+    }
+
+    // Value reported for the given bucket, that in its middle
+    static long midpoint(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        return lowerBound(bucket) + ((1L << shift) >>> 1);
+    }
+
+    /**
+     * Snapshot of the bucket counts of a reservoir.
+     */
+    private static final class BucketSnapshot extends Snapshot {
+
+        private final long[] counts;
+        private final long count;
+        private final int first;
+        private final int last;
+
+        private BucketSnapshot(long[] counts) {
+            this.counts = counts;
+            long total = 0;
+            int lo = -1;
+            int hi = -1;
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > 0) {
+                    total += counts[i];
+                    lo = lo < 0 ? i : lo;
+                    hi = i;
+                }
+            }
+            this.count = total;
+            this.first = lo;
+            this.last = hi;
+        }
+
+        @Override
+        public double getValue(double quantile) {
+            if (quantile < 0.0 || quantile > 1.0 || Double.isNaN(quantile)) {
+                throw new IllegalArgumentException(quantile + " is not in [0..1]");
+            }
+            if (count == 0) {
+                return 0.0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantile * count));
+            long seen = 0;
+            for (int i = first; i <= last; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return midpoint(i);
+                }
+            }
+            return midpoint(last);
+        }
+
+        /**
+         * Returns the value of each non-empty bucket, in increasing order;
+         * individual values are not retained.
+         *
+         * @return bucket values
+         */
+        @Override
+        public long[] getValues() {
+            if (count == 0) {
+                return new long[0];
+            }
+            long[] values = new long[last - first + 1];
+            int n = 0;
+            for (int i = first; i <= last; i++) {
+                if (counts[i] > 0) {
+                    values[n++] = midpoint(i);
+                }
+            }
+            return Arrays.copyOf(values, n);
+        }
+
+        @Override
+        public int size() {
+            return (int) Math.min(count, Integer.MAX_VALUE);
+        }
+
+        @Override
+        public long getMax() {
+            return count == 0 ? 0 : midpoint(last);
+        }
+
+        @Override
+        public double getMean() {
+            if (count == 0) {
+                return 0.0;
+            }
+            double sum = 0;
+            for (int i = first; i <= last; i++) {
+                sum += (double) counts[i] * midpoint(i);
+            }
+            return sum / count;
+        }
+
+        @Override
+        public long getMin() {
+            return count == 0 ? 0 : midpoint(first);
+        }
+
+        @Override
+        public double getStdDev() {
+            if (count <= 1) {
+                return 0.0;
+            }
+            double mean = getMean();
+            double sum = 0;
+            for (int i = first; i <= last; i++) {
+                double diff = midpoint(i) - mean;
+                sum += counts[i] * diff * diff;
+            }
+            return Math.sqrt(sum / (count - 1));
+        }
+
+        @Override
+        public void dump(OutputStream output) {
+            try (PrintWriter out = new PrintWriter(
+                    new OutputStreamWriter(output, StandardCharsets.UTF_8))) {
+                for (int i = first; count > 0 && i <= last; i++) {
+                    if (counts[i] > 0) {
+                        out.printf("%d %d%n", midpoint(i), counts[i]);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -29,6 +29,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This class holds the Metrics registry for ONOS.
@@ -80,6 +81,11 @@ public class MetricsManager implements MetricsService {
      */
     private Set<MetricsReporter> reporters = Sets.newConcurrentHashSet();
 
+    /**
+     * Whether latency timers record what they time.
+     */
+    private volatile boolean latencyTimersEnabled = true;
+
     /**
      * Clears the internal state.
      */
@@ -183,6 +189,42 @@ public class MetricsManager implements MetricsService {
         return metricsRegistry.timer(name);
     }
 
+    /**
+     * Creates a Timer metric for timing a hot path, recording into a
+     * {@link LatencyReservoir}.
+     *
+     * @param component component the Timer is defined in
+     * @param feature feature the Timer is defined in
+     * @param metricName local name of the metric
+     * @return the created Timer Metric
+     */
+    @Override
+    public Timer createLatencyTimer(final MetricsComponent component,
+                                    final MetricsFeature feature,
+                                    final String metricName) {
+        final String name = generateName(component, feature, metricName);
+        try {
+            return metricsRegistry.register(name, new LatencyTimer());
+        } catch (IllegalArgumentException e) {
+            // Already registered, by another instance of the component
+            Metric metric = metricsRegistry.getMetrics().get(name);
+            if (metric instanceof Timer) {
+                return (Timer) metric;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Enables or disables latency timers, including those already handed
+     * out; disabled timers ignore what they are given to record.
+     *
+     * @param enabled true to have latency timers record
+     */
+    protected void setLatencyTimersEnabled(boolean enabled) {
+        this.latencyTimersEnabled = enabled;
+    }
+
     /**
      * Creates a Meter metric.
      *
@@ -346,4 +388,20 @@ public class MetricsManager implements MetricsService {
     public Map<String, Metric> getMetrics() {
         return metricsRegistry.getMetrics();
     }
+
+    // Timer recording into a latency reservoir while latency timers are
+    // enabled
+    private final class LatencyTimer extends Timer {
+
+        private LatencyTimer() {
+            super(new LatencyReservoir());
+        }
+
+        @Override
+        public void update(long duration, TimeUnit unit) {
+            if (latencyTimersEnabled) {
+                super.update(duration, unit);
+            }
+        }
+    }
 }
@@ -82,6 +82,22 @@ public interface MetricsService {
             MetricsFeature feature,
             String metricName);
 
+    /**
+     * Creates a Timer metric for timing a hot path. Such timers record into
+     * a lock-free {@link LatencyReservoir}, and may be disabled at any time,
+     * in which case they ignore what they are given to record.
+     *
+     * @param component component the Timer is defined in
+     * @param feature feature the Timer is defined in
+     * @param metricName local name of the metric
+     * @return the created Timer Metric
+     */
+    default Timer createLatencyTimer(MetricsComponent component,
+                                     MetricsFeature feature,
+                                     String metricName) {
+        return createTimer(component, feature, metricName);
+    }
+
     /**
      * Creates a Meter metric.
      *
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.graph;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.testing.EqualsTester;
+import org.junit.Test;
+
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of the compact graph implementation.
+ */
+public class CompactGraphTest {
+
+    private static final TestVertex A = new TestVertex("A");
+    private static final TestVertex B = new TestVertex("B");
+    private static final TestVertex C = new TestVertex("C");
+    private static final TestVertex D = new TestVertex("D");
+    private static final TestVertex E = new TestVertex("E");
+    private static final TestVertex F = new TestVertex("F");
+    private static final TestVertex G = new TestVertex("G");
+
+    private final Set<TestEdge> edges =
+            ImmutableSet.of(new TestEdge(A, B, 1), new TestEdge(B, C, 1),
+                            new TestEdge(C, D, 1), new TestEdge(D, A, 1),
+                            new TestEdge(B, D, 1));
+
+    @Test
+    public void equality() {
+        Set<TestVertex> vertexes = ImmutableSet.of(A, B, C, D, E, F);
+        Set<TestVertex> vertexes2 = ImmutableSet.of(A, B, C, D, E, F, G);
+
+        CompactGraph<TestVertex, TestEdge> graph = new CompactGraph<>(vertexes, edges);
+        CompactGraph<TestVertex, TestEdge> same = new CompactGraph<>(vertexes, edges);
+        CompactGraph<TestVertex, TestEdge> different = new CompactGraph<>(vertexes2, edges);
+
+        new EqualsTester()
+                .addEqualityGroup(graph, same)
+                .addEqualityGroup(different)
+                .testEquals();
+    }
+
+    @Test
+    public void basics() {
+        Set<TestVertex> vertexes = ImmutableSet.of(A, B, C, D, E, F);
+        CompactGraph<TestVertex, TestEdge> graph = new CompactGraph<>(vertexes, edges);
+        assertEquals("incorrect vertex count", 6, graph.getVertexes().size());
+        assertEquals("incorrect edge count", 5, graph.getEdges().size());
+
+        assertEquals("incorrect egress edge count", 1, graph.getEdgesFrom(A).size());
+        assertEquals("incorrect ingress edge count", 1, graph.getEdgesTo(A).size());
+        assertEquals("incorrect ingress edge count", 1, graph.getEdgesTo(C).size());
+        assertEquals("incorrect egress edge count", 2, graph.getEdgesFrom(B).size());
+        assertEquals("incorrect ingress edge count", 2, graph.getEdgesTo(D).size());
+        assertEquals("incorrect egress edge count", 0, graph.getEdgesFrom(G).size());
+        assertTrue("incorrect ingress edges", graph.getEdgesTo(D).contains(new TestEdge(B, D, 1)));
+    }
+
+    @Test
+    public void indexes() {
+        Set<TestVertex> vertexes = ImmutableSet.of(A, B, C, D, E, F);
+        CompactGraph<TestVertex, TestEdge> graph = new CompactGraph<>(vertexes, edges);
+        assertEquals("incorrect vertex count", 6, graph.vertexCount());
+        assertEquals("incorrect edge count", 5, graph.edgeCount());
+        assertEquals("incorrect index", -1, graph.index(G));
+
+        int b = graph.index(B);
+        assertSame("incorrect vertex", B, graph.vertex(b));
+        assertEquals("incorrect egress range", 2, graph.egressEnd(b) - graph.egressStart(b));
+        for (int e = graph.egressStart(b); e < graph.egressEnd(b); e++) {
+            assertEquals("incorrect edge source", b, graph.edgeSrc(e));
+            assertSame("incorrect edge destination", graph.edge(e).dst(), graph.vertex(graph.edgeDst(e)));
+        }
+
+        int d = graph.index(D);
+        assertEquals("incorrect ingress degree", 2, graph.ingressDegree(d));
+        for (int i = 0; i < graph.ingressDegree(d); i++) {
+            assertEquals("incorrect edge destination", d, graph.edgeDst(graph.ingressEdge(d, i)));
+        }
+    }
+
+    @Test
+    public void copy() {
+        AdjacencyListsGraph<TestVertex, TestEdge> graph =
+                new AdjacencyListsGraph<>(ImmutableSet.of(A, B, C, D), edges);
+        CompactGraph<TestVertex, TestEdge> copy = CompactGraph.copyOf(graph);
+        assertEquals("incorrect vertexes", graph.getVertexes(), copy.getVertexes());
+        assertEquals("incorrect edges", graph.getEdges(), copy.getEdges());
+        assertSame("compact graph should not be copied", copy, CompactGraph.copyOf(copy));
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.metrics;
+
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.Timer;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link LatencyReservoir}.
+ */
+public class LatencyReservoirTest {
+
+    @Test
+    public void buckets() {
+        for (long value : new long[]{0, 1, 31, 32, 33, 63, 64, 1000, 123_456_789L, Long.MAX_VALUE}) {
+            int bucket = LatencyReservoir.bucket(value);
+            long lower = LatencyReservoir.lowerBound(bucket);
+            assertTrue("value " + value + " below its bucket", lower <= value);
+            // Buckets span no more than 1/32 of their values
+            assertTrue("value " + value + " beyond its bucket", value - lower <= lower / 32);
+        }
+        assertEquals(0, LatencyReservoir.bucket(-5));
+    }
+
+    @Test
+    public void quantiles() {
+        LatencyReservoir reservoir = new LatencyReservoir();
+        for (long i = 1; i <= 10_000; i++) {
+            reservoir.update(i * 1000);
+        }
+        Snapshot snapshot = reservoir.getSnapshot();
+
+        assertEquals(10_000, snapshot.size());
+        assertEquals(5_000_000, snapshot.getMedian(), 5_000_000 * 0.04);
+        assertEquals(9_900_000, snapshot.get99thPercentile(), 9_900_000 * 0.04);
+        assertEquals(1000, snapshot.getMin(), 1000 * 0.04);
+        assertEquals(10_000_000, snapshot.getMax(), 10_000_000 * 0.04);
+        assertEquals(5_000_500, snapshot.getMean(), 5_000_500 * 0.04);
+    }
+
+    @Test
+    public void empty() {
+        Snapshot snapshot = new LatencyReservoir().getSnapshot();
+        assertEquals(0, snapshot.size());
+        assertEquals(0, snapshot.getMax());
+        assertEquals(0.0, snapshot.getMedian(), 0.0);
+        assertEquals(0, snapshot.getValues().length);
+    }
+
+    @Test
+    public void windows() throws InterruptedException {
+        LatencyReservoir reservoir = new LatencyReservoir(200);
+        reservoir.update(100);
+        assertEquals(1, reservoir.getSnapshot().size());
+
+        // Values are kept however long since the last snapshot, and are
+        // dropped once a window has passed since the one following them
+        Thread.sleep(500);
+        assertEquals(1, reservoir.getSnapshot().size());
+        reservoir.update(200);
+        assertEquals(2, reservoir.size());
+        Thread.sleep(250);
+        assertEquals(1, reservoir.size());
+    }
+
+    @Test
+    public void latencyTimers() {
+        MetricsManager metrics = new MetricsManager();
+        MetricsComponent component = metrics.registerComponent("Test");
+        MetricsFeature feature = component.registerFeature("latency");
+
+        Timer timer = metrics.createLatencyTimer(component, feature, "timer");
+        assertSame(timer, metrics.createLatencyTimer(component, feature, "timer"));
+
+        // Timers already handed out follow the setting
+        timer.update(1, TimeUnit.MILLISECONDS);
+        metrics.setLatencyTimersEnabled(false);
+        timer.update(1, TimeUnit.MILLISECONDS);
+        assertEquals(1, timer.getCount());
+        metrics.setLatencyTimersEnabled(true);
+        timer.update(1, TimeUnit.MILLISECONDS);
+        assertEquals(2, timer.getCount());
+    }
+}
@@ -23,10 +23,12 @@ import org.onosproject.net.device.DeviceService;
 import org.onosproject.rest.AbstractWebResource;
 
 import javax.ws.rs.DELETE;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import java.util.List;
@@ -46,15 +48,20 @@ public class DevicesWebResource extends AbstractWebResource {
     /**
      * Gets all infrastructure devices.
      * Returns array of all discovered infrastructure devices.
+     * Results may be paged by giving the number of leading devices to skip
+     * and the maximum number of devices to return.
      *
+     * @param offset number of leading devices to skip
+     * @param limit  maximum number of devices to return; 0 for no limit
      * @return 200 OK with a collection of devices
      * @onos.rsModel DevicesGet
      */
     @GET
     @Produces(MediaType.APPLICATION_JSON)
-    public Response getDevices() {
+    public Response getDevices(@DefaultValue("0") @QueryParam("offset") int offset,
+            @DefaultValue("0") @QueryParam("limit") int limit) {
         Iterable<Device> devices = get(DeviceService.class).getDevices();
-        return ok(encodeArray(Device.class, "devices", devices)).build();
+        return streamArray(Device.class, "devices", devices, offset, limit);
     }
 
     /**
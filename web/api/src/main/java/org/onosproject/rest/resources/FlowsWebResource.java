@@ -19,6 +19,8 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.ListMultimap;
 import org.onlab.util.ItemNotFoundException;
 import org.onosproject.app.ApplicationService;
@@ -33,6 +35,7 @@ import org.onosproject.rest.AbstractWebResource;
 
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
@@ -77,24 +80,26 @@ public class FlowsWebResource extends AbstractWebResource {
 
     /**
      * Gets all flow entries. Returns array of all flow rules in the system.
+     * Results may be paged by giving the number of leading flows to skip
+     * and the maximum number of flows to return.
      *
+     * @param offset number of leading flows to skip
+     * @param limit  maximum number of flows to return; 0 for no limit
      * @return 200 OK with a collection of flows
      * @onos.rsModel FlowEntries
      */
     @GET
     @Produces(MediaType.APPLICATION_JSON)
-    public Response getFlows() {
+    public Response getFlows(@DefaultValue("0") @QueryParam("offset") int offset,
+            @DefaultValue("0") @QueryParam("limit") int limit) {
         final Iterable<Device> devices = get(DeviceService.class).getDevices();
-        for (final Device device : devices) {
-            final Iterable<FlowEntry> flowEntries = service.getFlowEntries(device.id());
-            if (flowEntries != null) {
-                for (final FlowEntry entry : flowEntries) {
-                    flowsNode.add(codec(FlowEntry.class).encode(entry, this));
-                }
-            }
-        }
-
-        return ok(root).build();
+        // Flow entries of each device are only fetched as the response is written
+        final Iterable<FlowEntry> flowEntries = Iterables.concat(
+                Iterables.transform(devices, device -> {
+                    Iterable<FlowEntry> entries = service.getFlowEntries(device.id());
+                    return entries != null ? entries : ImmutableList.of();
+                }));
+        return streamArray(FlowEntry.class, FLOWS, flowEntries, offset, limit);
     }
 
     /**
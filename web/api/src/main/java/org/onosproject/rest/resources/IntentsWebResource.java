@@ -32,11 +32,13 @@ import org.slf4j.Logger;
 
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
@@ -70,16 +72,20 @@ public class IntentsWebResource extends AbstractWebResource {
     /**
      * Gets all intents.
      * Returns array containing all the intents in the system.
+     * Results may be paged by giving the number of leading intents to skip
+     * and the maximum number of intents to return.
      *
+     * @param offset number of leading intents to skip
+     * @param limit  maximum number of intents to return; 0 for no limit
      * @return 200 OK with array of all the intents in the system
      * @onos.rsModel Intents
      */
     @GET
     @Produces(MediaType.APPLICATION_JSON)
-    public Response getIntents() {
+    public Response getIntents(@DefaultValue("0") @QueryParam("offset") int offset,
+            @DefaultValue("0") @QueryParam("limit") int limit) {
         final Iterable<Intent> intents = get(IntentService.class).getIntents();
-        final ObjectNode root = encodeArray(Intent.class, "intents", intents);
-        return ok(root).build();
+        return streamArray(Intent.class, "intents", intents, offset, limit);
     }
 
     /**
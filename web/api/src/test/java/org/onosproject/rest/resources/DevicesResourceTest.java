@@ -38,7 +38,13 @@ import org.onosproject.net.device.DeviceService;
 
 import javax.ws.rs.NotFoundException;
 import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Scanner;
+import java.util.zip.GZIPInputStream;
 
 import static org.easymock.EasyMock.createMock;
 import static org.easymock.EasyMock.expect;
@@ -286,6 +292,67 @@ public class DevicesResourceTest extends ResourceTest {
         assertThat(jsonDevices, hasDevice(device3));
     }
 
+    /**
+     * Tests paging through the devices with offset and limit.
+     */
+    @Test
+    public void testDevicesPaged() {
+        Device device1 = device("dev1");
+        Device device2 = device("dev2");
+        Device device3 = device("dev3");
+
+        expect(mockDeviceService.getDevices())
+                .andReturn(ImmutableList.of(device1, device2, device3))
+                .anyTimes();
+
+        replay(mockDeviceService);
+
+        WebTarget wt = target();
+        String response = wt.path("devices").queryParam("limit", 2)
+                .request().get(String.class);
+        JsonObject result = Json.parse(response).asObject();
+        JsonArray jsonDevices = result.get("devices").asArray();
+        assertThat(jsonDevices.size(), is(2));
+        assertThat(jsonDevices, hasDevice(device1));
+        assertThat(jsonDevices, hasDevice(device2));
+        assertThat(result.get("next").asInt(), is(2));
+
+        response = wt.path("devices").queryParam("offset", 2).queryParam("limit", 2)
+                .request().get(String.class);
+        result = Json.parse(response).asObject();
+        jsonDevices = result.get("devices").asArray();
+        assertThat(jsonDevices.size(), is(1));
+        assertThat(jsonDevices, hasDevice(device3));
+        assertThat(result.names(), hasSize(1));
+    }
+
+    /**
+     * Tests that the devices are gzip-compressed if the client accepts it.
+     */
+    @Test
+    public void testDevicesGzip() throws IOException {
+        Device device1 = device("dev1");
+
+        expect(mockDeviceService.getDevices())
+                .andReturn(ImmutableList.of(device1))
+                .anyTimes();
+
+        replay(mockDeviceService);
+
+        WebTarget wt = target();
+        Response response = wt.path("devices").request()
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate").get();
+        assertThat(response.getHeaderString(HttpHeaders.CONTENT_ENCODING), is("gzip"));
+
+        try (InputStream in = new GZIPInputStream(response.readEntity(InputStream.class));
+             Scanner scanner = new Scanner(in, "UTF-8").useDelimiter("\\A")) {
+            JsonObject result = Json.parse(scanner.next()).asObject();
+            JsonArray jsonDevices = result.get("devices").asArray();
+            assertThat(jsonDevices.size(), is(1));
+            assertThat(jsonDevices, hasDevice(device1));
+        }
+    }
+
     /**
      * Tests the result of a rest api GET for a single device.
      */
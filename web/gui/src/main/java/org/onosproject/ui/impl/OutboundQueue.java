@@ -0,0 +1,137 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.ui.impl;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Bounded queue of serialized messages awaiting transmission to a GUI
+ * client. Messages which only update the state of an item, such as a device
+ * or the traffic highlights, replace a queued message of the same type for
+ * the same item, as long as no other message about that item has been
+ * queued since; the client is thus spared the intermediate states of items
+ * updated faster than it can consume them.
+ */
+final class OutboundQueue {
+
+    private final int capacity;
+    private final Deque<Entry> entries = new ArrayDeque<>();
+    // Most recently queued entry about each item
+    private final Map<String, Entry> latest = new HashMap<>();
+    private long coalesced;
+
+    /**
+     * Creates a queue holding up to the given number of messages.
+     *
+     * @param capacity maximum number of queued messages
+     */
+    OutboundQueue(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Queues a message.
+     *
+     * @param type     type of the message
+     * @param item     identity of the item the message is about; null if
+     *                 it is about no particular item
+     * @param coalesce true if the message only updates the state of the
+     *                 item and may thus replace a queued update
+     * @param text     serialized message
+     * @return false if the queue is full and the message was not queued
+     */
+    synchronized boolean add(String type, String item, boolean coalesce, String text) {
+        if (item != null && coalesce) {
+            Entry last = latest.get(item);
+            if (last != null && last.coalesce && last.type.equals(type)) {
+                last.text = text;
+                coalesced++;
+                return true;
+            }
+        }
+        if (entries.size() >= capacity) {
+            return false;
+        }
+
+        Entry entry = new Entry(type, item, coalesce, text);
+        entries.add(entry);
+        if (item != null) {
+            latest.put(item, entry);
+        }
+        return true;
+    }
+
+    /**
+     * Removes and returns the message at the head of the queue.
+     *
+     * @return serialized message; null if the queue is empty
+     */
+    synchronized String poll() {
+        Entry entry = entries.poll();
+        if (entry == null) {
+            return null;
+        }
+        if (entry.item != null && latest.get(entry.item) == entry) {
+            latest.remove(entry.item);
+        }
+        return entry.text;
+    }
+
+    /**
+     * Discards all queued messages.
+     */
+    synchronized void clear() {
+        entries.clear();
+        latest.clear();
+    }
+
+    /**
+     * Returns the number of queued messages.
+     *
+     * @return number of messages
+     */
+    synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the number of messages which replaced a queued message.
+     *
+     * @return number of coalesced messages
+     */
+    synchronized long coalesced() {
+        return coalesced;
+    }
+
+    // Queued message
+    private static final class Entry {
+        private final String type;
+        private final String item;
+        private final boolean coalesce;
+        private String text;
+
+        private Entry(String type, String item, boolean coalesce, String text) {
+            this.type = type;
+            this.item = item;
+            this.coalesce = coalesce;
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.ui.impl;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Message built once and sent to any number of GUI clients, which share its
+ * serialized form. The message must not be modified once built.
+ */
+final class SharedMessage {
+
+    private final ObjectNode message;
+    private volatile String text;
+
+    /**
+     * Creates a shared message.
+     *
+     * @param message message in the prescribed JSON format
+     */
+    SharedMessage(ObjectNode message) {
+        this.message = message;
+    }
+
+    /**
+     * Returns the message.
+     *
+     * @return JSON message
+     */
+    ObjectNode message() {
+        return message;
+    }
+
+    /**
+     * Returns the serialized message, serializing it on first use.
+     *
+     * @return message text
+     */
+    String text() {
+        String result = text;
+        if (result == null) {
+            result = message.toString();
+            text = result;
+        }
+        return result;
+    }
+}
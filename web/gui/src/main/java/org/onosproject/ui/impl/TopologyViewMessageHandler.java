@@ -18,6 +18,7 @@ package org.onosproject.ui.impl;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableSet;
 import org.onlab.osgi.ServiceDirectory;
 import org.onlab.util.AbstractAccumulator;
@@ -75,7 +76,10 @@ import java.util.Map;
 import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
 
 import static java.util.concurrent.Executors.newSingleThreadExecutor;
 import static org.onlab.util.Tools.groupedThreads;
@@ -162,7 +166,16 @@ public class TopologyViewMessageHandler extends TopologyViewMessageHandlerBase {
             (o1, o2) -> o1.id().toString().compareTo(o2.id().toString());
 
 
-    private final Timer timer = new Timer("onos-topology-view");
+    private final Timer timer = UiTimer.get();
+
+    // Messages describing events, built once for all sessions observing
+    // the events; entries go away along with the events themselves.
+    // Sessions still load the topology through their own requests and then
+    // follow these per-event messages: there is no shared snapshot of a
+    // topology epoch with deltas against it, as the client keeps no notion
+    // of epochs to resynchronize from.
+    private static final ConcurrentMap<Object, SharedMessage> EVENT_MESSAGES =
+            CacheBuilder.newBuilder().weakKeys().<Object, SharedMessage>build().asMap();
 
     private static final int MAX_EVENTS = 1000;
     private static final int MAX_BATCH_MS = 5000;
@@ -179,6 +192,8 @@ public class TopologyViewMessageHandler extends TopologyViewMessageHandlerBase {
     private final FlowRuleListener flowListener = new InternalFlowListener();
 
     private final Accumulator<Event> eventAccummulator = new InternalEventAccummulator();
+    // Sends the messages of the view; the listeners of the view are notified
+    // through it rather than on the event dispatching thread
     private final ExecutorService msgSender =
             newSingleThreadExecutor(groupedThreads("onos/gui", "msg-sender", log));
 
@@ -202,6 +217,7 @@ public class TopologyViewMessageHandler extends TopologyViewMessageHandlerBase {
     public void destroy() {
         cancelAllRequests();
         removeListeners();
+        msgSender.shutdown();
         super.destroy();
     }
 
@@ -626,6 +642,24 @@ public class TopologyViewMessageHandler extends TopologyViewMessageHandlerBase {
         sendMessage(highlightsMessage(highlights));
     }
 
+    // Sends a message shared with other sessions, reusing its serialized form
+    // where the connection allows
+    void sendMessage(SharedMessage message) {
+        UiConnection connection = connection();
+        if (connection instanceof UiWebSocket) {
+            ((UiWebSocket) connection).sendMessage(message);
+        } else {
+            sendMessage(message.message());
+        }
+    }
+
+    // Sends the message describing the event, building it only if no other
+    // session has done so already
+    private void sendEventMessage(Object event, Supplier<ObjectNode> builder) {
+        sendMessage(EVENT_MESSAGES.computeIfAbsent(
+                event, e -> new SharedMessage(builder.get())));
+    }
+
     // Subscribes for summary messages.
     private synchronized void requestSummary(long sid) {
         PropertyPanel pp = summmaryMessage(sid);
@@ -785,7 +819,12 @@ public class TopologyViewMessageHandler extends TopologyViewMessageHandlerBase {
     private class InternalClusterListener implements ClusterEventListener {
         @Override
         public void event(ClusterEvent event) {
-            msgSender.execute(() -> sendMessage(instanceMessage(event, null)));
+            sendEventMessage(event, () -> instanceMessage(event, null));
+        }
+
+        @Override
+        public Executor executor() {
+            return msgSender;
         }
     }
 
@@ -795,13 +834,17 @@ public class TopologyViewMessageHandler extends TopologyViewMessageHandlerBase {
     private class InternalMastershipListener implements MastershipListener {
         @Override
         public void event(MastershipEvent event) {
-            msgSender.execute(() -> {
-                sendAllInstances(UPDATE_INSTANCE);
-                Device device = deviceService.getDevice(event.subject());
-                if (device != null) {
-                    sendMessage(deviceMessage(new DeviceEvent(DEVICE_UPDATED, device)));
-                }
-            });
+            sendAllInstances(UPDATE_INSTANCE);
+            Device device = deviceService.getDevice(event.subject());
+            if (device != null) {
+                sendEventMessage(event, () -> deviceMessage(
+                        new DeviceEvent(DEVICE_UPDATED, device)));
+            }
+        }
+
+        @Override
+        public Executor executor() {
+            return msgSender;
         }
     }
 
@@ -812,11 +855,16 @@ public class TopologyViewMessageHandler extends TopologyViewMessageHandlerBase {
         @Override
         public void event(DeviceEvent event) {
             if (event.type() != PORT_STATS_UPDATED) {
-                msgSender.execute(() -> sendMessage(deviceMessage(event)));
-                msgSender.execute(traffic::pokeIntent);
+                sendEventMessage(event, () -> deviceMessage(event));
+                traffic.pokeIntent();
                 eventAccummulator.add(event);
             }
         }
+
+        @Override
+        public Executor executor() {
+            return msgSender;
+        }
     }
 
     // Link event listener.
@@ -825,10 +873,15 @@ public class TopologyViewMessageHandler extends TopologyViewMessageHandlerBase {
     private class InternalLinkListener implements LinkListener {
         @Override
         public void event(LinkEvent event) {
-            msgSender.execute(() -> sendMessage(composeLinkMessage(event)));
-            msgSender.execute(traffic::pokeIntent);
+            sendMessage(composeLinkMessage(event));
+            traffic.pokeIntent();
             eventAccummulator.add(event);
         }
+
+        @Override
+        public Executor executor() {
+            return msgSender;
+        }
     }
 
     // Host event listener.
@@ -837,10 +890,15 @@ public class TopologyViewMessageHandler extends TopologyViewMessageHandlerBase {
     private class InternalHostListener implements HostListener {
         @Override
         public void event(HostEvent event) {
-            msgSender.execute(() -> sendMessage(hostMessage(event)));
-            msgSender.execute(traffic::pokeIntent);
+            sendEventMessage(event, () -> hostMessage(event));
+            traffic.pokeIntent();
             eventAccummulator.add(event);
         }
+
+        @Override
+        public Executor executor() {
+            return msgSender;
+        }
     }
 
     // Intent event listener.
@@ -849,9 +907,14 @@ public class TopologyViewMessageHandler extends TopologyViewMessageHandlerBase {
     private class InternalIntentListener implements IntentListener {
         @Override
         public void event(IntentEvent event) {
-            msgSender.execute(traffic::pokeIntent);
+            traffic.pokeIntent();
             eventAccummulator.add(event);
         }
+
+        @Override
+        public Executor executor() {
+            return msgSender;
+        }
     }
 
     // Intent event listener.
@@ -862,6 +925,11 @@ public class TopologyViewMessageHandler extends TopologyViewMessageHandlerBase {
         public void event(FlowRuleEvent event) {
             eventAccummulator.add(event);
         }
+
+        @Override
+        public Executor executor() {
+            return msgSender;
+        }
     }
 
 
@@ -885,7 +953,7 @@ public class TopologyViewMessageHandler extends TopologyViewMessageHandlerBase {
     // Accumulates events to drive methodic update of the summary pane.
     private class InternalEventAccummulator extends AbstractAccumulator<Event> {
         protected InternalEventAccummulator() {
-            super(new Timer("topo-summary"), MAX_EVENTS, MAX_BATCH_MS, MAX_IDLE_MS);
+            super(UiTimer.get(), MAX_EVENTS, MAX_BATCH_MS, MAX_IDLE_MS);
         }
 
         @Override
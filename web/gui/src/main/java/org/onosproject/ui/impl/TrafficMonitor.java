@@ -64,11 +64,13 @@ import java.util.Map;
 import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.onosproject.net.DefaultEdgeLink.createEdgeLink;
 import static org.onosproject.ui.impl.TrafficMonitor.Mode.IDLE;
 import static org.onosproject.ui.impl.TrafficMonitor.Mode.RELATED_INTENTS;
 import static org.onosproject.ui.impl.TrafficMonitor.Mode.SELECTED_INTENT;
+import static org.onosproject.ui.topo.TopoJson.highlightsMessage;
 
 /**
  * Encapsulates the behavior of monitoring specific traffic patterns.
@@ -98,7 +100,12 @@ public class TrafficMonitor {
     private final TopologyViewMessageHandler msgHandler;
     private final TopoIntentFilter intentFilter;
 
-    private final Timer timer = new Timer("topo-traffic");
+    private final Timer timer = UiTimer.get();
+
+    // Summaries of all traffic, computed once for all sessions monitoring
+    // the same kind of traffic within a traffic period
+    private static final Map<StatsType, SharedSummary> SHARED_SUMMARIES =
+            new ConcurrentHashMap<>();
 
     private TimerTask trafficTask = null;
     private Mode mode = IDLE;
@@ -327,12 +334,12 @@ public class TrafficMonitor {
 
     private void sendAllFlowTraffic() {
         log.debug("sendAllFlowTraffic");
-        msgHandler.sendHighlights(trafficSummary(StatsType.FLOW_STATS));
+        msgHandler.sendMessage(sharedTrafficSummary(StatsType.FLOW_STATS));
     }
 
     private void sendAllPortTraffic() {
         log.debug("sendAllPortTraffic");
-        msgHandler.sendHighlights(trafficSummary(StatsType.PORT_STATS));
+        msgHandler.sendMessage(sharedTrafficSummary(StatsType.PORT_STATS));
     }
 
     private void sendDeviceLinkFlows() {
@@ -355,6 +362,28 @@ public class TrafficMonitor {
         msgHandler.sendHighlights(new Highlights());
     }
 
+    // Returns the summary of all traffic of the given kind, reusing the one
+    // computed by any session during most of the last traffic period.
+    private SharedMessage sharedTrafficSummary(StatsType type) {
+        long now = System.currentTimeMillis();
+        return SHARED_SUMMARIES.compute(type, (t, summary) ->
+                summary != null && now - summary.timestamp < trafficPeriod * 4 / 5 ?
+                        summary :
+                        new SharedSummary(now, new SharedMessage(
+                                highlightsMessage(trafficSummary(t))))).message;
+    }
+
+    // Traffic summary message and when it was computed
+    private static final class SharedSummary {
+        private final long timestamp;
+        private final SharedMessage message;
+
+        private SharedSummary(long timestamp, SharedMessage message) {
+            this.timestamp = timestamp;
+            this.message = message;
+        }
+    }
+
     // =======================================================================
     // === Generate messages in JSON object node format
 
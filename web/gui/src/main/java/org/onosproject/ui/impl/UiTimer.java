@@ -0,0 +1,53 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.ui.impl;
+
+import java.util.Timer;
+
+/**
+ * Timer shared by the GUI sessions for their periodic work, kept apart from
+ * the timer shared by the core so that neither holds up the other.
+ */
+final class UiTimer {
+
+    private static Timer timer;
+
+    private UiTimer() {
+    }
+
+    /**
+     * Returns the timer, creating it if need be.
+     *
+     * @return GUI timer
+     */
+    static synchronized Timer get() {
+        if (timer == null) {
+            timer = new Timer("onos-ui-timer", true);
+        }
+        return timer;
+    }
+
+    /**
+     * Cancels the timer along with all its tasks.
+     */
+    static synchronized void shutdown() {
+        if (timer != null) {
+            timer.cancel();
+            timer = null;
+        }
+    }
+}
@@ -17,10 +17,13 @@ package org.onosproject.ui.impl;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableSet;
 import org.eclipse.jetty.websocket.WebSocket;
 import org.onlab.osgi.ServiceDirectory;
 import org.onlab.osgi.ServiceNotFoundException;
+import org.onlab.util.SharedExecutors;
 import org.onosproject.cluster.ClusterService;
 import org.onosproject.cluster.ControllerNode;
 import org.onosproject.ui.GlyphConstants;
@@ -39,6 +42,8 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Web socket capable of interacting with the Web UI.
@@ -63,6 +68,16 @@ public class UiWebSocket
 
     private static final long MAX_AGE_MS = 30_000;
 
+    // Maximum number of messages awaiting transmission before the client
+    // is deemed unable to keep up and is disconnected
+    private static final int MAX_PENDING = 10_000;
+
+    // Unsolicited messages which only update the state of an item and may
+    // thus supersede one another while awaiting transmission
+    private static final Set<String> COALESCED = ImmutableSet.of(
+            "updateInstance", "updateDevice", "updateLink", "updateHost",
+            "showHighlights", "showSummary");
+
     private static final byte PING = 0x9;
     private static final byte PONG = 0xA;
     private static final byte[] PING_DATA = new byte[]{(byte) 0xde, (byte) 0xad};
@@ -71,7 +86,7 @@ public class UiWebSocket
     private final ServiceDirectory directory;
     private final UiTopoSession topoSession;
 
-    private Connection connection;
+    private volatile Connection connection;
     private FrameConnection control;
     private String userName;
     private String currentView;
@@ -81,6 +96,10 @@ public class UiWebSocket
     private Map<String, UiMessageHandler> handlers;
     private TopoOverlayCache overlayCache;
 
+    final OutboundQueue outbound = new OutboundQueue(MAX_PENDING);
+    private final AtomicBoolean sending = new AtomicBoolean();
+    private volatile boolean overrun = false;
+
     /**
      * Creates a new web-socket for serving data to the Web UI.
      *
@@ -213,20 +232,94 @@ public class UiWebSocket
     }
 
     @Override
-    public synchronized void sendMessage(ObjectNode message) {
+    public void sendMessage(ObjectNode message) {
+        send(message, message.toString());
+    }
+
+    /**
+     * Sends the specified shared message to the client, reusing its
+     * serialized form.
+     *
+     * @param message shared message
+     */
+    void sendMessage(SharedMessage message) {
+        send(message.message(), message.text());
+    }
+
+    // Queues the message for transmission by the sender task. Messages are
+    // serialized by the caller, outside of any lock held by this socket.
+    private void send(ObjectNode message, String text) {
+        Connection c = connection;
+        if (c == null || !c.isOpen() || overrun) {
+            return;
+        }
+
+        if (!enqueue(message, text)) {
+            overrun = true;
+            outbound.clear();
+            log.warn("GUI client of user <{}> is not keeping up; disconnecting",
+                     userName);
+            SharedExecutors.getPoolThreadExecutor().execute(this::close);
+            return;
+        }
+        log.debug("TX message: {}", message);
+        flush();
+    }
+
+    /**
+     * Queues the message for transmission. Every message about an item is
+     * keyed by the identity of the item, so that an update only replaces a
+     * queued update of that item if nothing else about the item, such as
+     * its removal, has been queued since.
+     *
+     * @param message message
+     * @param text    serialized message
+     * @return false if the outbound queue is full
+     */
+    boolean enqueue(ObjectNode message, String text) {
+        String type = message.path(EVENT).asText(UNKNOWN);
+        boolean coalesce = COALESCED.contains(type) && !message.has(SID);
+        JsonNode id = message.path(PAYLOAD).path(ID);
+        String item = id.isTextual() ? id.asText() : coalesce ? type : null;
+        return outbound.add(type, item, coalesce, text);
+    }
+
+    // Makes sure a sender task is draining the outbound queue.
+    private void flush() {
+        if (sending.compareAndSet(false, true)) {
+            SharedExecutors.getPoolThreadExecutor().execute(this::drain);
+        }
+    }
+
+    // Transmits queued messages, one at a time and in order.
+    private void drain() {
         try {
-            if (connection.isOpen()) {
-                connection.sendMessage(message.toString());
-                log.debug("TX message: {}", message);
+            String text = outbound.poll();
+            while (text != null) {
+                Connection c = connection;
+                if (c == null || !c.isOpen()) {
+                    outbound.clear();
+                    break;
+                }
+                try {
+                    c.sendMessage(text);
+                } catch (IOException e) {
+                    log.warn("Unable to send message to GUI due to {}", e.getMessage());
+                    log.debug("Boom!!!", e);
+                }
+                text = outbound.poll();
             }
-        } catch (IOException e) {
-            log.warn("Unable to send message {} to GUI due to {}", message, e);
-            log.debug("Boom!!!", e);
+        } finally {
+            sending.set(false);
+        }
+        // Pick up messages queued after the queue was found empty
+        if (outbound.size() > 0) {
+            flush();
         }
     }
 
     @Override
-    public synchronized void sendMessage(String type, long sid, ObjectNode payload) {
+    public void sendMessage(String type, long sid, ObjectNode payload) {
         ObjectNode message = mapper.createObjectNode();
         message.put(EVENT, type);
         if (sid > 0) {
@@ -15,11 +15,13 @@
  */
 package org.onosproject.ui.impl;
 
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.eclipse.jetty.websocket.WebSocket;
 import org.eclipse.jetty.websocket.WebSocketServlet;
 import org.onlab.osgi.DefaultServiceDirectory;
 import org.onlab.osgi.ServiceDirectory;
+import org.onosproject.ui.JsonUtils;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
@@ -56,6 +58,7 @@ public class UiWebSocketServlet extends WebSocketServlet {
             instance.sockets.clear();
             instance.pruner.cancel();
             instance.timer.cancel();
+            UiTimer.shutdown();
         }
     }
 
@@ -94,7 +97,8 @@ public class UiWebSocketServlet extends WebSocketServlet {
      */
     static void sendToAll(String type, ObjectNode payload) {
         if (instance != null) {
-            instance.sockets.forEach(ws -> ws.sendMessage(type, 0, payload));
+            SharedMessage message = sharedMessage(type, payload);
+            instance.sockets.forEach(ws -> ws.sendMessage(message));
         }
     }
 
@@ -107,11 +111,18 @@ public class UiWebSocketServlet extends WebSocketServlet {
      */
     static void sendToUser(String userName, String type, ObjectNode payload) {
         if (instance != null) {
+            SharedMessage message = sharedMessage(type, payload);
             instance.sockets.stream().filter(ws -> userName.equals(ws.userName()))
-                    .forEach(ws -> ws.sendMessage(type, 0, payload));
+                    .forEach(ws -> ws.sendMessage(message));
         }
     }
 
+    // Builds a message to be serialized once for all recipients.
+    private static SharedMessage sharedMessage(String type, ObjectNode payload) {
+        return new SharedMessage(JsonUtils.envelope(
+                type, payload != null ? payload : JsonNodeFactory.instance.objectNode()));
+    }
+
     // Task for pruning web-sockets that are idle.
     private class Pruner extends TimerTask {
         @Override
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.ui.impl;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link OutboundQueue}.
+ */
+public class OutboundQueueTest {
+
+    private static final String ADD = "addDevice";
+    private static final String UPDATE = "updateDevice";
+    private static final String REMOVE = "removeDevice";
+
+    @Test
+    public void coalesceUpdates() {
+        OutboundQueue queue = new OutboundQueue(10);
+        assertTrue(queue.add(ADD, "d1", false, "add-1"));
+        assertTrue(queue.add(UPDATE, "d1", true, "update-1a"));
+        assertTrue(queue.add(UPDATE, "d2", true, "update-2"));
+        assertTrue(queue.add(UPDATE, "d1", true, "update-1b"));
+
+        assertEquals(3, queue.size());
+        assertEquals(1, queue.coalesced());
+        assertEquals("add-1", queue.poll());
+        assertEquals("update-1b", queue.poll());
+        assertEquals("update-2", queue.poll());
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void keepOrderOfInterleavedMessages() {
+        OutboundQueue queue = new OutboundQueue(10);
+        queue.add(UPDATE, "d1", true, "update-1a");
+        queue.add(REMOVE, "d1", false, "remove-1");
+        queue.add(ADD, "d1", false, "add-1");
+        queue.add(UPDATE, "d1", true, "update-1b");
+
+        // The last update follows the removal and re-addition of the device
+        // and must not replace the first one
+        assertEquals(4, queue.size());
+        assertEquals("update-1a", queue.poll());
+        assertEquals("remove-1", queue.poll());
+        assertEquals("add-1", queue.poll());
+        assertEquals("update-1b", queue.poll());
+    }
+
+    @Test
+    public void noCoalescingIntoOtherMessages() {
+        OutboundQueue queue = new OutboundQueue(10);
+        queue.add(UPDATE, "d1", false, "reply-1");
+        queue.add(UPDATE, "d1", true, "update-1");
+        assertEquals(2, queue.size());
+        assertEquals("reply-1", queue.poll());
+        assertEquals("update-1", queue.poll());
+    }
+
+    @Test
+    public void noCoalescingOnceSent() {
+        OutboundQueue queue = new OutboundQueue(10);
+        queue.add(UPDATE, "d1", true, "update-1a");
+        assertEquals("update-1a", queue.poll());
+        queue.add(UPDATE, "d1", true, "update-1b");
+        assertEquals(1, queue.size());
+        assertEquals("update-1b", queue.poll());
+    }
+
+    @Test
+    public void bounded() {
+        OutboundQueue queue = new OutboundQueue(2);
+        assertTrue(queue.add(UPDATE, "d1", true, "update-1a"));
+        assertTrue(queue.add(ADD, null, false, "a"));
+        assertFalse(queue.add(ADD, null, false, "b"));
+        // Updates of queued items are still absorbed by a full queue
+        assertTrue(queue.add(UPDATE, "d1", true, "update-1b"));
+        assertEquals("update-1b", queue.poll());
+
+        queue.clear();
+        assertEquals(0, queue.size());
+        assertNull(queue.poll());
+    }
+}
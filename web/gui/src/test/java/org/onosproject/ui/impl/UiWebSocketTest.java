@@ -0,0 +1,122 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.ui.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.Before;
+import org.junit.Test;
+import org.onlab.osgi.ServiceDirectory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Unit tests for the queueing of messages by {@link UiWebSocket}.
+ */
+public class UiWebSocketTest extends AbstractUiImplTest {
+
+    private static final ServiceDirectory NO_SERVICES = new ServiceDirectory() {
+        @Override
+        public <T> T get(Class<T> serviceClass) {
+            return null;
+        }
+    };
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private UiWebSocket socket;
+
+    @Before
+    public void setUp() {
+        socket = new UiWebSocket(NO_SERVICES, "user");
+    }
+
+    private ObjectNode message(String type, String id, String state) {
+        ObjectNode message = mapper.createObjectNode().put("event", type);
+        message.putObject("payload").put("id", id).put("state", state);
+        return message;
+    }
+
+    private void enqueue(ObjectNode message) {
+        socket.enqueue(message, message.toString());
+    }
+
+    private void assertNext(ObjectNode message) {
+        assertEquals(message.toString(), socket.outbound.poll());
+    }
+
+    @Test
+    public void coalesceUpdatesOfSameDevice() {
+        ObjectNode update1a = message("updateDevice", "of:1", "a");
+        ObjectNode update2 = message("updateDevice", "of:2", "a");
+        ObjectNode update1b = message("updateDevice", "of:1", "b");
+        enqueue(update1a);
+        enqueue(update2);
+        enqueue(update1b);
+
+        assertEquals(2, socket.outbound.size());
+        assertNext(update1b);
+        assertNext(update2);
+        assertNull(socket.outbound.poll());
+    }
+
+    @Test
+    public void keepUpdatesAroundRemovalAndAddition() {
+        ObjectNode update1a = message("updateDevice", "of:1", "a");
+        ObjectNode remove = message("removeDevice", "of:1", "a");
+        ObjectNode add = message("addDevice", "of:1", "b");
+        ObjectNode update1b = message("updateDevice", "of:1", "c");
+        enqueue(update1a);
+        enqueue(remove);
+        enqueue(add);
+        enqueue(update1b);
+
+        assertEquals(4, socket.outbound.size());
+        assertNext(update1a);
+        assertNext(remove);
+        assertNext(add);
+        assertNext(update1b);
+    }
+
+    @Test
+    public void keepUpdatesAroundHostMove() {
+        ObjectNode update1a = message("updateHost", "h1", "a");
+        ObjectNode move = message("moveHost", "h1", "b");
+        ObjectNode update1b = message("updateHost", "h1", "c");
+        enqueue(update1a);
+        enqueue(move);
+        enqueue(update1b);
+
+        assertEquals(3, socket.outbound.size());
+        assertNext(update1a);
+        assertNext(move);
+        assertNext(update1b);
+    }
+
+    @Test
+    public void noCoalescingOfReplies() {
+        ObjectNode reply = message("updateDevice", "of:1", "a");
+        reply.put("sid", 1);
+        ObjectNode update = message("updateDevice", "of:1", "b");
+        enqueue(reply);
+        enqueue(update);
+
+        assertEquals(2, socket.outbound.size());
+        assertNext(reply);
+        assertNext(update);
+    }
+}